@@ -0,0 +1,40 @@
+-- =============================================
+-- Script: Agregar clave de estadística a pqrs
+-- Descripción: Fila de estadistica_pqrs_dia (fecha, estado, prioridad y
+--              tema) en la que está contada cada PQRS. La aplicación la lee
+--              con bloqueo al mover el conteo, así dos cambios simultáneos
+--              de la misma PQRS no descuentan dos veces la misma fila. Las
+--              escrituras normales de la PQRS no la tocan.
+-- Autor: Sistema PQRS
+-- =============================================
+
+USE [pqrs_db];
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.columns WHERE name = 'estadistica_fecha' AND object_id = OBJECT_ID('pqrs'))
+BEGIN
+    PRINT 'Agregando columnas de clave de estadística a pqrs...';
+
+    ALTER TABLE pqrs ADD
+        estadistica_fecha DATE NULL,
+        estadistica_estado VARCHAR(255) NULL,
+        estadistica_prioridad VARCHAR(255) NULL,
+        estadistica_id_tema BIGINT NULL;
+
+    PRINT 'Columnas de clave de estadística agregadas exitosamente.';
+END
+ELSE
+BEGIN
+    PRINT 'Las columnas de clave de estadística ya existen.';
+END
+GO
+
+-- Carga inicial: cada PQRS cuenta en la fila de sus valores actuales, igual
+-- que en la carga de estadistica_pqrs_dia
+UPDATE pqrs
+SET estadistica_fecha = CAST(fecha_ultima_actualizacion AS DATE),
+    estadistica_estado = estado_pqrs,
+    estadistica_prioridad = prioridad,
+    estadistica_id_tema = id_tema
+WHERE estadistica_fecha IS NULL AND fecha_ultima_actualizacion IS NOT NULL;
+GO
@@ -0,0 +1,49 @@
+-- =============================================
+-- Script: Agregar username normalizado a usuarios
+-- Descripción: Columna calculada con el username en minúsculas y con el
+--              dominio @mintrabajo.loc cuando no trae ninguno (la misma
+--              regla de CustomAuthenticationProvider.normalizeUsername),
+--              e índice para que el login resuelva al usuario con una sola
+--              búsqueda sin importar el formato en que lo escribió.
+-- Autor: Sistema PQRS
+-- =============================================
+
+USE [pqrs_db];
+GO
+
+SET ANSI_NULLS ON;
+SET QUOTED_IDENTIFIER ON;
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.columns WHERE name = 'username_normalizado' AND object_id = OBJECT_ID('usuarios'))
+BEGIN
+    PRINT 'Agregando columna usuarios.username_normalizado...';
+
+    ALTER TABLE usuarios ADD username_normalizado AS (
+        LOWER(LTRIM(RTRIM(username)))
+        + CASE WHEN CHARINDEX('@', username) > 0 THEN '' ELSE '@mintrabajo.loc' END
+    ) PERSISTED;
+
+    PRINT 'Columna usuarios.username_normalizado agregada exitosamente.';
+END
+ELSE
+BEGIN
+    PRINT 'La columna usuarios.username_normalizado ya existe.';
+END
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = 'IX_usuarios_username_normalizado' AND object_id = OBJECT_ID('usuarios'))
+BEGIN
+    PRINT 'Creando índice IX_usuarios_username_normalizado...';
+
+    -- No es único: pueden convivir registros antiguos como "jperez" y "jperez@mintrabajo.loc"
+    CREATE INDEX IX_usuarios_username_normalizado ON usuarios (username_normalizado);
+
+    PRINT 'Índice IX_usuarios_username_normalizado creado exitosamente.';
+END
+ELSE
+BEGIN
+    PRINT 'El índice IX_usuarios_username_normalizado ya existe.';
+END
+
+GO
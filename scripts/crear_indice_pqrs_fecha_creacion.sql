@@ -0,0 +1,27 @@
+-- =============================================
+-- Script: Crear índice de pqrs por fecha de creación
+-- Descripción: Índice de cobertura para el reporte por período
+--              (/api/pqrs/estadisticas/reportes), que recorre una sola vez
+--              el rango de fechas de creación leyendo estado, prioridad,
+--              tema y última actualización sin volver a la tabla.
+-- Autor: Sistema PQRS
+-- =============================================
+
+USE [pqrs_db];
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name='IX_pqrs_fecha_creacion' AND object_id = OBJECT_ID('pqrs'))
+BEGIN
+    PRINT 'Creando índice IX_pqrs_fecha_creacion...';
+
+    CREATE INDEX IX_pqrs_fecha_creacion ON pqrs (fecha_creacion)
+        INCLUDE (estado_pqrs, prioridad, id_tema, fecha_ultima_actualizacion);
+
+    PRINT 'Índice IX_pqrs_fecha_creacion creado exitosamente.';
+END
+ELSE
+BEGIN
+    PRINT 'El índice IX_pqrs_fecha_creacion ya existe.';
+END
+
+GO
@@ -0,0 +1,34 @@
+-- =============================================
+-- Script: Crear tabla archivo_adjunto
+-- Descripción: Metadatos (tipo MIME, tamaño, nombre original) de los
+--              archivos guardados en el directorio de uploads. La ruta es
+--              la misma que se guarda en seguimiento_pqrs.archivo_adjunto.
+-- Autor: Sistema PQRS
+-- =============================================
+
+USE [pqrs_db];
+GO
+
+IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='archivo_adjunto' AND xtype='U')
+BEGIN
+    PRINT 'Creando tabla archivo_adjunto...';
+
+    CREATE TABLE archivo_adjunto (
+        ruta VARCHAR(255) NOT NULL,
+        nombre_original NVARCHAR(255) NULL,
+        tipo_mime VARCHAR(100) NOT NULL,
+        tamano BIGINT NOT NULL,
+        fecha_creacion DATETIME NOT NULL DEFAULT GETDATE(),
+        hash CHAR(64) NULL,
+
+        CONSTRAINT PK_archivo_adjunto PRIMARY KEY (ruta)
+    );
+
+    PRINT 'Tabla archivo_adjunto creada exitosamente.';
+END
+ELSE
+BEGIN
+    PRINT 'La tabla archivo_adjunto ya existe.';
+END
+
+GO
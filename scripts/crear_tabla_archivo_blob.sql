@@ -0,0 +1,52 @@
+-- =============================================
+-- Script: Crear tabla archivo_blob
+-- Descripción: Almacén de adjuntos deduplicado por contenido. Cada blob se
+--              guarda una vez en uploads/cas/ab/cd/<sha-256> y las filas de
+--              archivo_adjunto lo referencian por hash. "referencias" cuenta
+--              esas filas; el recolector elimina los blobs que llegan a cero.
+-- Autor: Sistema PQRS
+-- =============================================
+
+USE [pqrs_db];
+GO
+
+IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='archivo_blob' AND xtype='U')
+BEGIN
+    PRINT 'Creando tabla archivo_blob...';
+
+    CREATE TABLE archivo_blob (
+        hash CHAR(64) NOT NULL,
+        tamano BIGINT NOT NULL,
+        referencias INT NOT NULL DEFAULT 0,
+        fecha_creacion DATETIME NOT NULL DEFAULT GETDATE(),
+        fecha_ultima_referencia DATETIME NOT NULL DEFAULT GETDATE(),
+
+        CONSTRAINT PK_archivo_blob PRIMARY KEY (hash)
+    );
+
+    CREATE INDEX IX_archivo_blob_referencias ON archivo_blob (referencias, fecha_ultima_referencia);
+
+    PRINT 'Tabla archivo_blob creada exitosamente.';
+END
+ELSE
+BEGIN
+    PRINT 'La tabla archivo_blob ya existe.';
+END
+
+GO
+
+-- Columna hash en archivo_adjunto (instalaciones creadas antes de este script)
+IF COL_LENGTH('archivo_adjunto', 'hash') IS NULL
+BEGIN
+    PRINT 'Agregando columna hash a archivo_adjunto...';
+    ALTER TABLE archivo_adjunto ADD hash CHAR(64) NULL;
+END
+
+GO
+
+IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name='IX_archivo_adjunto_hash')
+BEGIN
+    CREATE INDEX IX_archivo_adjunto_hash ON archivo_adjunto (hash, fecha_creacion);
+END
+
+GO
@@ -0,0 +1,60 @@
+-- =============================================
+-- Script: Crear tabla auditoria_acceso
+-- Descripción: Registro de cada petición atendida por los controladores
+--              (usuario, ruta, método, estado, duración y PQRS afectada).
+--              La llena EscritorAuditoria por lotes en segundo plano y se
+--              consulta desde /api/auditorias.
+-- Autor: Sistema PQRS
+-- =============================================
+
+USE [pqrs_db];
+GO
+
+IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='auditoria_acceso' AND xtype='U')
+BEGIN
+    PRINT 'Creando tabla auditoria_acceso...';
+
+    CREATE TABLE auditoria_acceso (
+        id_auditoria BIGINT IDENTITY(1,1) NOT NULL,
+        fecha DATETIME2 NOT NULL,
+        username NVARCHAR(150) NULL,
+        metodo VARCHAR(10) NOT NULL,
+        ruta NVARCHAR(400) NOT NULL,
+        handler VARCHAR(200) NULL,
+        estado_http INT NOT NULL,
+        duracion_ms INT NOT NULL,
+        id_pqrs BIGINT NULL,
+
+        CONSTRAINT PK_auditoria_acceso PRIMARY KEY (id_auditoria)
+    );
+
+    -- Consultas por fecha, por usuario y fecha, y por ruta (prefijo) y fecha
+    CREATE INDEX IX_auditoria_acceso_fecha ON auditoria_acceso (fecha);
+    CREATE INDEX IX_auditoria_acceso_usuario_fecha ON auditoria_acceso (username, fecha);
+    CREATE INDEX IX_auditoria_acceso_ruta_fecha ON auditoria_acceso (ruta, fecha);
+    -- Historial de una PQRS: solo las filas que la tienen
+    CREATE INDEX IX_auditoria_acceso_pqrs ON auditoria_acceso (id_pqrs, fecha) WHERE id_pqrs IS NOT NULL;
+
+    PRINT 'Tabla auditoria_acceso creada exitosamente.';
+END
+ELSE
+BEGIN
+    PRINT 'La tabla auditoria_acceso ya existe.';
+END
+
+GO
+
+-- Ruta privada de la consulta (@PermitirLectura en AuditoriaController).
+-- Se registra en el primer módulo activo; el permiso de lectura se asigna
+-- a los roles desde la administración de rutas.
+IF NOT EXISTS (SELECT 1 FROM rutas WHERE ruta = '/api/auditorias')
+BEGIN
+    INSERT INTO rutas (id_modulo, ruta, descripcion, estado, fecha_creacion, es_publica)
+    SELECT TOP 1 id_modulo, '/api/auditorias', 'Consulta de la auditoría de accesos', 1, GETDATE(), 0
+    FROM modulos WHERE estado = 1 ORDER BY id_modulo;
+    PRINT 'Ruta /api/auditorias registrada como PRIVADA';
+END
+ELSE
+    PRINT 'Ruta /api/auditorias ya existe';
+
+GO
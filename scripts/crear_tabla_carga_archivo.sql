@@ -0,0 +1,39 @@
+-- =============================================
+-- Script: Crear tabla carga_archivo
+-- Descripción: Cargas de adjuntos por bloques (reanudables). El contenido
+--              se arma en uploads/cargas/<id_carga>; al usarse en una
+--              solicitud o seguimiento se pasa a FileStorageService y la
+--              fila se elimina. Las cargas abandonadas se limpian solas.
+-- Autor: Sistema PQRS
+-- =============================================
+
+USE [pqrs_db];
+GO
+
+IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='carga_archivo' AND xtype='U')
+BEGIN
+    PRINT 'Creando tabla carga_archivo...';
+
+    CREATE TABLE carga_archivo (
+        id_carga VARCHAR(36) NOT NULL,
+        nombre_archivo NVARCHAR(255) NOT NULL,
+        tipo_mime VARCHAR(100) NULL,
+        tamano_total BIGINT NOT NULL,
+        tamano_bloque INT NOT NULL,
+        usuario VARCHAR(100) NULL,
+        estado VARCHAR(20) NOT NULL DEFAULT 'EN_CURSO',
+        fecha_creacion DATETIME NOT NULL DEFAULT GETDATE(),
+
+        CONSTRAINT PK_carga_archivo PRIMARY KEY (id_carga)
+    );
+
+    CREATE INDEX IX_carga_archivo_fecha ON carga_archivo (fecha_creacion);
+
+    PRINT 'Tabla carga_archivo creada exitosamente.';
+END
+ELSE
+BEGIN
+    PRINT 'La tabla carga_archivo ya existe.';
+END
+
+GO
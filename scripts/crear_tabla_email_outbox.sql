@@ -0,0 +1,43 @@
+-- =============================================
+-- Script: Crear tabla email_outbox
+-- Descripción: Cola transaccional de correos. Las notificaciones de PQRS se
+--              escriben aquí en la misma transacción y un proceso en segundo
+--              plano las envía con reintentos.
+-- Autor: Sistema PQRS
+-- =============================================
+
+USE [pqrs_db];
+GO
+
+IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='email_outbox' AND xtype='U')
+BEGIN
+    PRINT 'Creando tabla email_outbox...';
+
+    CREATE TABLE email_outbox (
+        id_email BIGINT IDENTITY(1,1) NOT NULL,
+        destinatario VARCHAR(320) NOT NULL,
+        asunto NVARCHAR(255) NOT NULL,
+        cuerpo NVARCHAR(MAX) NOT NULL,
+        es_html BIT NOT NULL DEFAULT 0,
+        estado VARCHAR(20) NOT NULL DEFAULT 'PENDIENTE',
+        intentos INT NOT NULL DEFAULT 0,
+        proximo_intento DATETIME2 NOT NULL,
+        ultimo_error NVARCHAR(1000) NULL,
+        fecha_creacion DATETIME2 NOT NULL DEFAULT GETDATE(),
+        fecha_envio DATETIME2 NULL,
+
+        CONSTRAINT PK_email_outbox PRIMARY KEY (id_email),
+        CONSTRAINT CK_email_outbox_estado CHECK (estado IN ('PENDIENTE', 'ENVIANDO', 'ENVIADO', 'FALLIDO'))
+    );
+
+    -- Consulta del despachador: pendientes vencidos en orden de llegada
+    CREATE INDEX IX_email_outbox_estado_proximo ON email_outbox (estado, proximo_intento, id_email);
+
+    PRINT 'Tabla email_outbox creada exitosamente.';
+END
+ELSE
+BEGIN
+    PRINT 'La tabla email_outbox ya existe.';
+END
+
+GO
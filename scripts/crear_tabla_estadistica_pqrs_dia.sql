@@ -0,0 +1,45 @@
+-- =============================================
+-- Script: Crear tabla estadistica_pqrs_dia
+-- Descripción: Conteos pre-agregados de PQRS por día de última
+--              actualización, estado, prioridad y tema para el tablero.
+--              La aplicación los mantiene en cada cambio y los reconcilia
+--              cada noche; este script hace la carga inicial.
+-- Autor: Sistema PQRS
+-- =============================================
+
+USE [pqrs_db];
+GO
+
+IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='estadistica_pqrs_dia' AND xtype='U')
+BEGIN
+    PRINT 'Creando tabla estadistica_pqrs_dia...';
+
+    CREATE TABLE estadistica_pqrs_dia (
+        id_estadistica BIGINT IDENTITY(1,1) NOT NULL,
+        fecha DATE NOT NULL,
+        estado VARCHAR(255) NULL,
+        prioridad VARCHAR(255) NULL,
+        id_tema BIGINT NULL,
+        cantidad BIGINT NOT NULL DEFAULT 0,
+
+        CONSTRAINT PK_estadistica_pqrs_dia PRIMARY KEY (id_estadistica)
+    );
+
+    CREATE INDEX IX_estadistica_pqrs_dia_fecha
+        ON estadistica_pqrs_dia (fecha, estado, prioridad, id_tema) INCLUDE (cantidad);
+
+    -- Carga inicial desde las PQRS existentes
+    INSERT INTO estadistica_pqrs_dia (fecha, estado, prioridad, id_tema, cantidad)
+    SELECT CAST(fecha_ultima_actualizacion AS DATE), estado_pqrs, prioridad, id_tema, COUNT(*)
+    FROM pqrs
+    WHERE fecha_ultima_actualizacion IS NOT NULL
+    GROUP BY CAST(fecha_ultima_actualizacion AS DATE), estado_pqrs, prioridad, id_tema;
+
+    PRINT 'Tabla estadistica_pqrs_dia creada exitosamente.';
+END
+ELSE
+BEGIN
+    PRINT 'La tabla estadistica_pqrs_dia ya existe.';
+END
+
+GO
@@ -0,0 +1,50 @@
+-- =============================================
+-- Script: Crear tabla radicado_secuencia
+-- Descripción: Contador de radicados por prefijo (AMIRL-YYYY-MM). La
+--              aplicación reserva bloques de secuenciales sobre esta tabla.
+-- Autor: Sistema PQRS
+-- =============================================
+
+USE [pqrs_db];
+GO
+
+IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='radicado_secuencia' AND xtype='U')
+BEGIN
+    PRINT 'Creando tabla radicado_secuencia...';
+
+    CREATE TABLE radicado_secuencia (
+        prefijo VARCHAR(20) NOT NULL,
+        ultimo_valor BIGINT NOT NULL,
+        fecha_actualizacion DATETIME NULL,
+
+        CONSTRAINT PK_radicado_secuencia PRIMARY KEY (prefijo)
+    );
+
+    PRINT 'Tabla radicado_secuencia creada exitosamente.';
+END
+ELSE
+BEGIN
+    PRINT 'La tabla radicado_secuencia ya existe.';
+END
+
+GO
+
+-- =============================================
+-- Inicializar el contador del mes en curso con el último radicado existente
+-- (la aplicación también lo hace al primer uso si la fila no existe)
+-- =============================================
+DECLARE @prefijo VARCHAR(20) = 'AMIRL-' + FORMAT(GETDATE(), 'yyyy-MM');
+
+IF NOT EXISTS (SELECT 1 FROM radicado_secuencia WHERE prefijo = @prefijo)
+BEGIN
+    INSERT INTO radicado_secuencia (prefijo, ultimo_valor, fecha_actualizacion)
+    SELECT @prefijo,
+           ISNULL(MAX(CAST(SUBSTRING(numero_radicado, LEN(@prefijo) + 2, 10) AS BIGINT)), 0),
+           GETDATE()
+    FROM pqrs
+    WHERE numero_radicado LIKE @prefijo + '-%';
+
+    PRINT 'Contador inicializado para ' + @prefijo;
+END
+
+GO
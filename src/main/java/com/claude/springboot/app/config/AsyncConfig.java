@@ -0,0 +1,146 @@
+package com.claude.springboot.app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Tareas programadas y pools de trabajo en segundo plano.
+ *
+ * Con {@code spring.threads.virtual.enabled=true} sobre Java 21 o superior,
+ * las tareas programadas corren en hilos virtuales y los pools de aquí
+ * también los usan (conservan su tamaño y su cola, que son el límite de
+ * trabajo simultáneo). Las peticiones solo pasan a hilos virtuales con el
+ * Tomcat embebido; desplegado como WAR depende del executor del conector en
+ * server.xml (ver DESPLIEGUE_WAR.md). En Java 17 la propiedad no tiene efecto.
+ */
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    private final Environment environment;
+
+    public AsyncConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Pool acotado para el envío de correos de la cola email_outbox. Si se
+     * llena, los correos esperan en la tabla al siguiente ciclo.
+     */
+    @Bean(name = "emailOutboxExecutor")
+    public ThreadPoolTaskExecutor emailOutboxExecutor(
+            @Value("${email.outbox.hilos:2}") int hilos,
+            @Value("${email.outbox.cola:20}") int capacidadCola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(capacidadCola);
+        executor.setThreadNamePrefix("email-outbox-");
+        usarHilosVirtuales(executor, "email-outbox-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Pool acotado para miniaturas y extracción de texto de adjuntos. Si la
+     * cola se llena la tarea se descarta: el derivado se genera al pedirlo.
+     */
+    @Bean(name = "adjuntosExecutor")
+    public ThreadPoolTaskExecutor adjuntosExecutor(
+            @Value("${adjuntos.procesamiento.hilos:2}") int hilos,
+            @Value("${adjuntos.procesamiento.cola:100}") int capacidadCola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(capacidadCola);
+        executor.setThreadNamePrefix("adjuntos-");
+        usarHilosVirtuales(executor, "adjuntos-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * Un solo hilo para el índice de búsqueda: las actualizaciones de una
+     * misma PQRS se aplican en el orden en que se confirmaron.
+     */
+    @Bean(name = "busquedaExecutor")
+    public ThreadPoolTaskExecutor busquedaExecutor(
+            @Value("${busqueda.indice.cola:1000}") int capacidadCola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(capacidadCola);
+        executor.setThreadNamePrefix("busqueda-");
+        usarHilosVirtuales(executor, "busqueda-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Pool acotado para comparar contraseñas con BCrypt en el login (por
+     * defecto un hilo por núcleo), para que una ráfaga de logins no acapare
+     * la CPU que necesitan las demás peticiones. Si la cola se llena el login
+     * falla de inmediato. Siempre con hilos de plataforma: el trabajo es de
+     * CPU y el tamaño del pool es justamente el límite.
+     */
+    @Bean(name = "bcryptExecutor")
+    public ThreadPoolTaskExecutor bcryptExecutor(
+            @Value("${login.bcrypt.hilos:0}") int hilos,
+            @Value("${login.bcrypt.cola:100}") int capacidadCola) {
+        int tamano = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(tamano);
+        executor.setMaxPoolSize(tamano);
+        executor.setQueueCapacity(capacidadCola);
+        executor.setThreadNamePrefix("bcrypt-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * Un hilo para escribir la auditoría de accesos por lotes. Con una sola
+     * tarea en cola basta: cada ejecución vacía todo el buffer.
+     */
+    @Bean(name = "auditoriaExecutor")
+    public ThreadPoolTaskExecutor auditoriaExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("auditoria-");
+        usarHilosVirtuales(executor, "auditoria-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    /**
+     * Un hilo para reservar por adelantado el siguiente bloque de radicados,
+     * fuera de la transacción de la petición que lo agota.
+     */
+    @Bean(name = "radicadoExecutor")
+    public ThreadPoolTaskExecutor radicadoExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("radicado-");
+        usarHilosVirtuales(executor, "radicado-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    private void usarHilosVirtuales(ThreadPoolTaskExecutor executor, String prefijo) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor(prefijo).getVirtualThreadFactory());
+        }
+    }
+}
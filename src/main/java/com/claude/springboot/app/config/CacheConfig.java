@@ -1,25 +1,93 @@
 package com.claude.springboot.app.config;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cachés con nombre respaldadas por Caffeine. Cada caché tiene su propio
+ * tamaño máximo y tiempo de expiración (especificación Caffeine, sobrescribible
+ * con {@code cache.spec.<nombre>}) y registra estadísticas, que Spring Boot
+ * publica en actuator como {@code cache.gets}, {@code cache.evictions}, etc.
+ *
+ * El administrador es transaccional: los {@code @CacheEvict} hechos dentro de
+ * una transacción se aplican al confirmarla, para que una lectura concurrente
+ * no vuelva a guardar el dato anterior.
+ */
+@Slf4j
 @Configuration
 @EnableCaching
-public class CacheConfig {
-    
+public class CacheConfig implements CachingConfigurer {
+
+    public static final String RUTAS = "rutas";
+    public static final String PERMISOS = "permisos";
+    public static final String TIPOS_DOCUMENTO = "tiposDocumento";
+    public static final String TEMAS_PQRS = "temasPqrs";
+    public static final String DASHBOARD = "dashboard";
+    public static final String REPORTES = "reportes";
+
+    private static final Map<String, String> SPECS_POR_DEFECTO = new LinkedHashMap<>();
+
+    static {
+        SPECS_POR_DEFECTO.put(RUTAS, "maximumSize=500,expireAfterWrite=10m");
+        SPECS_POR_DEFECTO.put(PERMISOS, "maximumSize=1000,expireAfterWrite=10m");
+        SPECS_POR_DEFECTO.put(TIPOS_DOCUMENTO, "maximumSize=100,expireAfterWrite=6h");
+        // Incluye área y responsables, que se editan desde otros módulos
+        SPECS_POR_DEFECTO.put(TEMAS_PQRS, "maximumSize=10,expireAfterWrite=10m");
+        // Foto del tablero: todos los usuarios ven la misma por unos segundos
+        SPECS_POR_DEFECTO.put(DASHBOARD, "maximumSize=10,expireAfterWrite=5s");
+        // Solo períodos cerrados; se invalidan al modificar una PQRS del período
+        SPECS_POR_DEFECTO.put(REPORTES, "maximumSize=200,expireAfterAccess=24h");
+    }
+
+    private final Environment environment;
+
+    public CacheConfig(Environment environment) {
+        this.environment = environment;
+    }
+
     @Bean
+    @Override
     public CacheManager cacheManager() {
+        List<Cache> caches = new ArrayList<>();
+        SPECS_POR_DEFECTO.forEach((nombre, specPorDefecto) -> {
+            String spec = environment.getProperty("cache.spec." + nombre, specPorDefecto);
+            log.info("Caché '{}' configurada con: {}", nombre, spec);
+            caches.add(new CaffeineCache(nombre, Caffeine.from(spec).recordStats().build()));
+        });
+
         SimpleCacheManager cacheManager = new SimpleCacheManager();
-        cacheManager.setCaches(Arrays.asList(
-            new ConcurrentMapCache("rutas"),
-            new ConcurrentMapCache("permisos")
-        ));
-        return cacheManager;
+        cacheManager.setCaches(caches);
+        cacheManager.initializeCaches();
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * Incluye el nombre del método en la clave: varios métodos sin parámetros
+     * comparten caché (p. ej. todos los tipos de documento y los activos) y con la
+     * clave por defecto colisionarían.
+     */
+    @Bean
+    @Override
+    public KeyGenerator keyGenerator() {
+        return (target, method, params) -> new SimpleKey(method.getName(), new SimpleKey(params));
     }
 }
@@ -0,0 +1,113 @@
+package com.claude.springboot.app.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Limita las conexiones entregadas a la vez al tamaño del pool. Con hilos
+ * virtuales no hay un máximo de hilos de Tomcat que frene las peticiones:
+ * cientos pueden pedir conexión al mismo tiempo y quedarse esperando en el
+ * pool hasta su timeout. Aquí esperan en una cola justa (FIFO) por un tiempo
+ * corto y, si no hay conexión, fallan pronto con
+ * {@link SQLTransientConnectionException}.
+ *
+ * El permiso se devuelve al cerrar la conexión (una sola vez aunque se
+ * cierre varias).
+ */
+public class ConexionesLimitadasDataSource extends DelegatingDataSource {
+
+    @FunctionalInterface
+    private interface ProveedorConexion {
+        Connection obtener() throws SQLException;
+    }
+
+    private final Semaphore permisos;
+    private final int maximo;
+    private final Duration espera;
+
+    public ConexionesLimitadasDataSource(DataSource destino, int maximo, Duration espera) {
+        super(destino);
+        this.permisos = new Semaphore(maximo, true);
+        this.maximo = maximo;
+        this.espera = espera;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return limitar(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return limitar(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    public int getDisponibles() {
+        return permisos.availablePermits();
+    }
+
+    public int getEnEspera() {
+        return permisos.getQueueLength();
+    }
+
+    private Connection limitar(ProveedorConexion proveedor) throws SQLException {
+        try {
+            if (!permisos.tryAcquire(espera.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("No hubo conexión disponible en " + espera.toMillis()
+                        + " ms (" + maximo + " en uso, " + permisos.getQueueLength() + " en espera)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido mientras esperaba una conexión", e);
+        }
+
+        try {
+            return devolverPermisoAlCerrar(proveedor.obtener());
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    private Connection devolverPermisoAlCerrar(Connection conexion) {
+        AtomicBoolean liberada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, metodo, argumentos) -> {
+                    switch (metodo.getName()) {
+                        case "equals":
+                            return proxy == argumentos[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if ("close".equals(metodo.getName()) && metodo.getParameterCount() == 0) {
+                        try {
+                            conexion.close();
+                        } finally {
+                            if (liberada.compareAndSet(false, true)) {
+                                permisos.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return metodo.invoke(conexion, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,46 @@
+package com.claude.springboot.app.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ajustes que solo aplican con hilos virtuales activos
+ * ({@code spring.threads.virtual.enabled=true} en Java 21 o superior).
+ */
+@Slf4j
+@Configuration
+public class HilosVirtualesConfig {
+
+    /**
+     * Pone {@link ConexionesLimitadasDataSource} delante del pool, con tantos
+     * permisos como conexiones tiene Hikari.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public static BeanPostProcessor guardiaConexiones(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConexionesLimitadasDataSource) {
+                    return bean;
+                }
+                int maximo = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                Duration espera = environment.getProperty("ejecucion.guardia-conexiones.espera", Duration.class,
+                        Duration.ofSeconds(5));
+                log.info("Hilos virtuales activos: '{}' entrega como máximo {} conexiones (espera {} ms)",
+                        beanName, maximo, espera.toMillis());
+                return new ConexionesLimitadasDataSource(dataSource, maximo, espera);
+            }
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package com.claude.springboot.app.config;
 
 import com.claude.springboot.app.security.interceptor.AuditoriaInterceptor;
+import com.claude.springboot.app.security.interceptor.PermisosInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -12,8 +13,13 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Autowired
     private AuditoriaInterceptor auditoriaInterceptor;
 
+    @Autowired
+    private PermisosInterceptor permisosInterceptor;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(auditoriaInterceptor);
+        // Después de la auditoría, para que también queden registrados los accesos denegados
+        registry.addInterceptor(permisosInterceptor);
     }
 }
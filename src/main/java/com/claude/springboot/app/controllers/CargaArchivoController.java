@@ -0,0 +1,105 @@
+package com.claude.springboot.app.controllers;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.claude.springboot.app.dto.IniciarCargaDTO;
+import com.claude.springboot.app.services.CargaArchivoService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Protocolo de carga reanudable de adjuntos grandes:
+ * <ol>
+ *   <li>{@code POST /api/uploads} con nombre, tipo y tamaño total;</li>
+ *   <li>{@code PUT /api/uploads/{idCarga}/bloques/{numero}} con el bloque como
+ *       {@code application/octet-stream};</li>
+ *   <li>{@code GET /api/uploads/{idCarga}} para conocer el offset tras un corte;</li>
+ *   <li>{@code POST /api/uploads/{idCarga}/completar}.</li>
+ * </ol>
+ * El {@code idCarga} se envía luego a {@code POST /api/pqrs} o
+ * {@code /api/pqrs/{id}/seguimiento} en lugar del archivo.
+ *
+ * Requiere usuario autenticado: cada carga reserva hasta
+ * {@code uploads.tamano-maximo} en disco durante {@code uploads.expiracion}.
+ * Las solicitudes anónimas ({@code /api/pqrs/publico}) no la usan: adjuntan
+ * el archivo en la misma petición.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+public class CargaArchivoController {
+
+    private final CargaArchivoService cargaArchivoService;
+
+    @PostMapping
+    public ResponseEntity<?> iniciar(@Valid @RequestBody IniciarCargaDTO dto) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(cargaArchivoService.iniciar(dto));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{idCarga}")
+    public ResponseEntity<?> consultar(@PathVariable String idCarga) {
+        try {
+            return ResponseEntity.ok(cargaArchivoService.consultar(idCarga));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping(value = "/{idCarga}/bloques/{numero}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> recibirBloque(
+            @PathVariable String idCarga,
+            @PathVariable int numero,
+            HttpServletRequest request) {
+        try {
+            // Se lee el cuerpo directamente, sin que el servlet lo acumule en memoria
+            return ResponseEntity.ok(cargaArchivoService.recibirBloque(
+                    idCarga, numero, request.getContentLengthLong(), request.getInputStream()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.warn("Bloque {} de la carga {} rechazado: {}", numero, idCarga, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{idCarga}/completar")
+    public ResponseEntity<?> completar(@PathVariable String idCarga) {
+        try {
+            return ResponseEntity.ok(cargaArchivoService.completar(idCarga));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{idCarga}")
+    public ResponseEntity<?> cancelar(@PathVariable String idCarga) {
+        try {
+            cargaArchivoService.finalizar(idCarga);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,48 +1,320 @@
 package com.claude.springboot.app.controllers;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import com.claude.springboot.app.services.FileStorageService;
+import com.claude.springboot.app.services.ProcesadorAdjuntos;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.net.MalformedURLException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Slf4j
 @RestController
 @RequestMapping("/api/files")
+@RequiredArgsConstructor
 public class FileController {
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    // Atributos con los que el conector NIO de Tomcat envía el archivo con sendfile
+    private static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+    // Los nombres son UUID y un archivo nunca se reescribe: el navegador puede reutilizarlo
+    private static final CacheControl CACHE_ARCHIVOS = CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate();
+
+    private static final String TEXTO_UTF8 = "text/plain;charset=UTF-8";
+    // Lo que suele tardar una miniatura o el texto de un PDF en el pool de adjuntos
+    private static final String SEGUNDOS_REINTENTO_DERIVADO = "2";
+
+    // Tipos que el navegador puede mostrar sin ejecutar nada; el resto se descarga siempre
+    private static final Set<String> TIPOS_INLINE = Set.of(
+            MediaType.APPLICATION_PDF_VALUE,
+            MediaType.IMAGE_PNG_VALUE,
+            MediaType.IMAGE_JPEG_VALUE,
+            MediaType.IMAGE_GIF_VALUE);
 
-    
+    private final FileStorageService fileStorageService;
+    private final ProcesadorAdjuntos procesadorAdjuntos;
+
+    /**
+     * Descarga un adjunto. Soporta peticiones condicionales (ETag /
+     * Last-Modified → 304) y rangos de bytes (206) para reanudar descargas y
+     * para visores de PDF que leen por partes. Con {@code inline=true} el
+     * navegador lo muestra en lugar de descargarlo, solo si es PDF, PNG, JPEG
+     * o GIF: el tipo lo declaró quien subió el archivo, así que si se pide en
+     * línea cualquier otro (HTML, SVG...) se envía como descarga
+     * {@code application/octet-stream} para que no se ejecute en el origen de
+     * la API. Las descargas normales conservan el tipo guardado.
+     */
     @GetMapping("/{year}/{month}/{day}/{filename:.+}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String year,
-                                              @PathVariable String month,
-                                              @PathVariable String day,
-                                              @PathVariable String filename) {
+    public void serveFile(@PathVariable String year,
+                          @PathVariable String month,
+                          @PathVariable String day,
+                          @PathVariable String filename,
+                          @RequestParam(defaultValue = "false") boolean inline,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        String rutaRelativa = Paths.get(year, month, day, filename).toString();
+        Path filePath;
+        try {
+            filePath = fileStorageService.resolverArchivo(rutaRelativa);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        enviarArchivo(filePath, () -> fileStorageService.obtenerTipoMime(rutaRelativa),
+                filename, inline, true, request, response);
+    }
+
+    /**
+     * Miniatura JPEG de una imagen o de la primera página de un PDF, para
+     * listar adjuntos sin descargar los originales. Si aún no existe se
+     * encola su generación y se responde 202 (503 si el pool está lleno).
+     */
+    @GetMapping("/{year}/{month}/{day}/{filename:.+}/thumb")
+    public void serveThumbnail(@PathVariable String year,
+                               @PathVariable String month,
+                               @PathVariable String day,
+                               @PathVariable String filename,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        String rutaRelativa = Paths.get(year, month, day, filename).toString();
+        ProcesadorAdjuntos.Derivado miniatura;
+        try {
+            miniatura = procesadorAdjuntos.solicitarMiniatura(rutaRelativa);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        enviarDerivado(miniatura, MediaType.IMAGE_JPEG_VALUE, filename + ".jpg", request, response);
+    }
+
+    /**
+     * Imagen reducida y recomprimida para verla en pantalla. Si el original
+     * es liviano (o aún no hay vista) se envía el original.
+     */
+    @GetMapping("/{year}/{month}/{day}/{filename:.+}/vista")
+    public void serveVista(@PathVariable String year,
+                           @PathVariable String month,
+                           @PathVariable String day,
+                           @PathVariable String filename,
+                           HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        String rutaRelativa = Paths.get(year, month, day, filename).toString();
+        Optional<Path> vista;
+        try {
+            vista = procesadorAdjuntos.obtenerVista(rutaRelativa);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        if (vista.isPresent()) {
+            enviarArchivo(vista.get(), () -> MediaType.IMAGE_JPEG_VALUE,
+                    filename + ".jpg", true, false, request, response);
+        } else {
+            serveFile(year, month, day, filename, true, request, response);
+        }
+    }
+
+    /** Texto extraído de un PDF; como la miniatura, 202 mientras se extrae. */
+    @GetMapping("/{year}/{month}/{day}/{filename:.+}/texto")
+    public void serveTexto(@PathVariable String year,
+                           @PathVariable String month,
+                           @PathVariable String day,
+                           @PathVariable String filename,
+                           HttpServletRequest request,
+                           HttpServletResponse response) throws IOException {
+        String rutaRelativa = Paths.get(year, month, day, filename).toString();
+        ProcesadorAdjuntos.Derivado texto;
+        try {
+            texto = procesadorAdjuntos.solicitarTexto(rutaRelativa);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        enviarDerivado(texto, TEXTO_UTF8, filename + ".txt", request, response);
+    }
+
+    private void enviarDerivado(ProcesadorAdjuntos.Derivado derivado,
+                                String tipoMime,
+                                String filename,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        switch (derivado.getEstado()) {
+            case LISTO -> enviarArchivo(derivado.getArchivo().orElseThrow(), () -> tipoMime,
+                    filename, true, false, request, response);
+            case PENDIENTE -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, SEGUNDOS_REINTENTO_DERIVADO);
+                response.setStatus(HttpServletResponse.SC_ACCEPTED);
+            }
+            case OCUPADO -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, SEGUNDOS_REINTENTO_DERIVADO);
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            }
+            case NO_DISPONIBLE -> response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    private void enviarArchivo(Path filePath,
+                               Supplier<String> tipoMime,
+                               String filename,
+                               boolean inline,
+                               boolean tipoDeclarado,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        BasicFileAttributes atributos;
         try {
-            Path filePath = Paths.get(uploadDir).resolve(Paths.get(year, month, day, filename)).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-            log.info("la url que se esta usando es: " +filePath.toUri());
-            if (resource.exists() && resource.isReadable()) {
-                return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
+            atributos = Files.readAttributes(filePath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!atributos.isRegularFile() || !Files.isReadable(filePath)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long tamano = atributos.size();
+        long ultimaModificacion = atributos.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(tamano) + "-" + Long.toHexString(ultimaModificacion) + "\"";
+
+        // El contenido nunca se interpreta con otro tipo ni corre scripts en este origen
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader("Content-Security-Policy", "sandbox");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_ARCHIVOS.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Responde 304 (con ETag y Last-Modified) si el cliente ya tiene esta versión
+        if (new ServletWebRequest(request, response).checkNotModified(etag, ultimaModificacion)) {
+            return;
+        }
+
+        String tipo = tipoMime.get();
+        // Solo se cambia el tipo cuando se pidió en línea uno que no es seguro;
+        // como descarga (con nosniff y sandbox) se conserva el tipo guardado
+        if (inline && tipoDeclarado && !esTipoInline(tipo)) {
+            tipo = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+            inline = false;
+        }
+        response.setContentType(tipo);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                (inline ? ContentDisposition.inline() : ContentDisposition.attachment())
+                        .filename(filename, StandardCharsets.UTF_8)
+                        .build()
+                        .toString());
+
+        long inicio = 0;
+        long fin = tamano - 1;
+        String rango = request.getHeader(HttpHeaders.RANGE);
+        if (rango != null && aplicaRango(request.getHeader(HttpHeaders.IF_RANGE), etag, ultimaModificacion)) {
+            try {
+                List<HttpRange> rangos = HttpRange.parseRanges(rango);
+                // Con varios rangos se atiende solo el primero (los visores piden uno a la vez)
+                HttpRange primero = rangos.get(0);
+                inicio = primero.getRangeStart(tamano);
+                fin = primero.getRangeEnd(tamano);
+                if (inicio > fin) {
+                    throw new IllegalArgumentException("Rango vacío");
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + tamano);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fin + "/" + tamano);
+        }
+
+        long longitud = tamano == 0 ? 0 : fin - inicio + 1;
+        response.setContentLengthLong(longitud);
+        if ("HEAD".equals(request.getMethod()) || longitud == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SOPORTADO))) {
+            // Tomcat copia del archivo al socket sin pasar por la JVM
+            request.setAttribute(SENDFILE_ARCHIVO, filePath.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIN, fin + 1);
+            return;
+        }
+
+        try (FileChannel canal = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            WritableByteChannel salida = Channels.newChannel(response.getOutputStream());
+            long posicion = inicio;
+            long restante = longitud;
+            while (restante > 0) {
+                long enviados = canal.transferTo(posicion, restante, salida);
+                if (enviados <= 0) {
+                    break;
+                }
+                posicion += enviados;
+                restante -= enviados;
             }
-        } catch (MalformedURLException e) {
-            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            // Lo normal es que el cliente haya cancelado la descarga
+            log.debug("Descarga interrumpida de {}: {}", filePath, e.getMessage());
+        }
+    }
+
+    private static boolean esTipoInline(String tipo) {
+        try {
+            MediaType mediaType = MediaType.parseMediaType(tipo);
+            return TIPOS_INLINE.contains(mediaType.getType() + "/" + mediaType.getSubtype());
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Con If-Range el rango solo se respeta si el archivo no cambió; si no,
+     * se envía completo.
+     */
+    private boolean aplicaRango(String ifRange, String etag, long ultimaModificacion) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            long fecha = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant().toEpochMilli();
+            return ultimaModificacion / 1000 <= fecha / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
         }
     }
 }
@@ -1,16 +1,20 @@
 package com.claude.springboot.app.controllers;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -32,16 +36,20 @@ import com.claude.springboot.app.dto.CrearSeguimientoDTO;
 import com.claude.springboot.app.dto.HistorialAsignacionDTO;
 import com.claude.springboot.app.dto.PqrsResponseDTO;
 import com.claude.springboot.app.dto.RespuestaSolicitanteDTO;
-import com.claude.springboot.app.repositories.PqrsRepository;
 import com.claude.springboot.app.security.annotations.PermitirActualizar;
 import com.claude.springboot.app.security.annotations.PermitirEscritura;
 import com.claude.springboot.app.security.annotations.PermitirLectura;
 
 import com.claude.springboot.app.security.service.UsuarioService;
+import com.claude.springboot.app.services.BusquedaPqrsService;
+import com.claude.springboot.app.services.CargaArchivoService;
+import com.claude.springboot.app.services.ExportacionPqrsService;
 import com.claude.springboot.app.services.FileStorageService;
 import com.claude.springboot.app.services.HistorialAsignacionService;
 import com.claude.springboot.app.services.PqrsService;
+import com.claude.springboot.app.services.ReportePqrsService;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -56,20 +64,25 @@ public class PqrsController {
     private final FileStorageService fileStorageService;
     private final HistorialAsignacionService historialService;
     private final UsuarioService usuarioService;
-    private final PqrsRepository pqrsRepository;
+    private final CargaArchivoService cargaArchivoService;
+    private final BusquedaPqrsService busquedaPqrsService;
+    private final ReportePqrsService reportePqrsService;
+    private final ExportacionPqrsService exportacionPqrsService;
+
+    private static final int MAX_TAMANO_CURSOR = 100;
 
     // Método para usuarios externos - JSON (compatibilidad hacia atrás)
     @PostMapping(value = "/publico", consumes = "application/json")
     public ResponseEntity<?> crearPqrsPublicoJson(@RequestBody CrearPqrsDTO dto) {
         log.info("Endpoint JSON - archivoAdjunto en DTO: {}", dto.getArchivoAdjunto());
-        
-        // Si hay un archivo en el JSON (como string), crear un mensaje informativo
-        if (dto.getArchivoAdjunto() != null && !dto.getArchivoAdjunto().trim().isEmpty()) {
-            log.warn("Archivo '{}' enviado como string en JSON. Para enviar archivos reales, use multipart/form-data", 
-                     dto.getArchivoAdjunto());
+        try {
+            return crearPqrsPublicoInterno(dto, null);
+        } finally {
+            // Si el adjunto se almacenó ya fue movido; si no, se borra el temporal
+            if (dto.getArchivoAdjunto() != null) {
+                dto.getArchivoAdjunto().descartar();
+            }
         }
-        
-        return crearPqrsPublicoInterno(dto, null);
     }
 
     // Método para usuarios externos - Multipart (con archivos)
@@ -125,7 +138,9 @@ public class PqrsController {
         }
     }
 
-    // Nuevo endpoint para usuarios registrados
+    // Nuevo endpoint para usuarios registrados. Como las cargas por bloques
+    // (/api/uploads) requieren sesión, el idCarga solo se acepta aquí y en los
+    // seguimientos, no en /publico
     @PostMapping
     @PermitirEscritura
     public ResponseEntity<?> crearPqrsUsuarioRegistrado(
@@ -133,15 +148,18 @@ public class PqrsController {
             @RequestParam("titulo") String titulo,
             @RequestParam("descripcion") String descripcion,
             @RequestParam("prioridad") String prioridad,
-            @RequestParam(value = "archivo", required = false) MultipartFile archivo) {
-        try {
-            PqrsResponseDTO response = pqrsService.crearPqrsUsuarioRegistrado(
-                idTema, titulo, descripcion, prioridad, archivo);
-            System.out.println("esta entrando: " + archivo);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+            @RequestParam(value = "archivo", required = false) MultipartFile archivo,
+            @RequestParam(value = "idCarga", required = false) String idCarga) {
+        return conAdjunto(archivo, idCarga, adjunto -> {
+            try {
+                PqrsResponseDTO response = pqrsService.crearPqrsUsuarioRegistrado(
+                    idTema, titulo, descripcion, prioridad, adjunto);
+                System.out.println("esta entrando: " + adjunto);
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
     }
 
     @PostMapping("/{id}/asignar")
@@ -162,14 +180,41 @@ public ResponseEntity<?> agregarSeguimiento(
         @PathVariable Long id,
         @RequestParam("comentario") String comentario,
         @RequestParam("esRespuestaFinal") boolean esRespuestaFinal,
-        @RequestParam(value = "archivo", required = false) MultipartFile archivo) {
-    try {
-        return ResponseEntity.ok(pqrsService.agregarSeguimiento(id, comentario, esRespuestaFinal, archivo));
-    } catch (Exception e) {
-        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-    }
+        @RequestParam(value = "archivo", required = false) MultipartFile archivo,
+        @RequestParam(value = "idCarga", required = false) String idCarga) {
+    return conAdjunto(archivo, idCarga, adjunto -> {
+        try {
+            return ResponseEntity.ok(pqrsService.agregarSeguimiento(id, comentario, esRespuestaFinal, adjunto));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    });
 }
 
+    // El adjunto puede llegar en la petición o como carga por bloques ya completada
+    // (/api/uploads); en ese caso la carga se elimina cuando la operación tiene éxito
+    private ResponseEntity<?> conAdjunto(MultipartFile archivo, String idCarga,
+            Function<MultipartFile, ResponseEntity<?>> operacion) {
+        if (idCarga == null || idCarga.isBlank()) {
+            return operacion.apply(archivo);
+        }
+        MultipartFile cargado;
+        try {
+            cargado = cargaArchivoService.obtenerArchivoCompleto(idCarga);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        ResponseEntity<?> respuesta = operacion.apply(cargado);
+        if (respuesta.getStatusCode().is2xxSuccessful()) {
+            try {
+                cargaArchivoService.finalizar(idCarga);
+            } catch (Exception e) {
+                log.warn("No se pudo eliminar la carga {}: {}", idCarga, e.getMessage());
+            }
+        }
+        return respuesta;
+    }
+
     @PutMapping("/{id}/estado/{nuevoEstado}")
     @PermitirActualizar
     public ResponseEntity<?> actualizarEstado(
@@ -207,9 +252,13 @@ public ResponseEntity<?> agregarSeguimiento(
     @GetMapping
     @PermitirLectura
     public ResponseEntity<?> listarTodos(
-            @PageableDefault(size = 10, sort = "idPqrs", direction = Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(size = 10, sort = "idPqrs", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(value = "view", required = false) String view) {
         try {
             log.info("Iniciando listado paginado de PQRS");
+            if (esVistaResumen(view)) {
+                return ResponseEntity.ok(pqrsService.listarResumen(pageable));
+            }
             Page<PqrsResponseDTO> paginatedResult = pqrsService.listarTodos(pageable);
             log.info("PQRS recuperadas exitosamente: {} de {}", paginatedResult.getNumberOfElements(), paginatedResult.getTotalElements());
             return ResponseEntity.ok(paginatedResult);
@@ -223,6 +272,70 @@ public ResponseEntity<?> agregarSeguimiento(
         }
     }
 
+    // view=summary devuelve solo las columnas de la grilla (PqrsResumenDTO), sin seguimientos
+    private boolean esVistaResumen(String view) {
+        return "summary".equalsIgnoreCase(view);
+    }
+
+    @GetMapping("/cursor")
+    @PermitirLectura
+    public ResponseEntity<?> listarTodosCursor(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "incluirTotal", defaultValue = "false") boolean incluirTotal) {
+        try {
+            return ResponseEntity.ok(pqrsService.listarResumenCursor(cursor, tamanoCursor(size), incluirTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al listar PQRS por cursor: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error al listar PQRS", "mensaje", e.getMessage()));
+        }
+    }
+
+    // Tamaño de página por cursor acotado entre 1 y MAX_TAMANO_CURSOR
+    private int tamanoCursor(int size) {
+        return Math.max(1, Math.min(size, MAX_TAMANO_CURSOR));
+    }
+
+    // Búsqueda de texto en título, descripción, seguimientos y adjuntos, con facetas
+    @GetMapping("/buscar")
+    @PermitirLectura
+    public ResponseEntity<?> buscar(
+            @RequestParam(value = "q", required = false) String texto,
+            @RequestParam(value = "estado", required = false) String estado,
+            @RequestParam(value = "prioridad", required = false) String prioridad,
+            @RequestParam(value = "tema", required = false) String tema,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size) {
+        try {
+            Map<String, String> filtros = new HashMap<>();
+            filtros.put("estado", estado);
+            filtros.put("prioridad", prioridad);
+            filtros.put("tema", tema);
+            return ResponseEntity.ok(busquedaPqrsService.buscar(texto, filtros, cursor, tamanoCursor(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al buscar PQRS: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error al buscar PQRS", "mensaje", e.getMessage()));
+        }
+    }
+
+    // Vuelve a construir el índice de búsqueda desde la base de datos (recuperación)
+    @PostMapping("/buscar/reconstruir")
+    @PermitirActualizar
+    public ResponseEntity<?> reconstruirIndiceBusqueda() {
+        try {
+            busquedaPqrsService.reconstruirEnSegundoPlano();
+            return ResponseEntity.accepted().body(Map.of("mensaje", "Reconstrucción del índice iniciada"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @GetMapping("/todos")
     @PermitirLectura
     public ResponseEntity<?> listarTodosSinPaginacion() {
@@ -253,8 +366,12 @@ public ResponseEntity<?> agregarSeguimiento(
     @GetMapping("/mis-pqrs")
     @PermitirLectura
     public ResponseEntity<?> listarPqrsUsuario(
-            @PageableDefault(size = 10, sort = "idPqrs", direction = org.springframework.data.domain.Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(size = 10, sort = "idPqrs", direction = org.springframework.data.domain.Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(value = "view", required = false) String view) {
         try {
+            if (esVistaResumen(view)) {
+                return ResponseEntity.ok(pqrsService.listarResumenUsuario(pageable));
+            }
             Page<com.claude.springboot.app.dto.PqrsResponseDTO> paginatedResult = pqrsService.listarPqrsUsuario(pageable);
             return ResponseEntity.ok(paginatedResult);
         } catch (Exception e) {
@@ -262,6 +379,81 @@ public ResponseEntity<?> agregarSeguimiento(
         }
     }
 
+    @GetMapping("/mis-pqrs/cursor")
+    @PermitirLectura
+    public ResponseEntity<?> listarPqrsUsuarioCursor(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "incluirTotal", defaultValue = "false") boolean incluirTotal) {
+        try {
+            return ResponseEntity.ok(pqrsService.listarResumenUsuarioCursor(cursor, tamanoCursor(size), incluirTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al listar PQRS del usuario por cursor: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error al listar PQRS", "mensaje", e.getMessage()));
+        }
+    }
+
+    /**
+     * Exporta a CSV o Excel las PQRS que cumplen los filtros, escribiendo
+     * mientras se leen. Para descargas masivas en lugar de /todos.
+     */
+    @GetMapping("/exportar")
+    @PermitirLectura
+    public void exportar(
+            @RequestParam(defaultValue = "csv") String formato,
+            @RequestParam(required = false) LocalDateTime fechaInicio,
+            @RequestParam(required = false) LocalDateTime fechaFin,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Long idTema,
+            HttpServletResponse response) throws IOException {
+        ExportacionPqrsService.Formato tipo;
+        try {
+            tipo = ExportacionPqrsService.Formato.desde(formato);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        // El turno se toma antes de abrir la transacción de la exportación
+        ExportacionPqrsService.Turno turno;
+        try {
+            turno = exportacionPqrsService.tomarTurno();
+        } catch (IllegalStateException e) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+            return;
+        }
+
+        String nombre = "pqrs-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmm"))
+                + "." + tipo.getExtension();
+        try (turno) {
+            response.setContentType(tipo.getContentType());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename(nombre).build().toString());
+            exportacionPqrsService.exportar(turno, tipo, fechaInicio, fechaFin, estado, idTema, response.getOutputStream());
+        } catch (IllegalArgumentException e) {
+            enviarErrorExportacion(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            // Lo normal es que el cliente haya cancelado la descarga
+            log.debug("Exportación interrumpida: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Quita los encabezados de descarga ya puestos antes de responder el
+     * error; si ya se empezó a enviar el archivo no queda nada que hacer.
+     */
+    private void enviarErrorExportacion(HttpServletResponse response, int estado, String mensaje) throws IOException {
+        if (response.isCommitted()) {
+            log.warn("No se pudo informar el error de la exportación, la respuesta ya se envió: {}", mensaje);
+            return;
+        }
+        response.reset();
+        response.sendError(estado, mensaje);
+    }
+
     @GetMapping("/mis-pqrs-todos")
     @PermitirLectura
     public ResponseEntity<?> listarTodosPqrsUsuario() {
@@ -276,8 +468,12 @@ public ResponseEntity<?> agregarSeguimiento(
     @GetMapping("/sin-asignar")
     @PermitirLectura
     public ResponseEntity<?> listarPqrsSinAsignar(
-            @PageableDefault(size = 10, sort = "idPqrs", direction = Sort.Direction.DESC) Pageable pageable) {
+            @PageableDefault(size = 10, sort = "idPqrs", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(value = "view", required = false) String view) {
         try {
+            if (esVistaResumen(view)) {
+                return ResponseEntity.ok(pqrsService.listarResumenSinAsignar(pageable));
+            }
             Page<PqrsResponseDTO> paginatedResult = pqrsService.listarPqrsSinAsignar(pageable);
             return ResponseEntity.ok(paginatedResult);
         } catch (Exception e) {
@@ -285,6 +481,23 @@ public ResponseEntity<?> agregarSeguimiento(
         }
     }
 
+    @GetMapping("/sin-asignar/cursor")
+    @PermitirLectura
+    public ResponseEntity<?> listarPqrsSinAsignarCursor(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "incluirTotal", defaultValue = "false") boolean incluirTotal) {
+        try {
+            return ResponseEntity.ok(pqrsService.listarResumenSinAsignarCursor(cursor, tamanoCursor(size), incluirTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al listar PQRS sin asignar por cursor: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error al listar PQRS sin asignar", "mensaje", e.getMessage()));
+        }
+    }
+
     @GetMapping("/sin-asignar-todos")
     @PermitirLectura
     public ResponseEntity<?> listarTodosPqrsSinAsignar() {
@@ -392,57 +605,18 @@ public ResponseEntity<?> agregarSeguimiento(
 
     @GetMapping("/estadisticas/reportes")
     @PermitirLectura
-    public ResponseEntity<Map<String, Object>> getReportes(
-    @RequestParam LocalDateTime fechaInicio,
-    @RequestParam LocalDateTime fechaFin) {
-    
-    Map<String, Object> report = new HashMap<>();
-    
-    // Total PQRS en el período
-    Long totalPqrs = pqrsRepository.countByFechaCreacionBetween(fechaInicio, fechaFin);
-    report.put("totalPqrs", totalPqrs);
-    
-    // PQRS por estado
-    List<Object[]> porEstado = pqrsRepository.countByEstadoFechas(fechaInicio, fechaFin);
-    report.put("porEstado", porEstado.stream()
-        .map(row -> Map.of(
-            "estado", row[0],
-            "cantidad", row[1]
-        ))
-        .collect(Collectors.toList()));
-    
-    // PQRS por prioridad
-    List<Object[]> porPrioridad = pqrsRepository.countByPrioridadFechas(fechaInicio, fechaFin);
-    report.put("porPrioridad", porPrioridad.stream()
-        .map(row -> Map.of(
-            "prioridad", row[0],
-            "cantidad", row[1]
-        ))
-        .collect(Collectors.toList()));
-    
-    // PQRS por tema
-    List<Object[]> porTema = pqrsRepository.countByTemaFechas(fechaInicio, fechaFin);
-    report.put("porArea", porTema.stream()
-        .map(row -> Map.of(
-            "area", row[0],
-            "cantidad", row[1]
-        ))
-        .collect(Collectors.toList()));
-    
-    // Tiempo promedio de respuesta
-    Double tiempoPromedio = pqrsRepository.getAverageResponseTime(fechaInicio, fechaFin);
-    report.put("tiempoPromedio", tiempoPromedio != null ? tiempoPromedio : 0);
-    
-    // Tendencia mensual
-    List<Object[]> tendencia = pqrsRepository.getTendenciaMensual(fechaInicio, fechaFin);
-    report.put("tendenciaMensual", tendencia.stream()
-        .map(row -> Map.of(
-            "mes", row[0],
-            "cantidad", row[1]
-        ))
-        .collect(Collectors.toList()));
-    
-    return ResponseEntity.ok(report);
+    public ResponseEntity<?> getReportes(
+            @RequestParam LocalDateTime fechaInicio,
+            @RequestParam LocalDateTime fechaFin) {
+        try {
+            return ResponseEntity.ok(reportePqrsService.generar(fechaInicio, fechaFin));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error al generar el reporte de PQRS: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Error al generar el reporte"));
+        }
     }
 
 
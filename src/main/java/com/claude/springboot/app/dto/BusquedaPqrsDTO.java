@@ -0,0 +1,20 @@
+package com.claude.springboot.app.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de /api/pqrs/buscar: una página por cursor, ordenada por
+ * relevancia, y el conteo de todos los resultados por estado, prioridad y
+ * tema ({@code facetas.estado.PENDIENTE = 12}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusquedaPqrsDTO {
+    private CursorPageDTO<PqrsResumenDTO> resultados;
+    private Map<String, Map<String, Long>> facetas;
+}
@@ -0,0 +1,21 @@
+package com.claude.springboot.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado de una carga por bloques. {@code offset} es la cantidad de bytes ya
+ * recibidos: el siguiente bloque a enviar es {@code offset / tamanoBloque}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CargaArchivoDTO {
+    private String idCarga;
+    private String nombreArchivo;
+    private Long tamanoTotal;
+    private Integer tamanoBloque;
+    private Long offset;
+    private boolean completa;
+}
@@ -7,6 +7,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonProperty.Access;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.claude.springboot.app.utils.AdjuntoBase64;
+import com.claude.springboot.app.utils.AdjuntoBase64Deserializer;
 
 @Data
 @NoArgsConstructor
@@ -29,7 +32,9 @@ public class CrearPqrsDTO {
     private String descripcion;
     private String prioridad;
     
-    // Campo para compatibilidad con frontend - acepta en JSON pero no se serializa
+    // Campo para compatibilidad con frontend - acepta en JSON pero no se serializa.
+    // El base64 se decodifica a un archivo temporal mientras se lee el JSON
     @JsonProperty(access = Access.WRITE_ONLY)
-    private String archivoAdjunto;
+    @JsonDeserialize(using = AdjuntoBase64Deserializer.class)
+    private AdjuntoBase64 archivoAdjunto;
 }
@@ -0,0 +1,24 @@
+package com.claude.springboot.app.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página de un listado con paginación por cursor (keyset).
+ * {@code nextCursor} es opaco para el cliente y se envía tal cual para pedir
+ * la página siguiente; es null cuando no hay más resultados.
+ * {@code totalElements} solo se calcula si se pidió con incluirTotal=true.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalElements;
+}
@@ -0,0 +1,18 @@
+package com.claude.springboot.app.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class IniciarCargaDTO {
+    @NotEmpty
+    private String nombreArchivo;
+    private String tipoMime;
+    @NotNull
+    @Positive
+    private Long tamanoTotal;
+}
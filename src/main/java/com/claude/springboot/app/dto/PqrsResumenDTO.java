@@ -0,0 +1,47 @@
+package com.claude.springboot.app.dto;
+
+import java.time.LocalDateTime;
+
+import com.claude.springboot.app.security.entities.Persona;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila de la grilla de solicitudes: solo las columnas visibles, sin
+ * seguimientos. Se llena directamente desde la consulta (constructor JPQL).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PqrsResumenDTO {
+    private Long idPqrs;
+    private String numeroRadicado;
+    private String nombreSolicitante;
+    private String titulo;
+    private String prioridad;
+    private String estadoPqrs;
+    private LocalDateTime fechaCreacion;
+    private LocalDateTime fechaUltimaActualizacion;
+    private Long idTema;
+    private String nombreTema;
+    private Long idUsuarioAsignado;
+    private String usuarioAsignado;
+    private String nombreUsuarioAsignado;
+
+    // Constructor de la consulta: el nombre del asignado se arma igual que en el detalle
+    public PqrsResumenDTO(Long idPqrs, String numeroRadicado, String nombreSolicitante, String titulo,
+                          String prioridad, String estadoPqrs, LocalDateTime fechaCreacion,
+                          LocalDateTime fechaUltimaActualizacion, Long idTema, String nombreTema,
+                          Long idUsuarioAsignado, String usuarioAsignado, Long idPersona,
+                          String primerNombre, String otrosNombres, String primerApellido,
+                          String segundoApellido, String nombres, String apellidos) {
+        this(idPqrs, numeroRadicado, nombreSolicitante, titulo, prioridad, estadoPqrs, fechaCreacion,
+                fechaUltimaActualizacion, idTema, nombreTema, idUsuarioAsignado, usuarioAsignado,
+                idPersona != null
+                        ? Persona.nombreCompleto(primerNombre, otrosNombres, primerApellido, segundoApellido,
+                                nombres, apellidos)
+                        : null);
+    }
+}
@@ -0,0 +1,54 @@
+package com.claude.springboot.app.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Metadatos de un archivo guardado por FileStorageService. La clave es la
+ * ruta relativa (año/mes/día/archivo, siempre con '/') que se guarda en
+ * SeguimientoPqrs.archivoAdjunto.
+ *
+ * Con almacenamiento deduplicado el contenido está en un {@link ArchivoBlob}
+ * identificado por {@code hash}; los archivos anteriores (sin hash) siguen en
+ * su ruta.
+ *
+ * @author Sistema PQRS
+ * @version 1.0
+ */
+@Entity
+@Table(name = "archivo_adjunto")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivoAdjunto {
+
+    @Id
+    @Column(name = "ruta", length = 255)
+    private String ruta;
+
+    @Column(name = "nombre_original", length = 255)
+    private String nombreOriginal;
+
+    @Column(name = "tipo_mime", length = 100, nullable = false)
+    private String tipoMime;
+
+    @Column(name = "tamano", nullable = false)
+    private Long tamano;
+
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @PrePersist
+    protected void onCreate() {
+        if (fechaCreacion == null) {
+            fechaCreacion = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.claude.springboot.app.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contenido único de uno o varios adjuntos, guardado una sola vez en
+ * cas/ab/cd/&lt;hash&gt; dentro del directorio de uploads. {@code referencias}
+ * cuenta las filas de archivo_adjunto que apuntan a él; cuando llega a cero
+ * el recolector de archivos lo elimina.
+ *
+ * @author Sistema PQRS
+ * @version 1.0
+ */
+@Entity
+@Table(name = "archivo_blob")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivoBlob {
+
+    /** SHA-256 del contenido en hexadecimal. */
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @Column(name = "tamano", nullable = false)
+    private Long tamano;
+
+    @Column(name = "referencias", nullable = false)
+    private Integer referencias;
+
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_ultima_referencia", nullable = false)
+    private LocalDateTime fechaUltimaReferencia;
+}
@@ -0,0 +1,63 @@
+package com.claude.springboot.app.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Carga de un adjunto por bloques. Los bytes recibidos se van agregando a un
+ * archivo de staging (uploads/cargas/&lt;idCarga&gt;) cuyo tamaño es el
+ * avance de la carga, así que los bloques no escriben en la base de datos.
+ *
+ * @author Sistema PQRS
+ * @version 1.0
+ */
+@Entity
+@Table(name = "carga_archivo")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CargaArchivo {
+
+    @Id
+    @Column(name = "id_carga", length = 36)
+    private String idCarga;
+
+    @Column(name = "nombre_archivo", nullable = false, length = 255)
+    private String nombreArchivo;
+
+    @Column(name = "tipo_mime", length = 100)
+    private String tipoMime;
+
+    @Column(name = "tamano_total", nullable = false)
+    private Long tamanoTotal;
+
+    @Column(name = "tamano_bloque", nullable = false)
+    private Integer tamanoBloque;
+
+    /** Usuario autenticado que la inició; es el único que puede usarla. */
+    @Column(name = "usuario", length = 100)
+    private String usuario;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    private EstadoCarga estado = EstadoCarga.EN_CURSO;
+
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+
+    @PrePersist
+    protected void onCreate() {
+        if (fechaCreacion == null) {
+            fechaCreacion = LocalDateTime.now();
+        }
+    }
+
+    public enum EstadoCarga {
+        EN_CURSO,
+        COMPLETA
+    }
+}
@@ -0,0 +1,104 @@
+package com.claude.springboot.app.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Conteo pre-agregado de PQRS por día de última actualización, estado,
+ * prioridad y tema. Se mantiene al crear o modificar cada PQRS (la solicitud
+ * sale de la fila de su clave anterior y entra en la de la nueva) y el
+ * tablero suma estas filas en lugar de agrupar la tabla pqrs.
+ *
+ * @author Sistema PQRS
+ * @version 1.0
+ */
+@Entity
+@Table(name = "estadistica_pqrs_dia")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticaPqrsDia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_estadistica")
+    private Long idEstadistica;
+
+    @Column(name = "fecha", nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "estado")
+    private String estado;
+
+    @Column(name = "prioridad")
+    private String prioridad;
+
+    @Column(name = "id_tema")
+    private Long idTema;
+
+    @Column(name = "cantidad", nullable = false)
+    private Long cantidad;
+
+    /**
+     * Fila de estadística en la que cuenta una PQRS. Se recuerda en la
+     * entidad al cargarla para saber de qué fila descontarla al modificarla.
+     */
+    public static final class Clave {
+
+        private final LocalDate fecha;
+        private final String estado;
+        private final String prioridad;
+        private final Long idTema;
+
+        public Clave(LocalDate fecha, String estado, String prioridad, Long idTema) {
+            this.fecha = fecha;
+            this.estado = estado;
+            this.prioridad = prioridad;
+            this.idTema = idTema;
+        }
+
+        public static Clave de(Pqrs pqrs, LocalDate fecha) {
+            return new Clave(fecha, pqrs.getEstadoPqrs(), pqrs.getPrioridad(),
+                    pqrs.getTema() != null ? pqrs.getTema().getIdTema() : null);
+        }
+
+        public LocalDate getFecha() {
+            return fecha;
+        }
+
+        public String getEstado() {
+            return estado;
+        }
+
+        public String getPrioridad() {
+            return prioridad;
+        }
+
+        public Long getIdTema() {
+            return idTema;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Clave)) {
+                return false;
+            }
+            Clave otra = (Clave) o;
+            return Objects.equals(fecha, otra.fecha) && Objects.equals(estado, otra.estado)
+                    && Objects.equals(prioridad, otra.prioridad) && Objects.equals(idTema, otra.idTema);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fecha, estado, prioridad, idTema);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.claude.springboot.app.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contador de radicados por prefijo (AMIRL-YYYY-MM). Guarda el último
+ * secuencial ya entregado a algún nodo; los nodos reservan bloques
+ * completos sobre esta fila con bloqueo pesimista.
+ *
+ * @author Sistema PQRS
+ * @version 1.0
+ */
+@Entity
+@Table(name = "radicado_secuencia")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RadicadoSecuencia {
+
+    @Id
+    @Column(name = "prefijo", length = 20)
+    private String prefijo;
+
+    @Column(name = "ultimo_valor", nullable = false)
+    private Long ultimoValor;
+
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        fechaActualizacion = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,27 @@
+package com.claude.springboot.app.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.claude.springboot.app.entities.ArchivoAdjunto;
+
+@Repository
+public interface ArchivoAdjuntoRepository extends JpaRepository<ArchivoAdjunto, String> {
+
+    /**
+     * Adjuntos deduplicados que ningún seguimiento referencia (por ejemplo,
+     * subidos en una solicitud que luego falló). En seguimiento_pqrs la ruta
+     * puede estar guardada con barras invertidas si el servidor corre en Windows.
+     */
+    @Query(value = "SELECT TOP (:lote) a.* FROM archivo_adjunto a "
+            + "WHERE a.hash IS NOT NULL AND a.fecha_creacion < :limite "
+            + "AND NOT EXISTS (SELECT 1 FROM seguimiento_pqrs s "
+            + "WHERE REPLACE(s.archivo_adjunto, '\\', '/') = a.ruta) "
+            + "ORDER BY a.fecha_creacion", nativeQuery = true)
+    List<ArchivoAdjunto> findHuerfanos(@Param("limite") LocalDateTime limite, @Param("lote") int lote);
+}
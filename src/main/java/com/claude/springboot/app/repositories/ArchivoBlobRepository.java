@@ -0,0 +1,42 @@
+package com.claude.springboot.app.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.claude.springboot.app.entities.ArchivoBlob;
+
+@Repository
+public interface ArchivoBlobRepository extends JpaRepository<ArchivoBlob, String> {
+
+    /**
+     * Suma una referencia al blob o lo registra con una. MERGE con HOLDLOCK
+     * hace el "insertar o incrementar" atómico en SQL Server, también cuando
+     * dos solicitudes suben el mismo archivo a la vez.
+     */
+    @Modifying
+    @Query(value = "MERGE archivo_blob WITH (HOLDLOCK) AS b "
+            + "USING (SELECT :hash AS hash) AS s ON b.hash = s.hash "
+            + "WHEN MATCHED THEN UPDATE SET referencias = b.referencias + 1, fecha_ultima_referencia = GETDATE() "
+            + "WHEN NOT MATCHED THEN INSERT (hash, tamano, referencias, fecha_creacion, fecha_ultima_referencia) "
+            + "VALUES (:hash, :tamano, 1, GETDATE(), GETDATE());", nativeQuery = true)
+    int registrarReferencia(@Param("hash") String hash, @Param("tamano") long tamano);
+
+    @Modifying
+    @Query("UPDATE ArchivoBlob b SET b.referencias = b.referencias - 1 WHERE b.hash = :hash")
+    int liberarReferencia(@Param("hash") String hash);
+
+    @Query("SELECT b.hash FROM ArchivoBlob b WHERE b.referencias <= 0 AND b.fechaUltimaReferencia < :limite")
+    List<String> findHashesSinReferencias(@Param("limite") LocalDateTime limite, Pageable pageable);
+
+    // Condicionado a referencias <= 0 por si el archivo se volvió a subir entre tanto
+    @Modifying
+    @Query("DELETE FROM ArchivoBlob b WHERE b.hash = :hash AND b.referencias <= 0")
+    int eliminarSiSinReferencias(@Param("hash") String hash);
+}
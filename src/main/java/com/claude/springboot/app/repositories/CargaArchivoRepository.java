@@ -0,0 +1,15 @@
+package com.claude.springboot.app.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.claude.springboot.app.entities.CargaArchivo;
+
+@Repository
+public interface CargaArchivoRepository extends JpaRepository<CargaArchivo, String> {
+
+    List<CargaArchivo> findByFechaCreacionBefore(LocalDateTime limite);
+}
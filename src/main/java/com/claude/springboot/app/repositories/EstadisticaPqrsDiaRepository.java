@@ -0,0 +1,64 @@
+package com.claude.springboot.app.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.claude.springboot.app.entities.EstadisticaPqrsDia;
+
+@Repository
+public interface EstadisticaPqrsDiaRepository extends JpaRepository<EstadisticaPqrsDia, Long> {
+
+    /**
+     * Suma {@code delta} a la fila de la clave o la crea. Estado y prioridad
+     * vacíos y tema 0 representan NULL: así ningún parámetro viaja nulo y
+     * sin tipo en la consulta nativa.
+     */
+    @Modifying
+    @Query(value = "MERGE estadistica_pqrs_dia WITH (HOLDLOCK) AS e "
+            + "USING (SELECT :fecha AS fecha, NULLIF(:estado, '') AS estado, NULLIF(:prioridad, '') AS prioridad, "
+            + "NULLIF(:idTema, 0) AS id_tema) AS s "
+            + "ON e.fecha = s.fecha AND ISNULL(e.estado, '') = ISNULL(s.estado, '') "
+            + "AND ISNULL(e.prioridad, '') = ISNULL(s.prioridad, '') AND ISNULL(e.id_tema, 0) = ISNULL(s.id_tema, 0) "
+            + "WHEN MATCHED THEN UPDATE SET cantidad = e.cantidad + :delta "
+            + "WHEN NOT MATCHED THEN INSERT (fecha, estado, prioridad, id_tema, cantidad) "
+            + "VALUES (s.fecha, s.estado, s.prioridad, s.id_tema, :delta);", nativeQuery = true)
+    int sumar(@Param("fecha") LocalDate fecha, @Param("estado") String estado,
+              @Param("prioridad") String prioridad, @Param("idTema") long idTema, @Param("delta") long delta);
+
+    // Totales por estado y prioridad (todas las fechas)
+    @Query("SELECT e.estado, e.prioridad, SUM(e.cantidad) FROM EstadisticaPqrsDia e " +
+           "GROUP BY e.estado, e.prioridad")
+    List<Object[]> sumarPorEstadoYPrioridad();
+
+    // Detalle por día desde una fecha, para los períodos del tablero
+    @Query("SELECT e.fecha, e.estado, e.prioridad, SUM(e.cantidad) FROM EstadisticaPqrsDia e " +
+           "WHERE e.fecha >= :desde GROUP BY e.fecha, e.estado, e.prioridad")
+    List<Object[]> sumarPorDiaDesde(@Param("desde") LocalDate desde);
+
+    // Reconciliación: cada PQRS vuelve a contar en la fila de sus valores actuales,
+    // y se vacía la tabla y se vuelve a agregar desde pqrs en la misma transacción.
+    // La clave se actualiza primero para tomar los bloqueos en el mismo orden que
+    // EstadisticasPqrsService al mover un conteo (pqrs y después esta tabla)
+    @Modifying
+    @Query(value = "UPDATE pqrs SET estadistica_fecha = CAST(fecha_ultima_actualizacion AS DATE), "
+            + "estadistica_estado = estado_pqrs, estadistica_prioridad = prioridad, estadistica_id_tema = id_tema",
+            nativeQuery = true)
+    int sincronizarClavesEnPqrs();
+
+    @Modifying
+    @Query(value = "DELETE FROM estadistica_pqrs_dia WITH (TABLOCKX)", nativeQuery = true)
+    int vaciar();
+
+    @Modifying
+    @Query(value = "INSERT INTO estadistica_pqrs_dia (fecha, estado, prioridad, id_tema, cantidad) "
+            + "SELECT CAST(fecha_ultima_actualizacion AS DATE), estado_pqrs, prioridad, id_tema, COUNT(*) "
+            + "FROM pqrs WHERE fecha_ultima_actualizacion IS NOT NULL "
+            + "GROUP BY CAST(fecha_ultima_actualizacion AS DATE), estado_pqrs, prioridad, id_tema", nativeQuery = true)
+    int recalcularDesdePqrs();
+}
@@ -1,19 +1,28 @@
 package com.claude.springboot.app.repositories;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.claude.springboot.app.dto.PqrsResumenDTO;
 import com.claude.springboot.app.entities.Pqrs;
 import com.claude.springboot.app.security.entities.Usuario;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface PqrsRepository extends JpaRepository<Pqrs, Long> {
     List<Pqrs> findByUsuarioAsignado(Usuario usuario);
@@ -37,6 +46,88 @@ public interface PqrsRepository extends JpaRepository<Pqrs, Long> {
     @Query("SELECT p FROM Pqrs p LEFT JOIN FETCH p.seguimientos WHERE p.idPqrs = :id")
     Optional<Pqrs> findByIdWithSeguimientos(@Param("id") Long id);
 
+    /**
+     * Fila de estadistica_pqrs_dia en la que está contada la PQRS, como
+     * [fecha, estado, prioridad, id_tema]. Bloquea la fila de la PQRS hasta
+     * el commit: otro cambio simultáneo espera y lee la clave ya movida.
+     */
+    @Query(value = "SELECT estadistica_fecha, estadistica_estado, estadistica_prioridad, estadistica_id_tema "
+            + "FROM pqrs WITH (UPDLOCK, ROWLOCK) WHERE id_pqrs = :id", nativeQuery = true)
+    List<Object[]> bloquearClaveEstadistica(@Param("id") Long id);
+
+    /**
+     * Registra la fila de estadística en la que queda contada la PQRS. Estado
+     * y prioridad vacíos y tema 0 representan NULL, como en
+     * {@link EstadisticaPqrsDiaRepository#sumar}.
+     */
+    @Modifying
+    @Query(value = "UPDATE pqrs SET estadistica_fecha = :fecha, estadistica_estado = NULLIF(:estado, ''), "
+            + "estadistica_prioridad = NULLIF(:prioridad, ''), estadistica_id_tema = NULLIF(:idTema, 0) "
+            + "WHERE id_pqrs = :id", nativeQuery = true)
+    int guardarClaveEstadistica(@Param("id") Long id, @Param("fecha") LocalDate fecha,
+                                @Param("estado") String estado, @Param("prioridad") String prioridad,
+                                @Param("idTema") long idTema);
+
+    /**
+     * Carga en una sola consulta las solicitudes indicadas con tema, área y
+     * usuario asignado (con persona y rol) para armar los DTO de un listado.
+     */
+    @Query("SELECT p FROM Pqrs p " +
+           "LEFT JOIN FETCH p.tema t " +
+           "LEFT JOIN FETCH t.area " +
+           "LEFT JOIN FETCH p.usuarioAsignado ua " +
+           "LEFT JOIN FETCH ua.persona " +
+           "LEFT JOIN FETCH ua.rol " +
+           "WHERE p.idPqrs IN :ids")
+    List<Pqrs> findConRelacionesByIdPqrsIn(@Param("ids") Collection<Long> ids);
+
+    // Vista resumida para las grillas (sin seguimientos). Se traen los campos
+    // del nombre del asignado y el DTO lo arma con Persona.nombreCompleto
+    String SELECT_RESUMEN = "SELECT new com.claude.springboot.app.dto.PqrsResumenDTO(" +
+           "p.idPqrs, p.numeroRadicado, p.nombreSolicitante, p.titulo, p.prioridad, p.estadoPqrs, " +
+           "p.fechaCreacion, p.fechaUltimaActualizacion, t.idTema, t.nombre, " +
+           "ua.idUsuario, ua.username, per.idPersona, per.primerNombre, per.otrosNombres, " +
+           "per.primerApellido, per.segundoApellido, per.nombres, per.apellidos) " +
+           "FROM Pqrs p " +
+           "LEFT JOIN p.tema t " +
+           "LEFT JOIN p.usuarioAsignado ua " +
+           "LEFT JOIN ua.persona per ";
+
+    @Query(value = SELECT_RESUMEN,
+           countQuery = "SELECT COUNT(p) FROM Pqrs p")
+    Page<PqrsResumenDTO> findResumen(Pageable pageable);
+
+    @Query(value = SELECT_RESUMEN + "WHERE p.usuarioAsignado IS NULL",
+           countQuery = "SELECT COUNT(p) FROM Pqrs p WHERE p.usuarioAsignado IS NULL")
+    Page<PqrsResumenDTO> findResumenSinAsignar(Pageable pageable);
+
+    @Query(value = SELECT_RESUMEN + "WHERE p.usuarioCreador = :usuarioCreador",
+           countQuery = "SELECT COUNT(p) FROM Pqrs p WHERE p.usuarioCreador = :usuarioCreador")
+    Page<PqrsResumenDTO> findResumenByUsuarioCreador(@Param("usuarioCreador") String usuarioCreador, Pageable pageable);
+
+    // Paginación por keyset: filas con idPqrs menor al último entregado, sin COUNT.
+    // El límite se pasa con PageRequest.of(0, n) sin orden.
+    @Query(SELECT_RESUMEN + "WHERE p.idPqrs < :antesDe ORDER BY p.idPqrs DESC")
+    List<PqrsResumenDTO> findResumenAntesDe(@Param("antesDe") Long antesDe, Pageable limite);
+
+    @Query(SELECT_RESUMEN + "WHERE p.usuarioAsignado IS NULL AND p.idPqrs < :antesDe ORDER BY p.idPqrs DESC")
+    List<PqrsResumenDTO> findResumenSinAsignarAntesDe(@Param("antesDe") Long antesDe, Pageable limite);
+
+    @Query(SELECT_RESUMEN + "WHERE p.usuarioCreador = :usuarioCreador AND p.idPqrs < :antesDe ORDER BY p.idPqrs DESC")
+    List<PqrsResumenDTO> findResumenByUsuarioCreadorAntesDe(@Param("usuarioCreador") String usuarioCreador,
+            @Param("antesDe") Long antesDe, Pageable limite);
+
+    // Filas de la grilla para los resultados de la búsqueda; el orden lo pone el índice
+    @Query(SELECT_RESUMEN + "WHERE p.idPqrs IN :ids")
+    List<PqrsResumenDTO> findResumenByIdPqrsIn(@Param("ids") Collection<Long> ids);
+
+    // Recorrido por lotes de todas las solicitudes (reconstrucción del índice de búsqueda)
+    @Query("SELECT p.idPqrs FROM Pqrs p WHERE p.idPqrs > :despuesDe ORDER BY p.idPqrs")
+    List<Long> findIdsDespuesDe(@Param("despuesDe") Long despuesDe, Pageable limite);
+
+    long countByUsuarioAsignadoIsNull();
+    long countByUsuarioCreador(String usuarioCreador);
+
     List<Pqrs> findAllByOrderByIdPqrsDesc();
     Page<Pqrs> findAll(Pageable pageable);
     List<Pqrs> findByUsuarioAsignadoIsNullOrderByIdPqrsDesc();
@@ -127,29 +218,47 @@ public interface PqrsRepository extends JpaRepository<Pqrs, Long> {
 
 
        //reportes
-       @Query("SELECT COUNT(p) FROM Pqrs p WHERE p.fechaCreacion BETWEEN :fechaInicio AND :fechaFin")
-       Long countByFechaCreacionBetween(LocalDateTime fechaInicio, LocalDateTime fechaFin);
-
-       @Query("SELECT p.estadoPqrs as estado, COUNT(p) as cantidad FROM Pqrs p " +
-      "WHERE p.fechaCreacion BETWEEN :fechaInicio AND :fechaFin GROUP BY p.estadoPqrs")
-       List<Object[]> countByEstadoFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin);
-
-       @Query("SELECT p.prioridad as prioridad, COUNT(p) as cantidad FROM Pqrs p " +
-       "WHERE p.fechaCreacion BETWEEN :fechaInicio AND :fechaFin GROUP BY p.prioridad")
-       List<Object[]> countByPrioridadFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin);
-
-       @Query("SELECT p.tema.nombre as tema, COUNT(p) as cantidad FROM Pqrs p " +
-       "WHERE p.fechaCreacion BETWEEN :fechaInicio AND :fechaFin GROUP BY p.tema.nombre")
-       List<Object[]> countByTemaFechas(LocalDateTime fechaInicio, LocalDateTime fechaFin);
+    /**
+     * Filas del reporte por período en un solo recorrido del rango de
+     * creación: estado, prioridad, tema, área, creación y última
+     * actualización. Se lee hacia adelante por bloques; debe consumirse dentro
+     * de una transacción y cerrarse.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.estadoPqrs, p.prioridad, t.nombre, a.nombre, p.fechaCreacion, p.fechaUltimaActualizacion " +
+           "FROM Pqrs p LEFT JOIN p.tema t LEFT JOIN t.area a " +
+           "WHERE p.fechaCreacion >= :fechaInicio AND p.fechaCreacion <= :fechaFin")
+    Stream<Object[]> streamReporte(@Param("fechaInicio") LocalDateTime fechaInicio,
+                                   @Param("fechaFin") LocalDateTime fechaFin);
 
-       @Query("SELECT AVG(DATEDIFF(day, p.fechaCreacion, p.fechaUltimaActualizacion)) " +
-              "FROM Pqrs p WHERE p.fechaCreacion BETWEEN :fechaInicio AND :fechaFin")
-       Double getAverageResponseTime(LocalDateTime fechaInicio, LocalDateTime fechaFin);
+    /**
+     * Filas de la exportación (CSV/XLSX) en orden de id, como valores sueltos
+     * para que no se acumulen entidades en el contexto de persistencia. Los
+     * filtros en null no se aplican.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.numeroRadicado, p.fechaCreacion, p.fechaUltimaActualizacion, p.estadoPqrs, p.prioridad, " +
+           "t.nombre, a.nombre, p.titulo, p.nombreSolicitante, p.tipoDocumentoSolicitante, " +
+           "p.numeroDocumentoSolicitante, p.emailSolicitante, p.telefonoSolicitante, u.username, p.usuarioCreador " +
+           "FROM Pqrs p LEFT JOIN p.tema t LEFT JOIN t.area a LEFT JOIN p.usuarioAsignado u " +
+           "WHERE (:fechaInicio IS NULL OR p.fechaCreacion >= :fechaInicio) " +
+           "AND (:fechaFin IS NULL OR p.fechaCreacion <= :fechaFin) " +
+           "AND (:estado IS NULL OR p.estadoPqrs = :estado) " +
+           "AND (:idTema IS NULL OR t.idTema = :idTema) " +
+           "ORDER BY p.idPqrs")
+    Stream<Object[]> streamExportacion(@Param("fechaInicio") LocalDateTime fechaInicio,
+                                       @Param("fechaFin") LocalDateTime fechaFin,
+                                       @Param("estado") String estado,
+                                       @Param("idTema") Long idTema);
 
-       @Query("SELECT FORMAT(p.fechaCreacion, 'yyyy-MM') as mes, COUNT(p) as cantidad " +
-              "FROM Pqrs p WHERE p.fechaCreacion BETWEEN :fechaInicio AND :fechaFin " +
-              "GROUP BY FORMAT(p.fechaCreacion, 'yyyy-MM') ORDER BY mes")
-       List<Object[]> getTendenciaMensual(LocalDateTime fechaInicio, LocalDateTime fechaFin);
+    @Query("SELECT p.fechaCreacion FROM Pqrs p WHERE p.idPqrs = :idPqrs")
+    Optional<LocalDateTime> findFechaCreacionByIdPqrs(@Param("idPqrs") Long idPqrs);
 
     
 
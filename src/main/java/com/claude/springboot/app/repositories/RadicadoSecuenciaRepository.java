@@ -0,0 +1,22 @@
+package com.claude.springboot.app.repositories;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.claude.springboot.app.entities.RadicadoSecuencia;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface RadicadoSecuenciaRepository extends JpaRepository<RadicadoSecuencia, String> {
+
+    // En SQL Server se traduce a WITH (UPDLOCK, HOLDLOCK, ROWLOCK)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM RadicadoSecuencia s WHERE s.prefijo = :prefijo")
+    Optional<RadicadoSecuencia> findByPrefijoParaActualizar(@Param("prefijo") String prefijo);
+}
@@ -1,8 +1,11 @@
 package com.claude.springboot.app.repositories;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.claude.springboot.app.entities.Pqrs;
@@ -11,4 +14,16 @@ import com.claude.springboot.app.entities.SeguimientoPqrs;
 @Repository
 public interface SeguimientoPqrsRepository extends JpaRepository<SeguimientoPqrs, Long> {
     List<SeguimientoPqrs> findByPqrsOrderByFechaCreacionDesc(Pqrs pqrs);
+
+    // Seguimientos de varias solicitudes con el usuario y su persona ya cargados
+    @Query("SELECT s FROM SeguimientoPqrs s " +
+           "LEFT JOIN FETCH s.usuario u " +
+           "LEFT JOIN FETCH u.persona " +
+           "LEFT JOIN FETCH u.rol " +
+           "WHERE s.pqrs.idPqrs IN :idsPqrs")
+    List<SeguimientoPqrs> findByPqrsIdsConUsuario(@Param("idsPqrs") Collection<Long> idsPqrs);
+
+    // Seguimientos de varias solicitudes sin usuario, para el índice de búsqueda
+    @Query("SELECT s FROM SeguimientoPqrs s JOIN FETCH s.pqrs WHERE s.pqrs.idPqrs IN :idsPqrs")
+    List<SeguimientoPqrs> findByPqrsIds(@Param("idsPqrs") Collection<Long> idsPqrs);
 }
@@ -5,13 +5,16 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
-import org.springframework.security.access.prepost.PreAuthorize;
-
+/**
+ * Exige permiso de ACTUALIZAR sobre la ruta del controlador
+ * ({@code /api/<nombre sin Controller en minúsculas>s}). La ruta se calcula
+ * una vez por método en {@code RegistroPermisos} y la verifica
+ * {@code PermisosInterceptor} antes de invocar el método.
+ */
 @Target({ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
 //@PreAuthorize("@permisoEvaluator.tienePermiso('/api/usuarios', 'ACTUALIZAR')")
 //@PreAuthorize("@permisoService.tienePermiso(authentication.principal.username, #root.target.class.simpleName, T(com.claude.springboot.app.security.enums.TipoPermiso).ACTUALIZAR)")
 //@PreAuthorize("@permisoService.tienePermiso(authentication, '/api/usuarios', T(com.claude.springboot.app.security.enums.TipoPermiso).ACTUALIZAR)")
-@PreAuthorize("@permisoEvaluator.tienePermiso('/api/' + T(String).valueOf(#root.this.getClass().getSimpleName()).replace('Controller', '').toLowerCase() + 's', T(com.claude.springboot.app.security.enums.TipoPermiso).ACTUALIZAR)")
 public @interface PermitirActualizar {
 }
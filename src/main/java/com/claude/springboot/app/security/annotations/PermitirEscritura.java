@@ -4,10 +4,14 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
-import org.springframework.security.access.prepost.PreAuthorize;
 
+/**
+ * Exige permiso de ESCRITURA sobre la ruta del controlador
+ * ({@code /api/<nombre sin Controller en minúsculas>s}). La ruta se calcula
+ * una vez por método en {@code RegistroPermisos} y la verifica
+ * {@code PermisosInterceptor} antes de invocar el método.
+ */
 @Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
-@PreAuthorize("@permisoEvaluator.tienePermiso('/api/' + T(String).valueOf(#root.this.getClass().getSimpleName()).replace('Controller', '').toLowerCase() + 's', T(com.claude.springboot.app.security.enums.TipoPermiso).ESCRITURA)")
 public @interface PermitirEscritura {
 }
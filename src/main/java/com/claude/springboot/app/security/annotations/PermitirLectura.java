@@ -4,15 +4,19 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
-import org.springframework.security.access.prepost.PreAuthorize;
 
 //@PreAuthorize("@permisoService.tienePermiso(authentication.principal.username, #root.target.class.simpleName, T(com.claude.springboot.app.security.enums.TipoPermiso).LECTURA)")
 
 //@PreAuthorize("@permisoEvaluator.tienePermiso('/api/usuarios', 'LECTURA')")
+/**
+ * Exige permiso de LECTURA sobre la ruta del controlador
+ * ({@code /api/<nombre sin Controller en minúsculas>s}). La ruta se calcula
+ * una vez por método en {@code RegistroPermisos} y la verifica
+ * {@code PermisosInterceptor} antes de invocar el método.
+ */
 @Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
 //@PreAuthorize("@permisoService.tienePermiso(authentication, '/api/usuarios', T(com.claude.springboot.app.security.enums.TipoPermiso).LECTURA)")
 //@PreAuthorize("@permisoEvaluator.tienePermiso(T(String).valueOf(#root.this.getClass().getSimpleName()).replace('Controller', '').toLowerCase(), 'LECTURA')")
-@PreAuthorize("@permisoEvaluator.tienePermiso('/api/' + T(String).valueOf(#root.this.getClass().getSimpleName()).replace('Controller', '').toLowerCase() + 's', T(com.claude.springboot.app.security.enums.TipoPermiso).LECTURA)")
 public @interface PermitirLectura {
 }
@@ -1,14 +1,15 @@
 package com.claude.springboot.app.security.config;
 
+import com.claude.springboot.app.security.evaluator.ClasificadorRutas;
 import com.claude.springboot.app.security.filter.JwtAuthenticationFilter;
 import com.claude.springboot.app.security.filter.JwtAuthorizationFilter;
 import com.claude.springboot.app.security.repositories.UsuarioRepository;
 import com.claude.springboot.app.security.service.CustomAuthenticationProvider;
 import com.claude.springboot.app.security.service.JwtService;
-import com.claude.springboot.app.security.service.RutaServiceImpl;
 import com.claude.springboot.app.security.service.UserInfoService;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -32,10 +33,14 @@ public class SecurityConfig {
 
     private final JwtConfig jwtConfig;
     private final JwtService jwtService;
-    private final RutaServiceImpl rutaServiceImpl;
+    private final ClasificadorRutas clasificadorRutas;
     private final CorsFilter corsFilter;
     private final UserInfoService userInfoService;
 
+    // Rol que puede consultar y vaciar las cachés desde Actuator
+    @Value("${seguridad.actuator.rol-admin:ADMINISTRADOR}")
+    private String rolAdminActuator;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http, AuthenticationManager authManager) throws Exception {
 
@@ -48,28 +53,15 @@ public class SecurityConfig {
                 .addFilterBefore(corsFilter, ChannelProcessingFilter.class)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> {
-                    auth.requestMatchers("/api/auth/**").permitAll();
-                    // Rutas públicas de PQRS
-                    auth.requestMatchers("/api/pqrs/publico").permitAll();
-                    auth.requestMatchers("/api/pqrs/publico/**").permitAll();
-                    auth.requestMatchers("/api/pqrs/radicado/**").permitAll();
-                    auth.requestMatchers("/api/pqrs/consulta/**").permitAll();
-                    auth.requestMatchers("/api/pqrs/respuesta/**").permitAll();
-                    auth.requestMatchers("/api/test/password/**").permitAll();
-                    auth.requestMatchers("/api/test/ldap-direct").permitAll();
-                    auth.requestMatchers("/api/test/ldap-config").permitAll();
-                    auth.requestMatchers("/error").permitAll();
-                    auth.requestMatchers("/api/usuarios/test-auth").permitAll(); // Permitimos el endpoint de prueba
-                    // auth.requestMatchers("/api/usuarios/activar/{tokenOCodigo}").permitAll(); //
-                    // Permitimos el endpoint de prueba
-                    auth.requestMatchers("/api/files/**").permitAll(); // Permitir acceso a archivos
-                    // Rutas públicas desde la base de datos
-                    rutaServiceImpl.obtenerRutasPublicas()
-                            .forEach(ruta -> auth.requestMatchers(ruta).permitAll());
+                    // Rutas públicas fijas y de la base de datos; se recargan sin reiniciar
+                    auth.requestMatchers(request -> clasificadorRutas.esPublica(ClasificadorRutas.rutaDe(request)))
+                            .permitAll();
 
                     // Actuator endpoints para información del sistema
-                    auth.requestMatchers("/actuator/health", "/actuator/info").permitAll();
                     auth.requestMatchers("/actuator/mappings").authenticated();
+                    auth.requestMatchers("/actuator/metrics/**").authenticated();
+                    // DELETE /actuator/caches vacía las cachés: solo administradores
+                    auth.requestMatchers("/actuator/caches/**").hasRole(rolAdminActuator);
                     // Todo lo demás requiere autenticación
                     auth.anyRequest().authenticated();
                 })
@@ -77,7 +69,7 @@ public class SecurityConfig {
                     session.sessionCreationPolicy(SessionCreationPolicy.STATELESS);
                 })
                 .addFilter(jwtAuthenticationFilter)
-                .addFilterBefore(new JwtAuthorizationFilter(jwtConfig, jwtService),
+                .addFilterBefore(new JwtAuthorizationFilter(jwtConfig, jwtService, clasificadorRutas),
                         UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
@@ -0,0 +1,59 @@
+package com.claude.springboot.app.security.controllers;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.claude.springboot.app.security.annotations.PermitirLectura;
+import com.claude.springboot.app.security.repositories.AuditoriaAccesoRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/auditorias")
+@RequiredArgsConstructor
+public class AuditoriaController {
+
+    private final AuditoriaAccesoRepository auditoriaAccesoRepository;
+
+    /**
+     * Auditoría de accesos paginada. Todos los filtros son opcionales; la ruta
+     * se busca por prefijo ({@code ruta=/api/pqrs} incluye /api/pqrs/15).
+     */
+    @GetMapping
+    @PermitirLectura
+    public ResponseEntity<?> buscar(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) LocalDateTime fechaInicio,
+            @RequestParam(required = false) LocalDateTime fechaFin,
+            @RequestParam(required = false) String ruta,
+            @RequestParam(required = false) Long idPqrs,
+            @PageableDefault(size = 20, sort = "fecha", direction = Sort.Direction.DESC) Pageable pageable) {
+        if (fechaInicio != null && fechaFin != null && !fechaInicio.isBefore(fechaFin)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "La fecha inicial debe ser anterior a la final"));
+        }
+        try {
+            return ResponseEntity.ok(auditoriaAccesoRepository.buscar(
+                    vacioANulo(username), fechaInicio, fechaFin, vacioANulo(ruta), idPqrs, pageable));
+        } catch (Exception e) {
+            log.error("Error al consultar la auditoría: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error al consultar la auditoría"));
+        }
+    }
+
+    private static String vacioANulo(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
+    }
+}
@@ -1,13 +1,16 @@
 package com.claude.springboot.app.security.controllers;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import com.claude.springboot.app.security.dto.MenuResponseDTO;
 import com.claude.springboot.app.security.service.MenuService;
 
 import lombok.RequiredArgsConstructor;
@@ -17,17 +20,33 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class MenuController {
     
+    // El navegador guarda el menú pero lo revalida siempre con If-None-Match
+    private static final CacheControl CACHE_MENU = CacheControl.noCache().cachePrivate();
+
     private final MenuService menuService;
     
+    /**
+     * Menú del rol del usuario autenticado, servido desde memoria ya
+     * serializado. Responde 304 si el cliente envía el ETag vigente.
+     */
     @GetMapping("/opciones")
-    public ResponseEntity<MenuResponseDTO> getOpcionesMenu() {
-        // Obtener el usuario autenticado del contexto de seguridad
+    public ResponseEntity<byte[]> getOpcionesMenu(WebRequest request) {
+        // El rol sale del token ya validado: no hace falta consultar al usuario
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        
-        // Obtener las opciones de menú para el usuario
-        MenuResponseDTO menuOptions = menuService.getMenuOptionsForUser(username);
+        String authority = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .findFirst()
+                .orElse(null);
+
+        MenuService.MenuSerializado menu = menuService.obtenerMenu(authority);
+        if (request.checkNotModified(menu.getEtag())) {
+            return null;
+        }
         
-        return ResponseEntity.ok(menuOptions);
+        return ResponseEntity.ok()
+                .cacheControl(CACHE_MENU)
+                .eTag(menu.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(menu.getJson());
     }
 }
@@ -19,6 +19,7 @@ import com.claude.springboot.app.security.repositories.RolRepository;
 import com.claude.springboot.app.security.repositories.TokenActivacionRepository;
 import com.claude.springboot.app.security.repositories.UsuarioRepository;
 import com.claude.springboot.app.security.service.EmailService;
+import com.claude.springboot.app.security.service.SesionTokenCache;
 import com.claude.springboot.app.security.service.UsuarioService;
 
 import com.claude.springboot.app.security.annotations.PermitirActualizar;
@@ -54,6 +55,7 @@ public class UsuarioController {
     private final UsuarioRepository usuarioRepository;
     private final TokenActivacionRepository tokenActivacionRepository;
     private final EmailService emailService;
+    private final SesionTokenCache sesionTokenCache;
     public final RolRepository rolRepository;
 
     @GetMapping
@@ -333,6 +335,7 @@ public class UsuarioController {
             usuario.setEstado(dto.getEstado());
 
             usuario = usuarioRepository.save(usuario);
+            sesionTokenCache.olvidar(usuario.getUsername());
 
             Map<String, Object> response = new HashMap<>();
             response.put("mensaje", "Usuario LDAP actualizado exitosamente");
@@ -0,0 +1,51 @@
+package com.claude.springboot.app.security.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Una petición atendida por un controlador. Solo se lee con JPA: las filas
+ * las inserta {@code EscritorAuditoria} por lotes con JDBC.
+ */
+@Entity
+@Table(name = "auditoria_acceso")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditoriaAcceso {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_auditoria")
+    private Long idAuditoria;
+
+    @Column(name = "fecha", nullable = false)
+    private LocalDateTime fecha;
+
+    /** Nulo en peticiones anónimas. */
+    @Column(name = "username", length = 150)
+    private String username;
+
+    @Column(name = "metodo", nullable = false, length = 10)
+    private String metodo;
+
+    @Column(name = "ruta", nullable = false, length = 400)
+    private String ruta;
+
+    /** Controlador y método que atendió la petición ({@code PqrsController#obtenerPorId}). */
+    @Column(name = "handler", length = 200)
+    private String handler;
+
+    @Column(name = "estado_http", nullable = false)
+    private int estadoHttp;
+
+    @Column(name = "duracion_ms", nullable = false)
+    private int duracionMs;
+
+    @Column(name = "id_pqrs")
+    private Long idPqrs;
+}
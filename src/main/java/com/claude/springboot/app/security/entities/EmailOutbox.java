@@ -0,0 +1,73 @@
+package com.claude.springboot.app.security.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Correo pendiente de envío. Se escribe en la misma transacción que la
+ * operación de negocio y lo despacha {@code EmailOutboxDispatcher} después
+ * del commit.
+ */
+@Entity
+@Table(name = "email_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_email")
+    private Long idEmail;
+
+    @Column(name = "destinatario", nullable = false, length = 320)
+    private String destinatario;
+
+    @Column(name = "asunto", nullable = false, length = 255)
+    private String asunto;
+
+    @Column(name = "cuerpo", nullable = false, columnDefinition = "NVARCHAR(MAX)")
+    private String cuerpo;
+
+    @Column(name = "es_html", nullable = false)
+    private boolean esHtml;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    private EstadoEnvio estado = EstadoEnvio.PENDIENTE;
+
+    @Column(name = "intentos", nullable = false)
+    private int intentos;
+
+    /** Próximo intento; mientras está ENVIANDO es el vencimiento de la reserva. */
+    @Column(name = "proximo_intento", nullable = false)
+    private LocalDateTime proximoIntento;
+
+    @Column(name = "ultimo_error", length = 1000)
+    private String ultimoError;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    @Column(name = "fecha_envio")
+    private LocalDateTime fechaEnvio;
+
+    @PrePersist
+    protected void onCreate() {
+        fechaCreacion = LocalDateTime.now();
+        if (proximoIntento == null) {
+            proximoIntento = fechaCreacion;
+        }
+    }
+
+    public enum EstadoEnvio {
+        PENDIENTE,
+        ENVIANDO,
+        ENVIADO,
+        FALLIDO
+    }
+}
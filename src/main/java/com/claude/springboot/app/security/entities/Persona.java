@@ -83,6 +83,12 @@ public class Persona {
     // Métodos helper para obtener nombres completos
     @Transient
     public String getNombreCompleto() {
+        return nombreCompleto(primerNombre, otrosNombres, primerApellido, segundoApellido, nombres, apellidos);
+    }
+
+    // Misma regla para los nombres leídos en una proyección, sin cargar la entidad
+    public static String nombreCompleto(String primerNombre, String otrosNombres, String primerApellido,
+                                        String segundoApellido, String nombres, String apellidos) {
         // Usar los nuevos campos si están disponibles, sino usar los legacy
         if (primerNombre != null && primerApellido != null) {
             String nombreCompleto = primerNombre;
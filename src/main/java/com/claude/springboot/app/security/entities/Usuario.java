@@ -40,6 +40,10 @@ public class Usuario {
     
     @Column(name = "username", unique = true)
     private String username;
+
+    // Columna calculada en BD (scripts/agregar_username_normalizado_usuarios.sql)
+    @Column(name = "username_normalizado", insertable = false, updatable = false)
+    private String usernameNormalizado;
     
     @Column(name = "password")
     private String password;
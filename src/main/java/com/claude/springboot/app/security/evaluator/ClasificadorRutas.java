@@ -0,0 +1,221 @@
+package com.claude.springboot.app.security.evaluator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.claude.springboot.app.security.repositories.RutaRepository;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Decide si una ruta es pública, para {@code SecurityConfig},
+ * {@code JwtAuthorizationFilter} y {@link PermisoEvaluator}. Junta las rutas
+ * fijas del sistema con las marcadas como públicas en la tabla de rutas y las
+ * compila en un árbol por segmentos, así que cada consulta recorre el path
+ * una vez y no va a la BD.
+ *
+ * Los patrones aceptan {@code *} o {@code {variable}} como segmento completo
+ * y {@code /**} al final. Igual que {@link MatrizPermisos}, el árbol es
+ * inmutable y se reemplaza completo al arrancar, cuando se registran o
+ * actualizan rutas y periódicamente.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClasificadorRutas {
+
+    public enum Acceso {
+        /** Requiere autenticación. */
+        PROTEGIDA,
+        /** Cualquiera puede entrar; si trae token se valida igual. */
+        PUBLICA,
+        /** Pública y sin token: el filtro JWT no la procesa (login y demás de /api/auth). */
+        ANONIMA
+    }
+
+    private static final List<String> RUTAS_ANONIMAS = List.of("/api/auth/**");
+
+    private static final List<String> RUTAS_PUBLICAS = List.of(
+            // Rutas públicas de PQRS
+            "/api/pqrs/publico/**",
+            "/api/pqrs/radicado/**",
+            "/api/pqrs/consulta/**",
+            "/api/pqrs/respuesta/**",
+            "/api/test/password/**",
+            "/api/test/ldap-direct",
+            "/api/test/ldap-config",
+            "/error",
+            "/api/usuarios/test-auth",
+            "/api/files/**",
+            "/actuator/health",
+            "/actuator/info");
+
+    private final RutaRepository rutaRepository;
+
+    private volatile Nodo raiz;
+
+    /** Path dentro de la aplicación, sin contexto ni parámetros de matriz. */
+    public static String rutaDe(HttpServletRequest request) {
+        return UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+    }
+
+    public Acceso clasificar(String ruta) {
+        if (ruta == null) {
+            return Acceso.PROTEGIDA;
+        }
+        Acceso acceso = buscar(obtener(), segmentos(ruta), 0);
+        return acceso != null ? acceso : Acceso.PROTEGIDA;
+    }
+
+    public boolean esPublica(String ruta) {
+        return clasificar(ruta) != Acceso.PROTEGIDA;
+    }
+
+    public boolean esAnonima(String ruta) {
+        return clasificar(ruta) == Acceso.ANONIMA;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        recargar();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alActualizarPermisos(PermisosActualizadosEvent evento) {
+        log.info("Recargando rutas públicas: {}", evento.getMotivo());
+        recargar();
+    }
+
+    @Scheduled(fixedDelayString = "${seguridad.permisos.recarga:5m}", initialDelayString = "${seguridad.permisos.recarga:5m}")
+    public void recargarPeriodicamente() {
+        try {
+            recargar();
+        } catch (Exception e) {
+            // Se conserva el árbol anterior hasta el próximo intento
+            log.error("Error recargando las rutas públicas", e);
+        }
+    }
+
+    public synchronized void recargar() {
+        Nodo nueva = new Nodo();
+        RUTAS_ANONIMAS.forEach(patron -> agregar(nueva, patron, Acceso.ANONIMA));
+        RUTAS_PUBLICAS.forEach(patron -> agregar(nueva, patron, Acceso.PUBLICA));
+
+        int desdeBd = 0;
+        for (String patron : rutaRepository.findRutasPublicasActivas()) {
+            if (patron != null && agregar(nueva, patron, Acceso.PUBLICA)) {
+                desdeBd++;
+            }
+        }
+
+        raiz = nueva;
+        log.info("Rutas públicas cargadas: {} fijas, {} desde la BD", RUTAS_ANONIMAS.size() + RUTAS_PUBLICAS.size(), desdeBd);
+    }
+
+    private Nodo obtener() {
+        Nodo actual = raiz;
+        if (actual == null) {
+            synchronized (this) {
+                if (raiz == null) {
+                    recargar();
+                }
+                actual = raiz;
+            }
+        }
+        return actual;
+    }
+
+    /**
+     * Un patrón que no se puede representar exactamente se descarta: tratarlo
+     * como comodín abriría más rutas de las configuradas.
+     */
+    private static boolean agregar(Nodo raiz, String patron, Acceso acceso) {
+        String[] partes = segmentos(patron);
+        Nodo nodo = raiz;
+        for (int i = 0; i < partes.length; i++) {
+            String parte = partes[i];
+            if (parte.equals("**")) {
+                if (i != partes.length - 1) {
+                    log.warn("Ruta pública ignorada, '**' solo se admite al final: {}", patron);
+                    return false;
+                }
+                nodo.resto = mayor(nodo.resto, acceso);
+                return true;
+            }
+            if (parte.equals("*") || (parte.startsWith("{") && parte.endsWith("}"))) {
+                if (nodo.comodin == null) {
+                    nodo.comodin = new Nodo();
+                }
+                nodo = nodo.comodin;
+            } else if (parte.indexOf('*') >= 0 || parte.indexOf('{') >= 0) {
+                log.warn("Ruta pública ignorada, comodín parcial no soportado: {}", patron);
+                return false;
+            } else {
+                nodo = nodo.hijos.computeIfAbsent(parte, k -> new Nodo());
+            }
+        }
+        nodo.fin = mayor(nodo.fin, acceso);
+        return true;
+    }
+
+    private static Acceso buscar(Nodo nodo, String[] partes, int i) {
+        Acceso acceso = nodo.resto;
+        if (i == partes.length) {
+            return mayor(acceso, nodo.fin);
+        }
+        Nodo literal = nodo.hijos.get(partes[i]);
+        if (literal != null) {
+            acceso = mayor(acceso, buscar(literal, partes, i + 1));
+        }
+        if (nodo.comodin != null) {
+            acceso = mayor(acceso, buscar(nodo.comodin, partes, i + 1));
+        }
+        return acceso;
+    }
+
+    /** Segmentos no vacíos: "/api//pqrs/" y "/api/pqrs" son la misma ruta. */
+    private static String[] segmentos(String ruta) {
+        List<String> partes = new ArrayList<>(8);
+        int inicio = 0;
+        int largo = ruta.length();
+        while (inicio < largo) {
+            int fin = ruta.indexOf('/', inicio);
+            if (fin < 0) {
+                fin = largo;
+            }
+            if (fin > inicio) {
+                partes.add(ruta.substring(inicio, fin));
+            }
+            inicio = fin + 1;
+        }
+        return partes.toArray(new String[0]);
+    }
+
+    private static Acceso mayor(Acceso a, Acceso b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static final class Nodo {
+        private final Map<String, Nodo> hijos = new HashMap<>(4);
+        // "*" o "{variable}": exactamente un segmento
+        private Nodo comodin;
+        // Acceso si el patrón termina aquí
+        private Acceso fin;
+        // Acceso de un "/**" que cuelga de aquí (cero o más segmentos)
+        private Acceso resto;
+    }
+}
@@ -0,0 +1,144 @@
+package com.claude.springboot.app.security.evaluator;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.claude.springboot.app.security.enums.TipoPermiso;
+import com.claude.springboot.app.security.repositories.PermisoRolRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Copia en memoria de la tabla permiso_rol: para cada authority
+ * ({@code ROLE_<nombre>}) y ruta guarda una máscara de bits con los permisos
+ * de lectura, escritura, actualización y eliminación. Las rutas públicas
+ * las resuelve {@link ClasificadorRutas}.
+ *
+ * Las rutas se guardan y se buscan en minúsculas: la intercalación de SQL
+ * Server no distingue mayúsculas, así que la consulta directa a la BD daba
+ * por iguales "/api/PQRS" y "/api/pqrs".
+ *
+ * La instantánea es inmutable y se reemplaza completa al recargar, así que las
+ * consultas no necesitan bloqueo. Se recarga al arrancar, después de cada
+ * cambio hecho desde los servicios de permisos/rutas/roles y periódicamente
+ * para recoger cambios hechos por otros nodos.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MatrizPermisos {
+
+    public static final int LEER = 1;
+    public static final int ESCRIBIR = 1 << 1;
+    public static final int ACTUALIZAR = 1 << 2;
+    public static final int ELIMINAR = 1 << 3;
+
+    private static final String PREFIJO_ROL = "ROLE_";
+
+    private final PermisoRolRepository permisoRolRepository;
+
+    private volatile Instantanea instantanea;
+
+    public static int mascara(TipoPermiso tipoPermiso) {
+        return switch (tipoPermiso) {
+            case LECTURA -> LEER;
+            case ESCRITURA -> ESCRIBIR;
+            case ACTUALIZAR -> ACTUALIZAR;
+            case ELIMINAR -> ELIMINAR;
+        };
+    }
+
+    /**
+     * @param authority authority tal como la entrega Spring Security ({@code ROLE_ADMIN})
+     * @param mascara   uno o varios de {@link #LEER}, {@link #ESCRIBIR},
+     *                  {@link #ACTUALIZAR}, {@link #ELIMINAR}
+     */
+    public boolean tienePermiso(String authority, String ruta, int mascara) {
+        Map<String, Integer> rutas = obtener().permisosPorAuthority.get(authority);
+        if (rutas == null) {
+            return false;
+        }
+        Integer permisos = ruta == null ? null : rutas.get(normalizar(ruta));
+        return permisos != null && (permisos & mascara) == mascara;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        recargar();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alActualizarPermisos(PermisosActualizadosEvent evento) {
+        log.info("Recargando matriz de permisos: {}", evento.getMotivo());
+        recargar();
+    }
+
+    @Scheduled(fixedDelayString = "${seguridad.permisos.recarga:5m}", initialDelayString = "${seguridad.permisos.recarga:5m}")
+    public void recargarPeriodicamente() {
+        try {
+            recargar();
+        } catch (Exception e) {
+            // Se conserva la instantánea anterior hasta el próximo intento
+            log.error("Error recargando la matriz de permisos", e);
+        }
+    }
+
+    public synchronized void recargar() {
+        Map<String, Map<String, Integer>> permisos = new HashMap<>();
+        for (Object[] fila : permisoRolRepository.findMatrizPermisosActivos()) {
+            String rol = (String) fila[0];
+            String ruta = (String) fila[1];
+            if (rol == null || ruta == null) {
+                continue;
+            }
+            int bits = (Boolean.TRUE.equals(fila[2]) ? LEER : 0)
+                    | (Boolean.TRUE.equals(fila[3]) ? ESCRIBIR : 0)
+                    | (Boolean.TRUE.equals(fila[4]) ? ACTUALIZAR : 0)
+                    | (Boolean.TRUE.equals(fila[5]) ? ELIMINAR : 0);
+            // Un mismo par rol/ruta puede estar repetido (también con otras
+            // mayúsculas en la ruta): se suman los permisos
+            permisos.computeIfAbsent(PREFIJO_ROL + rol, k -> new HashMap<>())
+                    .merge(normalizar(ruta), bits, (a, b) -> a | b);
+        }
+
+        Map<String, Map<String, Integer>> inmutable = new HashMap<>(permisos.size() * 2);
+        permisos.forEach((authority, rutas) -> inmutable.put(authority, Map.copyOf(rutas)));
+
+        instantanea = new Instantanea(Collections.unmodifiableMap(inmutable));
+        log.info("Matriz de permisos cargada: {} roles", inmutable.size());
+    }
+
+    private static String normalizar(String ruta) {
+        return ruta.toLowerCase(Locale.ROOT);
+    }
+
+    private Instantanea obtener() {
+        Instantanea actual = instantanea;
+        if (actual == null) {
+            synchronized (this) {
+                if (instantanea == null) {
+                    recargar();
+                }
+                actual = instantanea;
+            }
+        }
+        return actual;
+    }
+
+    private static final class Instantanea {
+        private final Map<String, Map<String, Integer>> permisosPorAuthority;
+
+        private Instantanea(Map<String, Map<String, Integer>> permisosPorAuthority) {
+            this.permisosPorAuthority = permisosPorAuthority;
+        }
+    }
+}
@@ -4,27 +4,30 @@ package com.claude.springboot.app.security.evaluator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import com.claude.springboot.app.security.enums.TipoPermiso;
-import com.claude.springboot.app.security.repositories.PermisoRolRepository;
 
 @Slf4j
 @Component("permisoEvaluator")
 @RequiredArgsConstructor
 public class PermisoEvaluator {
     
-    private final PermisoRolRepository permisoRolRepository;
+    // Permisos y rutas públicas se consultan en memoria, sin ir a la BD
+    private final MatrizPermisos matrizPermisos;
+    private final ClasificadorRutas clasificadorRutas;
 
     
     
     public boolean tienePermiso(String ruta, TipoPermiso tipoPermiso) {
         try {
             // Primero verificar si la ruta es pública
-            boolean esPublica = permisoRolRepository.esRutaPublica(ruta);
-            if (esPublica) {
-                log.info("Ruta {} es PÚBLICA - Acceso permitido", ruta);
+            if (clasificadorRutas.esPublica(ruta)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Ruta {} es PÚBLICA - Acceso permitido", ruta);
+                }
                 return true;
             }
             
@@ -34,42 +37,23 @@ public class PermisoEvaluator {
                 return false;
             }
             
-            String rolNombre = auth.getAuthorities().stream()
-                .findFirst()
-                .map(a -> a.getAuthority().replace("ROLE_", ""))
-                .orElse(null);
+            // Se usa la primera authority (ROLE_<nombre>), igual que al emitir el token
+            String authority = null;
+            for (GrantedAuthority a : auth.getAuthorities()) {
+                authority = a.getAuthority();
+                break;
+            }
                 
-            if (rolNombre == null) {
+            if (authority == null) {
                 log.warn("No se encontró rol para el usuario");
                 return false;
             }
             
-
-            
-            log.info("Verificando permiso - Rol: {}, Ruta: {}, TipoPermiso: {}", 
-                    rolNombre, ruta, tipoPermiso);
-            
-            boolean resultado = switch (tipoPermiso) {
-                case LECTURA -> {
-                    boolean permiso = permisoRolRepository.tienePermisoLecturaPorNombre(rolNombre, ruta);
-                    log.debug("Consulta de permiso de lectura - Rol: {}, Ruta: {}, Resultado: {}", rolNombre, ruta, permiso);
-                    yield permiso;
-                }
-                case ESCRITURA -> permisoRolRepository.tienePermisoEscrituraPorNombre(rolNombre, ruta);
-                case ACTUALIZAR -> permisoRolRepository.tienePermisoActualizarPorNombre(rolNombre, ruta);
-                case ELIMINAR -> permisoRolRepository.tienePermisoEliminarPorNombre(rolNombre, ruta);
-                default -> {
-                    log.warn("Tipo de permiso no reconocido: {}", tipoPermiso);
-                    yield false;
-                }
-            };
-            
-            log.info("Resultado de verificación de permiso: {}", resultado);
+            boolean resultado = matrizPermisos.tienePermiso(authority, ruta, MatrizPermisos.mascara(tipoPermiso));
             
-            // Debug adicional si el resultado es false
-            if (!resultado && tipoPermiso == TipoPermiso.LECTURA) {
-                log.debug("PERMISO DENEGADO - Verificando datos en BD para debug...");
-                log.debug("Rol buscado: '{}', Ruta buscada: '{}'", rolNombre, ruta);
+            if (log.isDebugEnabled()) {
+                log.debug("Verificación de permiso - Rol: {}, Ruta: {}, TipoPermiso: {}, Resultado: {}",
+                        authority, ruta, tipoPermiso, resultado);
             }
             return resultado;
             
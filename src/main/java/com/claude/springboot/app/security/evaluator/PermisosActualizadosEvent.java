@@ -0,0 +1,19 @@
+package com.claude.springboot.app.security.evaluator;
+
+/**
+ * Se publica cuando cambian permisos, rutas, roles o módulos.
+ * {@link MatrizPermisos} y los menús por rol lo escuchan para reconstruirse
+ * una vez confirmada la transacción.
+ */
+public class PermisosActualizadosEvent {
+
+    private final String motivo;
+
+    public PermisosActualizadosEvent(String motivo) {
+        this.motivo = motivo;
+    }
+
+    public String getMotivo() {
+        return motivo;
+    }
+}
@@ -0,0 +1,113 @@
+package com.claude.springboot.app.security.evaluator;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import com.claude.springboot.app.security.annotations.PermitirActualizar;
+import com.claude.springboot.app.security.annotations.PermitirEliminar;
+import com.claude.springboot.app.security.annotations.PermitirEscritura;
+import com.claude.springboot.app.security.annotations.PermitirLectura;
+import com.claude.springboot.app.security.enums.TipoPermiso;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ruta y tipo de permiso que exige cada método de controlador anotado con
+ * {@link PermitirLectura}, {@link PermitirEscritura},
+ * {@link PermitirActualizar} o {@link PermitirEliminar}. Se calcula una vez
+ * por controlador (al arrancar, o en su primera petición) en lugar de evaluar
+ * una expresión SpEL con reflexión en cada llamada.
+ *
+ * La anotación del método prevalece sobre la de la clase; un método con otra
+ * regla de {@link PreAuthorize} ({@code @PublicEndpoint},
+ * {@code @PermitirUsuarioActual}) no hereda la de la clase.
+ */
+@Slf4j
+@Component
+public class RegistroPermisos {
+
+    private static final Map<Class<? extends Annotation>, TipoPermiso> ANOTACIONES = Map.of(
+            PermitirLectura.class, TipoPermiso.LECTURA,
+            PermitirEscritura.class, TipoPermiso.ESCRITURA,
+            PermitirActualizar.class, TipoPermiso.ACTUALIZAR,
+            PermitirEliminar.class, TipoPermiso.ELIMINAR);
+
+    private final Map<Class<?>, Map<Method, Requisito>> porControlador = new ConcurrentHashMap<>();
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void registrar(ContextRefreshedEvent evento) {
+        int metodos = 0;
+        for (Object controlador : evento.getApplicationContext().getBeansWithAnnotation(Controller.class).values()) {
+            metodos += requisitos(ClassUtils.getUserClass(controlador)).size();
+        }
+        log.info("Permisos precalculados para {} métodos de controlador", metodos);
+    }
+
+    /**
+     * @return lo que exige el método, o {@code null} si no lleva anotación de permiso
+     */
+    public Requisito buscar(Class<?> controlador, Method metodo) {
+        return requisitos(controlador).get(metodo);
+    }
+
+    private Map<Method, Requisito> requisitos(Class<?> controlador) {
+        return porControlador.computeIfAbsent(controlador, RegistroPermisos::calcular);
+    }
+
+    private static Map<Method, Requisito> calcular(Class<?> controlador) {
+        // Misma ruta que armaba la expresión: '/api/' + nombre sin "Controller" en minúsculas + 's'
+        String ruta = "/api/" + controlador.getSimpleName().replace("Controller", "").toLowerCase() + "s";
+        TipoPermiso deClase = tipoPermiso(controlador);
+
+        Map<Method, Requisito> requisitos = new HashMap<>();
+        for (Method metodo : ReflectionUtils.getUniqueDeclaredMethods(controlador, ReflectionUtils.USER_DECLARED_METHODS)) {
+            if (!AnnotatedElementUtils.hasAnnotation(metodo, RequestMapping.class)) {
+                continue;
+            }
+            TipoPermiso tipo = tipoPermiso(metodo);
+            if (tipo == null && !AnnotatedElementUtils.hasAnnotation(metodo, PreAuthorize.class)) {
+                tipo = deClase;
+            }
+            if (tipo != null) {
+                requisitos.put(metodo, new Requisito(ruta, tipo));
+            }
+        }
+        return Map.copyOf(requisitos);
+    }
+
+    private static TipoPermiso tipoPermiso(AnnotatedElement elemento) {
+        TipoPermiso encontrado = null;
+        for (Map.Entry<Class<? extends Annotation>, TipoPermiso> anotacion : ANOTACIONES.entrySet()) {
+            if (elemento.isAnnotationPresent(anotacion.getKey())) {
+                if (encontrado != null) {
+                    throw new IllegalStateException("Más de una anotación de permiso en " + elemento);
+                }
+                encontrado = anotacion.getValue();
+            }
+        }
+        return encontrado;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Requisito {
+        private final String ruta;
+        private final TipoPermiso tipoPermiso;
+    }
+}
@@ -8,6 +8,7 @@ import com.claude.springboot.app.security.entities.Usuario;
 import com.claude.springboot.app.security.repositories.UsuarioRepository;
 import com.claude.springboot.app.security.service.JwtService;
 import com.claude.springboot.app.security.service.UserInfoService;
+import com.claude.springboot.app.security.service.UsuarioAutenticado;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -56,16 +57,17 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
         try {
             UserDetails userDetails = (UserDetails) authResult.getPrincipal();
             String token = jwtService.generateToken(authResult);
-            
-            // Actualizar el token de sesión
-            jwtService.updateUserSessionToken(userDetails.getUsername(), token);
-
-            // Construir la respuesta usando el servicio transaccional
-            LoginResponse loginResponse = userInfoService.buildLoginResponse(
-                userDetails.getUsername(),
-                token,
-                userDetails.getAuthorities().iterator().next().getAuthority()
-            );
+            String authority = userDetails.getAuthorities().iterator().next().getAuthority();
+
+            LoginResponse loginResponse;
+            if (userDetails instanceof UsuarioAutenticado autenticado) {
+                // El proveedor ya cargó el usuario: una sola escritura y ninguna consulta más
+                jwtService.registrarSesion(autenticado.getUsuario(), token);
+                loginResponse = userInfoService.buildLoginResponse(autenticado.getUsuario(), token, authority);
+            } else {
+                jwtService.updateUserSessionToken(userDetails.getUsername(), token);
+                loginResponse = userInfoService.buildLoginResponse(userDetails.getUsername(), token, authority);
+            }
 
             response.addHeader(jwtConfig.getHeader(), jwtConfig.getPrefix() + token);
             response.setContentType("application/json");
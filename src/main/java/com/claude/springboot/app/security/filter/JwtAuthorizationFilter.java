@@ -2,6 +2,7 @@ package com.claude.springboot.app.security.filter;
 
 
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,6 +13,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.claude.springboot.app.security.config.JwtConfig;
+import com.claude.springboot.app.security.evaluator.ClasificadorRutas;
 import com.claude.springboot.app.security.service.JwtService;
 
 import java.io.IOException;
@@ -21,6 +23,7 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
     
     private final JwtConfig jwtConfig;
     private final JwtService jwtService;
+    private final ClasificadorRutas clasificadorRutas;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -36,12 +39,15 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
         String token = header.replace(jwtConfig.getPrefix(), "");
         
         try {
-            if (jwtService.validateToken(token)) {
-                UsernamePasswordAuthenticationToken authentication = jwtService.getAuthentication(token);
+            // Un solo parseo del token; rol y usuario salen de los claims
+            Claims claims = jwtService.parseClaims(token);
+            if (claims != null) {
+                UsernamePasswordAuthenticationToken authentication = jwtService.getAuthentication(claims);
                 
                 if (authentication != null && authentication.isAuthenticated()) {
-                    // Validar si el usuario tiene una sesión activa
-                    if (jwtService.isValidSessionToken(authentication.getName(), token)) {
+                    // Validar si el usuario tiene una sesión activa (caché de sesiones)
+                    String authority = authentication.getAuthorities().iterator().next().getAuthority();
+                    if (jwtService.isValidSessionToken(authentication.getName(), token, authority)) {
                         SecurityContextHolder.getContext().setAuthentication(authentication);
                     } else {
                         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -62,11 +68,7 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
     
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        String path = request.getServletPath();
-        // No aplicar el filtro a rutas públicas
-        return path.startsWith("/api/auth/") || 
-               path.equals("/api/public/") || 
-               path.contains("swagger") || 
-               path.contains("api-docs");
+        // No aplicar el filtro a las rutas que no usan token (login y demás de /api/auth)
+        return clasificadorRutas.esAnonima(ClasificadorRutas.rutaDe(request));
     }
 }
@@ -1,29 +1,124 @@
 package com.claude.springboot.app.security.interceptor;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.claude.springboot.app.security.evaluator.ClasificadorRutas;
+import com.claude.springboot.app.security.service.EscritorAuditoria;
+
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 
+/**
+ * Registra cada petición atendida por un controlador (usuario, ruta,
+ * handler, estado, duración y PQRS) en {@link EscritorAuditoria}, que la
+ * guarda en segundo plano. En la petición solo se arma el evento.
+ *
+ * El despacho ERROR a /error que hace el contenedor tras una excepción no se
+ * registra: la petición original ya quedó registrada con su estado.
+ */
 @Component
+@RequiredArgsConstructor
 public class AuditoriaInterceptor implements HandlerInterceptor {
-    
+
+    private static final String INICIO = AuditoriaInterceptor.class.getName() + ".inicio";
+
     private final Logger log = LoggerFactory.getLogger(AuditoriaInterceptor.class);
-    
+
+    private final EscritorAuditoria escritorAuditoria;
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.isAuthenticated()) {
-            log.info("Usuario {} accediendo a {} mediante {}",
-                auth.getName(),
-                request.getRequestURI(),
-                request.getMethod()
-            );
+        if (request.getDispatcherType() == DispatcherType.ERROR) {
+            return true;
+        }
+        // En peticiones asíncronas se vuelve a pasar por aquí al terminar: se conserva el inicio original
+        if (request.getAttribute(INICIO) == null) {
+            request.setAttribute(INICIO, System.nanoTime());
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Usuario {} accediendo a {} mediante {}", usuario(), request.getRequestURI(), request.getMethod());
         }
         return true;
     }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getDispatcherType() == DispatcherType.ERROR
+                || !(request.getAttribute(INICIO) instanceof Long inicio)) {
+            return;
+        }
+        try {
+            long duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+            int estado = response.getStatus();
+            if (ex != null && estado < 400) {
+                estado = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+            }
+            String ruta = ClasificadorRutas.rutaDe(request);
+            escritorAuditoria.registrar(new EscritorAuditoria.Evento(
+                    LocalDateTime.now(),
+                    usuario(),
+                    request.getMethod(),
+                    ruta,
+                    handler(handler),
+                    estado,
+                    (int) Math.min(duracionMs, Integer.MAX_VALUE),
+                    idPqrs(request, ruta)));
+        } catch (RuntimeException e) {
+            // La auditoría nunca debe cambiar la respuesta
+            log.warn("No se pudo registrar la auditoría de {}: {}", request.getRequestURI(), e.getMessage());
+        }
+    }
+
+    private static String usuario() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return auth.getName();
+    }
+
+    private static String handler(Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            return handlerMethod.getBeanType().getSimpleName() + "#" + handlerMethod.getMethod().getName();
+        }
+        return handler != null ? handler.getClass().getSimpleName() : null;
+    }
+
+    /**
+     * La PQRS sale de la variable {@code idPqrs} de la ruta, o de {@code id}
+     * en las rutas de /api/pqrs.
+     */
+    @SuppressWarnings("unchecked")
+    private static Long idPqrs(HttpServletRequest request, String ruta) {
+        Object atributo = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (!(atributo instanceof Map)) {
+            return null;
+        }
+        Map<String, String> variables = (Map<String, String>) atributo;
+        String valor = variables.get("idPqrs");
+        if (valor == null && ruta != null && ruta.startsWith("/api/pqrs/")) {
+            valor = variables.get("id");
+        }
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(valor);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,38 @@
+package com.claude.springboot.app.security.interceptor;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.claude.springboot.app.security.evaluator.PermisoEvaluator;
+import com.claude.springboot.app.security.evaluator.RegistroPermisos;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Aplica las anotaciones {@code @Permitir*} con una búsqueda en
+ * {@link RegistroPermisos}. La denegación llega a
+ * {@code SecurityExceptionHandler} como cualquier {@link AccessDeniedException}.
+ */
+@Component
+@RequiredArgsConstructor
+public class PermisosInterceptor implements HandlerInterceptor {
+
+    private final RegistroPermisos registroPermisos;
+    private final PermisoEvaluator permisoEvaluator;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            RegistroPermisos.Requisito requisito =
+                    registroPermisos.buscar(handlerMethod.getBeanType(), handlerMethod.getMethod());
+            if (requisito != null && !permisoEvaluator.tienePermiso(requisito.getRuta(), requisito.getTipoPermiso())) {
+                throw new AccessDeniedException("No tiene permisos para realizar esta acción");
+            }
+        }
+        return true;
+    }
+}
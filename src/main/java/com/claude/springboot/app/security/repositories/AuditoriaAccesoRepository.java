@@ -0,0 +1,33 @@
+package com.claude.springboot.app.security.repositories;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.claude.springboot.app.security.entities.AuditoriaAcceso;
+
+@Repository
+public interface AuditoriaAccesoRepository extends JpaRepository<AuditoriaAcceso, Long> {
+
+    /**
+     * Filtros opcionales (nulo = sin filtro). La ruta se busca por prefijo para
+     * aprovechar el índice (ruta, fecha).
+     */
+    @Query("SELECT a FROM AuditoriaAcceso a " +
+           "WHERE (:username IS NULL OR a.username = :username) " +
+           "AND (:desde IS NULL OR a.fecha >= :desde) " +
+           "AND (:hasta IS NULL OR a.fecha < :hasta) " +
+           "AND (:ruta IS NULL OR a.ruta LIKE CONCAT(:ruta, '%')) " +
+           "AND (:idPqrs IS NULL OR a.idPqrs = :idPqrs)")
+    Page<AuditoriaAcceso> buscar(@Param("username") String username,
+                                 @Param("desde") LocalDateTime desde,
+                                 @Param("hasta") LocalDateTime hasta,
+                                 @Param("ruta") String ruta,
+                                 @Param("idPqrs") Long idPqrs,
+                                 Pageable pageable);
+}
@@ -0,0 +1,55 @@
+package com.claude.springboot.app.security.repositories;
+
+import com.claude.springboot.app.security.entities.EmailOutbox;
+import com.claude.springboot.app.security.entities.EmailOutbox.EstadoEnvio;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Correos listos para (re)intentar, en orden de llegada
+     */
+    List<EmailOutbox> findByEstadoAndProximoIntentoLessThanEqualOrderByIdEmailAsc(
+            EstadoEnvio estado, LocalDateTime fecha, Pageable pageable);
+
+    /**
+     * Reserva un correo para este nodo. Devuelve 0 si otro nodo lo tomó antes.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.estado = :enviando, e.proximoIntento = :reservaHasta " +
+           "WHERE e.idEmail = :idEmail AND e.estado = :pendiente")
+    int reservar(@Param("idEmail") Long idEmail,
+                 @Param("reservaHasta") LocalDateTime reservaHasta,
+                 @Param("pendiente") EstadoEnvio pendiente,
+                 @Param("enviando") EstadoEnvio enviando);
+
+    /**
+     * Devuelve a PENDIENTE los correos cuya reserva venció (nodo caído a mitad de envío)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.estado = :pendiente " +
+           "WHERE e.estado = :enviando AND e.proximoIntento < :fecha")
+    int liberarReservasVencidas(@Param("fecha") LocalDateTime fecha,
+                                @Param("enviando") EstadoEnvio enviando,
+                                @Param("pendiente") EstadoEnvio pendiente);
+
+    /**
+     * Elimina correos ya enviados más antiguos que la fecha indicada
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailOutbox e WHERE e.estado = :enviado AND e.fechaEnvio < :fecha")
+    int eliminarEnviadosAntesDe(@Param("fecha") LocalDateTime fecha, @Param("enviado") EstadoEnvio enviado);
+}
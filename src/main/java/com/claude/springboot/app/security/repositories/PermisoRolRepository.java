@@ -64,6 +64,19 @@ public interface PermisoRolRepository extends JpaRepository<PermisoRol, Long> {
        @Query("SELECT p FROM PermisoRol p JOIN FETCH p.ruta r JOIN FETCH r.modulo m WHERE p.rol.idRol = :rolId AND p.puedeLeer = true AND p.estado = true AND r.estado = true AND m.estado = true")
        List<PermisoRol> findPermisosWithModulosAndRutasByRolId(@Param("rolId") Long rolId);
 
+       /**
+        * Menús de todos los roles en una consulta: una fila por permiso de
+        * lectura vigente sobre ruta y módulo activos, con nombre del rol,
+        * id/nombre/descripción del módulo, id/ruta/descripción de la ruta y
+        * los cuatro permisos, ordenadas por rol, módulo y ruta.
+        */
+       @Query("SELECT r.nombre, m.idModulo, m.nombre, m.descripcion, rt.idRuta, rt.ruta, rt.descripcion, " +
+                     "p.puedeLeer, p.puedeEscribir, p.puedeActualizar, p.puedeEliminar " +
+                     "FROM PermisoRol p JOIN p.rol r JOIN p.ruta rt JOIN rt.modulo m " +
+                     "WHERE p.puedeLeer = true AND p.estado = true AND rt.estado = true AND m.estado = true " +
+                     "ORDER BY r.nombre, m.idModulo, rt.idRuta")
+       List<Object[]> findMenusPorRol();
+
        @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END " +
                      "FROM PermisoRol p " +
                      "JOIN p.rol r " +
@@ -126,4 +139,13 @@ public interface PermisoRolRepository extends JpaRepository<PermisoRol, Long> {
                      "AND r.esPublica = true " +
                      "AND r.estado = true")
        boolean esRutaPublica(@Param("rutaPath") String rutaPath);
+
+       /**
+        * Permisos activos como filas [rol, ruta, leer, escribir, actualizar, eliminar]
+        * para construir la matriz en memoria de {@code MatrizPermisos}.
+        */
+       @Query("SELECT r.nombre, rt.ruta, p.puedeLeer, p.puedeEscribir, p.puedeActualizar, p.puedeEliminar " +
+                     "FROM PermisoRol p JOIN p.rol r JOIN p.ruta rt " +
+                     "WHERE p.estado = true")
+       List<Object[]> findMatrizPermisosActivos();
 }
@@ -13,6 +13,10 @@ import com.claude.springboot.app.security.entities.Ruta;
 @Repository
 public interface RutaRepository extends JpaRepository<Ruta, Long> {
     List<Ruta> findByEstadoTrueAndEsPublicaTrue();
+
+    // Solo el path, para compilar el clasificador de rutas sin cargar entidades
+    @Query("SELECT r.ruta FROM Ruta r WHERE r.esPublica = true AND r.estado = true")
+    List<String> findRutasPublicasActivas();
     
     // Método para buscar ruta por path
     Optional<Ruta> findByRuta(String ruta);
@@ -2,9 +2,11 @@ package com.claude.springboot.app.security.repositories;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.claude.springboot.app.security.entities.Persona;
 import com.claude.springboot.app.security.entities.Usuario;
@@ -25,6 +27,29 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
        Optional<Usuario> findByUsername(String username);
 
+       /**
+        * Login: busca por la columna calculada username_normalizado (indexada)
+        * y trae de una vez lo que necesita la respuesta de login. Puede haber
+        * más de un registro para el mismo usuario escrito en formatos distintos.
+        */
+       @Query("SELECT u FROM Usuario u " +
+                     "LEFT JOIN FETCH u.rol " +
+                     "LEFT JOIN FETCH u.persona p " +
+                     "LEFT JOIN FETCH p.empresa " +
+                     "LEFT JOIN FETCH p.area a " +
+                     "LEFT JOIN FETCH a.direccion d " +
+                     "LEFT JOIN FETCH d.territorial t " +
+                     "LEFT JOIN FETCH t.empresa " +
+                     "WHERE u.usernameNormalizado = :username")
+       List<Usuario> findParaLogin(@Param("username") String usernameNormalizado);
+
+       // Token de sesión y último login en un solo UPDATE, sin leer antes el usuario
+       @Modifying
+       @Transactional
+       @Query("UPDATE Usuario u SET u.tokenSesion = :token, u.ultimoLogin = :ultimoLogin WHERE u.idUsuario = :id")
+       int registrarSesion(@Param("id") Long idUsuario, @Param("token") String token,
+                     @Param("ultimoLogin") LocalDateTime ultimoLogin);
+
        boolean existsByUsername(String username);
 
        @Query("SELECT u FROM Usuario u WHERE u.persona.email = :email")
@@ -1,20 +1,18 @@
 package com.claude.springboot.app.security.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
 
 import com.claude.springboot.app.security.entities.Usuario;
 import com.claude.springboot.app.security.repositories.UsuarioRepository;
 
-import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 @Component
@@ -22,102 +20,57 @@ import java.util.Optional;
 @Slf4j
 public class CustomAuthenticationProvider implements AuthenticationProvider {
 
-    private final PasswordEncoder passwordEncoder;
+    private final VerificadorContrasenas verificadorContrasenas;
     private final LdapService ldapService;
     private final UsuarioRepository usuarioRepository;
 
+    /**
+     * Login en una sola consulta: se busca por username normalizado (columna
+     * indexada) con todo lo que necesita la respuesta, se compara la
+     * contraseña local en el pool de BCrypt y, si no coincide o el usuario
+     * no tiene, se intenta con LDAP.
+     */
     @Override
     public Authentication authenticate(Authentication authentication) {
         String username = authentication.getName();
-        String password = authentication.getCredentials().toString();
-        
-        log.info("=== INICIO AUTENTICACIÓN ===");
+        String password = authentication.getCredentials() != null ? authentication.getCredentials().toString() : "";
+
         log.info("Intentando autenticar usuario: [{}]", username);
-        
+
         try {
-            // Normalizar username para consistencia
             String normalizedUsername = normalizeUsername(username);
-            log.info("Username normalizado: [{}]", normalizedUsername);
-            
-            // Buscar usuario existente con múltiples formatos
-            Optional<Usuario> usuarioExistente = findExistingUser(username, normalizedUsername);
-            log.info("Usuario encontrado en BD: {}", usuarioExistente.isPresent());
-            
-            if (usuarioExistente.isPresent()) {
-                Usuario usuario = usuarioExistente.get();
-                log.info("Usuario encontrado - ID: {}, Username: [{}], Tiene password: {}", 
-                        usuario.getIdUsuario(), usuario.getUsername(), 
-                        usuario.getPassword() != null && !usuario.getPassword().isEmpty());
-                
-                // Si tiene contraseña local, intentar autenticación local
-                if (usuario.getPassword() != null && !usuario.getPassword().isEmpty()) {
-                    if (passwordEncoder.matches(password, usuario.getPassword())) {
-                        log.info("Autenticación local exitosa para: {}", usuario.getUsername());
-                        return createAuthenticationToken(usuario);
-                    }
-                    log.info("Contraseña local no coincide, intentando LDAP...");
-                }
-                
-                // Si es usuario LDAP o falla auth local, intentar LDAP
-                log.info("Intentando autenticación LDAP para username: [{}]", normalizedUsername);
-                boolean ldapAuth = ldapService.authenticate(normalizedUsername, password);
-                log.info("Resultado autenticación LDAP: {}", ldapAuth);
-                
-                if (ldapAuth) {
-                    log.info("Autenticación LDAP exitosa para usuario existente: {}", normalizedUsername);
-                    
-                    // Actualizar username si es necesario para consistencia
-                    if (!usuario.getUsername().equals(normalizedUsername)) {
-                        log.info("Actualizando username de {} a {}", usuario.getUsername(), normalizedUsername);
-                        Optional<Usuario> usuarioConUsernameNormalizado = usuarioRepository.findByUsername(normalizedUsername);
-                        if (usuarioConUsernameNormalizado.isPresent()
-                                && !usuarioConUsernameNormalizado.get().getIdUsuario().equals(usuario.getIdUsuario())) {
-                            log.warn("Ya existe otro usuario con username normalizado: [{}] (ID: {}). Se usará ese registro para autenticar.",
-                                    normalizedUsername, usuarioConUsernameNormalizado.get().getIdUsuario());
-                            usuario = usuarioConUsernameNormalizado.get();
-                        } else {
-                            try {
-                                usuario.setUsername(normalizedUsername);
-                                usuario = usuarioRepository.save(usuario);
-                            } catch (org.springframework.dao.DataIntegrityViolationException e) {
-                                log.warn("No fue posible actualizar username a [{}] por restricción de integridad. Se continuará autenticación sin actualizar. Detalle: {}",
-                                        normalizedUsername, e.getMessage());
-                            }
-                        }
-                    }
-                    
-                    return createAuthenticationToken(usuario);
-                } else {
-                    log.warn("Autenticación LDAP falló para usuario existente: {}", normalizedUsername);
-                }
-            } else {
+            List<Usuario> candidatos = usuarioRepository.findParaLogin(normalizedUsername);
+            if (candidatos.isEmpty()) {
                 log.warn("Usuario no encontrado en BD: [{}]. No se permite autocreación para usuarios LDAP.", normalizedUsername);
-                throw new BadCredentialsException("Usuario no registrado");
+                throw new BadCredentialsException("Credenciales inválidas");
+            }
+            Usuario usuario = elegirUsuario(candidatos, username, normalizedUsername);
+
+            // Si tiene contraseña local, intentar autenticación local
+            if (usuario.getPassword() != null && !usuario.getPassword().isEmpty()
+                    && verificadorContrasenas.coincide(password, usuario.getPassword())) {
+                log.info("Autenticación local exitosa para: {}", usuario.getUsername());
+                return createAuthenticationToken(usuario);
+            }
+
+            // Si es usuario LDAP o falla auth local, intentar LDAP
+            if (ldapService.authenticate(normalizedUsername, password)) {
+                log.info("Autenticación LDAP exitosa para usuario existente: {}", normalizedUsername);
+                return createAuthenticationToken(conUsernameNormalizado(usuario, candidatos, normalizedUsername));
             }
+            log.warn("Autenticación fallida para usuario existente: {}", normalizedUsername);
+        } catch (AuthenticationServiceException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error en proceso de autenticación para usuario [{}]: {}", username, e.getMessage(), e);
         }
-        
-        log.info("=== FIN AUTENTICACIÓN - CREDENCIALES INVÁLIDAS ===");
+
         throw new BadCredentialsException("Credenciales inválidas");
     }
 
     private Authentication createAuthenticationToken(Usuario usuario) {
-        UserDetails userDetails = User.builder()
-            .username(usuario.getUsername())
-            .password(usuario.getPassword() != null ? usuario.getPassword() : "")
-            .authorities(Collections.singleton(new SimpleGrantedAuthority("ROLE_" + usuario.getRol().getNombre())))
-            .accountExpired(false)
-            .accountLocked(false)
-            .credentialsExpired(false)
-            .disabled(!usuario.isEstado())
-            .build();
-
-        return new UsernamePasswordAuthenticationToken(
-            userDetails,
-            null,
-            userDetails.getAuthorities()
-        );
+        UsuarioAutenticado principal = new UsuarioAutenticado(usuario);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
     }
 
     /**
@@ -138,43 +91,50 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
     }
     
     /**
-     * Busca usuario existente probando diferentes formatos de username
+     * Entre los registros con el mismo username normalizado prefiere el que
+     * coincide con lo que escribió el usuario, luego el ya normalizado.
      */
-    private Optional<Usuario> findExistingUser(String originalUsername, String normalizedUsername) {
-        log.info("Buscando usuario con formatos: original=[{}], normalizado=[{}]", originalUsername, normalizedUsername);
-        
-        // Buscar por username original
-        Optional<Usuario> usuario = usuarioRepository.findByUsername(originalUsername);
-        if (usuario.isPresent()) {
-            log.info("Usuario encontrado con username original: [{}] - ID: {}", originalUsername, usuario.get().getIdUsuario());
+    private Usuario elegirUsuario(List<Usuario> candidatos, String originalUsername, String normalizedUsername) {
+        return buscarPorUsername(candidatos, originalUsername.trim())
+                .or(() -> buscarPorUsername(candidatos, normalizedUsername))
+                .orElse(candidatos.get(0));
+    }
+
+    /**
+     * Tras un login LDAP deja al usuario con el username normalizado: usa el
+     * registro que ya lo tiene o actualiza el encontrado.
+     */
+    private Usuario conUsernameNormalizado(Usuario usuario, List<Usuario> candidatos, String normalizedUsername) {
+        if (usuario.getUsername().equals(normalizedUsername)) {
             return usuario;
         }
-        log.info("No encontrado con username original: [{}]", originalUsername);
-        
-        // Buscar por username normalizado
-        usuario = usuarioRepository.findByUsername(normalizedUsername);
-        if (usuario.isPresent()) {
-            log.info("Usuario encontrado con username normalizado: [{}] - ID: {}", normalizedUsername, usuario.get().getIdUsuario());
-            return usuario;
+        Optional<Usuario> normalizado = buscarPorUsername(candidatos, normalizedUsername);
+        if (normalizado.isPresent()) {
+            log.warn("Ya existe otro usuario con username normalizado: [{}] (ID: {}). Se usará ese registro para autenticar.",
+                    normalizedUsername, normalizado.get().getIdUsuario());
+            return normalizado.get();
         }
-        log.info("No encontrado con username normalizado: [{}]", normalizedUsername);
-        
-        // Buscar por username sin dominio (si el normalizado lo tiene)
-        if (normalizedUsername.contains("@")) {
-            String usernameWithoutDomain = normalizedUsername.split("@")[0];
-            log.info("Probando con username sin dominio: [{}]", usernameWithoutDomain);
-            usuario = usuarioRepository.findByUsername(usernameWithoutDomain);
-            if (usuario.isPresent()) {
-                log.info("Usuario encontrado con username sin dominio: [{}] - ID: {}", usernameWithoutDomain, usuario.get().getIdUsuario());
-                return usuario;
-            }
-            log.info("No encontrado con username sin dominio: [{}]", usernameWithoutDomain);
+
+        log.info("Actualizando username de {} a {}", usuario.getUsername(), normalizedUsername);
+        String anterior = usuario.getUsername();
+        try {
+            usuario.setUsername(normalizedUsername);
+            // Se conserva la instancia cargada: trae las relaciones que usa la respuesta de login
+            usuarioRepository.save(usuario);
+        } catch (DataIntegrityViolationException e) {
+            usuario.setUsername(anterior);
+            log.warn("No fue posible actualizar username a [{}] por restricción de integridad. Se continuará autenticación sin actualizar. Detalle: {}",
+                    normalizedUsername, e.getMessage());
         }
-        
-        log.info("NO SE ENCONTRÓ USUARIO con ninguno de los formatos probados");
-        return Optional.empty();
+        return usuario;
     }
-    
+
+    private Optional<Usuario> buscarPorUsername(List<Usuario> candidatos, String username) {
+        return candidatos.stream()
+                .filter(candidato -> username.equalsIgnoreCase(candidato.getUsername()))
+                .findFirst();
+    }
+
     @Override
     public boolean supports(Class<?> authentication) {
         return authentication.equals(UsernamePasswordAuthenticationToken.class);
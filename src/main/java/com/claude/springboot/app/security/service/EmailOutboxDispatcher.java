@@ -0,0 +1,253 @@
+package com.claude.springboot.app.security.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.claude.springboot.app.security.entities.EmailOutbox;
+import com.claude.springboot.app.security.entities.EmailOutbox.EstadoEnvio;
+import com.claude.springboot.app.security.repositories.EmailOutboxRepository;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Despacha los correos de email_outbox en segundo plano.
+ *
+ * Cada ciclo reserva los correos vencidos (UPDATE condicionado por estado,
+ * seguro con varios nodos) y los reparte en lotes al pool de envío. Cada
+ * lote se envía con una sola llamada a {@link JavaMailSender#send(MimeMessage...)},
+ * que reutiliza una misma conexión SMTP para todos los mensajes del lote.
+ * Los fallos se reintentan con backoff exponencial hasta {@code maxIntentos}.
+ */
+@Component
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TaskExecutor executor;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${email.outbox.lote:20}")
+    private int tamanoLote;
+
+    @Value("${email.outbox.lotes-por-ciclo:5}")
+    private int lotesPorCiclo;
+
+    @Value("${email.outbox.max-intentos:6}")
+    private int maxIntentos;
+
+    @Value("${email.outbox.backoff-inicial:30s}")
+    private Duration backoffInicial;
+
+    @Value("${email.outbox.backoff-maximo:1h}")
+    private Duration backoffMaximo;
+
+    @Value("${email.outbox.reserva:5m}")
+    private Duration duracionReserva;
+
+    @Value("${email.outbox.retencion-dias:30}")
+    private int retencionDias;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean(false);
+    private final AtomicBoolean repetir = new AtomicBoolean(false);
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                 JavaMailSender mailSender,
+                                 @Qualifier("emailOutboxExecutor") TaskExecutor executor) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.executor = executor;
+    }
+
+    /**
+     * Pide un ciclo inmediato (se llama tras el commit que encoló un correo).
+     */
+    public void despertar() {
+        try {
+            executor.execute(this::procesarPendientes);
+        } catch (TaskRejectedException e) {
+            // Pool saturado: el ciclo programado tomará el correo
+            log.debug("Pool de correo ocupado, el envío queda para el siguiente ciclo");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.intervalo:15s}", initialDelayString = "${email.outbox.intervalo:15s}")
+    public void procesarPendientes() {
+        if (!enCurso.compareAndSet(false, true)) {
+            // Ya hay un ciclo corriendo: que vuelva a mirar al terminar
+            repetir.set(true);
+            return;
+        }
+        try {
+            do {
+                repetir.set(false);
+                procesarCiclo();
+            } while (repetir.get());
+        } catch (Exception e) {
+            log.error("Error procesando la cola de correos: {}", e.getMessage(), e);
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    private void procesarCiclo() {
+        LocalDateTime ahora = LocalDateTime.now();
+        outboxRepository.liberarReservasVencidas(ahora, EstadoEnvio.ENVIANDO, EstadoEnvio.PENDIENTE);
+
+        List<EmailOutbox> candidatos = outboxRepository.findByEstadoAndProximoIntentoLessThanEqualOrderByIdEmailAsc(
+                EstadoEnvio.PENDIENTE, ahora, PageRequest.of(0, tamanoLote * lotesPorCiclo));
+        if (candidatos.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime reservaHasta = ahora.plus(duracionReserva);
+        List<EmailOutbox> reservados = new ArrayList<>();
+        for (EmailOutbox email : candidatos) {
+            if (outboxRepository.reservar(email.getIdEmail(), reservaHasta,
+                    EstadoEnvio.PENDIENTE, EstadoEnvio.ENVIANDO) == 1) {
+                email.setEstado(EstadoEnvio.ENVIANDO);
+                email.setProximoIntento(reservaHasta);
+                reservados.add(email);
+            }
+        }
+
+        for (int i = 0; i < reservados.size(); i += tamanoLote) {
+            List<EmailOutbox> lote = new ArrayList<>(reservados.subList(i, Math.min(i + tamanoLote, reservados.size())));
+            try {
+                executor.execute(() -> enviarLote(lote));
+            } catch (TaskRejectedException e) {
+                // Quedan reservados; al vencer la reserva vuelven a PENDIENTE
+                log.warn("Pool de correo saturado, {} correos se reintentarán más tarde", lote.size());
+            }
+        }
+    }
+
+    void enviarLote(List<EmailOutbox> lote) {
+        Map<MimeMessage, EmailOutbox> porMensaje = new IdentityHashMap<>();
+        for (EmailOutbox email : lote) {
+            try {
+                porMensaje.put(construirMensaje(email), email);
+            } catch (MessagingException e) {
+                // Dirección o contenido inválido: reintentar no lo arregla
+                marcarFallido(email, e);
+            }
+        }
+
+        Map<Object, Exception> fallidos = Collections.emptyMap();
+        if (!porMensaje.isEmpty()) {
+            List<MimeMessage> mensajes = new ArrayList<>(porMensaje.keySet());
+            try {
+                mailSender.send(mensajes.toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                // Incluye la falla de conexión: en ese caso vienen todos los mensajes
+                fallidos = e.getFailedMessages();
+                if (fallidos.isEmpty()) {
+                    fallidos = todosFallidos(mensajes, e);
+                }
+            } catch (MailException e) {
+                fallidos = todosFallidos(mensajes, e);
+            }
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        for (Map.Entry<MimeMessage, EmailOutbox> entrada : porMensaje.entrySet()) {
+            EmailOutbox email = entrada.getValue();
+            Exception error = fallidos.get(entrada.getKey());
+            if (error == null) {
+                email.setEstado(EstadoEnvio.ENVIADO);
+                email.setFechaEnvio(ahora);
+                email.setIntentos(email.getIntentos() + 1);
+                email.setUltimoError(null);
+            } else {
+                programarReintento(email, error, ahora);
+            }
+        }
+
+        outboxRepository.saveAll(lote);
+        log.info("Lote de correos procesado: {} enviados, {} con error",
+                porMensaje.size() - fallidos.size(), lote.size() - (porMensaje.size() - fallidos.size()));
+    }
+
+    private MimeMessage construirMensaje(EmailOutbox email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(email.getDestinatario());
+        helper.setSubject(email.getAsunto());
+        helper.setText(email.getCuerpo(), email.isEsHtml());
+        return message;
+    }
+
+    private void programarReintento(EmailOutbox email, Exception error, LocalDateTime ahora) {
+        int intentos = email.getIntentos() + 1;
+        email.setIntentos(intentos);
+        email.setUltimoError(recortar(error.getMessage()));
+        if (intentos >= maxIntentos) {
+            email.setEstado(EstadoEnvio.FALLIDO);
+            log.error("Correo {} a {} descartado tras {} intentos: {}",
+                    email.getIdEmail(), email.getDestinatario(), intentos, error.getMessage());
+            return;
+        }
+        email.setEstado(EstadoEnvio.PENDIENTE);
+        email.setProximoIntento(ahora.plus(calcularEspera(intentos)));
+        log.warn("Correo {} a {} falló (intento {}), se reintenta a las {}",
+                email.getIdEmail(), email.getDestinatario(), intentos, email.getProximoIntento());
+    }
+
+    private void marcarFallido(EmailOutbox email, Exception error) {
+        email.setIntentos(email.getIntentos() + 1);
+        email.setEstado(EstadoEnvio.FALLIDO);
+        email.setUltimoError(recortar(error.getMessage()));
+        log.error("Correo {} a {} no se puede construir: {}", email.getIdEmail(), email.getDestinatario(), error.getMessage());
+    }
+
+    /** backoffInicial * 2^(intentos-1), acotado por backoffMaximo. */
+    Duration calcularEspera(int intentos) {
+        Duration espera = backoffInicial.multipliedBy(1L << Math.min(intentos - 1, 20));
+        return espera.compareTo(backoffMaximo) > 0 ? backoffMaximo : espera;
+    }
+
+    private Map<Object, Exception> todosFallidos(List<MimeMessage> mensajes, Exception error) {
+        Map<Object, Exception> fallidos = new IdentityHashMap<>();
+        mensajes.forEach(m -> fallidos.put(m, error));
+        return fallidos;
+    }
+
+    private String recortar(String mensaje) {
+        if (mensaje == null) {
+            return null;
+        }
+        return mensaje.length() > 1000 ? mensaje.substring(0, 1000) : mensaje;
+    }
+
+    @Scheduled(cron = "${email.outbox.purga-cron:0 30 3 * * *}")
+    public void purgarEnviados() {
+        int eliminados = outboxRepository.eliminarEnviadosAntesDe(
+                LocalDateTime.now().minusDays(retencionDias), EstadoEnvio.ENVIADO);
+        if (eliminados > 0) {
+            log.info("Cola de correos: {} correos enviados eliminados", eliminados);
+        }
+    }
+}
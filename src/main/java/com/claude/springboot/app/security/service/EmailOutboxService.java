@@ -0,0 +1,48 @@
+package com.claude.springboot.app.security.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.claude.springboot.app.security.entities.EmailOutbox;
+import com.claude.springboot.app.security.repositories.EmailOutboxRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Encola correos en la tabla email_outbox dentro de la transacción actual.
+ * Si la transacción hace rollback el correo no se envía; si hace commit se
+ * avisa al despachador para que no espere al siguiente ciclo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailOutboxDispatcher dispatcher;
+
+    @Transactional
+    public void encolar(String destinatario, String asunto, String cuerpo, boolean esHtml) {
+        EmailOutbox email = new EmailOutbox();
+        email.setDestinatario(destinatario);
+        email.setAsunto(asunto);
+        email.setCuerpo(cuerpo);
+        email.setEsHtml(esHtml);
+        outboxRepository.save(email);
+        log.debug("Correo '{}' para {} encolado", asunto, destinatario);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatcher.despertar();
+                }
+            });
+        } else {
+            dispatcher.despertar();
+        }
+    }
+}
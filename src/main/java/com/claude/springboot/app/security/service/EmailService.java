@@ -24,6 +24,7 @@ public class EmailService {
     
     private final JavaMailSender mailSender;
     private final TemplateEngine templateEngine;
+    private final EmailOutboxService emailOutboxService;
 
     @Value("${spring.mail.username}")
     private String fromEmail;
@@ -62,13 +63,6 @@ public class EmailService {
 
     public void enviarConfirmacionPQRS(String email, String numeroRadicado, String linkConsulta) {
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(email);
-            helper.setSubject("Confirmación de Radicación PQRS " + numeroRadicado);
-            
             String contenido = String.format(
                 "Estimado usuario,%n%n" +
                 "Su PQRS ha sido registrado exitosamente con el número de radicado: %s%n%n" +
@@ -82,11 +76,11 @@ public class EmailService {
                 linkConsulta
             );
             
-            helper.setText(contenido);
-            mailSender.send(message);
+            // Se envía en segundo plano después del commit
+            emailOutboxService.encolar(email, "Confirmación de Radicación PQRS " + numeroRadicado, contenido, false);
             
         } catch (Exception e) {
-            log.error("Error enviando email de confirmación PQRS: {}", e.getMessage());
+            log.error("Error encolando email de confirmación PQRS: {}", e.getMessage());
             throw new RuntimeException("Error enviando email de confirmación", e);
         }
     }
@@ -98,13 +92,6 @@ public class EmailService {
                 return;
             }
 
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(funcionario.getPersona().getEmail());
-            helper.setSubject("Nueva respuesta del solicitante - PQRS " + pqrs.getNumeroRadicado());
-            
             String contenido = String.format(
                 "Estimado %s,%n%n" +
                 "El solicitante ha proporcionado una nueva respuesta al PQRS %s.%n%n" +
@@ -118,8 +105,8 @@ public class EmailService {
                 pqrs.getIdPqrs()
             );
             
-            helper.setText(contenido);
-            mailSender.send(message);
+            emailOutboxService.encolar(funcionario.getPersona().getEmail(),
+                    "Nueva respuesta del solicitante - PQRS " + pqrs.getNumeroRadicado(), contenido, false);
             
         } catch (Exception e) {
             log.error("Error enviando notificación de respuesta: {}", e.getMessage());
@@ -135,13 +122,6 @@ public class EmailService {
                 return;
             }
 
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(funcionario.getPersona().getEmail());
-            helper.setSubject("Nueva respuesta de usuario registrado - PQRS " + pqrs.getNumeroRadicado());
-            
             String contenido = String.format(
                 "Estimado %s,%n%n" +
                 "El usuario registrado ha proporcionado una nueva respuesta al PQRS %s.%n%n" +
@@ -155,8 +135,8 @@ public class EmailService {
                 pqrs.getIdPqrs()
             );
             
-            helper.setText(contenido);
-            mailSender.send(message);
+            emailOutboxService.encolar(funcionario.getPersona().getEmail(),
+                    "Nueva respuesta de usuario registrado - PQRS " + pqrs.getNumeroRadicado(), contenido, false);
             
         } catch (Exception e) {
             log.error("Error enviando notificación de respuesta de usuario: {}", e.getMessage());
@@ -166,13 +146,6 @@ public class EmailService {
 
     public void enviarCorreoConfirmacionPqrsAUsuarioRegistrado(Pqrs pqrs, Usuario usuario) {
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(usuario.getPersona().getEmail());
-            helper.setSubject("Confirmación de Radicación PQRS " + pqrs.getNumeroRadicado());
-            
             // Crear contexto para el template
             Context context = new Context();
             context.setVariable("nombreUsuario", usuario.getPersona().getNombreCompleto());
@@ -186,9 +159,9 @@ public class EmailService {
             String contenido = templateEngine.process("notificacion-confirmation", context);
             log.debug("Contenido del email generado: {}", contenido); // Para debug
             
-            helper.setText(contenido, true);
-            mailSender.send(message);
-            log.info("Email de confirmación enviado a: {}", usuario.getPersona().getEmail());
+            emailOutboxService.encolar(usuario.getPersona().getEmail(),
+                    "Confirmación de Radicación PQRS " + pqrs.getNumeroRadicado(), contenido, true);
+            log.info("Email de confirmación encolado para: {}", usuario.getPersona().getEmail());
             
         } catch (Exception e) {
             log.error("Error enviando email de confirmación PQRS a usuario registrado: {}", e.getMessage());
@@ -198,13 +171,6 @@ public class EmailService {
 
     public void notificarNuevoSeguimiento(Pqrs pqrs, String tipoSeguimiento) {
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(pqrs.getEmailSolicitante());
-            helper.setSubject("Actualización en su PQRS " + pqrs.getNumeroRadicado());
-    
             // Crear contexto para el template
             Context context = new Context();
             context.setVariable("nombreUsuario", pqrs.getNombreSolicitante());
@@ -224,10 +190,10 @@ public class EmailService {
             // Procesar el template
             String contenido = templateEngine.process("notificacion-seguimiento", context);
             
-            helper.setText(contenido, true);
-            mailSender.send(message);
+            emailOutboxService.encolar(pqrs.getEmailSolicitante(),
+                    "Actualización en su PQRS " + pqrs.getNumeroRadicado(), contenido, true);
             
-            log.info("Notificación de seguimiento enviada a: {}", pqrs.getEmailSolicitante());
+            log.info("Notificación de seguimiento encolada para: {}", pqrs.getEmailSolicitante());
             
         } catch (Exception e) {
             log.error("Error enviando notificación de seguimiento: {}", e.getMessage());
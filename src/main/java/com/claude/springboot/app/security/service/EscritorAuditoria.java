@@ -0,0 +1,183 @@
+package com.claude.springboot.app.security.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.claude.springboot.app.utils.BufferCircular;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Persiste la auditoría de accesos en auditoria_acceso.
+ *
+ * Las peticiones solo dejan el evento en un {@link BufferCircular} (sin locks
+ * ni E/S); un hilo en segundo plano lo vacía con inserciones JDBC por lotes
+ * cada {@code auditoria.intervalo}, o antes si se juntan
+ * {@code auditoria.lote} eventos. Si el buffer se llena o la BD falla, los
+ * eventos se descartan y se cuentan: la auditoría nunca frena una petición.
+ */
+@Component
+@Slf4j
+public class EscritorAuditoria {
+
+    private static final String INSERTAR = "INSERT INTO auditoria_acceso "
+            + "(fecha, username, metodo, ruta, handler, estado_http, duracion_ms, id_pqrs) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskExecutor executor;
+    private final BufferCircular<Evento> buffer;
+    private final int lote;
+
+    private final AtomicBoolean enCurso = new AtomicBoolean(false);
+    private final AtomicBoolean repetir = new AtomicBoolean(false);
+    private final AtomicBoolean despertado = new AtomicBoolean(false);
+    private final AtomicLong escritos = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+
+    public EscritorAuditoria(JdbcTemplate jdbcTemplate,
+                             @Qualifier("auditoriaExecutor") TaskExecutor executor,
+                             @Value("${auditoria.capacidad:8192}") int capacidad,
+                             @Value("${auditoria.lote:500}") int lote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+        this.buffer = new BufferCircular<>(capacidad);
+        this.lote = lote;
+    }
+
+    /**
+     * Encola el evento sin bloquear. Lo llama el hilo de la petición.
+     */
+    public void registrar(Evento evento) {
+        if (!buffer.ofrecer(evento)) {
+            // Un aviso cada mil descartes para no inundar el log
+            if (descartados.incrementAndGet() % 1000 == 1) {
+                log.warn("Buffer de auditoría lleno, {} eventos descartados en total", descartados.get());
+            }
+            return;
+        }
+        if (buffer.tamano() >= lote && despertado.compareAndSet(false, true)) {
+            despertar();
+        }
+    }
+
+    private void despertar() {
+        try {
+            executor.execute(this::escribirPendientes);
+        } catch (TaskRejectedException e) {
+            // Ya hay una escritura en cola: el ciclo programado toma el resto
+            despertado.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auditoria.intervalo:1s}", initialDelayString = "${auditoria.intervalo:1s}")
+    public void escribirPendientes() {
+        if (!enCurso.compareAndSet(false, true)) {
+            // Ya hay un ciclo corriendo: que vuelva a mirar al terminar
+            repetir.set(true);
+            return;
+        }
+        try {
+            do {
+                repetir.set(false);
+                despertado.set(false);
+                int escritosEnLote;
+                do {
+                    escritosEnLote = escribirLote();
+                } while (escritosEnLote == lote);
+            } while (repetir.get());
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    /**
+     * @return cuántos eventos se insertaron (0 si no había o si la BD falló)
+     */
+    private int escribirLote() {
+        List<Evento> eventos = new ArrayList<>(Math.min(lote, buffer.tamano() + 1));
+        buffer.drenar(eventos::add, lote);
+        if (eventos.isEmpty()) {
+            return 0;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERTAR, eventos, eventos.size(), EscritorAuditoria::asignar);
+            escritos.addAndGet(eventos.size());
+            return eventos.size();
+        } catch (DataAccessException e) {
+            // Sin reintento: guardar los eventos haría crecer la memoria mientras la BD no responde
+            descartados.addAndGet(eventos.size());
+            log.error("No se pudieron guardar {} eventos de auditoría: {}", eventos.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    private static void asignar(PreparedStatement ps, Evento evento) throws SQLException {
+        ps.setTimestamp(1, Timestamp.valueOf(evento.getFecha()));
+        ps.setString(2, recortar(evento.getUsername(), 150));
+        ps.setString(3, recortar(evento.getMetodo(), 10));
+        ps.setString(4, recortar(evento.getRuta(), 400));
+        ps.setString(5, recortar(evento.getHandler(), 200));
+        ps.setInt(6, evento.getEstadoHttp());
+        ps.setInt(7, evento.getDuracionMs());
+        if (evento.getIdPqrs() != null) {
+            ps.setLong(8, evento.getIdPqrs());
+        } else {
+            ps.setNull(8, Types.BIGINT);
+        }
+    }
+
+    private static String recortar(String valor, int maximo) {
+        return valor != null && valor.length() > maximo ? valor.substring(0, maximo) : valor;
+    }
+
+    @PreDestroy
+    public void vaciar() {
+        escribirPendientes();
+        log.info("Auditoría detenida: {} eventos guardados, {} descartados", escritos.get(), descartados.get());
+    }
+
+    public int getPendientes() {
+        return buffer.tamano();
+    }
+
+    public long getEscritos() {
+        return escritos.get();
+    }
+
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Evento {
+        private final LocalDateTime fecha;
+        private final String username;
+        private final String metodo;
+        private final String ruta;
+        private final String handler;
+        private final int estadoHttp;
+        private final int duracionMs;
+        private final Long idPqrs;
+    }
+}
@@ -4,6 +4,7 @@ package com.claude.springboot.app.security.service;
 import com.claude.springboot.app.security.config.JwtConfig;
 import com.claude.springboot.app.security.entities.Usuario;
 import com.claude.springboot.app.security.repositories.UsuarioRepository;
+import com.claude.springboot.app.security.service.SesionTokenCache.Sesion;
 
 import io.jsonwebtoken.*;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,102 +26,128 @@ import java.util.Date;
 @Slf4j
 public class JwtService {
 
+    /** Claim con la authority del usuario ({@code ROLE_<nombre>}) al momento del login. */
+    static final String CLAIM_ROL = "rol";
+
     private final JwtConfig jwtConfig;
     private final UsuarioRepository usuarioRepository;
+    private final SesionTokenCache sesionTokenCache;
+
+    // El parser es inmutable y seguro entre hilos: se construye una sola vez
+    private volatile JwtParser parser;
 
     public String generateToken(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtConfig.getExpiration());
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(now)
-                .setExpiration(expiryDate)
+                .setExpiration(expiryDate);
+
+        String authority = primeraAuthority(authentication);
+        if (authority != null) {
+            builder.claim(CLAIM_ROL, authority);
+        }
+
+        return builder
                 .signWith(SignatureAlgorithm.HS256, jwtConfig.getSecret().getBytes())
                 .compact();
     }
 
-    public UsernamePasswordAuthenticationToken getAuthentication(String token) {
+    /**
+     * Valida firma y vencimiento y devuelve los claims, o {@code null} si el
+     * token no es válido. Es el único parseo que se hace por petición.
+     */
+    public Claims parseClaims(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(jwtConfig.getSecret().getBytes())
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            String username = claims.getSubject();
-
-            Usuario usuario = usuarioRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-            // Asegúrate de que el rol tenga el prefijo ROLE_
-            String roleName = "ROLE_" + usuario.getRol().getNombre();
-            SimpleGrantedAuthority authority = new SimpleGrantedAuthority(roleName);
-
-            UserDetails userDetails = User.builder()
-                    .username(username)
-                    .password("")
-                    .authorities(Collections.singleton(authority))
-                    .build();
+            return parser().parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Token JWT inválido: {}", e.getMessage());
+            return null;
+        }
+    }
 
-            return new UsernamePasswordAuthenticationToken(userDetails, null, Collections.singleton(authority));
+    public UsernamePasswordAuthenticationToken getAuthentication(String token) {
+        try {
+            Claims claims = parser().parseClaimsJws(token).getBody();
+            return getAuthentication(claims);
         } catch (RuntimeException e) {
             log.error("Error al obtener la autenticación", e);
             return null;
         }
     }
 
-    public boolean validateToken(String token) {
-        try {
-            Jwts.parser()
-                .setSigningKey(jwtConfig.getSecret().getBytes())
-                .parseClaimsJws(token);
-            return true;
-        } catch (JwtException e) {
-            log.error("Token JWT inválido: {}", e.getMessage());
-            return false;
+    /**
+     * Construye la autenticación a partir de los claims. El rol sale del token;
+     * para tokens emitidos antes de incluir el claim se toma de la sesión.
+     */
+    public UsernamePasswordAuthenticationToken getAuthentication(Claims claims) {
+        String username = claims.getSubject();
+        String roleName = claims.get(CLAIM_ROL, String.class);
+        if (roleName == null) {
+            roleName = obtenerSesion(username).getAuthority();
+            if (roleName == null) {
+                log.warn("No se pudo determinar el rol del usuario: {}", username);
+                return null;
+            }
         }
+
+        SimpleGrantedAuthority authority = new SimpleGrantedAuthority(roleName);
+
+        UserDetails userDetails = User.builder()
+                .username(username)
+                .password("")
+                .authorities(Collections.singleton(authority))
+                .build();
+
+        return new UsernamePasswordAuthenticationToken(userDetails, null, Collections.singleton(authority));
+    }
+
+    public boolean validateToken(String token) {
+        return parseClaims(token) != null;
     }
 
     public boolean isValidSessionToken(String username, String token) {
+        return isValidSessionToken(username, token, null);
+    }
+
+    /**
+     * Verifica contra la caché de sesiones que el token sea el vigente del
+     * usuario. Si se indica {@code authority}, además exige que el rol del
+     * token siga siendo el del usuario (un cambio de rol obliga a reingresar).
+     */
+    public boolean isValidSessionToken(String username, String token, String authority) {
         try {
-            log.debug("Validando token de sesión para usuario: {}", username);
-            
-            Usuario usuario = usuarioRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-            
-            log.debug("Token almacenado: {}", usuario.getTokenSesion());
-            log.debug("Token recibido: {}", token);
-            log.debug("Estado usuario: {}", usuario.isEstado());
-            log.debug("Último login: {}", usuario.getUltimoLogin());
+            Sesion sesion = obtenerSesion(username);
             
-            if (usuario.getTokenSesion() == null) {
+            if (sesion.getToken() == null) {
                 log.warn("No hay token de sesión almacenado para el usuario");
                 return false;
             }
             
-            if (!token.equals(usuario.getTokenSesion())) {
+            if (!token.equals(sesion.getToken())) {
                 log.warn("El token no coincide con el almacenado");
                 return false;
             }
             
-            if (!usuario.isEstado()) {
+            if (!sesion.isActivo()) {
                 log.warn("Usuario no está activo");
                 return false;
             }
             
-            if (usuario.getUltimoLogin() == null) {
+            if (sesion.getExpiraEn() == null) {
                 log.warn("No hay registro de último login");
                 return false;
             }
 
-            LocalDateTime expirationTime = usuario.getUltimoLogin()
-                    .plusSeconds(jwtConfig.getExpiration() / 1000);
-            
-            boolean isValid = LocalDateTime.now().isBefore(expirationTime);
-            log.debug("Token válido: {}", isValid);
-            
-            return isValid;
+            if (authority != null && !authority.equals(sesion.getAuthority())) {
+                log.warn("El rol del token ya no corresponde al del usuario");
+                return false;
+            }
+
+            return LocalDateTime.now().isBefore(sesion.getExpiraEn());
         } catch (Exception e) {
             log.error("Error validando token de sesión", e);
             return false;
@@ -132,10 +160,7 @@ public class JwtService {
             
             Usuario usuario = usuarioRepository.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-            
-            usuario.setTokenSesion(token);
-            usuario.setUltimoLogin(LocalDateTime.now());
-            usuarioRepository.save(usuario);
+            registrarSesion(usuario, token);
             
             log.debug("Token de sesión actualizado exitosamente");
         } catch (Exception e) {
@@ -144,6 +169,20 @@ public class JwtService {
         }
     }
 
+    /**
+     * Guarda token de sesión y último login del usuario ya cargado con un
+     * solo UPDATE, y deja la sesión en caché.
+     */
+    public void registrarSesion(Usuario usuario, String token) {
+        LocalDateTime ahora = LocalDateTime.now();
+        if (usuarioRepository.registrarSesion(usuario.getIdUsuario(), token, ahora) == 0) {
+            throw new RuntimeException("Usuario no encontrado");
+        }
+        usuario.setTokenSesion(token);
+        usuario.setUltimoLogin(ahora);
+        sesionTokenCache.guardar(usuario.getUsername(), aSesion(usuario));
+    }
+
     /**
      * Invalida la sesión del usuario eliminando su token de sesión
      */
@@ -156,6 +195,7 @@ public class JwtService {
             usuario.setTokenSesion(null);
             usuario.setUltimoLogin(null);
             usuarioRepository.save(usuario);
+            sesionTokenCache.revocar(username);
             
             log.info("Sesión invalidada exitosamente para el usuario: {}", username);
         } catch (Exception e) {
@@ -164,4 +204,42 @@ public class JwtService {
         }
     }
 
-}
\ No newline at end of file
+    private Sesion obtenerSesion(String username) {
+        Sesion sesion = sesionTokenCache.obtener(username);
+        if (sesion == null) {
+            long version = sesionTokenCache.version(username);
+            sesion = usuarioRepository.findByUsername(username)
+                    .map(this::aSesion)
+                    .orElseGet(() -> new Sesion(null, null, false, null));
+            sesionTokenCache.guardarSiVigente(username, sesion, version);
+        }
+        return sesion;
+    }
+
+    private Sesion aSesion(Usuario usuario) {
+        String authority = usuario.getRol() != null ? "ROLE_" + usuario.getRol().getNombre() : null;
+        LocalDateTime expiraEn = usuario.getUltimoLogin() != null
+                ? usuario.getUltimoLogin().plusSeconds(jwtConfig.getExpiration() / 1000)
+                : null;
+        return new Sesion(usuario.getTokenSesion(), authority, usuario.isEstado(), expiraEn);
+    }
+
+    private String primeraAuthority(Authentication authentication) {
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            return authority.getAuthority();
+        }
+        return null;
+    }
+
+    private JwtParser parser() {
+        JwtParser actual = parser;
+        if (actual == null) {
+            actual = Jwts.parserBuilder()
+                    .setSigningKey(jwtConfig.getSecret().getBytes())
+                    .build();
+            parser = actual;
+        }
+        return actual;
+    }
+
+}
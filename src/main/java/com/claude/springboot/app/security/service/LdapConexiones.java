@@ -0,0 +1,279 @@
+package com.claude.springboot.app.security.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.AuthenticationException;
+import javax.naming.CommunicationException;
+import javax.naming.Context;
+import javax.naming.NamingException;
+import javax.naming.ServiceUnavailableException;
+import javax.naming.ldap.InitialLdapContext;
+import javax.naming.ldap.LdapContext;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Conexiones al directorio activo.
+ *
+ * - Los contextos de la cuenta de servicio se reutilizan desde un pool
+ *   propio (LIFO, como máximo {@code ad.pool.maximo}); una tarea periódica
+ *   cierra los inactivos y comprueba los demás leyendo el RootDSE.
+ * - {@code ad.url} admite varios servidores separados por espacios. Se
+ *   prueban en orden; el que no responde queda fuera durante
+ *   {@code ad.failover.reintento} y se pasa al siguiente.
+ * - El bind de un usuario siempre abre una conexión nueva que se cierra
+ *   enseguida: no se deja en el pool un contexto con sus credenciales.
+ */
+@Slf4j
+@Component
+public class LdapConexiones {
+
+    /** Operación sobre un contexto prestado del pool. */
+    @FunctionalInterface
+    public interface OperacionLdap<T> {
+        T ejecutar(LdapContext contexto) throws NamingException;
+    }
+
+    private static final String[] ATRIBUTOS_PING = { "supportedLDAPVersion" };
+
+    private static final class Servidor {
+        private final String url;
+        private volatile long caidoHasta;
+
+        private Servidor(String url) {
+            this.url = url;
+        }
+
+        private boolean disponible(long ahora) {
+            return caidoHasta - ahora <= 0;
+        }
+    }
+
+    private static final class Entrada {
+        private final LdapContext contexto;
+        private final Servidor servidor;
+        private long ultimoUso = System.nanoTime();
+
+        private Entrada(LdapContext contexto, Servidor servidor) {
+            this.contexto = contexto;
+            this.servidor = servidor;
+        }
+    }
+
+    private final List<Servidor> servidores;
+    private final String timeout;
+    private final String referral;
+    private final String usuarioServicio;
+    private final String claveServicio;
+    private final Duration inactividadMaxima;
+    private final Duration reintento;
+
+    // Un permiso por contexto prestado: prestados + libres nunca pasan del máximo
+    private final Semaphore cupos;
+    private final BlockingDeque<Entrada> libres = new LinkedBlockingDeque<>();
+
+    public LdapConexiones(@Value("${ad.url}") String urls,
+                          @Value("${ad.timeout:5000}") String timeout,
+                          @Value("${ad.referral:follow}") String referral,
+                          @Value("${ad.serviceAccount.username:}") String usuarioServicio,
+                          @Value("${ad.serviceAccount.password:}") String claveServicio,
+                          @Value("${ad.pool.maximo:4}") int maximo,
+                          @Value("${ad.pool.inactividad-maxima:5m}") Duration inactividadMaxima,
+                          @Value("${ad.failover.reintento:30s}") Duration reintento) {
+        this.servidores = Arrays.stream(urls.trim().split("[\\s,]+"))
+                .filter(url -> !url.isEmpty())
+                .map(Servidor::new)
+                .toList();
+        if (servidores.isEmpty()) {
+            throw new IllegalArgumentException("ad.url no tiene ningún servidor");
+        }
+        this.timeout = timeout;
+        this.referral = referral;
+        this.usuarioServicio = usuarioServicio;
+        this.claveServicio = claveServicio;
+        this.cupos = new Semaphore(maximo, true);
+        this.inactividadMaxima = inactividadMaxima;
+        this.reintento = reintento;
+    }
+
+    public boolean tieneCuentaDeServicio() {
+        return !usuarioServicio.isBlank() && !claveServicio.isBlank();
+    }
+
+    /**
+     * Ejecuta la operación con un contexto de la cuenta de servicio. Si el
+     * servidor se cae a mitad, descarta el contexto y repite en otro.
+     */
+    public <T> T conCuentaDeServicio(OperacionLdap<T> operacion) throws NamingException {
+        if (!tieneCuentaDeServicio()) {
+            throw new AuthenticationException("Credenciales del Service Account no configuradas");
+        }
+        adquirirCupo();
+        try {
+            NamingException ultimo = null;
+            for (int intento = 0; intento <= servidores.size(); intento++) {
+                Entrada entrada = libres.pollFirst();
+                if (entrada == null) {
+                    entrada = abrir(usuarioServicio, claveServicio);
+                }
+                try {
+                    T resultado = operacion.ejecutar(entrada.contexto);
+                    devolver(entrada);
+                    return resultado;
+                } catch (CommunicationException | ServiceUnavailableException e) {
+                    cerrar(entrada.contexto);
+                    marcarCaido(entrada.servidor, e);
+                    ultimo = e;
+                } catch (NamingException | RuntimeException e) {
+                    devolver(entrada);
+                    throw e;
+                }
+            }
+            throw ultimo;
+        } finally {
+            cupos.release();
+        }
+    }
+
+    /**
+     * Bind simple con las credenciales del usuario en una conexión propia.
+     *
+     * @throws AuthenticationException si el directorio rechaza las credenciales
+     * @throws NamingException si ningún servidor respondió
+     */
+    public void bind(String principal, String clave) throws NamingException {
+        cerrar(abrir(principal, clave).contexto);
+    }
+
+    /**
+     * Cierra los contextos libres que llevan demasiado tiempo sin usarse y
+     * comprueba que los demás siguen vivos.
+     */
+    @Scheduled(fixedDelayString = "${ad.pool.validacion:60s}", initialDelayString = "${ad.pool.validacion:60s}")
+    public void validar() {
+        long ahora = System.nanoTime();
+        List<Entrada> vivas = new ArrayList<>();
+        // Cada contexto en revisión ocupa un cupo, como si estuviera prestado
+        for (int i = libres.size(); i > 0 && cupos.tryAcquire(); i--) {
+            Entrada entrada = libres.pollLast();
+            if (entrada == null) {
+                cupos.release();
+                break;
+            }
+            if (ahora - entrada.ultimoUso > inactividadMaxima.toNanos()) {
+                cerrar(entrada.contexto);
+                cupos.release();
+                continue;
+            }
+            try {
+                entrada.contexto.getAttributes("", ATRIBUTOS_PING);
+                vivas.add(entrada);
+            } catch (NamingException e) {
+                cerrar(entrada.contexto);
+                marcarCaido(entrada.servidor, e);
+                cupos.release();
+            }
+        }
+        vivas.forEach(libres::offerLast);
+        cupos.release(vivas.size());
+    }
+
+    public int getLibres() {
+        return libres.size();
+    }
+
+    public int getServidoresDisponibles() {
+        long ahora = System.nanoTime();
+        return (int) servidores.stream().filter(servidor -> servidor.disponible(ahora)).count();
+    }
+
+    @PreDestroy
+    public void cerrarTodo() {
+        Entrada entrada;
+        while ((entrada = libres.pollFirst()) != null) {
+            cerrar(entrada.contexto);
+        }
+    }
+
+    /**
+     * Abre un contexto en el primer servidor disponible. Si todos están
+     * marcados como caídos los intenta igual, por si alguno ya volvió.
+     */
+    private Entrada abrir(String principal, String clave) throws NamingException {
+        long ahora = System.nanoTime();
+        List<Servidor> candidatos = servidores.stream().filter(servidor -> servidor.disponible(ahora)).toList();
+        if (candidatos.isEmpty()) {
+            candidatos = servidores;
+        }
+
+        NamingException ultimo = null;
+        for (Servidor servidor : candidatos) {
+            try {
+                Entrada entrada = new Entrada(new InitialLdapContext(entorno(servidor.url, principal, clave), null),
+                        servidor);
+                servidor.caidoHasta = ahora;
+                return entrada;
+            } catch (CommunicationException | ServiceUnavailableException e) {
+                marcarCaido(servidor, e);
+                ultimo = e;
+            }
+        }
+        throw ultimo;
+    }
+
+    private Hashtable<String, String> entorno(String url, String principal, String clave) {
+        Hashtable<String, String> env = new Hashtable<>();
+        env.put(Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.ldap.LdapCtxFactory");
+        env.put(Context.PROVIDER_URL, url);
+        env.put(Context.SECURITY_AUTHENTICATION, "simple");
+        env.put(Context.SECURITY_PRINCIPAL, principal);
+        env.put(Context.SECURITY_CREDENTIALS, clave);
+        env.put(Context.REFERRAL, referral);
+        env.put("com.sun.jndi.ldap.connect.timeout", timeout);
+        env.put("com.sun.jndi.ldap.read.timeout", timeout);
+        return env;
+    }
+
+    private void adquirirCupo() throws NamingException {
+        try {
+            if (!cupos.tryAcquire(Long.parseLong(timeout), TimeUnit.MILLISECONDS)) {
+                throw new ServiceUnavailableException("No hubo contexto LDAP libre en " + timeout + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrumpido mientras esperaba un contexto LDAP");
+        }
+    }
+
+    private void devolver(Entrada entrada) {
+        entrada.ultimoUso = System.nanoTime();
+        libres.offerFirst(entrada);
+    }
+
+    private void marcarCaido(Servidor servidor, NamingException e) {
+        servidor.caidoHasta = System.nanoTime() + reintento.toNanos();
+        log.warn("Servidor LDAP {} no responde, se reintenta en {} s: {}",
+                servidor.url, reintento.toSeconds(), e.getMessage());
+    }
+
+    private void cerrar(LdapContext contexto) {
+        try {
+            contexto.close();
+        } catch (NamingException e) {
+            log.debug("Error al cerrar contexto LDAP: {}", e.getMessage());
+        }
+    }
+}
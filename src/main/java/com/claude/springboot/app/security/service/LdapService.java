@@ -1,184 +1,202 @@
 package com.claude.springboot.app.security.service;
 
-import java.util.Hashtable;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import javax.naming.AuthenticationException;
-import javax.naming.Context;
+import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
-import javax.naming.ldap.InitialLdapContext;
+import javax.naming.SizeLimitExceededException;
+import javax.naming.directory.SearchControls;
+import javax.naming.directory.SearchResult;
 import javax.naming.ldap.LdapContext;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Autenticación contra el directorio activo.
+ *
+ * - Modo {@code direct}: bind con {@code usuario@dominio}.
+ * - Modo {@code service-account}: la cuenta de servicio (contexto del pool
+ *   de {@link LdapConexiones}) busca el DN del usuario por sAMAccountName o
+ *   userPrincipalName y luego se hace el bind con ese DN.
+ *
+ * Los resultados definitivos (credenciales válidas o rechazadas) se guardan
+ * unos segundos para absorber ráfagas de logins, con clave HMAC-SHA256 de
+ * usuario y contraseña y una sal aleatoria que no sale de memoria. Si el
+ * mismo login llega varias veces a la vez, solo uno va al directorio. Los
+ * errores de conexión no se guardan.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class LdapService {
-    
-    @Value("${ad.authentication.mode:direct}")
-    private String authenticationMode;
-    
-    @Value("${ad.url}")
-    private String adUrl;
-    
-    @Value("${ad.domain}")
-    private String adDomain;
-    
-    @Value("${ad.timeout:5000}")
-    private String adTimeout;
-    
-    @Value("${ad.searchBase:}")
-    private String searchBase;
-    
-    @Value("${ad.serviceAccount.username:}")
-    private String serviceAccountUsername;
-    
-    @Value("${ad.serviceAccount.password:}")
-    private String serviceAccountPassword;
-    
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final LdapConexiones conexiones;
+    private final String authenticationMode;
+    private final String adDomain;
+    private final String searchBase;
+    private final String filtroUsuario;
+    private final int timeout;
+    private final SecretKeySpec sal;
+    private final AsyncCache<String, Boolean> resultados;
+
+    public LdapService(LdapConexiones conexiones,
+                       @Value("${ad.authentication.mode:direct}") String authenticationMode,
+                       @Value("${ad.domain}") String adDomain,
+                       @Value("${ad.searchBase:}") String searchBase,
+                       @Value("${ad.filtroUsuario:(&(objectClass=user)(|(sAMAccountName={0})(userPrincipalName={1})))}") String filtroUsuario,
+                       @Value("${ad.timeout:5000}") int timeout,
+                       @Value("${ad.cache.exito:60s}") Duration cacheExito,
+                       @Value("${ad.cache.fallo:10s}") Duration cacheFallo) {
+        this.conexiones = conexiones;
+        this.authenticationMode = authenticationMode;
+        this.adDomain = adDomain;
+        this.searchBase = searchBase;
+        this.filtroUsuario = filtroUsuario;
+        this.timeout = timeout;
+
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        this.sal = new SecretKeySpec(bytes, HMAC);
+        this.resultados = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfter(new Expiry<String, Boolean>() {
+                    @Override
+                    public long expireAfterCreate(String clave, Boolean valido, long ahora) {
+                        return (valido ? cacheExito : cacheFallo).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String clave, Boolean valido, long ahora, long restante) {
+                        return expireAfterCreate(clave, valido, ahora);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String clave, Boolean valido, long ahora, long restante) {
+                        return restante;
+                    }
+                })
+                .buildAsync();
+    }
+
     public boolean authenticate(String username, String password) {
-        log.info("=== INICIO AUTENTICACIÓN LDAP ===");
-        log.info("Modo de autenticación configurado: [{}]", authenticationMode);
-        log.info("Usuario a autenticar: [{}]", username);
-        
-        // Decidir qué método usar según la configuración
-        if ("service-account".equalsIgnoreCase(authenticationMode)) {
-            return authenticateWithServiceAccount(username, password);
-        } else {
-            return authenticateDirectly(username, password);
+        // Un bind con contraseña vacía es un bind anónimo y el AD lo acepta
+        if (username == null || username.isBlank() || password == null || password.isEmpty()) {
+            return false;
+        }
+
+        String clave = clave(username, password);
+        CompletableFuture<Boolean> propio = new CompletableFuture<>();
+        CompletableFuture<Boolean> existente = resultados.asMap().putIfAbsent(clave, propio);
+        if (existente != null) {
+            try {
+                return existente.join();
+            } catch (CompletionException e) {
+                return false;
+            }
+        }
+
+        try {
+            boolean valido = verificar(username, password);
+            propio.complete(valido);
+            return valido;
+        } catch (NamingException | RuntimeException e) {
+            log.error("Error de conexión LDAP autenticando a [{}]: {}", username, e.getMessage());
+            // Un futuro fallido sale solo de la caché: el siguiente intento vuelve al directorio
+            propio.completeExceptionally(e);
+            return false;
         }
     }
-    
+
     /**
-     * Autenticación directa - Método original (cada usuario usa sus credenciales)
+     * @return si el directorio aceptó las credenciales
+     * @throws NamingException si no se pudo consultar el directorio
      */
-    private boolean authenticateDirectly(String username, String password) {
-        LdapContext context = null;
+    private boolean verificar(String username, String password) throws NamingException {
+        String principal;
+        if ("service-account".equalsIgnoreCase(authenticationMode)) {
+            Optional<String> dn = conexiones.conCuentaDeServicio(contexto -> buscarDn(contexto, username));
+            if (dn.isEmpty()) {
+                log.info("Usuario [{}] no encontrado en el directorio", username);
+                return false;
+            }
+            principal = dn.get();
+        } else {
+            principal = username.contains("@") ? username : username + "@" + adDomain;
+        }
+
         try {
-            log.info("=== AUTENTICACIÓN DIRECTA LDAP ===");
-            log.info("Iniciando autenticación directa para usuario: [{}]", username);
-            log.info("URL LDAP: {}", adUrl);
-            log.info("Dominio AD: {}", adDomain);
-            log.info("Timeout LDAP (ms): {}", adTimeout);
-            
-            Hashtable<String, String> env = new Hashtable<>();
-            env.put(Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.ldap.LdapCtxFactory");
-            env.put(Context.PROVIDER_URL, adUrl);
-            env.put(Context.SECURITY_AUTHENTICATION, "simple");
-            env.put(Context.REFERRAL, "follow");
-            env.put("com.sun.jndi.ldap.connect.timeout", adTimeout);
-            env.put("com.sun.jndi.ldap.read.timeout", adTimeout);
-            
-            String userDn = username.contains("@") ? username : username + "@" + adDomain;
-            log.info("UserDn construido: [{}]", userDn);
-            log.info("Password proporcionado: {} caracteres", password != null ? password.length() : 0);
-            
-            env.put(Context.SECURITY_PRINCIPAL, userDn);
-            env.put(Context.SECURITY_CREDENTIALS, password);
-            
-            log.info("Intentando conectar al contexto LDAP...");
-            context = new InitialLdapContext(env, null);
-            log.info("=== AUTENTICACIÓN DIRECTA EXITOSA para: [{}] ===", username);
+            conexiones.bind(principal, password);
+            log.info("Autenticación LDAP exitosa para [{}]", username);
             return true;
-            
         } catch (AuthenticationException e) {
-            log.error("=== ERROR DE AUTENTICACIÓN DIRECTA para usuario [{}]: {} ===", username, e.getMessage());
-            log.error("Explicación: Las credenciales proporcionadas no son válidas en el servidor LDAP");
-            return false;
-        } catch (NamingException e) {
-            log.error("=== ERROR DE CONEXIÓN LDAP DIRECTA ===");
-            log.error("Error de conexión LDAP: {}", e.getMessage(), e);
-            if (e.getRootCause() != null) {
-                log.error("Causa raíz: {}", e.getRootCause().getMessage());
-            }
+            log.info("Credenciales LDAP rechazadas para [{}]", username);
             return false;
-        } catch (Exception e) {
-            log.error("=== ERROR INESPERADO EN AUTENTICACIÓN DIRECTA ===");
-            log.error("Error inesperado en autenticación LDAP: {}", e.getMessage(), e);
-            return false;
-        } finally {
-            if (context != null) {
-                try {
-                    context.close();
-                } catch (NamingException e) {
-                    log.error("Error al cerrar contexto LDAP", e);
-                }
-            }
         }
     }
-    
+
     /**
-     * Autenticación con Service Account - Nuevo método
-     * Se conecta con credenciales del servicio y busca el usuario
+     * Busca el DN del usuario. Los valores van como argumentos del filtro, así
+     * JNDI los escapa. Si hay más de una coincidencia no se elige ninguna.
      */
-    private boolean authenticateWithServiceAccount(String username, String password) {
-        LdapContext context = null;
+    private Optional<String> buscarDn(LdapContext contexto, String username) throws NamingException {
+        int arroba = username.indexOf('@');
+        String cuenta = arroba >= 0 ? username.substring(0, arroba) : username;
+        String upn = arroba >= 0 ? username : username + "@" + adDomain;
+
+        SearchControls controles = new SearchControls();
+        controles.setSearchScope(SearchControls.SUBTREE_SCOPE);
+        controles.setCountLimit(2);
+        controles.setTimeLimit(timeout);
+        controles.setReturningAttributes(new String[0]);
+
+        NamingEnumeration<SearchResult> encontrados =
+                contexto.search(searchBase, filtroUsuario, new Object[] { cuenta, upn }, controles);
         try {
-            log.info("=== AUTENTICACIÓN CON SERVICE ACCOUNT ===");
-            log.info("Iniciando autenticación con Service Account para usuario: [{}]", username);
-            log.info("URL LDAP: {}", adUrl);
-            log.info("Service Account: [{}]", serviceAccountUsername);
-            log.info("Timeout LDAP (ms): {}", adTimeout);
-            
-            // Validar que tenemos las credenciales del Service Account
-            if (serviceAccountUsername == null || serviceAccountUsername.trim().isEmpty() ||
-                serviceAccountPassword == null || serviceAccountPassword.trim().isEmpty()) {
-                log.error("ERROR: Credenciales del Service Account no configuradas");
-                log.error("Verifique ad.serviceAccount.username y ad.serviceAccount.password");
-                return false;
+            if (!encontrados.hasMore()) {
+                return Optional.empty();
             }
-            
-            Hashtable<String, String> env = new Hashtable<>();
-            env.put(Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.ldap.LdapCtxFactory");
-            env.put(Context.PROVIDER_URL, adUrl);
-            env.put(Context.SECURITY_AUTHENTICATION, "simple");
-            env.put(Context.REFERRAL, "follow");
-            env.put("com.sun.jndi.ldap.connect.timeout", adTimeout);
-            env.put("com.sun.jndi.ldap.read.timeout", adTimeout);
-            
-            // Usar credenciales del Service Account para conectarse
-            env.put(Context.SECURITY_PRINCIPAL, serviceAccountUsername);
-            env.put(Context.SECURITY_CREDENTIALS, serviceAccountPassword);
-            
-            log.info("Conectando con Service Account...");
-            context = new InitialLdapContext(env, null);
-            log.info("Conexión exitosa con Service Account");
-            
-            // Aquí podrías implementar búsqueda del usuario en el directorio
-            // Por ahora, simplemente validamos que la conexión funciona
-            // y asumimos que el usuario existe (esto es una implementación básica)
-            
-            log.info("=== AUTENTICACIÓN CON SERVICE ACCOUNT EXITOSA para: [{}] ===", username);
-            log.info("NOTA: Implementación básica - validar usuario en directorio si es necesario");
-            return true;
-            
-        } catch (AuthenticationException e) {
-            log.error("=== ERROR DE AUTENTICACIÓN SERVICE ACCOUNT: {} ===", e.getMessage());
-            log.error("Verifique las credenciales del Service Account");
-            return false;
-        } catch (NamingException e) {
-            log.error("=== ERROR DE CONEXIÓN LDAP SERVICE ACCOUNT ===");
-            log.error("Error de conexión LDAP: {}", e.getMessage(), e);
-            if (e.getRootCause() != null) {
-                log.error("Causa raíz: {}", e.getRootCause().getMessage());
+            String dn = encontrados.next().getNameInNamespace();
+            if (encontrados.hasMore()) {
+                log.warn("El usuario [{}] coincide con varias entradas del directorio", username);
+                return Optional.empty();
             }
-            return false;
-        } catch (Exception e) {
-            log.error("=== ERROR INESPERADO EN SERVICE ACCOUNT ===");
-            log.error("Error inesperado: {}", e.getMessage(), e);
-            return false;
+            return Optional.of(dn);
+        } catch (SizeLimitExceededException e) {
+            log.warn("El usuario [{}] coincide con varias entradas del directorio", username);
+            return Optional.empty();
         } finally {
-            if (context != null) {
-                try {
-                    context.close();
-                } catch (NamingException e) {
-                    log.error("Error al cerrar contexto LDAP", e);
-                }
-            }
+            encontrados.close();
+        }
+    }
+
+    private String clave(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(sal);
+            mac.update(username.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 no disponible", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -10,4 +10,34 @@ public interface MenuService {
      * @return DTO con la estructura jerárquica de módulos y rutas permitidas
      */
     MenuResponseDTO getMenuOptionsForUser(String username);
+
+    /**
+     * Menú ya serializado de un rol, tal como se envía al cliente.
+     *
+     * @param authority authority del rol ({@code ROLE_<nombre>})
+     * @return el menú del rol, o uno vacío si el rol no tiene rutas
+     */
+    MenuSerializado obtenerMenu(String authority);
+
+    /**
+     * JSON de un {@link MenuResponseDTO} y su ETag (fuerte, derivado del
+     * contenido). Es compartido entre peticiones: el arreglo no se modifica.
+     */
+    final class MenuSerializado {
+        private final byte[] json;
+        private final String etag;
+
+        public MenuSerializado(byte[] json, String etag) {
+            this.json = json;
+            this.etag = etag;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
 }
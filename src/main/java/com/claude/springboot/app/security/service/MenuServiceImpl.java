@@ -1,173 +1,175 @@
 package com.claude.springboot.app.security.service;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import com.claude.springboot.app.security.dto.MenuResponseDTO;
 import com.claude.springboot.app.security.dto.ModuloMenuDTO;
 import com.claude.springboot.app.security.dto.RutaMenuDTO;
-import com.claude.springboot.app.security.entities.Modulo;
-import com.claude.springboot.app.security.entities.PermisoRol;
 import com.claude.springboot.app.security.entities.Rol;
-import com.claude.springboot.app.security.entities.Ruta;
 import com.claude.springboot.app.security.entities.Usuario;
+import com.claude.springboot.app.security.evaluator.PermisosActualizadosEvent;
 import com.claude.springboot.app.security.repositories.PermisoRolRepository;
 import com.claude.springboot.app.security.repositories.UsuarioRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * El menú depende solo del rol, así que se arma una vez para todos los roles
+ * (una consulta) y se guarda ya serializado a JSON junto con su ETag. Como
+ * {@link com.claude.springboot.app.security.evaluator.MatrizPermisos}, la
+ * instantánea es inmutable y se reemplaza completa: al arrancar, después de
+ * cada cambio en permisos, rutas, roles o módulos, y periódicamente para
+ * recoger cambios hechos por otros nodos.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MenuServiceImpl implements MenuService {
 
+    private static final String PREFIJO_ROL = "ROLE_";
+
     private final UsuarioRepository usuarioRepository;
     private final PermisoRolRepository permisoRolRepository;
+    private final ObjectMapper objectMapper;
+
+    private volatile Map<String, MenuSerializado> menus;
+    private volatile MenuSerializado menuVacio;
 
     @Override
     @Transactional(readOnly = true)
     public MenuResponseDTO getMenuOptionsForUser(String username) {
         try {
-            log.info("Obteniendo opciones de menú para el usuario: {}", username);
-            
             if (username == null || username.isEmpty()) {
                 log.error("Nombre de usuario nulo o vacío");
                 return new MenuResponseDTO(new ArrayList<>());
             }
-            
-            // Obtener el usuario y su rol
+
             Usuario usuario = usuarioRepository.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + username));
-            
-            log.debug("Usuario encontrado: {}", usuario.getIdUsuario());
-            
             Rol rol = usuario.getRol();
             if (rol == null) {
                 log.warn("El usuario {} no tiene un rol asignado", username);
                 return new MenuResponseDTO(new ArrayList<>());
             }
-            
-            log.debug("Rol del usuario: {}", rol.getNombre());
-            
-            // Obtener todos los permisos del rol donde puede_leer es true usando carga temprana
-            List<PermisoRol> permisos = permisoRolRepository.findPermisosWithModulosAndRutasByRolId(rol.getIdRol());
-            log.debug("Permisos encontrados: {}", permisos.size());
-            
-            if (permisos.isEmpty()) {
-                log.warn("No se encontraron permisos para el rol: {}", rol.getNombre());
-                return new MenuResponseDTO(new ArrayList<>());
-            }
-            
-            // Agrupar las rutas por módulo
-            Map<Modulo, List<Ruta>> modulosConRutas = new HashMap<>();
-            
-            for (PermisoRol permiso : permisos) {
-                if (permiso == null) {
-                    log.warn("Se encontró un permiso nulo");
-                    continue;
-                }
-                
-                Ruta ruta = permiso.getRuta();
-                if (ruta == null) {
-                    log.warn("Permiso sin ruta asociada: {}", permiso.getIdPermiso());
-                    continue;
-                }
-                
-                if (!ruta.isEstado()) {
-                    log.debug("Ruta inactiva: {}", ruta.getRuta());
-                    continue;
-                }
-                
-                Modulo modulo = ruta.getModulo();
-                if (modulo == null) {
-                    log.warn("Ruta sin módulo asociado: {}", ruta.getRuta());
-                    continue;
-                }
-                
-                if (!modulo.isEstado()) {
-                    log.debug("Módulo inactivo: {}", modulo.getNombre());
-                    continue;
-                }
-                
-                if (!modulosConRutas.containsKey(modulo)) {
-                    modulosConRutas.put(modulo, new ArrayList<>());
+
+            // Copia propia: la versión en memoria se comparte entre peticiones
+            return objectMapper.readValue(obtenerMenu(PREFIJO_ROL + rol.getNombre()).getJson(), MenuResponseDTO.class);
+        } catch (Exception e) {
+            log.error("Error al obtener opciones de menú para el usuario: {}", username, e);
+            // En lugar de propagar la excepción, devolvemos un menú vacío
+            return new MenuResponseDTO(new ArrayList<>());
+        }
+    }
+
+    @Override
+    public MenuSerializado obtenerMenu(String authority) {
+        Map<String, MenuSerializado> actuales = menus;
+        if (actuales == null) {
+            synchronized (this) {
+                if (menus == null) {
+                    recargar();
                 }
-                modulosConRutas.get(modulo).add(ruta);
+                actuales = menus;
             }
-            
-            log.debug("Módulos con rutas: {}", modulosConRutas.size());
-            
-            if (modulosConRutas.isEmpty()) {
-                log.warn("No se encontraron módulos activos con rutas activas para el usuario: {}", username);
-                return new MenuResponseDTO(new ArrayList<>());
+        }
+        MenuSerializado menu = authority != null ? actuales.get(authority) : null;
+        return menu != null ? menu : menuVacio;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        recargar();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alActualizarPermisos(PermisosActualizadosEvent evento) {
+        log.info("Recargando menús por rol: {}", evento.getMotivo());
+        recargar();
+    }
+
+    @Scheduled(fixedDelayString = "${seguridad.permisos.recarga:5m}", initialDelayString = "${seguridad.permisos.recarga:5m}")
+    public void recargarPeriodicamente() {
+        try {
+            recargar();
+        } catch (Exception e) {
+            // Se conservan los menús anteriores hasta el próximo intento
+            log.error("Error recargando los menús por rol", e);
+        }
+    }
+
+    public synchronized void recargar() {
+        // Filas ordenadas por rol, módulo y ruta: los LinkedHashMap conservan ese orden
+        Map<String, Map<Long, ModuloMenuDTO>> modulosPorRol = new LinkedHashMap<>();
+        Map<String, Map<Long, RutaMenuDTO>> rutasPorModulo = new HashMap<>();
+        for (Object[] fila : permisoRolRepository.findMenusPorRol()) {
+            String rol = (String) fila[0];
+            Long idModulo = (Long) fila[1];
+            Long idRuta = (Long) fila[4];
+            if (rol == null) {
+                continue;
             }
-            
-            // Convertir a DTOs
-            List<ModuloMenuDTO> modulosDTO = new ArrayList<>();
-            
-            for (Map.Entry<Modulo, List<Ruta>> entry : modulosConRutas.entrySet()) {
-                Modulo modulo = entry.getKey();
-                List<Ruta> rutas = entry.getValue();
-                
-                if (rutas.isEmpty()) {
-                    log.debug("Módulo sin rutas: {}", modulo.getNombre());
-                    continue;
-                }
-                
-                // Convertir rutas a DTOs
-                List<RutaMenuDTO> rutasDTO = new ArrayList<>();
-                
-                for (Ruta ruta : rutas) {
-                    // Buscar el permiso específico para esta ruta
-                    PermisoRol permiso = null;
-                    for (PermisoRol p : permisos) {
-                        if (p.getRuta() != null && p.getRuta().getIdRuta().equals(ruta.getIdRuta())) {
-                            permiso = p;
-                            break;
-                        }
-                    }
-                    
-                    RutaMenuDTO rutaDTO = RutaMenuDTO.builder()
-                            .id(ruta.getIdRuta())
-                            .ruta(ruta.getRuta())
-                            .descripcion(ruta.getDescripcion())
-                            .puedeLeer(permiso != null && permiso.isPuedeLeer())
-                            .puedeEscribir(permiso != null && permiso.isPuedeEscribir())
-                            .puedeActualizar(permiso != null && permiso.isPuedeActualizar())
-                            .puedeEliminar(permiso != null && permiso.isPuedeEliminar())
-                            .build();
-                    
-                    rutasDTO.add(rutaDTO);
-                }
-                
-                if (rutasDTO.isEmpty()) {
-                    log.debug("No se encontraron rutas con permisos para el módulo: {}", modulo.getNombre());
-                    continue;
-                }
-                
-                ModuloMenuDTO moduloDTO = ModuloMenuDTO.builder()
-                        .id(modulo.getIdModulo())
-                        .nombre(modulo.getNombre())
-                        .descripcion(modulo.getDescripcion())
-                        .rutas(rutasDTO)
+
+            ModuloMenuDTO modulo = modulosPorRol.computeIfAbsent(rol, k -> new LinkedHashMap<>())
+                    .computeIfAbsent(idModulo, id -> ModuloMenuDTO.builder()
+                            .id(id)
+                            .nombre((String) fila[2])
+                            .descripcion((String) fila[3])
+                            .rutas(new ArrayList<>())
+                            .build());
+
+            // Un mismo par rol/ruta puede estar repetido: se suman los permisos
+            Map<Long, RutaMenuDTO> rutas = rutasPorModulo.computeIfAbsent(rol + "/" + idModulo, k -> new HashMap<>());
+            RutaMenuDTO ruta = rutas.get(idRuta);
+            if (ruta == null) {
+                ruta = RutaMenuDTO.builder()
+                        .id(idRuta)
+                        .ruta((String) fila[5])
+                        .descripcion((String) fila[6])
                         .build();
-                
-                modulosDTO.add(moduloDTO);
+                rutas.put(idRuta, ruta);
+                modulo.getRutas().add(ruta);
             }
-            
-            log.info("Opciones de menú generadas correctamente para el usuario: {}, módulos: {}", username, modulosDTO.size());
-            return new MenuResponseDTO(modulosDTO);
-            
-        } catch (Exception e) {
-            log.error("Error al obtener opciones de menú para el usuario: {}", username, e);
-            // En lugar de propagar la excepción, devolvemos un menú vacío
-            return new MenuResponseDTO(new ArrayList<>());
+            ruta.setPuedeLeer(ruta.isPuedeLeer() || Boolean.TRUE.equals(fila[7]));
+            ruta.setPuedeEscribir(ruta.isPuedeEscribir() || Boolean.TRUE.equals(fila[8]));
+            ruta.setPuedeActualizar(ruta.isPuedeActualizar() || Boolean.TRUE.equals(fila[9]));
+            ruta.setPuedeEliminar(ruta.isPuedeEliminar() || Boolean.TRUE.equals(fila[10]));
+        }
+
+        Map<String, MenuSerializado> nuevos = new HashMap<>(modulosPorRol.size() * 2);
+        modulosPorRol.forEach((rol, modulos) ->
+                nuevos.put(PREFIJO_ROL + rol, serializar(new MenuResponseDTO(new ArrayList<>(modulos.values())))));
+
+        menuVacio = serializar(new MenuResponseDTO(new ArrayList<>()));
+        menus = Collections.unmodifiableMap(nuevos);
+        log.info("Menús por rol cargados: {} roles", nuevos.size());
+    }
+
+    private MenuSerializado serializar(MenuResponseDTO menu) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(menu);
+            byte[] resumen = MessageDigest.getInstance("SHA-256").digest(json);
+            String etag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(resumen) + "\"";
+            return new MenuSerializado(json, etag);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo serializar el menú", e);
         }
     }
 }
@@ -3,11 +3,13 @@ package com.claude.springboot.app.security.service;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.claude.springboot.app.security.dto.ModuloDTO;
 import com.claude.springboot.app.security.entities.Modulo;
+import com.claude.springboot.app.security.evaluator.PermisosActualizadosEvent;
 import com.claude.springboot.app.security.repositories.ModuloRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -19,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 public class ModuloServiceImpl implements ModuloService {
 
     private final ModuloRepository moduloRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -86,6 +89,7 @@ public class ModuloServiceImpl implements ModuloService {
             modulo.setEstado(moduloDTO.isEstado());
 
             modulo = moduloRepository.save(modulo);
+            eventPublisher.publishEvent(new PermisosActualizadosEvent("módulo actualizado " + id));
             return convertirADTO(modulo);
         } catch (Exception e) {
             log.error("Error al actualizar módulo con ID: {}", id, e);
@@ -107,6 +111,7 @@ public class ModuloServiceImpl implements ModuloService {
             } else {
                 moduloRepository.delete(modulo);
             }
+            eventPublisher.publishEvent(new PermisosActualizadosEvent("módulo eliminado " + id));
         } catch (Exception e) {
             log.error("Error al eliminar módulo con ID: {}", id, e);
             throw new RuntimeException("Error al eliminar el módulo");
@@ -7,12 +7,14 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.claude.springboot.app.security.dto.AsignacionPermisosDTO;
 import com.claude.springboot.app.security.dto.PermisoRolDTO;
 import com.claude.springboot.app.security.dto.PermisoRutaDTO;
+import com.claude.springboot.app.security.evaluator.PermisosActualizadosEvent;
 import com.claude.springboot.app.security.entities.PermisoRol;
 import com.claude.springboot.app.security.entities.Rol;
 import com.claude.springboot.app.security.entities.Ruta;
@@ -31,6 +33,7 @@ public class PermisoRolServiceImpl implements PermisoRolService {
     private final PermisoRolRepository permisoRolRepository;
     private final RolRepository rolRepository;
     private final RutaRepository rutaRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -117,6 +120,7 @@ public class PermisoRolServiceImpl implements PermisoRolService {
                     permisoRolRepository.save(permiso);
                 }
             }
+            eventPublisher.publishEvent(new PermisosActualizadosEvent("permisos asignados al rol " + rol.getIdRol()));
         } catch (Exception e) {
             log.error("Error al asignar permisos al rol: {}", asignacionDTO.getIdRol(), e);
             throw new RuntimeException("Error al asignar permisos al rol");
@@ -137,6 +141,7 @@ public class PermisoRolServiceImpl implements PermisoRolService {
             permiso.setEstado(permisoDTO.isEstado());
 
             permiso = permisoRolRepository.save(permiso);
+            eventPublisher.publishEvent(new PermisosActualizadosEvent("permiso actualizado " + idPermiso));
             return convertirADTO(permiso);
         } catch (Exception e) {
             log.error("Error al actualizar permiso: {}", idPermiso, e);
@@ -152,6 +157,7 @@ public class PermisoRolServiceImpl implements PermisoRolService {
                     .orElseThrow(() -> new RuntimeException("Permiso no encontrado"));
             permiso.setEstado(false);
             permisoRolRepository.save(permiso);
+            eventPublisher.publishEvent(new PermisosActualizadosEvent("permiso eliminado " + idPermiso));
         } catch (Exception e) {
             log.error("Error al eliminar permiso: {}", idPermiso, e);
             throw new RuntimeException("Error al eliminar el permiso");
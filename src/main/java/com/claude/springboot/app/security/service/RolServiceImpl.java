@@ -3,11 +3,13 @@ package com.claude.springboot.app.security.service;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.claude.springboot.app.security.dto.RolDTO;
 import com.claude.springboot.app.security.entities.Rol;
+import com.claude.springboot.app.security.evaluator.PermisosActualizadosEvent;
 import com.claude.springboot.app.security.repositories.RolRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -19,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 public class RolServiceImpl implements RolService {
 
     private final RolRepository rolRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(readOnly = true)
@@ -86,6 +89,8 @@ public class RolServiceImpl implements RolService {
             rol.setEstado(rolDTO.isEstado());
 
             rol = rolRepository.save(rol);
+            // La matriz de permisos está indexada por nombre de rol
+            eventPublisher.publishEvent(new PermisosActualizadosEvent("rol actualizado " + id));
             return convertirADTO(rol);
         } catch (Exception e) {
             log.error("Error al actualizar rol con ID: {}", id, e);
@@ -107,6 +112,7 @@ public class RolServiceImpl implements RolService {
             } else {
                 rolRepository.delete(rol);
             }
+            eventPublisher.publishEvent(new PermisosActualizadosEvent("rol eliminado " + id));
         } catch (Exception e) {
             log.error("Error al eliminar rol con ID: {}", id, e);
             throw new RuntimeException("Error al eliminar el rol");
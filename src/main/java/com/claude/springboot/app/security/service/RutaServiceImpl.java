@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +17,7 @@ import com.claude.springboot.app.security.dto.PermisoRolRutaResponseDTO;
 import com.claude.springboot.app.security.dto.RegistroRutaDTO;
 import com.claude.springboot.app.security.dto.RutaResponseDTO;
 import com.claude.springboot.app.security.entities.Modulo;
+import com.claude.springboot.app.security.evaluator.PermisosActualizadosEvent;
 import com.claude.springboot.app.security.entities.PermisoRol;
 import com.claude.springboot.app.security.entities.Rol;
 import com.claude.springboot.app.security.entities.Ruta;
@@ -36,6 +38,7 @@ public class RutaServiceImpl implements RutaService {
     private final ModuloRepository moduloRepository;
     private final RolRepository rolRepository;
     private final PermisoRolRepository permisoRolRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<String> obtenerRutasPublicas() {
         return rutaRepository.findByEstadoTrueAndEsPublicaTrue()
@@ -160,6 +163,7 @@ public class RutaServiceImpl implements RutaService {
                         .collect(Collectors.toList()));
             }
 
+            eventPublisher.publishEvent(new PermisosActualizadosEvent("ruta registrada " + ruta.getRuta()));
             return response;
 
         } catch (Exception e) {
@@ -300,6 +304,7 @@ public class RutaServiceImpl implements RutaService {
                     .collect(Collectors.toList()));
             }
             
+            eventPublisher.publishEvent(new PermisosActualizadosEvent("ruta actualizada " + ruta.getRuta()));
             return response;
             
         } catch (Exception e) {
@@ -320,6 +325,7 @@ public class RutaServiceImpl implements RutaService {
 
         // Eliminar la ruta
         rutaRepository.delete(ruta);
+        eventPublisher.publishEvent(new PermisosActualizadosEvent("ruta eliminada " + ruta.getRuta()));
     }
 
     public RutaResponseDTO mapToRutaResponseDTO(Ruta ruta) {
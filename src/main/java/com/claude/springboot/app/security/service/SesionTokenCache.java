@@ -0,0 +1,197 @@
+package com.claude.springboot.app.security.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Caché en memoria del estado de sesión de cada usuario (token vigente, rol,
+ * estado y vencimiento) para no consultar la tabla usuarios en cada petición.
+ *
+ * Las entradas viven como máximo {@code jwt.sesion-cache.ttl}; ese es el
+ * retraso máximo con que un nodo ve un cierre de sesión o un cambio hecho en
+ * otro nodo. En el nodo que hace el cambio se actualiza al confirmar la
+ * transacción que lo hizo.
+ *
+ * Una carga desde BD no debe pisar un cambio posterior: quien carga toma
+ * antes la {@link #version(String)} del usuario y guarda con
+ * {@link #guardarSiVigente}, que descarta lo leído si entretanto cambió ese
+ * usuario. Los cambios de otros usuarios no afectan la carga.
+ *
+ * Con más de {@code jwt.sesion-cache.max-entradas} usuarios Caffeine expulsa
+ * las entradas menos usadas, no toda la caché.
+ */
+@Component
+public class SesionTokenCache {
+
+    /**
+     * Estado en caché de un usuario y la versión del último cambio que lo
+     * tocó. {@code sesion == null} indica que se olvidó y debe leerse de BD.
+     */
+    private static final class Entrada {
+        private final Sesion sesion;
+        private final long version;
+
+        private Entrada(Sesion sesion, long version) {
+            this.sesion = sesion;
+            this.version = version;
+        }
+    }
+
+    private final ConcurrentMap<String, Entrada> sesiones;
+
+    /** Reloj de versiones: cada cambio toma un valor mayor que todos los anteriores. */
+    private final AtomicLong reloj = new AtomicLong();
+
+    /**
+     * Mayor versión entre las entradas expulsadas por tamaño: si la de un
+     * usuario ya no está, una carga solo se acepta si se leyó después.
+     */
+    private final AtomicLong ultimaExpulsada = new AtomicLong();
+
+    private final Duration ttl;
+
+    public SesionTokenCache(@Value("${jwt.sesion-cache.ttl:30s}") Duration ttl,
+                            @Value("${jwt.sesion-cache.max-entradas:10000}") int maxEntradas) {
+        this.ttl = ttl;
+        // La expulsión corre en el hilo que escribe y el listener se invoca
+        // dentro de la misma operación atómica sobre la clave
+        this.sesiones = Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .executor(Runnable::run)
+                .<String, Entrada>evictionListener((username, entrada, causa) ->
+                        ultimaExpulsada.accumulateAndGet(entrada.version, Math::max))
+                .build()
+                .asMap();
+    }
+
+    /**
+     * Estado de sesión tal como está en BD. {@code token == null} indica que
+     * el usuario no tiene sesión (nunca inició, la cerró o no existe).
+     */
+    public static final class Sesion {
+        private final String token;
+        private final String authority;
+        private final boolean activo;
+        private final LocalDateTime expiraEn;
+        private final long cargadaEnNanos;
+
+        public Sesion(String token, String authority, boolean activo, LocalDateTime expiraEn) {
+            this.token = token;
+            this.authority = authority;
+            this.activo = activo;
+            this.expiraEn = expiraEn;
+            this.cargadaEnNanos = System.nanoTime();
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public String getAuthority() {
+            return authority;
+        }
+
+        public boolean isActivo() {
+            return activo;
+        }
+
+        public LocalDateTime getExpiraEn() {
+            return expiraEn;
+        }
+    }
+
+    /**
+     * @return la sesión en caché si no ha superado el TTL, o {@code null}
+     */
+    public Sesion obtener(String username) {
+        Entrada entrada = sesiones.get(username);
+        if (entrada == null || entrada.sesion == null) {
+            return null;
+        }
+        // La entrada vencida se conserva con su versión hasta que se reemplace
+        if (System.nanoTime() - entrada.sesion.cargadaEnNanos > ttl.toNanos()) {
+            return null;
+        }
+        return entrada.sesion;
+    }
+
+    /**
+     * Versión actual del usuario; se toma antes de leer su sesión de BD para
+     * pasarla a {@link #guardarSiVigente}.
+     */
+    public long version(String username) {
+        Entrada entrada = sesiones.get(username);
+        return entrada != null ? entrada.version : reloj.get();
+    }
+
+    /**
+     * Guarda una sesión leída de BD solo si desde {@code versionLeida} no
+     * cambió ese usuario: si cambió, lo leído puede ser anterior y la próxima
+     * petición vuelve a consultar.
+     */
+    public void guardarSiVigente(String username, Sesion sesion, long versionLeida) {
+        sesiones.compute(username, (clave, actual) -> {
+            boolean vigente = actual != null
+                    ? actual.version == versionLeida
+                    : ultimaExpulsada.get() <= versionLeida;
+            // Lo cargado no es un cambio: conserva la versión leída
+            return vigente ? new Entrada(sesion, versionLeida) : actual;
+        });
+    }
+
+    /**
+     * Deja la sesión en caché al confirmar la transacción en curso (o de
+     * inmediato si no hay).
+     */
+    public void guardar(String username, Sesion sesion) {
+        alConfirmar(() -> aplicar(username, sesion));
+    }
+
+    /**
+     * Registra que el usuario ya no tiene sesión, sin esperar al TTL.
+     */
+    public void revocar(String username) {
+        guardar(username, new Sesion(null, null, false, null));
+    }
+
+    /**
+     * Descarta lo que se sepa del usuario para que la próxima petición lo lea
+     * de BD (cambios de rol, estado o username). Con una transacción en curso
+     * se aplica al confirmarla: antes, una petición concurrente volvería a
+     * cargar el estado anterior.
+     */
+    public void olvidar(String username) {
+        if (username != null) {
+            alConfirmar(() -> aplicar(username, null));
+        }
+    }
+
+    private void aplicar(String username, Sesion sesion) {
+        // Dentro de compute para que una carga concurrente del mismo usuario
+        // vea la nueva versión o quede antes y sea reemplazada. Olvidar deja
+        // la entrada sin sesión para conservar la versión
+        sesiones.compute(username, (clave, actual) -> new Entrada(sesion, reloj.incrementAndGet()));
+    }
+
+    private void alConfirmar(Runnable cambio) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cambio.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cambio.run();
+            }
+        });
+    }
+}
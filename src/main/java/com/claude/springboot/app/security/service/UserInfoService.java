@@ -22,7 +22,14 @@ public class UserInfoService {
         
         Usuario usuario = usuarioRepository.findByUsernameWithRolAndPersona(username)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        return buildLoginResponse(usuario, token, authority);
+    }
 
+    /**
+     * Arma la respuesta con un usuario ya cargado con persona, área,
+     * dirección y empresa (ver {@link UsuarioRepository#findParaLogin}).
+     */
+    public LoginResponse buildLoginResponse(Usuario usuario, String token, String authority) {
         String nombreCompleto = "";
         LoginResponse.AreaInfo areaInfo = null;
         LoginResponse.DireccionInfo direccionInfo = null;
@@ -66,7 +73,7 @@ public class UserInfoService {
         return LoginResponse.builder()
                 .message("Autenticación exitosa")
                 .token(token)
-                .username(username)
+                .username(usuario.getUsername())
                 .rol(authority.replace("ROLE_", ""))
                 .nombreCompleto(nombreCompleto)
                 .area(areaInfo)
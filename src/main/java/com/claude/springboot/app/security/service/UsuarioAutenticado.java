@@ -0,0 +1,31 @@
+package com.claude.springboot.app.security.service;
+
+import java.util.Collections;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import com.claude.springboot.app.security.entities.Usuario;
+
+/**
+ * Principal que devuelve {@link CustomAuthenticationProvider}. Además de lo
+ * que pide Spring Security lleva el usuario ya cargado (rol, persona, área y
+ * empresa), para que el filtro de login registre la sesión y arme la
+ * respuesta sin volver a consultarlo.
+ */
+public class UsuarioAutenticado extends User {
+
+    private final transient Usuario usuario;
+
+    public UsuarioAutenticado(Usuario usuario) {
+        super(usuario.getUsername(),
+                usuario.getPassword() != null ? usuario.getPassword() : "",
+                usuario.isEstado(), true, true, true,
+                Collections.singleton(new SimpleGrantedAuthority("ROLE_" + usuario.getRol().getNombre())));
+        this.usuario = usuario;
+    }
+
+    public Usuario getUsuario() {
+        return usuario;
+    }
+}
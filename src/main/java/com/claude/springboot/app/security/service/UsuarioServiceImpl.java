@@ -64,6 +64,7 @@ public class UsuarioServiceImpl implements UsuarioService {
     private final TokenRestablecimientoRepository tokenRestablecimientoRepository;
     private final EmailService emailService;
     private final PqrsRepository pqrsRepository;
+    private final SesionTokenCache sesionTokenCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -186,6 +187,7 @@ public Usuario crear(UsuarioDTO usuarioDTO) {
     @Transactional
     public Usuario actualizar(Long id, UsuarioDTO usuarioDTO) {
         Usuario usuario = obtenerPorId(id);
+        String usernameAnterior = usuario.getUsername();
 
         // Si se está cambiando el username, verificar que no exista
         if (!usuario.getUsername().equals(usuarioDTO.getUsername()) &&
@@ -213,6 +215,12 @@ public Usuario crear(UsuarioDTO usuarioDTO) {
         }
         usuario.setEstado(usuarioDTO.isEstado());
 
+        // Rol, estado o username pueden haber cambiado: releer la sesión de BD
+        sesionTokenCache.olvidar(usernameAnterior);
+        if (!usuario.getUsername().equals(usernameAnterior)) {
+            // Puede haber en caché un "sin sesión" del nombre nuevo
+            sesionTokenCache.olvidar(usuario.getUsername());
+        }
         return usuarioRepository.save(usuario);
     }
 
@@ -222,6 +230,7 @@ public Usuario crear(UsuarioDTO usuarioDTO) {
         Usuario usuario = obtenerPorId(id);
         usuario.setEstado(false);
         usuarioRepository.save(usuario);
+        sesionTokenCache.olvidar(usuario.getUsername());
     }
 
     @Override
@@ -728,6 +737,7 @@ public Usuario crear(UsuarioDTO usuarioDTO) {
         // Actualizar el usuario
         usuario.setRol(rol);
         usuario.setEstado(dto.getEstado());
+        sesionTokenCache.olvidar(usuario.getUsername());
 
         return usuarioRepository.save(usuario);
     }
@@ -744,6 +754,7 @@ public Usuario crear(UsuarioDTO usuarioDTO) {
         }
 
         usuarioRepository.delete(usuario);
+        sesionTokenCache.olvidar(usuario.getUsername());
     }
 
     @Override
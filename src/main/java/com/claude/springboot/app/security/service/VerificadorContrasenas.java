@@ -0,0 +1,60 @@
+package com.claude.springboot.app.security.service;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compara contraseñas locales en el pool {@code bcryptExecutor}. La petición
+ * espera el resultado, pero como mucho hay un hash por hilo del pool a la
+ * vez; si el pool está saturado o no responde en {@code login.bcrypt.espera}
+ * el login falla con {@link AuthenticationServiceException} en lugar de
+ * quedarse esperando.
+ */
+@Component
+public class VerificadorContrasenas {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor executor;
+    private final Duration espera;
+
+    public VerificadorContrasenas(PasswordEncoder passwordEncoder,
+                                  @Qualifier("bcryptExecutor") ThreadPoolTaskExecutor executor,
+                                  @Value("${login.bcrypt.espera:10s}") Duration espera) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.espera = espera;
+    }
+
+    public boolean coincide(String password, String hash) {
+        Future<Boolean> resultado;
+        try {
+            resultado = executor.submit(() -> passwordEncoder.matches(password, hash));
+        } catch (TaskRejectedException e) {
+            throw new AuthenticationServiceException("Demasiados inicios de sesión simultáneos, intente de nuevo");
+        }
+
+        try {
+            return resultado.get(espera.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            resultado.cancel(true);
+            throw new AuthenticationServiceException("Demasiados inicios de sesión simultáneos, intente de nuevo");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultado.cancel(true);
+            throw new AuthenticationServiceException("Verificación de contraseña interrumpida");
+        } catch (ExecutionException e) {
+            throw new AuthenticationServiceException("Error verificando la contraseña", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.claude.springboot.app.services;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acumula el reporte de PQRS de un período fila por fila, con contadores
+ * primitivos, para leer el rango una sola vez:
+ * <ul>
+ *   <li>conteos por estado, prioridad, tema y área;</li>
+ *   <li>conteo por mes de creación en un arreglo indexado desde el primer
+ *       mes del período;</li>
+ *   <li>tiempo de respuesta (días entre creación y última actualización,
+ *       igual que DATEDIFF(day)) en un histograma, del que salen promedio y
+ *       percentiles exactos.</li>
+ * </ul>
+ * No es seguro para varios hilos.
+ */
+class AcumuladorReporte {
+
+    // Respuestas de 10 años o más comparten la última casilla
+    static final int MAX_DIAS = 3650;
+
+    private static final int[] PERCENTILES = { 50, 75, 90, 95, 99 };
+
+    private final YearMonth primerMes;
+    private final long[] porMes;
+    private final Map<String, long[]> porEstado = new HashMap<>();
+    private final Map<String, long[]> porPrioridad = new HashMap<>();
+    private final Map<String, long[]> porTema = new HashMap<>();
+    private final Map<String, long[]> porArea = new HashMap<>();
+    private final long[] histogramaDias = new long[MAX_DIAS + 1];
+
+    private long total;
+    private long conRespuesta;
+    private long sumaDias;
+    private int maximoDias;
+
+    AcumuladorReporte(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        this.primerMes = YearMonth.from(fechaInicio);
+        this.porMes = new long[(int) primerMes.until(YearMonth.from(fechaFin), ChronoUnit.MONTHS) + 1];
+    }
+
+    void agregar(String estado, String prioridad, String tema, String area,
+                 LocalDateTime fechaCreacion, LocalDateTime fechaUltimaActualizacion) {
+        total++;
+        contar(porEstado, estado);
+        contar(porPrioridad, prioridad);
+        contar(porTema, tema);
+        contar(porArea, area);
+
+        int mes = (int) primerMes.until(YearMonth.from(fechaCreacion), ChronoUnit.MONTHS);
+        if (mes >= 0 && mes < porMes.length) {
+            porMes[mes]++;
+        }
+
+        if (fechaUltimaActualizacion != null) {
+            long dias = Math.max(0, ChronoUnit.DAYS.between(
+                    fechaCreacion.toLocalDate(), fechaUltimaActualizacion.toLocalDate()));
+            histogramaDias[(int) Math.min(dias, MAX_DIAS)]++;
+            sumaDias += dias;
+            maximoDias = (int) Math.max(maximoDias, dias);
+            conRespuesta++;
+        }
+    }
+
+    private static void contar(Map<String, long[]> conteos, String clave) {
+        conteos.computeIfAbsent(clave, k -> new long[1])[0]++;
+    }
+
+    /**
+     * Reporte con las mismas claves que antes ("porArea" sigue agrupando por
+     * tema) más el área responsable, el mes y los percentiles de respuesta.
+     */
+    Map<String, Object> resultado() {
+        Map<String, Object> reporte = new LinkedHashMap<>();
+        reporte.put("totalPqrs", total);
+        reporte.put("porEstado", filas(porEstado, "estado"));
+        reporte.put("porPrioridad", filas(porPrioridad, "prioridad"));
+        reporte.put("porArea", filas(porTema, "area"));
+        reporte.put("porTema", filas(porTema, "tema"));
+        reporte.put("porAreaResponsable", filas(porArea, "area"));
+        reporte.put("tiempoPromedio", conRespuesta > 0 ? redondear((double) sumaDias / conRespuesta) : 0);
+        reporte.put("tiempoRespuesta", tiempoRespuesta());
+        reporte.put("tendenciaMensual", tendenciaMensual());
+        return reporte;
+    }
+
+    // Mayor cantidad primero; LinkedHashMap porque la clave puede ser null
+    private static List<Map<String, Object>> filas(Map<String, long[]> conteos, String nombre) {
+        List<Map<String, Object>> filas = new ArrayList<>(conteos.size());
+        conteos.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+                .forEach(conteo -> {
+                    Map<String, Object> fila = new LinkedHashMap<>();
+                    fila.put(nombre, conteo.getKey());
+                    fila.put("cantidad", conteo.getValue()[0]);
+                    filas.add(fila);
+                });
+        return filas;
+    }
+
+    private Map<String, Object> tiempoRespuesta() {
+        Map<String, Object> tiempo = new LinkedHashMap<>();
+        tiempo.put("cantidad", conRespuesta);
+        tiempo.put("promedio", conRespuesta > 0 ? redondear((double) sumaDias / conRespuesta) : 0);
+        for (int percentil : PERCENTILES) {
+            tiempo.put("p" + percentil, percentil(percentil));
+        }
+        tiempo.put("maximo", maximoDias);
+        return tiempo;
+    }
+
+    // Método del rango más cercano: el menor valor que cubre el percentil
+    int percentil(int percentil) {
+        if (conRespuesta == 0) {
+            return 0;
+        }
+        long rango = (long) Math.ceil(percentil / 100.0 * conRespuesta);
+        long acumulado = 0;
+        for (int dias = 0; dias < histogramaDias.length; dias++) {
+            acumulado += histogramaDias[dias];
+            if (acumulado >= rango) {
+                return dias;
+            }
+        }
+        return MAX_DIAS;
+    }
+
+    // Solo los meses con PQRS, como el GROUP BY anterior
+    private List<Map<String, Object>> tendenciaMensual() {
+        List<Map<String, Object>> tendencia = new ArrayList<>();
+        for (int i = 0; i < porMes.length; i++) {
+            if (porMes[i] > 0) {
+                Map<String, Object> fila = new LinkedHashMap<>();
+                fila.put("mes", primerMes.plusMonths(i).toString());
+                fila.put("cantidad", porMes[i]);
+                tendencia.add(fila);
+            }
+        }
+        return tendencia;
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 100) / 100.0;
+    }
+}
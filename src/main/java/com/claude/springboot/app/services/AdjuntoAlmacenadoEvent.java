@@ -0,0 +1,25 @@
+package com.claude.springboot.app.services;
+
+/**
+ * Se publica cuando {@link FileStorageService} guarda un adjunto.
+ * {@link ProcesadorAdjuntos} lo escucha para generar miniatura, vista
+ * reducida y texto una vez confirmada la transacción.
+ */
+public class AdjuntoAlmacenadoEvent {
+
+    private final String rutaRelativa;
+    private final String tipoMime;
+
+    public AdjuntoAlmacenadoEvent(String rutaRelativa, String tipoMime) {
+        this.rutaRelativa = rutaRelativa;
+        this.tipoMime = tipoMime;
+    }
+
+    public String getRutaRelativa() {
+        return rutaRelativa;
+    }
+
+    public String getTipoMime() {
+        return tipoMime;
+    }
+}
@@ -0,0 +1,35 @@
+package com.claude.springboot.app.services;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.es.SpanishAnalyzer;
+import org.apache.lucene.analysis.es.SpanishLightStemFilter;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+/**
+ * Análisis de texto en español para el índice de PQRS: minúsculas, sin
+ * palabras vacías, sin tildes (los ciudadanos escriben "peticion" y
+ * "petición") y con stemming liviano para que singular y plural coincidan.
+ */
+final class AnalizadorEspanol extends Analyzer {
+
+    @Override
+    protected TokenStreamComponents createComponents(String campo) {
+        Tokenizer fuente = new StandardTokenizer();
+        TokenStream flujo = new LowerCaseFilter(fuente);
+        // Las palabras vacías vienen con tilde: se quitan antes de plegar
+        flujo = new StopFilter(flujo, SpanishAnalyzer.getDefaultStopSet());
+        flujo = new ASCIIFoldingFilter(flujo);
+        flujo = new SpanishLightStemFilter(flujo);
+        return new TokenStreamComponents(fuente, flujo);
+    }
+
+    @Override
+    protected TokenStream normalize(String campo, TokenStream entrada) {
+        return new ASCIIFoldingFilter(new LowerCaseFilter(entrada));
+    }
+}
@@ -0,0 +1,189 @@
+package com.claude.springboot.app.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.claude.springboot.app.dto.BusquedaPqrsDTO;
+import com.claude.springboot.app.dto.CursorPageDTO;
+import com.claude.springboot.app.dto.PqrsResumenDTO;
+import com.claude.springboot.app.entities.Pqrs;
+import com.claude.springboot.app.entities.SeguimientoPqrs;
+import com.claude.springboot.app.repositories.PqrsRepository;
+import com.claude.springboot.app.repositories.SeguimientoPqrsRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Búsqueda de texto sobre las PQRS con {@link IndicePqrs}:
+ * <ul>
+ *   <li>reindexa una PQRS en segundo plano cada vez que se confirma un
+ *       cambio ({@link PqrsModificadaEvent});</li>
+ *   <li>reconstruye el índice desde la base de datos al arrancar con el
+ *       índice vacío o cuando se pide;</li>
+ *   <li>arma las filas de la grilla de los resultados.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class BusquedaPqrsService {
+
+    private static final int TAMANO_LOTE = 200;
+
+    private final IndicePqrs indicePqrs;
+    private final PqrsRepository pqrsRepository;
+    private final SeguimientoPqrsRepository seguimientoRepository;
+    private final ProcesadorAdjuntos procesadorAdjuntos;
+    private final TaskExecutor executor;
+
+    @Value("${busqueda.adjuntos.max-caracteres:100000}")
+    private int maxCaracteresAdjunto;
+
+    public BusquedaPqrsService(IndicePqrs indicePqrs,
+                               PqrsRepository pqrsRepository,
+                               SeguimientoPqrsRepository seguimientoRepository,
+                               ProcesadorAdjuntos procesadorAdjuntos,
+                               @Qualifier("busquedaExecutor") TaskExecutor executor) {
+        this.indicePqrs = indicePqrs;
+        this.pqrsRepository = pqrsRepository;
+        this.seguimientoRepository = seguimientoRepository;
+        this.procesadorAdjuntos = procesadorAdjuntos;
+        this.executor = executor;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarPqrs(PqrsModificadaEvent evento) {
+        try {
+            executor.execute(() -> indexar(List.of(evento.getIdPqrs())));
+        } catch (TaskRejectedException e) {
+            log.warn("Cola del índice de búsqueda llena, la PQRS {} queda desactualizada hasta reconstruirlo",
+                    evento.getIdPqrs());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        if (indicePqrs.estaVacio() && pqrsRepository.count() > 0) {
+            log.info("Índice de búsqueda vacío, se construye desde la base de datos");
+            reconstruirEnSegundoPlano();
+        }
+    }
+
+    public void reconstruirEnSegundoPlano() {
+        executor.execute(this::reconstruir);
+    }
+
+    /**
+     * Vuelve a indexar todas las PQRS por lotes y descarta del índice las que
+     * ya no existen. Las búsquedas siguen funcionando mientras tanto.
+     *
+     * @return cantidad de PQRS indexadas
+     */
+    public int reconstruir() {
+        long generacion = indicePqrs.iniciarReconstruccion();
+        int total = 0;
+        long despuesDe = 0;
+        try {
+            List<Long> lote;
+            do {
+                lote = pqrsRepository.findIdsDespuesDe(despuesDe, PageRequest.of(0, TAMANO_LOTE));
+                if (!lote.isEmpty()) {
+                    total += indexar(lote);
+                    despuesDe = lote.get(lote.size() - 1);
+                }
+            } while (lote.size() == TAMANO_LOTE);
+            indicePqrs.terminarReconstruccion(generacion);
+            log.info("Índice de búsqueda reconstruido: {} PQRS", total);
+        } catch (Exception e) {
+            log.error("Error reconstruyendo el índice de búsqueda: {}", e.getMessage(), e);
+        }
+        return total;
+    }
+
+    int indexar(Collection<Long> ids) {
+        Map<Long, List<SeguimientoPqrs>> seguimientos = seguimientoRepository.findByPqrsIds(ids).stream()
+                .collect(Collectors.groupingBy(s -> s.getPqrs().getIdPqrs()));
+        int indexadas = 0;
+        for (Pqrs pqrs : pqrsRepository.findConRelacionesByIdPqrsIn(ids)) {
+            List<SeguimientoPqrs> deLaPqrs = seguimientos.getOrDefault(pqrs.getIdPqrs(), List.of());
+            List<String> comentarios = new ArrayList<>();
+            List<String> textosAdjuntos = new ArrayList<>();
+            for (SeguimientoPqrs seguimiento : deLaPqrs) {
+                comentarios.add(seguimiento.getComentario());
+                if (seguimiento.getArchivoAdjunto() != null) {
+                    leerTextoAdjunto(seguimiento.getArchivoAdjunto()).ifPresent(textosAdjuntos::add);
+                }
+            }
+            try {
+                indicePqrs.indexar(pqrs, comentarios, textosAdjuntos);
+                indexadas++;
+            } catch (Exception e) {
+                log.error("No se pudo indexar la PQRS {}: {}", pqrs.getIdPqrs(), e.getMessage());
+            }
+        }
+        return indexadas;
+    }
+
+    // Texto de un PDF adjunto (ya extraído por ProcesadorAdjuntos o extraído aquí), acotado
+    private Optional<String> leerTextoAdjunto(String rutaRelativa) {
+        try {
+            Optional<Path> texto = procesadorAdjuntos.obtenerTexto(rutaRelativa);
+            if (texto.isEmpty()) {
+                return Optional.empty();
+            }
+            try (BufferedReader lector = Files.newBufferedReader(texto.get(), StandardCharsets.UTF_8)) {
+                char[] buffer = new char[maxCaracteresAdjunto];
+                int leidos = 0;
+                int n;
+                while (leidos < buffer.length && (n = lector.read(buffer, leidos, buffer.length - leidos)) > 0) {
+                    leidos += n;
+                }
+                return leidos > 0 ? Optional.of(new String(buffer, 0, leidos)) : Optional.empty();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Sin texto indexable para el adjunto {}: {}", rutaRelativa, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Busca en el índice y devuelve la página con las filas de la grilla en
+     * orden de relevancia.
+     */
+    public BusquedaPqrsDTO buscar(String texto, Map<String, String> filtros, String cursor, int size)
+            throws IOException {
+        IndicePqrs.ResultadoBusqueda resultado = indicePqrs.buscar(texto, filtros, cursor, size);
+
+        Map<Long, PqrsResumenDTO> filasPorId = resultado.getIds().isEmpty()
+                ? Map.of()
+                : pqrsRepository.findResumenByIdPqrsIn(resultado.getIds()).stream()
+                        .collect(Collectors.toMap(PqrsResumenDTO::getIdPqrs, Function.identity()));
+        List<PqrsResumenDTO> filas = resultado.getIds().stream()
+                .map(filasPorId::get)
+                .filter(fila -> fila != null)
+                .collect(Collectors.toList());
+
+        CursorPageDTO<PqrsResumenDTO> pagina = new CursorPageDTO<>(filas, filas.size(),
+                resultado.isHasNext(), resultado.getNextCursor(), resultado.getTotal());
+        return new BusquedaPqrsDTO(pagina, resultado.getFacetas());
+    }
+}
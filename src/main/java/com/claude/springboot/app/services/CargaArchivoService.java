@@ -0,0 +1,258 @@
+package com.claude.springboot.app.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.claude.springboot.app.dto.CargaArchivoDTO;
+import com.claude.springboot.app.dto.IniciarCargaDTO;
+import com.claude.springboot.app.entities.CargaArchivo;
+import com.claude.springboot.app.entities.CargaArchivo.EstadoCarga;
+import com.claude.springboot.app.repositories.CargaArchivoRepository;
+import com.claude.springboot.app.utils.ArchivoTemporal;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cargas de adjuntos por bloques, reanudables:
+ * <ol>
+ *   <li>{@link #iniciar} registra la carga y fija el tamaño de bloque;</li>
+ *   <li>{@link #recibirBloque} agrega cada bloque numerado al archivo de
+ *       staging, leyendo el cuerpo de la petición por canal sin armarlo en
+ *       memoria;</li>
+ *   <li>{@link #consultar} devuelve el avance para retomar tras un corte;</li>
+ *   <li>{@link #completar} verifica que llegaron todos los bytes.</li>
+ * </ol>
+ * La carga completa se usa luego como adjunto (parámetro {@code idCarga} de
+ * la creación de PQRS de usuarios registrados y de los seguimientos) con
+ * {@link #obtenerArchivoCompleto} y {@link #finalizar}.
+ */
+@Slf4j
+@Service
+public class CargaArchivoService {
+
+    private final CargaArchivoRepository cargaArchivoRepository;
+    private final Path directorioCargas;
+
+    @Value("${uploads.tamano-bloque:5MB}")
+    private DataSize tamanoBloque;
+
+    @Value("${uploads.tamano-maximo:200MB}")
+    private DataSize tamanoMaximo;
+
+    @Value("${uploads.expiracion:24h}")
+    private Duration expiracion;
+
+    public CargaArchivoService(CargaArchivoRepository cargaArchivoRepository,
+                               @Value("${file.upload-dir}") String uploadDir) {
+        this.cargaArchivoRepository = cargaArchivoRepository;
+        // Dentro del directorio de uploads para que almacenar la carga sea un rename
+        this.directorioCargas = Paths.get(uploadDir, "cargas").toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.directorioCargas);
+        } catch (IOException ex) {
+            throw new RuntimeException("No se pudo crear el directorio de cargas de archivos.", ex);
+        }
+    }
+
+    @Transactional
+    public CargaArchivoDTO iniciar(IniciarCargaDTO dto) throws IOException {
+        if (dto.getTamanoTotal() == null || dto.getTamanoTotal() <= 0) {
+            throw new IllegalArgumentException("El tamaño del archivo debe ser mayor que cero");
+        }
+        if (dto.getTamanoTotal() > tamanoMaximo.toBytes()) {
+            throw new IllegalArgumentException("El archivo supera el tamaño máximo permitido de "
+                    + tamanoMaximo.toMegabytes() + " MB");
+        }
+
+        String usuario = usuarioActual();
+        if (usuario == null) {
+            throw new IllegalStateException("La carga por bloques requiere un usuario autenticado");
+        }
+
+        CargaArchivo carga = new CargaArchivo();
+        carga.setIdCarga(UUID.randomUUID().toString());
+        carga.setNombreArchivo(dto.getNombreArchivo());
+        carga.setTipoMime(dto.getTipoMime());
+        carga.setTamanoTotal(dto.getTamanoTotal());
+        carga.setTamanoBloque((int) tamanoBloque.toBytes());
+        carga.setUsuario(usuario);
+        carga.setEstado(EstadoCarga.EN_CURSO);
+        carga = cargaArchivoRepository.save(carga);
+
+        Files.createFile(rutaStaging(carga.getIdCarga()));
+        return convertToDTO(carga, 0);
+    }
+
+    @Transactional(readOnly = true)
+    public CargaArchivoDTO consultar(String idCarga) throws IOException {
+        CargaArchivo carga = obtenerCarga(idCarga);
+        return convertToDTO(carga, Files.size(rutaStaging(idCarga)));
+    }
+
+    /**
+     * Escribe el bloque {@code numero} (desde 0). Reenviar un bloque ya
+     * recibido no tiene efecto; un bloque posterior al avance actual se
+     * rechaza con {@link IllegalStateException} para que el cliente retome
+     * desde {@code offset}.
+     *
+     * Sin transacción: la carga se lee y se vuelve a comprobar con consultas
+     * cortas, y mientras se copia el cuerpo (hasta un bloque completo desde
+     * un cliente lento) no se retiene ninguna conexión del pool.
+     */
+    public CargaArchivoDTO recibirBloque(String idCarga, int numero, long longitud, InputStream cuerpo)
+            throws IOException {
+        CargaArchivo carga = obtenerCarga(idCarga);
+        if (carga.getEstado() != EstadoCarga.EN_CURSO) {
+            throw new IllegalStateException("La carga ya fue completada");
+        }
+
+        long inicio = (long) numero * carga.getTamanoBloque();
+        if (numero < 0 || inicio >= carga.getTamanoTotal()) {
+            throw new IllegalArgumentException("Número de bloque fuera del archivo: " + numero);
+        }
+        long esperado = Math.min(carga.getTamanoBloque(), carga.getTamanoTotal() - inicio);
+        if (longitud != esperado) {
+            throw new IllegalArgumentException("El bloque " + numero + " debe tener " + esperado + " bytes");
+        }
+
+        long recibidos;
+        try (FileChannel canal = FileChannel.open(rutaStaging(idCarga), StandardOpenOption.WRITE);
+             FileLock bloqueo = canal.lock()) {
+            long offset = canal.size();
+            if (inicio > offset) {
+                throw new IllegalStateException("Falta recibir desde el byte " + offset
+                        + " (bloque " + offset / carga.getTamanoBloque() + ")");
+            }
+            if (inicio + esperado <= offset) {
+                // Reintento de un bloque que ya había llegado
+                return convertToDTO(carga, offset);
+            }
+
+            ReadableByteChannel entrada = Channels.newChannel(cuerpo);
+            long escritos = 0;
+            while (escritos < esperado) {
+                long n = canal.transferFrom(entrada, inicio + escritos, esperado - escritos);
+                if (n <= 0) {
+                    break;
+                }
+                escritos += n;
+            }
+            if (escritos < esperado) {
+                // Conexión cortada: se descarta el bloque parcial
+                canal.truncate(Math.max(offset, inicio));
+                throw new IllegalArgumentException("El bloque " + numero + " llegó incompleto");
+            }
+            recibidos = canal.size();
+        }
+
+        // Mientras llegaba el bloque la carga pudo cancelarse o vencer
+        boolean vigente = cargaArchivoRepository.findById(idCarga)
+                .map(actual -> actual.getEstado() == EstadoCarga.EN_CURSO)
+                .orElse(false);
+        if (!vigente) {
+            Files.deleteIfExists(rutaStaging(idCarga));
+            throw new RuntimeException("Carga de archivo no encontrada");
+        }
+        return convertToDTO(carga, recibidos);
+    }
+
+    @Transactional
+    public CargaArchivoDTO completar(String idCarga) throws IOException {
+        CargaArchivo carga = obtenerCarga(idCarga);
+        long recibidos = Files.size(rutaStaging(idCarga));
+        if (recibidos != carga.getTamanoTotal()) {
+            throw new IllegalStateException("Faltan " + (carga.getTamanoTotal() - recibidos)
+                    + " bytes por recibir");
+        }
+        carga.setEstado(EstadoCarga.COMPLETA);
+        cargaArchivoRepository.save(carga);
+        return convertToDTO(carga, recibidos);
+    }
+
+    /** Archivo de una carga completa, listo para {@link FileStorageService#storeFile}. */
+    @Transactional(readOnly = true)
+    public MultipartFile obtenerArchivoCompleto(String idCarga) {
+        CargaArchivo carga = obtenerCarga(idCarga);
+        if (carga.getEstado() != EstadoCarga.COMPLETA) {
+            throw new IllegalStateException("La carga de archivo no ha sido completada");
+        }
+        return new ArchivoTemporal(rutaStaging(idCarga), carga.getNombreArchivo(),
+                carga.getTipoMime(), carga.getTamanoTotal());
+    }
+
+    /** Elimina la carga una vez usada (o cancelada por el cliente). */
+    @Transactional
+    public void finalizar(String idCarga) throws IOException {
+        CargaArchivo carga = obtenerCarga(idCarga);
+        cargaArchivoRepository.delete(carga);
+        Files.deleteIfExists(rutaStaging(idCarga));
+    }
+
+    @Scheduled(fixedDelayString = "${uploads.limpieza:1h}", initialDelayString = "${uploads.limpieza:1h}")
+    @Transactional
+    public void limpiarVencidas() {
+        try {
+            for (CargaArchivo carga : cargaArchivoRepository.findByFechaCreacionBefore(
+                    LocalDateTime.now().minus(expiracion))) {
+                Files.deleteIfExists(rutaStaging(carga.getIdCarga()));
+                cargaArchivoRepository.delete(carga);
+                log.debug("Carga de archivo vencida eliminada: {}", carga.getIdCarga());
+            }
+        } catch (Exception e) {
+            log.error("Error limpiando cargas de archivo vencidas: {}", e.getMessage(), e);
+        }
+    }
+
+    private CargaArchivo obtenerCarga(String idCarga) {
+        CargaArchivo carga = cargaArchivoRepository.findById(idCarga)
+                .orElseThrow(() -> new RuntimeException("Carga de archivo no encontrada"));
+        // Una carga solo la puede usar el usuario que la inició
+        if (carga.getUsuario() == null || !carga.getUsuario().equals(usuarioActual())) {
+            throw new RuntimeException("Carga de archivo no encontrada");
+        }
+        return carga;
+    }
+
+    private Path rutaStaging(String idCarga) {
+        // El id es un UUID generado aquí; se valida para no salir del directorio
+        return directorioCargas.resolve(UUID.fromString(idCarga).toString());
+    }
+
+    private String usuarioActual() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !"anonymousUser".equals(auth.getPrincipal())) {
+            return auth.getName();
+        }
+        return null;
+    }
+
+    private CargaArchivoDTO convertToDTO(CargaArchivo carga, long offset) {
+        return new CargaArchivoDTO(
+                carga.getIdCarga(),
+                carga.getNombreArchivo(),
+                carga.getTamanoTotal(),
+                carga.getTamanoBloque(),
+                offset,
+                carga.getEstado() == EstadoCarga.COMPLETA);
+    }
+}
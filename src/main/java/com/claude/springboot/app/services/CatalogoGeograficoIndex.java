@@ -0,0 +1,646 @@
+package com.claude.springboot.app.services;
+
+import java.text.Collator;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.claude.springboot.app.dto.DepartamentoDTO;
+import com.claude.springboot.app.dto.MunicipioDTO;
+import com.claude.springboot.app.entities.Departamento;
+import com.claude.springboot.app.entities.Municipio;
+import com.claude.springboot.app.repositories.DepartamentoRepository;
+import com.claude.springboot.app.repositories.MunicipioRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Índice en memoria del catálogo DANE (departamentos y municipios activos).
+ * Responde todas las consultas de lectura de municipios y departamentos sin
+ * ir a la base de datos.
+ *
+ * Se construye con dos consultas al arrancar, después de cada cambio
+ * confirmado y periódicamente (para recoger cambios de otros nodos). Cada
+ * construcción produce una instantánea inmutable que reemplaza a la anterior;
+ * los lectores nunca ven un índice a medio armar.
+ *
+ * La búsqueda por nombre no distingue mayúsculas ni tildes y usa un índice
+ * de trigramas sobre el nombre normalizado.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogoGeograficoIndex {
+
+    private static final int N_GRAMA = 3;
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+
+    private final MunicipioRepository municipioRepository;
+    private final DepartamentoRepository departamentoRepository;
+
+    private volatile Indice indice;
+
+    // ---------------------------------------------------------------- Municipios
+
+    public List<MunicipioDTO> municipios() {
+        return aMunicipiosDTO(obtener().municipiosPorNombre);
+    }
+
+    public Optional<MunicipioDTO> municipioPorCodigo(String codigoDane) {
+        MunicipioIdx municipio = obtener().municipiosPorCodigo.get(codigoDane);
+        return Optional.ofNullable(municipio).map(CatalogoGeograficoIndex::aDTO);
+    }
+
+    public boolean existeMunicipio(String codigoDane) {
+        return obtener().municipiosPorCodigo.containsKey(codigoDane);
+    }
+
+    public boolean validarCodigoDaneMunicipio(String codigoMunicipio, String codigoDepartamento) {
+        MunicipioIdx municipio = obtener().municipiosPorCodigo.get(codigoMunicipio);
+        return municipio != null
+                && municipio.codigoDepartamento.equals(codigoDepartamento)
+                && municipio.codigoDane.startsWith(municipio.codigoDepartamento);
+    }
+
+    public List<MunicipioDTO> municipiosPorDepartamento(String codigoDepartamento) {
+        return aMunicipiosDTO(obtener().municipiosPorDepartamento.getOrDefault(codigoDepartamento, List.of()));
+    }
+
+    public List<MunicipioDTO> municipiosPorCategoria(String categoria) {
+        if (categoria == null) {
+            return new ArrayList<>();
+        }
+        return aMunicipiosDTO(obtener().municipiosPorCategoria.getOrDefault(normalizar(categoria), List.of()));
+    }
+
+    public List<MunicipioDTO> municipiosPorRegion(String region) {
+        if (region == null) {
+            return new ArrayList<>();
+        }
+        return aMunicipiosDTO(obtener().municipiosPorRegion.getOrDefault(normalizar(region), List.of()));
+    }
+
+    /**
+     * Municipios activos de departamentos activos, ordenados por departamento
+     * y nombre.
+     */
+    public List<MunicipioDTO> municipiosConDepartamento() {
+        return aMunicipiosDTO(obtener().municipiosConDepartamento);
+    }
+
+    public List<MunicipioDTO> municipiosPorPoblacionMinima(Integer poblacionMinima) {
+        MunicipioIdx[] porPoblacion = obtener().municipiosPorPoblacion;
+        if (poblacionMinima == null) {
+            return new ArrayList<>();
+        }
+        // El arreglo está en orden descendente: se busca el primer municipio por debajo del mínimo
+        int desde = 0;
+        int hasta = porPoblacion.length;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            if (porPoblacion[medio].poblacionEstimada >= poblacionMinima) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return aMunicipiosDTO(porPoblacion, desde);
+    }
+
+    public List<MunicipioDTO> municipiosMasPoblados(int limite) {
+        MunicipioIdx[] porPoblacion = obtener().municipiosPorPoblacion;
+        return aMunicipiosDTO(porPoblacion, Math.max(0, Math.min(limite, porPoblacion.length)));
+    }
+
+    public List<MunicipioDTO> buscarMunicipiosPorNombre(String nombre) {
+        Indice actual = obtener();
+        List<MunicipioDTO> resultado = new ArrayList<>();
+        for (int posicion : actual.buscarPorNombre(nombre == null ? "" : normalizar(nombre))) {
+            resultado.add(aDTO(actual.municipiosPorNombre[posicion]));
+        }
+        return resultado;
+    }
+
+    public List<MunicipioDTO> buscarMunicipiosPorNombreYDepartamento(String nombreMunicipio, String nombreDepartamento) {
+        Indice actual = obtener();
+        String departamentoNormalizado = nombreDepartamento == null ? "" : normalizar(nombreDepartamento);
+        List<MunicipioDTO> resultado = new ArrayList<>();
+        for (int posicion : actual.buscarPorNombre(nombreMunicipio == null ? "" : normalizar(nombreMunicipio))) {
+            MunicipioIdx municipio = actual.municipiosPorNombre[posicion];
+            DepartamentoIdx departamento = municipio.departamento;
+            if (departamento != null && departamento.activo
+                    && departamento.nombreNormalizado.contains(departamentoNormalizado)) {
+                resultado.add(aDTO(municipio));
+            }
+        }
+        return resultado;
+    }
+
+    public List<String> categorias() {
+        return new ArrayList<>(obtener().categorias);
+    }
+
+    /** Filas [codigoDepartamento, total] de municipios activos. */
+    public List<Object[]> conteoMunicipiosPorDepartamento() {
+        List<Object[]> filas = new ArrayList<>();
+        obtener().municipiosPorDepartamento.forEach((codigo, municipios) ->
+                filas.add(new Object[] { codigo, (long) municipios.size() }));
+        return filas;
+    }
+
+    /** Filas [categoria, total] de municipios activos; la categoría puede ser null. */
+    public List<Object[]> conteoMunicipiosPorCategoria() {
+        List<Object[]> filas = new ArrayList<>();
+        obtener().conteoPorCategoria.forEach((categoria, total) -> filas.add(new Object[] { categoria, total }));
+        return filas;
+    }
+
+    // ------------------------------------------------------------- Departamentos
+
+    public List<DepartamentoDTO> departamentos() {
+        Indice actual = obtener();
+        List<DepartamentoDTO> resultado = new ArrayList<>(actual.departamentosActivos.size());
+        for (DepartamentoIdx departamento : actual.departamentosActivos) {
+            resultado.add(aDTO(departamento, actual));
+        }
+        return resultado;
+    }
+
+    public Optional<DepartamentoDTO> departamentoPorCodigo(String codigoDane) {
+        Indice actual = obtener();
+        DepartamentoIdx departamento = actual.departamentosPorCodigo.get(codigoDane);
+        if (departamento == null || !departamento.activo) {
+            return Optional.empty();
+        }
+        return Optional.of(aDTO(departamento, actual));
+    }
+
+    public boolean existeDepartamento(String codigoDane) {
+        DepartamentoIdx departamento = obtener().departamentosPorCodigo.get(codigoDane);
+        return departamento != null && departamento.activo;
+    }
+
+    public List<DepartamentoDTO> buscarDepartamentosPorNombre(String nombre) {
+        String buscado = nombre == null ? "" : normalizar(nombre);
+        Indice actual = obtener();
+        List<DepartamentoDTO> resultado = new ArrayList<>();
+        for (DepartamentoIdx departamento : actual.departamentosActivos) {
+            if (departamento.nombreNormalizado.contains(buscado)) {
+                resultado.add(aDTO(departamento, actual));
+            }
+        }
+        return resultado;
+    }
+
+    public List<DepartamentoDTO> buscarDepartamentosPorCapital(String capital) {
+        String buscado = capital == null ? "" : normalizar(capital);
+        Indice actual = obtener();
+        List<DepartamentoDTO> resultado = new ArrayList<>();
+        for (DepartamentoIdx departamento : actual.departamentosActivos) {
+            if (departamento.capitalNormalizada != null && departamento.capitalNormalizada.contains(buscado)) {
+                resultado.add(aDTO(departamento, actual));
+            }
+        }
+        return resultado;
+    }
+
+    public List<DepartamentoDTO> departamentosPorRegion(String region) {
+        String buscada = region == null ? null : normalizar(region);
+        Indice actual = obtener();
+        List<DepartamentoDTO> resultado = new ArrayList<>();
+        for (DepartamentoIdx departamento : actual.departamentosActivos) {
+            if (departamento.regionNormalizada != null && departamento.regionNormalizada.equals(buscada)) {
+                resultado.add(aDTO(departamento, actual));
+            }
+        }
+        return resultado;
+    }
+
+    public List<String> regiones() {
+        return new ArrayList<>(obtener().regiones);
+    }
+
+    /**
+     * Departamentos activos con su total de municipios activos y población
+     * estimada, sin el detalle de municipios.
+     */
+    public List<DepartamentoDTO> estadisticasDepartamentos() {
+        Indice actual = obtener();
+        List<DepartamentoDTO> resultado = new ArrayList<>(actual.departamentosActivos.size());
+        for (DepartamentoIdx departamento : actual.departamentosActivos) {
+            List<MunicipioIdx> municipios = actual.municipiosPorDepartamento.getOrDefault(departamento.codigoDane, List.of());
+            DepartamentoDTO dto = new DepartamentoDTO();
+            dto.setCodigoDane(departamento.codigoDane);
+            dto.setNombre(departamento.nombre);
+            dto.setRegion(departamento.region);
+            dto.setTotalMunicipios(municipios.size());
+            dto.setPoblacionTotalEstimada(poblacionTotal(municipios));
+            resultado.add(dto);
+        }
+        return resultado;
+    }
+
+    public List<DepartamentoDTO> departamentosConMunicipios() {
+        Indice actual = obtener();
+        List<DepartamentoDTO> resultado = new ArrayList<>();
+        for (DepartamentoIdx departamento : actual.departamentosActivos) {
+            if (actual.municipiosPorDepartamento.containsKey(departamento.codigoDane)) {
+                resultado.add(aDTO(departamento, actual));
+            }
+        }
+        return resultado;
+    }
+
+    // -------------------------------------------------------------- Construcción
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        reconstruir();
+    }
+
+    @Scheduled(fixedDelayString = "${catalogo.geografico.recarga:1h}", initialDelayString = "${catalogo.geografico.recarga:1h}")
+    public void reconstruirPeriodicamente() {
+        try {
+            reconstruir();
+        } catch (Exception e) {
+            // Se conserva el índice anterior hasta el próximo intento
+            log.error("Error reconstruyendo el índice geográfico", e);
+        }
+    }
+
+    /**
+     * Reconstruye el índice cuando se confirme la transacción en curso (o de
+     * inmediato si no hay transacción), para no indexar cambios que luego se
+     * deshacen.
+     */
+    public void reconstruirAlConfirmar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reconstruir();
+                }
+            });
+        } else {
+            reconstruir();
+        }
+    }
+
+    public synchronized void reconstruir() {
+        long inicio = System.nanoTime();
+        indice = new Indice(departamentoRepository.findAll(), municipioRepository.findAll());
+        log.info("Índice geográfico construido: {} departamentos, {} municipios activos en {} ms",
+                indice.departamentosActivos.size(), indice.municipiosPorNombre.length,
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private Indice obtener() {
+        Indice actual = indice;
+        if (actual == null) {
+            synchronized (this) {
+                if (indice == null) {
+                    reconstruir();
+                }
+                actual = indice;
+            }
+        }
+        return actual;
+    }
+
+    /**
+     * Minúsculas y sin tildes ni diéresis: "Bogotá, D.C." y "BOGOTA, d.c." son
+     * iguales.
+     */
+    static String normalizar(String texto) {
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return MARCAS_DIACRITICAS.matcher(descompuesto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    // ------------------------------------------------------------------ Conversión
+
+    private static List<MunicipioDTO> aMunicipiosDTO(MunicipioIdx[] municipios) {
+        return aMunicipiosDTO(municipios, municipios.length);
+    }
+
+    private static List<MunicipioDTO> aMunicipiosDTO(MunicipioIdx[] municipios, int cantidad) {
+        List<MunicipioDTO> resultado = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            resultado.add(aDTO(municipios[i]));
+        }
+        return resultado;
+    }
+
+    private static List<MunicipioDTO> aMunicipiosDTO(List<MunicipioIdx> municipios) {
+        List<MunicipioDTO> resultado = new ArrayList<>(municipios.size());
+        for (MunicipioIdx municipio : municipios) {
+            resultado.add(aDTO(municipio));
+        }
+        return resultado;
+    }
+
+    private static MunicipioDTO aDTO(MunicipioIdx municipio) {
+        MunicipioDTO dto = aDTOSinDepartamento(municipio);
+        if (municipio.departamento != null) {
+            dto.setNombreDepartamento(municipio.departamento.nombre);
+            dto.setCapitalDepartamento(municipio.departamento.capital);
+            dto.setRegion(municipio.departamento.region);
+        }
+        return dto;
+    }
+
+    private static MunicipioDTO aDTOSinDepartamento(MunicipioIdx municipio) {
+        MunicipioDTO dto = new MunicipioDTO();
+        dto.setCodigoDane(municipio.codigoDane);
+        dto.setNombre(municipio.nombre);
+        dto.setCodigoDepartamento(municipio.codigoDepartamento);
+        dto.setCategoria(municipio.categoria);
+        dto.setPoblacionEstimada(municipio.poblacionEstimada);
+        dto.setFechaCreacion(municipio.fechaCreacion);
+        dto.setActivo(Boolean.TRUE);
+        return dto;
+    }
+
+    private static DepartamentoDTO aDTO(DepartamentoIdx departamento, Indice indice) {
+        DepartamentoDTO dto = new DepartamentoDTO();
+        dto.setCodigoDane(departamento.codigoDane);
+        dto.setNombre(departamento.nombre);
+        dto.setCapital(departamento.capital);
+        dto.setRegion(departamento.region);
+        dto.setFechaCreacion(departamento.fechaCreacion);
+        dto.setActivo(departamento.activo);
+
+        List<MunicipioIdx> municipios = indice.municipiosPorDepartamento.getOrDefault(departamento.codigoDane, List.of());
+        List<MunicipioDTO> municipiosDTO = new ArrayList<>(municipios.size());
+        for (MunicipioIdx municipio : municipios) {
+            municipiosDTO.add(aDTOSinDepartamento(municipio));
+        }
+        dto.setMunicipios(municipiosDTO);
+        dto.setTotalMunicipios(municipiosDTO.size());
+        dto.setPoblacionTotalEstimada(poblacionTotal(municipios));
+        return dto;
+    }
+
+    private static long poblacionTotal(List<MunicipioIdx> municipios) {
+        long total = 0;
+        for (MunicipioIdx municipio : municipios) {
+            if (municipio.poblacionEstimada != null) {
+                total += municipio.poblacionEstimada;
+            }
+        }
+        return total;
+    }
+
+    // -------------------------------------------------------------------- Índice
+
+    private static final class DepartamentoIdx {
+        private final String codigoDane;
+        private final String nombre;
+        private final String capital;
+        private final String region;
+        private final LocalDateTime fechaCreacion;
+        private final boolean activo;
+        private final String nombreNormalizado;
+        private final String capitalNormalizada;
+        private final String regionNormalizada;
+
+        private DepartamentoIdx(Departamento departamento) {
+            this.codigoDane = departamento.getCodigoDane();
+            this.nombre = departamento.getNombre();
+            this.capital = departamento.getCapital();
+            this.region = departamento.getRegion();
+            this.fechaCreacion = departamento.getFechaCreacion();
+            this.activo = Boolean.TRUE.equals(departamento.getActivo());
+            this.nombreNormalizado = normalizar(nombre);
+            this.capitalNormalizada = capital != null ? normalizar(capital) : null;
+            this.regionNormalizada = region != null ? normalizar(region) : null;
+        }
+    }
+
+    private static final class MunicipioIdx {
+        private final String codigoDane;
+        private final String nombre;
+        private final String codigoDepartamento;
+        private final String categoria;
+        private final Integer poblacionEstimada;
+        private final LocalDateTime fechaCreacion;
+        private final DepartamentoIdx departamento;
+        private final String nombreNormalizado;
+
+        private MunicipioIdx(Municipio municipio, DepartamentoIdx departamento) {
+            this.codigoDane = municipio.getCodigoDane();
+            this.nombre = municipio.getNombre();
+            this.codigoDepartamento = municipio.getCodigoDepartamento();
+            this.categoria = municipio.getCategoria();
+            this.poblacionEstimada = municipio.getPoblacionEstimada();
+            this.fechaCreacion = municipio.getFechaCreacion();
+            this.departamento = departamento;
+            this.nombreNormalizado = normalizar(nombre);
+        }
+    }
+
+    private static final class Indice {
+        private final Map<String, DepartamentoIdx> departamentosPorCodigo;
+        private final List<DepartamentoIdx> departamentosActivos;
+        private final List<String> regiones;
+
+        private final MunicipioIdx[] municipiosPorNombre;
+        private final Map<String, MunicipioIdx> municipiosPorCodigo;
+        private final Map<String, List<MunicipioIdx>> municipiosPorDepartamento;
+        private final Map<String, List<MunicipioIdx>> municipiosPorCategoria;
+        private final Map<String, List<MunicipioIdx>> municipiosPorRegion;
+        private final List<MunicipioIdx> municipiosConDepartamento;
+        private final MunicipioIdx[] municipiosPorPoblacion;
+        private final List<String> categorias;
+        private final Map<String, Long> conteoPorCategoria;
+        /** Trigrama normalizado -> posiciones (ascendentes) en municipiosPorNombre. */
+        private final Map<String, int[]> trigramas;
+
+        private Indice(List<Departamento> departamentos, List<Municipio> municipios) {
+            Collator collator = Collator.getInstance(new Locale("es", "CO"));
+            Comparator<String> porTexto = Comparator.nullsLast(collator::compare);
+
+            Map<String, DepartamentoIdx> deptos = new HashMap<>();
+            List<DepartamentoIdx> activos = new ArrayList<>();
+            TreeSet<String> regionesActivas = new TreeSet<>(collator::compare);
+            for (Departamento departamento : departamentos) {
+                DepartamentoIdx idx = new DepartamentoIdx(departamento);
+                deptos.put(idx.codigoDane, idx);
+                if (idx.activo) {
+                    activos.add(idx);
+                    if (idx.region != null) {
+                        regionesActivas.add(idx.region);
+                    }
+                }
+            }
+            activos.sort(Comparator.comparing(d -> d.nombre, porTexto));
+
+            List<MunicipioIdx> lista = new ArrayList<>();
+            for (Municipio municipio : municipios) {
+                if (Boolean.TRUE.equals(municipio.getActivo())) {
+                    lista.add(new MunicipioIdx(municipio, deptos.get(municipio.getCodigoDepartamento())));
+                }
+            }
+            lista.sort(Comparator.comparing((MunicipioIdx m) -> m.nombre, porTexto));
+
+            Map<String, MunicipioIdx> porCodigo = new HashMap<>();
+            Map<String, List<MunicipioIdx>> porDepartamento = new TreeMap<>();
+            Map<String, List<MunicipioIdx>> porCategoria = new HashMap<>();
+            Map<String, Long> conteoCategoria = new TreeMap<>(porTexto);
+            TreeSet<String> categoriasActivas = new TreeSet<>(collator::compare);
+            Map<String, List<Integer>> posicionesPorTrigrama = new HashMap<>();
+            List<MunicipioIdx> conPoblacion = new ArrayList<>();
+            List<MunicipioIdx> conDepartamento = new ArrayList<>();
+            Long sinCategoria = null;
+
+            for (int posicion = 0; posicion < lista.size(); posicion++) {
+                MunicipioIdx municipio = lista.get(posicion);
+                porCodigo.put(municipio.codigoDane, municipio);
+                porDepartamento.computeIfAbsent(municipio.codigoDepartamento, k -> new ArrayList<>()).add(municipio);
+                if (municipio.categoria != null) {
+                    porCategoria.computeIfAbsent(normalizar(municipio.categoria), k -> new ArrayList<>()).add(municipio);
+                    conteoCategoria.merge(municipio.categoria, 1L, Long::sum);
+                    categoriasActivas.add(municipio.categoria);
+                } else {
+                    sinCategoria = sinCategoria == null ? 1L : sinCategoria + 1;
+                }
+                if (municipio.poblacionEstimada != null) {
+                    conPoblacion.add(municipio);
+                }
+                if (municipio.departamento != null && municipio.departamento.activo) {
+                    conDepartamento.add(municipio);
+                }
+                String nombre = municipio.nombreNormalizado;
+                for (int i = 0; i + N_GRAMA <= nombre.length(); i++) {
+                    List<Integer> posiciones = posicionesPorTrigrama
+                            .computeIfAbsent(nombre.substring(i, i + N_GRAMA), k -> new ArrayList<>());
+                    // Un trigrama repetido en el mismo nombre solo se indexa una vez
+                    if (posiciones.isEmpty() || posiciones.get(posiciones.size() - 1) != posicion) {
+                        posiciones.add(posicion);
+                    }
+                }
+            }
+
+            conPoblacion.sort(Comparator.comparing((MunicipioIdx m) -> m.poblacionEstimada).reversed());
+            conDepartamento.sort(Comparator.comparing((MunicipioIdx m) -> m.departamento.nombre, porTexto)
+                    .thenComparing(m -> m.nombre, porTexto));
+
+            Map<String, List<MunicipioIdx>> porRegion = new HashMap<>();
+            for (MunicipioIdx municipio : conDepartamento) {
+                if (municipio.departamento.regionNormalizada != null) {
+                    porRegion.computeIfAbsent(municipio.departamento.regionNormalizada, k -> new ArrayList<>())
+                            .add(municipio);
+                }
+            }
+
+            Map<String, int[]> indiceTrigramas = new HashMap<>(posicionesPorTrigrama.size() * 2);
+            posicionesPorTrigrama.forEach((trigrama, posiciones) ->
+                    indiceTrigramas.put(trigrama, posiciones.stream().mapToInt(Integer::intValue).toArray()));
+
+            if (sinCategoria != null) {
+                LinkedHashMap<String, Long> conNulos = new LinkedHashMap<>(conteoCategoria);
+                conNulos.put(null, sinCategoria);
+                conteoCategoria = conNulos;
+            }
+
+            this.departamentosPorCodigo = Collections.unmodifiableMap(deptos);
+            this.departamentosActivos = List.copyOf(activos);
+            this.regiones = List.copyOf(regionesActivas);
+            this.municipiosPorNombre = lista.toArray(new MunicipioIdx[0]);
+            this.municipiosPorCodigo = Collections.unmodifiableMap(porCodigo);
+            this.municipiosPorDepartamento = inmutable(porDepartamento);
+            this.municipiosPorCategoria = inmutable(porCategoria);
+            this.municipiosPorRegion = inmutable(porRegion);
+            this.municipiosConDepartamento = List.copyOf(conDepartamento);
+            this.municipiosPorPoblacion = conPoblacion.toArray(new MunicipioIdx[0]);
+            this.categorias = List.copyOf(categoriasActivas);
+            this.conteoPorCategoria = Collections.unmodifiableMap(conteoCategoria);
+            this.trigramas = Collections.unmodifiableMap(indiceTrigramas);
+        }
+
+        /**
+         * Posiciones (en orden alfabético) de los municipios cuyo nombre
+         * normalizado contiene {@code buscado}. Con menos de tres caracteres se
+         * recorren los nombres; si no, se intersectan las listas de trigramas y
+         * se confirma cada candidato.
+         */
+        private int[] buscarPorNombre(String buscado) {
+            if (buscado.length() < N_GRAMA) {
+                int[] encontrados = new int[municipiosPorNombre.length];
+                int total = 0;
+                for (int i = 0; i < municipiosPorNombre.length; i++) {
+                    if (municipiosPorNombre[i].nombreNormalizado.contains(buscado)) {
+                        encontrados[total++] = i;
+                    }
+                }
+                return Arrays.copyOf(encontrados, total);
+            }
+
+            int[] candidatos = null;
+            for (int i = 0; i + N_GRAMA <= buscado.length(); i++) {
+                int[] posiciones = trigramas.get(buscado.substring(i, i + N_GRAMA));
+                if (posiciones == null) {
+                    return new int[0];
+                }
+                candidatos = candidatos == null ? posiciones : intersectar(candidatos, posiciones);
+                if (candidatos.length == 0) {
+                    return candidatos;
+                }
+            }
+
+            int[] confirmados = new int[candidatos.length];
+            int total = 0;
+            for (int posicion : candidatos) {
+                // Los trigramas pueden coincidir en otro orden: se verifica la subcadena
+                if (municipiosPorNombre[posicion].nombreNormalizado.contains(buscado)) {
+                    confirmados[total++] = posicion;
+                }
+            }
+            return Arrays.copyOf(confirmados, total);
+        }
+
+        private static int[] intersectar(int[] a, int[] b) {
+            int[] resultado = new int[Math.min(a.length, b.length)];
+            int i = 0;
+            int j = 0;
+            int total = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] == b[j]) {
+                    resultado[total++] = a[i];
+                    i++;
+                    j++;
+                } else if (a[i] < b[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return Arrays.copyOf(resultado, total);
+        }
+
+        private static Map<String, List<MunicipioIdx>> inmutable(Map<String, List<MunicipioIdx>> mapa) {
+            Map<String, List<MunicipioIdx>> copia = new LinkedHashMap<>();
+            mapa.forEach((clave, valor) -> copia.put(clave, List.copyOf(valor)));
+            return Collections.unmodifiableMap(copia);
+        }
+    }
+}
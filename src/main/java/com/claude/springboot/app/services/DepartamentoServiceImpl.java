@@ -14,81 +14,57 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+/**
+ * Las consultas se responden desde {@link CatalogoGeograficoIndex} sin abrir
+ * transacción (no tocan la BD); solo las escrituras son transaccionales.
+ */
 @Service
-@Transactional
 public class DepartamentoServiceImpl implements DepartamentoService {
     
     @Autowired
     private DepartamentoRepository departamentoRepository;
     
+    // Las lecturas se resuelven en memoria; el repositorio solo se usa para escribir
+    @Autowired
+    private CatalogoGeograficoIndex catalogoGeograficoIndex;
+    
     @Override
-    @Transactional(readOnly = true)
     public List<DepartamentoDTO> obtenerTodosLosDepartamentos() {
-        return departamentoRepository.findByActivoTrueOrderByNombre()
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.departamentos();
     }
     
     @Override
-    @Transactional(readOnly = true)
     public Optional<DepartamentoDTO> obtenerDepartamentoPorCodigo(String codigoDane) {
-        return departamentoRepository.findByCodigoDaneAndActivoTrue(codigoDane)
-                .map(this::convertirADTO);
+        return catalogoGeograficoIndex.departamentoPorCodigo(codigoDane);
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<DepartamentoDTO> buscarDepartamentosPorNombre(String nombre) {
-        return departamentoRepository.findByNombreContainingIgnoreCaseAndActivoTrue(nombre)
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.buscarDepartamentosPorNombre(nombre);
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<DepartamentoDTO> obtenerDepartamentosPorRegion(String region) {
-        return departamentoRepository.findByRegionAndActivoTrue(region)
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.departamentosPorRegion(region);
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<DepartamentoDTO> buscarDepartamentosPorCapital(String capital) {
-        return departamentoRepository.findByCapitalContainingIgnoreCaseAndActivoTrue(capital)
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.buscarDepartamentosPorCapital(capital);
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<String> obtenerRegiones() {
-        return departamentoRepository.findDistinctRegiones();
+        return catalogoGeograficoIndex.regiones();
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<DepartamentoDTO> obtenerEstadisticasDepartamentos() {
-        List<Object[]> estadisticas = departamentoRepository.findEstadisticasDepartamentos();
-        
-        return estadisticas.stream()
-                .map(row -> {
-                    DepartamentoDTO dto = new DepartamentoDTO();
-                    dto.setCodigoDane((String) row[0]);
-                    dto.setNombre((String) row[1]);
-                    dto.setRegion((String) row[2]);
-                    dto.setTotalMunicipios(((Number) row[3]).intValue());
-                    dto.setPoblacionTotalEstimada(((Number) row[4]).longValue());
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.estadisticasDepartamentos();
     }
     
     @Override
+    @Transactional
     public DepartamentoDTO crearDepartamento(DepartamentoDTO departamentoDTO) {
         if (departamentoRepository.existsByCodigoDaneAndActivoTrue(departamentoDTO.getCodigoDane())) {
             throw new IllegalArgumentException("Ya existe un departamento con el código DANE: " + departamentoDTO.getCodigoDane());
@@ -99,10 +75,12 @@ public class DepartamentoServiceImpl implements DepartamentoService {
         departamento.setActivo(true);
         
         Departamento departamentoGuardado = departamentoRepository.save(departamento);
+        catalogoGeograficoIndex.reconstruirAlConfirmar();
         return convertirADTO(departamentoGuardado);
     }
     
     @Override
+    @Transactional
     public DepartamentoDTO actualizarDepartamento(String codigoDane, DepartamentoDTO departamentoDTO) {
         Departamento departamento = departamentoRepository.findByCodigoDaneAndActivoTrue(codigoDane)
                 .orElseThrow(() -> new IllegalArgumentException("Departamento no encontrado: " + codigoDane));
@@ -113,40 +91,40 @@ public class DepartamentoServiceImpl implements DepartamentoService {
         departamento.setRegion(departamentoDTO.getRegion());
         
         Departamento departamentoActualizado = departamentoRepository.save(departamento);
+        catalogoGeograficoIndex.reconstruirAlConfirmar();
         return convertirADTO(departamentoActualizado);
     }
     
     @Override
+    @Transactional
     public void desactivarDepartamento(String codigoDane) {
         Departamento departamento = departamentoRepository.findById(codigoDane)
                 .orElseThrow(() -> new IllegalArgumentException("Departamento no encontrado: " + codigoDane));
         
         departamento.setActivo(false);
         departamentoRepository.save(departamento);
+        catalogoGeograficoIndex.reconstruirAlConfirmar();
     }
     
     @Override
+    @Transactional
     public void activarDepartamento(String codigoDane) {
         Departamento departamento = departamentoRepository.findById(codigoDane)
                 .orElseThrow(() -> new IllegalArgumentException("Departamento no encontrado: " + codigoDane));
         
         departamento.setActivo(true);
         departamentoRepository.save(departamento);
+        catalogoGeograficoIndex.reconstruirAlConfirmar();
     }
     
     @Override
-    @Transactional(readOnly = true)
     public boolean existeDepartamento(String codigoDane) {
-        return departamentoRepository.existsByCodigoDaneAndActivoTrue(codigoDane);
+        return catalogoGeograficoIndex.existeDepartamento(codigoDane);
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<DepartamentoDTO> obtenerDepartamentosConMunicipios() {
-        return departamentoRepository.findDepartamentosConMunicipios()
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.departamentosConMunicipios();
     }
     
     @Override
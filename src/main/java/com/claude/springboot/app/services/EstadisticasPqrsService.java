@@ -0,0 +1,195 @@
+package com.claude.springboot.app.services;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.claude.springboot.app.config.CacheConfig;
+import com.claude.springboot.app.entities.EstadisticaPqrsDia;
+import com.claude.springboot.app.entities.Pqrs;
+import com.claude.springboot.app.repositories.EstadisticaPqrsDiaRepository;
+import com.claude.springboot.app.repositories.PqrsRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Estadísticas del tablero de PQRS sobre la tabla pre-agregada
+ * estadistica_pqrs_dia:
+ * <ul>
+ *   <li>cada cambio de una PQRS mueve su conteo de la fila en la que estaba
+ *       (guardada en la propia PQRS) a la de su fecha de última
+ *       actualización, estado, prioridad y tema actuales, en la misma
+ *       transacción;</li>
+ *   <li>el tablero suma unas pocas filas y se guarda unos segundos en la
+ *       caché {@link CacheConfig#DASHBOARD};</li>
+ *   <li>cada noche se recalcula la tabla desde pqrs, por si algún cambio
+ *       no pasó por aquí.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EstadisticasPqrsService {
+
+    private final EstadisticaPqrsDiaRepository estadisticaRepository;
+    private final PqrsRepository pqrsRepository;
+
+    /**
+     * Se ejecuta antes de confirmar la transacción que modificó la PQRS, así
+     * el conteo queda confirmado junto con el cambio.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void alModificarPqrs(PqrsModificadaEvent evento) {
+        pqrsRepository.findById(evento.getIdPqrs()).ifPresent(this::registrar);
+    }
+
+    /**
+     * Cuenta la PQRS en la fila de su fecha de última actualización y la
+     * descuenta de la fila en la que estaba contada. Esa fila se lee con
+     * bloqueo de la PQRS: si otra transacción la está cambiando, se espera a
+     * que confirme y se descuenta de la fila a la que la movió ella. Las
+     * escrituras de la PQRS no entran en conflicto, gana la última como
+     * siempre.
+     */
+    void registrar(Pqrs pqrs) {
+        // Aplica el guardado pendiente para que @PreUpdate fije la fecha
+        pqrsRepository.flush();
+        EstadisticaPqrsDia.Clave anterior = pqrsRepository.bloquearClaveEstadistica(pqrs.getIdPqrs()).stream()
+                .findFirst()
+                .map(EstadisticasPqrsService::clave)
+                .orElse(null);
+        LocalDateTime ultimaActualizacion = pqrs.getFechaUltimaActualizacion();
+        EstadisticaPqrsDia.Clave actual = EstadisticaPqrsDia.Clave.de(pqrs,
+                ultimaActualizacion != null ? ultimaActualizacion.toLocalDate() : LocalDate.now());
+        // Varios eventos en la misma transacción cuentan una sola vez
+        if (actual.equals(anterior)) {
+            return;
+        }
+        if (anterior != null && anterior.getFecha() != null) {
+            sumar(anterior, -1);
+        }
+        sumar(actual, 1);
+        pqrsRepository.guardarClaveEstadistica(pqrs.getIdPqrs(), actual.getFecha(),
+                valor(actual.getEstado()), valor(actual.getPrioridad()), valor(actual.getIdTema()));
+    }
+
+    private static EstadisticaPqrsDia.Clave clave(Object[] fila) {
+        Object fecha = fila[0];
+        return new EstadisticaPqrsDia.Clave(
+                fecha instanceof Date sqlDate ? sqlDate.toLocalDate() : (LocalDate) fecha,
+                (String) fila[1], (String) fila[2],
+                fila[3] != null ? ((Number) fila[3]).longValue() : null);
+    }
+
+    private void sumar(EstadisticaPqrsDia.Clave clave, long delta) {
+        estadisticaRepository.sumar(clave.getFecha(), valor(clave.getEstado()), valor(clave.getPrioridad()),
+                valor(clave.getIdTema()), delta);
+    }
+
+    // Centinelas de NULL de las consultas nativas
+    private static String valor(String texto) {
+        return texto != null ? texto : "";
+    }
+
+    private static long valor(Long id) {
+        return id != null ? id : 0L;
+    }
+
+    /**
+     * Mismas claves que el tablero calculado directamente sobre pqrs. Los
+     * períodos se cuentan por fecha de última actualización.
+     */
+    @Cacheable(cacheNames = CacheConfig.DASHBOARD, sync = true)
+    @Transactional(readOnly = true)
+    public Map<String, Object> obtenerDashboard() {
+        LocalDate hoy = LocalDate.now();
+        LocalDate inicioSemana = hoy.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate inicioSemanaAnterior = inicioSemana.minusWeeks(1);
+        LocalDate finSemanaAnterior = inicioSemana.minusDays(1);
+        LocalDate inicioMes = hoy.withDayOfMonth(1);
+
+        Map<String, Long> porEstado = new HashMap<>();
+        Map<String, Long> porPrioridad = new HashMap<>();
+        for (Object[] fila : estadisticaRepository.sumarPorEstadoYPrioridad()) {
+            long cantidad = ((Number) fila[2]).longValue();
+            porEstado.merge((String) fila[0], cantidad, Long::sum);
+            porPrioridad.merge((String) fila[1], cantidad, Long::sum);
+        }
+
+        Map<String, Long> estadosDia = new HashMap<>();
+        Map<String, Long> estadosSemanaActual = new HashMap<>();
+        Map<String, Long> estadosSemanaAnterior = new HashMap<>();
+        Map<String, Long> estadosMes = new HashMap<>();
+        Map<String, Long> prioridadesDia = new HashMap<>();
+        Map<String, Long> prioridadesSemana = new HashMap<>();
+        Map<String, Long> prioridadesMes = new HashMap<>();
+
+        LocalDate desde = inicioSemanaAnterior.isBefore(inicioMes) ? inicioSemanaAnterior : inicioMes;
+        for (Object[] fila : estadisticaRepository.sumarPorDiaDesde(desde)) {
+            LocalDate fecha = (LocalDate) fila[0];
+            String estado = (String) fila[1];
+            String prioridad = (String) fila[2];
+            long cantidad = ((Number) fila[3]).longValue();
+
+            if (fecha.equals(hoy)) {
+                estadosDia.merge(estado, cantidad, Long::sum);
+                prioridadesDia.merge(prioridad, cantidad, Long::sum);
+            }
+            if (!fecha.isBefore(inicioSemana)) {
+                estadosSemanaActual.merge(estado, cantidad, Long::sum);
+                prioridadesSemana.merge(prioridad, cantidad, Long::sum);
+            }
+            if (!fecha.isBefore(inicioSemanaAnterior) && !fecha.isAfter(finSemanaAnterior)) {
+                estadosSemanaAnterior.merge(estado, cantidad, Long::sum);
+            }
+            if (!fecha.isBefore(inicioMes)) {
+                estadosMes.merge(estado, cantidad, Long::sum);
+                prioridadesMes.merge(prioridad, cantidad, Long::sum);
+            }
+        }
+        quitarVacios(List.of(porEstado, porPrioridad, estadosDia, estadosSemanaActual, estadosSemanaAnterior,
+                estadosMes, prioridadesDia, prioridadesSemana, prioridadesMes));
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("porEstado", porEstado);
+        stats.put("porPrioridad", porPrioridad);
+        stats.put("estadosDia", estadosDia);
+        // Nombres históricos del tablero: "Hoy" es la semana en curso y "Semana" la anterior
+        stats.put("estadosHoy", estadosSemanaActual);
+        stats.put("estadosSemana", estadosSemanaAnterior);
+        stats.put("estadosMes", estadosMes);
+        stats.put("prioridadesHoy", prioridadesDia);
+        stats.put("prioridadesSemana", prioridadesSemana);
+        stats.put("prioridadesMes", prioridadesMes);
+        return stats;
+    }
+
+    // Las filas que quedaron en cero no aparecían en el GROUP BY original
+    private static void quitarVacios(List<Map<String, Long>> conteos) {
+        conteos.forEach(conteo -> conteo.values().removeIf(cantidad -> cantidad <= 0));
+    }
+
+    /** Recalcula toda la tabla desde pqrs. */
+    @Scheduled(cron = "${estadisticas.reconciliacion.cron:0 30 2 * * *}")
+    @Transactional
+    public void reconciliar() {
+        // Si falla, la transacción se revierte y quedan los conteos incrementales
+        estadisticaRepository.sincronizarClavesEnPqrs();
+        estadisticaRepository.vaciar();
+        int filas = estadisticaRepository.recalcularDesdePqrs();
+        log.info("Estadísticas de PQRS reconciliadas: {} filas", filas);
+    }
+}
@@ -0,0 +1,302 @@
+package com.claude.springboot.app.services;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.claude.springboot.app.repositories.PqrsRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exportación de PQRS a CSV o Excel escribiendo directo a la respuesta:
+ * <ul>
+ *   <li>las filas se leen hacia adelante con {@link PqrsRepository#streamExportacion}
+ *       y se escriben una por una, sin armar la lista completa;</li>
+ *   <li>el Excel usa SXSSF: solo {@value #VENTANA_FILAS} filas en memoria, el
+ *       resto va a un temporal comprimido;</li>
+ *   <li>pocas exportaciones a la vez, porque cada una ocupa una conexión del
+ *       pool mientras dura.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class ExportacionPqrsService {
+
+    static final int VENTANA_FILAS = 100;
+
+    static final String[] COLUMNAS = {
+        "Radicado", "Fecha creación", "Última actualización", "Estado", "Prioridad", "Tema", "Área",
+        "Título", "Solicitante", "Tipo documento", "Número documento", "Email", "Teléfono",
+        "Asignado a", "Creado por"
+    };
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public enum Formato {
+        CSV("text/csv; charset=UTF-8", "csv"),
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+        private final String contentType;
+        private final String extension;
+
+        Formato(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Formato desde(String valor) {
+            try {
+                return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Formato de exportación no soportado: " + valor + " (csv o xlsx)");
+            }
+        }
+    }
+
+    private final PqrsRepository pqrsRepository;
+    private final Semaphore exportacionesEnCurso;
+
+    // Excel en español usa ';' como separador de lista
+    @Value("${exportacion.csv.separador:;}")
+    private char separadorCsv = ';';
+
+    // Una hoja de Excel admite 1.048.576 filas; al llegar aquí se abre otra
+    @Value("${exportacion.xlsx.filas-por-hoja:1000000}")
+    private int filasPorHoja = 1_000_000;
+
+    public ExportacionPqrsService(PqrsRepository pqrsRepository,
+                                  @Value("${exportacion.concurrentes:2}") int concurrentes) {
+        this.pqrsRepository = pqrsRepository;
+        this.exportacionesEnCurso = new Semaphore(concurrentes);
+    }
+
+    /**
+     * Lugar entre las {@code exportacion.concurrentes} exportaciones
+     * simultáneas; se devuelve al cerrarlo (una sola vez aunque se cierre
+     * varias).
+     */
+    public interface Turno extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Toma un turno de exportación. Se pide antes de {@link #exportar}, fuera
+     * de su transacción, para que una exportación rechazada no ocupe una
+     * conexión del pool.
+     *
+     * @throws IllegalStateException si ya hay demasiadas exportaciones en curso
+     */
+    public Turno tomarTurno() {
+        if (!exportacionesEnCurso.tryAcquire()) {
+            throw new IllegalStateException("Hay demasiadas exportaciones en curso, intente de nuevo en unos minutos");
+        }
+        AtomicBoolean devuelto = new AtomicBoolean();
+        return () -> {
+            if (devuelto.compareAndSet(false, true)) {
+                exportacionesEnCurso.release();
+            }
+        };
+    }
+
+    /**
+     * Escribe las PQRS que cumplen los filtros (los null no se aplican).
+     * Requiere un turno tomado con {@link #tomarTurno()}; quien lo tomó lo
+     * devuelve.
+     *
+     * @return cantidad de PQRS exportadas
+     */
+    @Transactional(readOnly = true)
+    public long exportar(Turno turno, Formato formato, LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                         String estado, Long idTema, OutputStream salida) throws IOException {
+        Objects.requireNonNull(turno, "La exportación requiere un turno");
+        if (fechaInicio != null && fechaFin != null && fechaFin.isBefore(fechaInicio)) {
+            throw new IllegalArgumentException("La fecha de fin no puede ser anterior a la fecha de inicio");
+        }
+        long inicio = System.currentTimeMillis();
+        long filas = 0;
+        try (Stream<Object[]> datos = pqrsRepository.streamExportacion(fechaInicio, fechaFin, estado, idTema);
+             Escritor escritor = formato == Formato.XLSX
+                     ? new EscritorXlsx(salida, filasPorHoja)
+                     : new EscritorCsv(salida, separadorCsv)) {
+            Iterator<Object[]> iterador = datos.iterator();
+            while (iterador.hasNext()) {
+                escritor.fila(iterador.next());
+                filas++;
+            }
+            escritor.terminar();
+        }
+        log.info("Exportación {} de {} PQRS en {} ms", formato, filas, System.currentTimeMillis() - inicio);
+        return filas;
+    }
+
+    private interface Escritor extends Closeable {
+
+        void fila(Object[] valores) throws IOException;
+
+        void terminar() throws IOException;
+    }
+
+    /**
+     * CSV con BOM (para que Excel reconozca UTF-8) y comillas según RFC 4180.
+     */
+    private static final class EscritorCsv implements Escritor {
+
+        private final Writer writer;
+        private final char separador;
+
+        EscritorCsv(OutputStream salida, char separador) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 64 * 1024);
+            this.separador = separador;
+            writer.write('\uFEFF');
+            fila(COLUMNAS);
+        }
+
+        @Override
+        public void fila(Object[] valores) throws IOException {
+            for (int i = 0; i < valores.length; i++) {
+                if (i > 0) {
+                    writer.write(separador);
+                }
+                escribir(valores[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        private void escribir(Object valor) throws IOException {
+            if (valor == null) {
+                return;
+            }
+            String texto = valor instanceof LocalDateTime fecha ? FORMATO_FECHA.format(fecha) : valor.toString();
+            // Evita que Excel interprete como fórmula un texto escrito por el solicitante
+            if (!texto.isEmpty() && "=+-@".indexOf(texto.charAt(0)) >= 0) {
+                texto = "'" + texto;
+            }
+            if (texto.indexOf(separador) >= 0 || texto.indexOf('"') >= 0
+                    || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(texto.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(texto);
+            }
+        }
+
+        @Override
+        public void terminar() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() {
+            // La respuesta la cierra el contenedor
+        }
+    }
+
+    /**
+     * Libro SXSSF: las filas que salen de la ventana se escriben a un
+     * temporal, que se vuelca a la respuesta al terminar.
+     */
+    private static final class EscritorXlsx implements Escritor {
+
+        private final SXSSFWorkbook libro;
+        private final OutputStream salida;
+        private final int filasPorHoja;
+        private final CellStyle estiloEncabezado;
+        private final CellStyle estiloFecha;
+        private Sheet hoja;
+        private int numeroFila;
+
+        EscritorXlsx(OutputStream salida, int filasPorHoja) {
+            this.libro = new SXSSFWorkbook(VENTANA_FILAS);
+            this.libro.setCompressTempFiles(true);
+            this.salida = salida;
+            this.filasPorHoja = filasPorHoja;
+
+            Font negrita = libro.createFont();
+            negrita.setBold(true);
+            this.estiloEncabezado = libro.createCellStyle();
+            this.estiloEncabezado.setFont(negrita);
+            this.estiloFecha = libro.createCellStyle();
+            this.estiloFecha.setDataFormat(libro.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+            nuevaHoja();
+        }
+
+        private void nuevaHoja() {
+            hoja = libro.createSheet("PQRS" + (libro.getNumberOfSheets() > 0 ? " " + (libro.getNumberOfSheets() + 1) : ""));
+            hoja.setDefaultColumnWidth(18);
+            Row encabezado = hoja.createRow(0);
+            for (int i = 0; i < COLUMNAS.length; i++) {
+                Cell celda = encabezado.createCell(i);
+                celda.setCellValue(COLUMNAS[i]);
+                celda.setCellStyle(estiloEncabezado);
+            }
+            hoja.createFreezePane(0, 1);
+            numeroFila = 1;
+        }
+
+        @Override
+        public void fila(Object[] valores) {
+            if (numeroFila > filasPorHoja) {
+                nuevaHoja();
+            }
+            Row fila = hoja.createRow(numeroFila++);
+            for (int i = 0; i < valores.length; i++) {
+                Object valor = valores[i];
+                if (valor == null) {
+                    continue;
+                }
+                Cell celda = fila.createCell(i);
+                if (valor instanceof LocalDateTime fecha) {
+                    celda.setCellValue(fecha);
+                    celda.setCellStyle(estiloFecha);
+                } else {
+                    celda.setCellValue(valor.toString());
+                }
+            }
+        }
+
+        @Override
+        public void terminar() throws IOException {
+            libro.write(salida);
+            salida.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Borra los temporales aunque la exportación haya fallado
+            libro.close();
+        }
+    }
+}
@@ -1,38 +1,72 @@
 package com.claude.springboot.app.services;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import lombok.extern.slf4j.Slf4j;
-
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.time.LocalDate;
-import java.util.UUID;
+import com.claude.springboot.app.entities.ArchivoAdjunto;
+import com.claude.springboot.app.repositories.ArchivoAdjuntoRepository;
+import com.claude.springboot.app.repositories.ArchivoBlobRepository;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.UUID;
 
+/**
+ * Almacena los adjuntos en el directorio de uploads.
+ *
+ * Con {@code file.deduplicar=true} (por defecto) el contenido se guarda una
+ * sola vez bajo cas/ab/cd/&lt;sha-256&gt; y cada subida solo agrega una fila
+ * en archivo_adjunto que apunta al blob. La ruta devuelta sigue siendo
+ * año/mes/día/uuid.ext, así que los enlaces de descarga no cambian.
+ *
+ * Los derivados que genera {@link ProcesadorAdjuntos} (miniatura, vista
+ * reducida, texto) se guardan junto al archivo con los sufijos de abajo.
+ */
 @Slf4j
 @Service
 public class FileStorageService {
 
+    private static final String DIRECTORIO_BLOBS = "cas";
+    private static final int TAMANO_BUFFER_HASH = 64 * 1024;
+
+    public static final String SUFIJO_MINIATURA = ".thumb.jpg";
+    public static final String SUFIJO_VISTA = ".vista.jpg";
+    public static final String SUFIJO_TEXTO = ".txt";
+    private static final List<String> SUFIJOS_DERIVADOS = List.of(SUFIJO_MINIATURA, SUFIJO_VISTA, SUFIJO_TEXTO);
+
     private final Path fileStorageLocation;
+    private final ArchivoAdjuntoRepository archivoAdjuntoRepository;
+    private final ArchivoBlobRepository archivoBlobRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean deduplicar;
 
-    public FileStorageService(@Value("${file.upload-dir}") String uploadDir) {
+    public FileStorageService(@Value("${file.upload-dir}") String uploadDir,
+                              @Value("${file.deduplicar:true}") boolean deduplicar,
+                              ArchivoAdjuntoRepository archivoAdjuntoRepository,
+                              ArchivoBlobRepository archivoBlobRepository,
+                              ApplicationEventPublisher eventPublisher) {
+        this.archivoAdjuntoRepository = archivoAdjuntoRepository;
+        this.archivoBlobRepository = archivoBlobRepository;
+        this.eventPublisher = eventPublisher;
+        this.deduplicar = deduplicar;
         this.fileStorageLocation = Paths.get(uploadDir)
                 .toAbsolutePath().normalize();
                 log.info("la url del storage es: " +this.fileStorageLocation);
@@ -44,6 +78,7 @@ public class FileStorageService {
         }
     }
 
+    @Transactional
     public String storeFile(MultipartFile file) throws IOException {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("No se puede almacenar un archivo vacío");
@@ -53,17 +88,182 @@ public class FileStorageService {
         String month = String.format("%02d", LocalDate.now().getMonthValue());
         String day = String.format("%02d", LocalDate.now().getDayOfMonth());
 
-        Path dirPath = this.fileStorageLocation.resolve(Paths.get(year, month, day));
-        Files.createDirectories(dirPath);
-
         String originalFilename = file.getOriginalFilename();
         String fileExtension = getFileExtension(originalFilename);
         String uniqueFilename = UUID.randomUUID().toString() + "." + fileExtension;
 
-        Path targetLocation = dirPath.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+        String hash = null;
+        if (deduplicar) {
+            hash = almacenarBlob(file);
+        } else {
+            Path dirPath = this.fileStorageLocation.resolve(Paths.get(year, month, day));
+            Files.createDirectories(dirPath);
+            // Copia por bloques; los adjuntos base64 ya decodificados en un temporal se mueven
+            file.transferTo(dirPath.resolve(uniqueFilename));
+        }
+
+        String rutaRelativa = Paths.get(year, month, day, uniqueFilename).toString();
+
+        // El tipo se guarda al subir para servirlo luego sin inspeccionar el archivo
+        String tipoMime = determinarTipoMime(file.getContentType(), originalFilename);
+        archivoAdjuntoRepository.save(new ArchivoAdjunto(
+                claveDeRuta(rutaRelativa),
+                originalFilename,
+                tipoMime,
+                file.getSize(),
+                null,
+                hash));
+
+        // Miniatura y texto se generan en segundo plano tras el commit
+        eventPublisher.publishEvent(new AdjuntoAlmacenadoEvent(rutaRelativa, tipoMime));
+
+        return rutaRelativa;
+    }
+
+    /**
+     * Guarda el contenido en el almacén por hash y devuelve el hash. El hash
+     * se calcula leyendo el archivo temporal de la subida; si el blob ya
+     * existe no se escribe nada en disco.
+     */
+    private String almacenarBlob(MultipartFile file) throws IOException {
+        String hash = calcularHash(file);
+        archivoBlobRepository.registrarReferencia(hash, file.getSize());
+
+        // Se mira el disco y no la fila: una transacción revertida puede dejar
+        // el archivo sin fila, y así se reaprovecha
+        Path blob = rutaBlob(hash);
+        if (Files.exists(blob)) {
+            log.debug("Adjunto duplicado, se reutiliza el blob {}", hash);
+            return hash;
+        }
+
+        Files.createDirectories(blob.getParent());
+        Path temporal = Files.createTempFile(blob.getParent(), hash, ".tmp");
+        try {
+            file.transferTo(temporal);
+            try {
+                Files.move(temporal, blob, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporal, blob, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+        return hash;
+    }
+
+    private String calcularHash(MultipartFile file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+        byte[] buffer = new byte[TAMANO_BUFFER_HASH];
+        try (InputStream entrada = file.getInputStream()) {
+            int leidos;
+            while ((leidos = entrada.read(buffer)) != -1) {
+                digest.update(buffer, 0, leidos);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Borra la fila de un adjunto que nadie referencia y descuenta su blob.
+     * La usa el recolector de archivos huérfanos.
+     */
+    @Transactional
+    public void eliminarReferencia(ArchivoAdjunto adjunto) {
+        archivoAdjuntoRepository.delete(adjunto);
+        if (adjunto.getHash() != null) {
+            archivoBlobRepository.liberarReferencia(adjunto.getHash());
+        }
+    }
+
+    /**
+     * Elimina un blob sin referencias. El archivo se borra antes del commit:
+     * mientras tanto la fila queda bloqueada y una subida del mismo
+     * contenido espera y luego lo vuelve a escribir.
+     *
+     * @return true si el blob se eliminó
+     */
+    @Transactional
+    public boolean eliminarBlobSinReferencias(String hash) {
+        if (archivoBlobRepository.eliminarSiSinReferencias(hash) == 0) {
+            return false;
+        }
+        try {
+            Path blob = rutaBlob(hash);
+            for (String sufijo : SUFIJOS_DERIVADOS) {
+                Files.deleteIfExists(derivado(blob, sufijo));
+            }
+            Files.deleteIfExists(blob);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo eliminar el blob " + hash, e);
+        }
+        return true;
+    }
+
+    /**
+     * Resuelve una ruta relativa dentro del directorio de almacenamiento.
+     * Rechaza rutas que intenten salir de él (por ejemplo con "..").
+     */
+    public Path resolverArchivo(String rutaRelativa) {
+        Path archivo = this.fileStorageLocation.resolve(rutaRelativa).normalize();
+        if (!archivo.startsWith(this.fileStorageLocation)) {
+            throw new IllegalArgumentException("Ruta de archivo inválida: " + rutaRelativa);
+        }
+        // Los adjuntos deduplicados viven en el almacén por hash
+        return archivoAdjuntoRepository.findById(claveDeRuta(rutaRelativa))
+                .map(ArchivoAdjunto::getHash)
+                .map(this::rutaBlob)
+                .orElse(archivo);
+    }
+
+    /**
+     * Ruta de un derivado (miniatura, vista, texto) del adjunto. Para
+     * adjuntos deduplicados queda junto al blob y se comparte entre copias.
+     */
+    public Path resolverDerivado(String rutaRelativa, String sufijo) {
+        return derivado(resolverArchivo(rutaRelativa), sufijo);
+    }
+
+    private static Path derivado(Path archivo, String sufijo) {
+        return archivo.resolveSibling(archivo.getFileName() + sufijo);
+    }
+
+    Path rutaBlob(String hash) {
+        return this.fileStorageLocation.resolve(DIRECTORIO_BLOBS)
+                .resolve(hash.substring(0, 2))
+                .resolve(hash.substring(2, 4))
+                .resolve(hash);
+    }
+
+    /**
+     * Tipo MIME registrado al subir el archivo. Para archivos anteriores a la
+     * tabla archivo_adjunto se deduce de la extensión.
+     */
+    public String obtenerTipoMime(String rutaRelativa) {
+        String clave = claveDeRuta(rutaRelativa);
+        return archivoAdjuntoRepository.findById(clave)
+                .map(ArchivoAdjunto::getTipoMime)
+                .orElseGet(() -> determinarTipoMime(null, clave));
+    }
+
+    private String determinarTipoMime(String declarado, String nombreArchivo) {
+        if (declarado != null && !declarado.isBlank()
+                && !MediaType.APPLICATION_OCTET_STREAM_VALUE.equals(declarado)) {
+            return declarado;
+        }
+        return MediaTypeFactory.getMediaType(nombreArchivo)
+                .map(MediaType::toString)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    }
 
-        return Paths.get(year, month, day, uniqueFilename).toString();
+    /** Las rutas se guardan con '/' sin importar el sistema operativo. */
+    static String claveDeRuta(String rutaRelativa) {
+        return rutaRelativa.replace('\\', '/');
     }
 
     private String getFileExtension(String filename) {
@@ -76,4 +276,4 @@ public class FileStorageService {
         }
         return filename.substring(lastIndexOf + 1);
     }
-}
\ No newline at end of file
+}
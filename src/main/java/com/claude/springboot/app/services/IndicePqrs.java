@@ -0,0 +1,380 @@
+package com.claude.springboot.app.services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.Facets;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.IndexFormatTooNewException;
+import org.apache.lucene.index.IndexFormatTooOldException;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MultiCollectorManager;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldCollectorManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.claude.springboot.app.entities.Pqrs;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Índice invertido local (Lucene) con el texto de cada PQRS: título,
+ * descripción, comentarios de seguimiento y texto de los adjuntos PDF.
+ * <p>
+ * Un documento por PQRS, reemplazado completo en cada cambio. Los
+ * resultados se ordenan por relevancia y, a igual relevancia, por idPqrs
+ * descendente; ese par es el cursor de la paginación. Estado, prioridad y
+ * tema se guardan como facetas para contar resultados y como términos
+ * exactos para filtrar.
+ * <p>
+ * Los cambios son visibles para las búsquedas al instante y se confirman a
+ * disco cada {@code busqueda.indice.commit}; lo perdido en una caída se
+ * recupera con {@link BusquedaPqrsService#reconstruir()}.
+ */
+@Slf4j
+@Component
+public class IndicePqrs {
+
+    public static final String FACETA_ESTADO = "estado";
+    public static final String FACETA_PRIORIDAD = "prioridad";
+    public static final String FACETA_TEMA = "tema";
+    public static final List<String> FACETAS = List.of(FACETA_ESTADO, FACETA_PRIORIDAD, FACETA_TEMA);
+
+    private static final String CAMPO_ID = "id";
+    private static final String CAMPO_ORDEN = "orden";
+    private static final String CAMPO_GENERACION = "generacion";
+    private static final String CAMPO_TITULO = "titulo";
+    private static final String CAMPO_DESCRIPCION = "descripcion";
+    private static final String CAMPO_COMENTARIOS = "comentarios";
+    private static final String CAMPO_ADJUNTOS = "adjuntos";
+
+    // Una coincidencia en el título pesa más que una en un adjunto
+    private static final Map<String, Float> PESOS = Map.of(
+            CAMPO_TITULO, 3f,
+            CAMPO_DESCRIPCION, 1.5f,
+            CAMPO_COMENTARIOS, 1f,
+            CAMPO_ADJUNTOS, 0.5f);
+
+    private static final Sort ORDEN = new Sort(SortField.FIELD_SCORE,
+            new SortField(CAMPO_ORDEN, SortField.Type.LONG, true));
+
+    private static final String DATO_GENERACION = "generacion";
+    private static final String PREFIJO_CURSOR = "busqueda:";
+    private static final int MAX_VALORES_FACETA = 50;
+
+    private final Analyzer analizador = new AnalizadorEspanol();
+    private final FacetsConfig facetsConfig = new FacetsConfig();
+    private final Directory directorio;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    // Generación de la última reconstrucción: lo que tenga una anterior ya no está en la BD
+    private volatile long generacion;
+
+    // Estado de facetas del lector actual; se recalcula cuando el lector cambia
+    private volatile EstadoFacetas estadoFacetas;
+
+    public IndicePqrs(@Value("${busqueda.indice.directorio:indice-pqrs}") String rutaIndice) throws IOException {
+        Path ruta = Files.createDirectories(Paths.get(rutaIndice).toAbsolutePath().normalize());
+        this.directorio = FSDirectory.open(ruta);
+        this.writer = abrirWriter(ruta);
+        this.searcherManager = new SearcherManager(writer, null);
+        this.generacion = leerGeneracion();
+    }
+
+    private IndexWriter abrirWriter(Path ruta) throws IOException {
+        try {
+            return new IndexWriter(directorio, configuracion(OpenMode.CREATE_OR_APPEND));
+        } catch (CorruptIndexException | IndexFormatTooOldException | IndexFormatTooNewException e) {
+            // El índice se puede volver a construir desde la base de datos
+            log.error("Índice de búsqueda ilegible en {}, se crea vacío: {}", ruta, e.getMessage());
+            return new IndexWriter(directorio, configuracion(OpenMode.CREATE));
+        }
+    }
+
+    private IndexWriterConfig configuracion(OpenMode modo) {
+        IndexWriterConfig config = new IndexWriterConfig(analizador);
+        config.setOpenMode(modo);
+        return config;
+    }
+
+    private long leerGeneracion() {
+        Iterable<Map.Entry<String, String>> datos = writer.getLiveCommitData();
+        if (datos != null) {
+            for (Map.Entry<String, String> dato : datos) {
+                if (DATO_GENERACION.equals(dato.getKey())) {
+                    return Long.parseLong(dato.getValue());
+                }
+            }
+        }
+        return 0;
+    }
+
+    /** Agrega o reemplaza el documento de la PQRS. */
+    public void indexar(Pqrs pqrs, Collection<String> comentarios, Collection<String> textosAdjuntos)
+            throws IOException {
+        String id = String.valueOf(pqrs.getIdPqrs());
+        Document doc = new Document();
+        doc.add(new StringField(CAMPO_ID, id, Store.NO));
+        doc.add(new NumericDocValuesField(CAMPO_ORDEN, pqrs.getIdPqrs()));
+        doc.add(new LongPoint(CAMPO_GENERACION, generacion));
+
+        agregarTexto(doc, CAMPO_TITULO, pqrs.getTitulo());
+        agregarTexto(doc, CAMPO_DESCRIPCION, pqrs.getDescripcion());
+        comentarios.forEach(comentario -> agregarTexto(doc, CAMPO_COMENTARIOS, comentario));
+        textosAdjuntos.forEach(texto -> agregarTexto(doc, CAMPO_ADJUNTOS, texto));
+
+        agregarFaceta(doc, FACETA_ESTADO, pqrs.getEstadoPqrs());
+        agregarFaceta(doc, FACETA_PRIORIDAD, pqrs.getPrioridad());
+        agregarFaceta(doc, FACETA_TEMA, pqrs.getTema() != null ? pqrs.getTema().getNombre() : null);
+
+        writer.updateDocument(new Term(CAMPO_ID, id), facetsConfig.build(doc));
+        searcherManager.maybeRefresh();
+    }
+
+    private void agregarTexto(Document doc, String campo, String texto) {
+        if (texto != null && !texto.isBlank()) {
+            doc.add(new TextField(campo, texto, Store.NO));
+        }
+    }
+
+    private void agregarFaceta(Document doc, String faceta, String valor) {
+        if (valor != null && !valor.isBlank()) {
+            doc.add(new SortedSetDocValuesFacetField(faceta, valor));
+            doc.add(new StringField(faceta, valor, Store.NO));
+        }
+    }
+
+    /**
+     * Inicia una reconstrucción: lo que se indexe desde ahora queda con una
+     * generación nueva y {@link #terminarReconstruccion(long)} elimina los
+     * documentos que no se volvieron a indexar.
+     */
+    public long iniciarReconstruccion() {
+        generacion = Math.max(generacion + 1, System.currentTimeMillis());
+        return generacion;
+    }
+
+    public void terminarReconstruccion(long generacionReconstruida) throws IOException {
+        writer.deleteDocuments(LongPoint.newRangeQuery(CAMPO_GENERACION, Long.MIN_VALUE, generacionReconstruida - 1));
+        searcherManager.maybeRefreshBlocking();
+        confirmar();
+    }
+
+    public boolean estaVacio() {
+        return writer.getDocStats().numDocs == 0;
+    }
+
+    /**
+     * Busca {@code texto} (sintaxis simple: "frase exacta", -excluir, prefijo*)
+     * entre las PQRS que cumplen los filtros de faceta. Un texto vacío
+     * devuelve todas, de la más reciente a la más antigua.
+     *
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public ResultadoBusqueda buscar(String texto, Map<String, String> filtros, String cursor, int tamano)
+            throws IOException {
+        Query consulta = construirConsulta(texto, filtros);
+        FieldDoc despuesDe = decodificarCursor(cursor);
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            if (despuesDe != null) {
+                // idPqrs es único: a igual (puntaje, id) es el mismo documento y se salta
+                despuesDe.doc = Math.max(0, searcher.getIndexReader().maxDoc() - 1);
+            }
+            // Una sola pasada junta la página y los documentos para contar facetas y total
+            Object[] resultados = searcher.search(consulta, new MultiCollectorManager(
+                    new TopFieldCollectorManager(ORDEN, tamano + 1, despuesDe, Integer.MAX_VALUE, true),
+                    new FacetsCollectorManager()));
+            TopDocs top = (TopDocs) resultados[0];
+            FacetsCollector facetsCollector = (FacetsCollector) resultados[1];
+
+            ScoreDoc[] encontrados = top.scoreDocs;
+            boolean hasNext = encontrados.length > tamano;
+            int enPagina = Math.min(encontrados.length, tamano);
+            List<Long> ids = new ArrayList<>(enPagina);
+            for (int i = 0; i < enPagina; i++) {
+                ids.add((Long) ((FieldDoc) encontrados[i]).fields[1]);
+            }
+            String nextCursor = hasNext ? codificarCursor((FieldDoc) encontrados[enPagina - 1]) : null;
+
+            long total = 0;
+            for (FacetsCollector.MatchingDocs coincidencias : facetsCollector.getMatchingDocs()) {
+                total += coincidencias.totalHits;
+            }
+            return new ResultadoBusqueda(ids, hasNext, nextCursor, total,
+                    contarFacetas(searcher, facetsCollector));
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private Query construirConsulta(String texto, Map<String, String> filtros) {
+        BooleanQuery.Builder consulta = new BooleanQuery.Builder();
+        if (texto != null && !texto.isBlank()) {
+            SimpleQueryParser parser = new SimpleQueryParser(analizador, PESOS);
+            parser.setDefaultOperator(Occur.MUST);
+            consulta.add(parser.parse(texto), Occur.MUST);
+        } else {
+            consulta.add(new MatchAllDocsQuery(), Occur.MUST);
+        }
+        filtros.forEach((faceta, valor) -> {
+            if (FACETAS.contains(faceta) && valor != null && !valor.isBlank()) {
+                consulta.add(new TermQuery(new Term(faceta, valor)), Occur.FILTER);
+            }
+        });
+        return consulta.build();
+    }
+
+    private Map<String, Map<String, Long>> contarFacetas(IndexSearcher searcher, FacetsCollector coincidencias)
+            throws IOException {
+        Map<String, Map<String, Long>> conteos = new LinkedHashMap<>();
+        SortedSetDocValuesReaderState estado = estadoFacetas(searcher.getIndexReader());
+        if (estado == null) {
+            return conteos;
+        }
+        Facets facets = new SortedSetDocValuesFacetCounts(estado, coincidencias);
+        for (String faceta : FACETAS) {
+            Map<String, Long> valores = new LinkedHashMap<>();
+            FacetResult resultado = facets.getTopChildren(MAX_VALORES_FACETA, faceta);
+            if (resultado != null) {
+                for (LabelAndValue valor : resultado.labelValues) {
+                    valores.put(valor.label, valor.value.longValue());
+                }
+            }
+            conteos.put(faceta, valores);
+        }
+        return conteos;
+    }
+
+    private SortedSetDocValuesReaderState estadoFacetas(IndexReader reader) throws IOException {
+        EstadoFacetas actual = estadoFacetas;
+        if (actual == null || actual.reader != reader) {
+            SortedSetDocValuesReaderState estado;
+            try {
+                estado = new DefaultSortedSetDocValuesReaderState(reader, facetsConfig);
+            } catch (IllegalArgumentException e) {
+                // Índice sin documentos: todavía no existe el campo de facetas
+                return null;
+            }
+            actual = new EstadoFacetas(reader, estado);
+            estadoFacetas = actual;
+        }
+        return actual.estado;
+    }
+
+    private static String codificarCursor(FieldDoc ultimo) {
+        float puntaje = (Float) ultimo.fields[0];
+        long id = (Long) ultimo.fields[1];
+        String valor = PREFIJO_CURSOR + Float.floatToIntBits(puntaje) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static FieldDoc decodificarCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!valor.startsWith(PREFIJO_CURSOR)) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+            String[] partes = valor.substring(PREFIJO_CURSOR.length()).split(":");
+            float puntaje = Float.intBitsToFloat(Integer.parseInt(partes[0]));
+            long id = Long.parseLong(partes[1]);
+            return new FieldDoc(0, puntaje, new Object[] { puntaje, id });
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${busqueda.indice.commit:30s}", initialDelayString = "${busqueda.indice.commit:30s}")
+    public void confirmar() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.setLiveCommitData(Map.of(DATO_GENERACION, String.valueOf(generacion)).entrySet());
+                writer.commit();
+            }
+        } catch (IOException e) {
+            log.error("Error confirmando el índice de búsqueda: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        confirmar();
+        searcherManager.close();
+        writer.close();
+        directorio.close();
+    }
+
+    /** Una página de resultados: ids en orden de relevancia, total y facetas. */
+    @Getter
+    @AllArgsConstructor
+    public static class ResultadoBusqueda {
+        private final List<Long> ids;
+        private final boolean hasNext;
+        private final String nextCursor;
+        private final long total;
+        private final Map<String, Map<String, Long>> facetas;
+    }
+
+    private static final class EstadoFacetas {
+        private final IndexReader reader;
+        private final SortedSetDocValuesReaderState estado;
+
+        private EstadoFacetas(IndexReader reader, SortedSetDocValuesReaderState estado) {
+            this.reader = reader;
+            this.estado = estado;
+        }
+    }
+}
@@ -13,10 +13,12 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
+/**
+ * Las consultas se responden desde {@link CatalogoGeograficoIndex} sin abrir
+ * transacción (no tocan la BD); solo las escrituras son transaccionales.
+ */
 @Service
-@Transactional
 public class MunicipioServiceImpl implements MunicipioService {
     
     @Autowired
@@ -25,114 +27,67 @@ public class MunicipioServiceImpl implements MunicipioService {
     @Autowired
     private DepartamentoRepository departamentoRepository;
     
+    // Las lecturas se resuelven en memoria; los repositorios solo se usan para escribir
+    @Autowired
+    private CatalogoGeograficoIndex catalogoGeograficoIndex;
+    
     @Override
-    @Transactional(readOnly = true)
     public List<MunicipioDTO> obtenerTodosLosMunicipios() {
-        return municipioRepository.findByActivoTrueOrderByNombre()
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.municipios();
     }
     
     @Override
-    @Transactional(readOnly = true)
     public Optional<MunicipioDTO> obtenerMunicipioPorCodigo(String codigoDane) {
-        return municipioRepository.findByCodigoDaneAndActivoTrue(codigoDane)
-                .map(this::convertirADTO);
+        return catalogoGeograficoIndex.municipioPorCodigo(codigoDane);
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<MunicipioDTO> obtenerMunicipiosPorDepartamento(String codigoDepartamento) {
-        return municipioRepository.findByCodigoDepartamentoAndActivoTrueOrderByNombre(codigoDepartamento)
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.municipiosPorDepartamento(codigoDepartamento);
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<MunicipioDTO> buscarMunicipiosPorNombre(String nombre) {
-        return municipioRepository.findByNombreContainingIgnoreCaseAndActivoTrue(nombre)
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.buscarMunicipiosPorNombre(nombre);
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<MunicipioDTO> obtenerMunicipiosPorCategoria(String categoria) {
-        return municipioRepository.findByCategoriaAndActivoTrue(categoria)
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.municipiosPorCategoria(categoria);
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<MunicipioDTO> obtenerMunicipiosPorPoblacionMinima(Integer poblacionMinima) {
-        return municipioRepository.findByPoblacionEstimadaGreaterThanEqualAndActivoTrue(poblacionMinima)
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.municipiosPorPoblacionMinima(poblacionMinima);
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<MunicipioDTO> buscarMunicipiosPorNombreYDepartamento(String nombreMunicipio, String nombreDepartamento) {
-        return municipioRepository.findByNombreAndDepartamento(nombreMunicipio, nombreDepartamento)
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.buscarMunicipiosPorNombreYDepartamento(nombreMunicipio, nombreDepartamento);
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<MunicipioDTO> obtenerMunicipiosConDepartamento() {
-        List<Object[]> resultados = municipioRepository.findMunicipiosConDepartamento();
-        
-        return resultados.stream()
-                .map(row -> {
-                    MunicipioDTO dto = new MunicipioDTO();
-                    dto.setCodigoDane((String) row[0]);
-                    dto.setNombre((String) row[1]);
-                    dto.setCodigoDepartamento((String) row[2]);
-                    dto.setCategoria((String) row[3]);
-                    dto.setPoblacionEstimada((Integer) row[4]);
-                    dto.setNombreDepartamento((String) row[5]);
-                    dto.setCapitalDepartamento((String) row[6]);
-                    dto.setRegion((String) row[7]);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.municipiosConDepartamento();
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<String> obtenerCategorias() {
-        return municipioRepository.findDistinctCategorias();
+        return catalogoGeograficoIndex.categorias();
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<MunicipioDTO> obtenerMunicipiosPorRegion(String region) {
-        return municipioRepository.findByRegion(region)
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.municipiosPorRegion(region);
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<MunicipioDTO> obtenerMunicipiosMasPoblados(int limite) {
-        return municipioRepository.findTopMunicipiosByPoblacion()
-                .stream()
-                .limit(limite)
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return catalogoGeograficoIndex.municipiosMasPoblados(limite);
     }
     
     @Override
+    @Transactional
     public MunicipioDTO crearMunicipio(MunicipioDTO municipioDTO) {
         if (municipioRepository.existsByCodigoDaneAndActivoTrue(municipioDTO.getCodigoDane())) {
             throw new IllegalArgumentException("Ya existe un municipio con el código DANE: " + municipioDTO.getCodigoDane());
@@ -153,10 +108,12 @@ public class MunicipioServiceImpl implements MunicipioService {
         municipio.setActivo(true);
         
         Municipio municipioGuardado = municipioRepository.save(municipio);
+        catalogoGeograficoIndex.reconstruirAlConfirmar();
         return convertirADTO(municipioGuardado);
     }
     
     @Override
+    @Transactional
     public MunicipioDTO actualizarMunicipio(String codigoDane, MunicipioDTO municipioDTO) {
         Municipio municipio = municipioRepository.findByCodigoDaneAndActivoTrue(codigoDane)
                 .orElseThrow(() -> new IllegalArgumentException("Municipio no encontrado: " + codigoDane));
@@ -175,49 +132,50 @@ public class MunicipioServiceImpl implements MunicipioService {
         }
         
         Municipio municipioActualizado = municipioRepository.save(municipio);
+        catalogoGeograficoIndex.reconstruirAlConfirmar();
         return convertirADTO(municipioActualizado);
     }
     
     @Override
+    @Transactional
     public void desactivarMunicipio(String codigoDane) {
         Municipio municipio = municipioRepository.findById(codigoDane)
                 .orElseThrow(() -> new IllegalArgumentException("Municipio no encontrado: " + codigoDane));
         
         municipio.setActivo(false);
         municipioRepository.save(municipio);
+        catalogoGeograficoIndex.reconstruirAlConfirmar();
     }
     
     @Override
+    @Transactional
     public void activarMunicipio(String codigoDane) {
         Municipio municipio = municipioRepository.findById(codigoDane)
                 .orElseThrow(() -> new IllegalArgumentException("Municipio no encontrado: " + codigoDane));
         
         municipio.setActivo(true);
         municipioRepository.save(municipio);
+        catalogoGeograficoIndex.reconstruirAlConfirmar();
     }
     
     @Override
-    @Transactional(readOnly = true)
     public boolean existeMunicipio(String codigoDane) {
-        return municipioRepository.existsByCodigoDaneAndActivoTrue(codigoDane);
+        return catalogoGeograficoIndex.existeMunicipio(codigoDane);
     }
     
     @Override
-    @Transactional(readOnly = true)
     public boolean validarCodigoDaneMunicipio(String codigoMunicipio, String codigoDepartamento) {
-        return municipioRepository.validarCodigoDaneMunicipio(codigoMunicipio, codigoDepartamento);
+        return catalogoGeograficoIndex.validarCodigoDaneMunicipio(codigoMunicipio, codigoDepartamento);
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<Object[]> obtenerEstadisticasPorDepartamento() {
-        return municipioRepository.countMunicipiosByDepartamento();
+        return catalogoGeograficoIndex.conteoMunicipiosPorDepartamento();
     }
     
     @Override
-    @Transactional(readOnly = true)
     public List<Object[]> obtenerEstadisticasPorCategoria() {
-        return municipioRepository.countMunicipiosByCategoria();
+        return catalogoGeograficoIndex.conteoMunicipiosPorCategoria();
     }
     
     @Override
@@ -0,0 +1,20 @@
+package com.claude.springboot.app.services;
+
+/**
+ * Se publica cuando cambia algo de una PQRS que se busca o se filtra (texto,
+ * seguimientos, estado, prioridad, asignación). {@link BusquedaPqrsService}
+ * lo escucha para reindexarla una vez confirmada la transacción y
+ * {@link EstadisticasPqrsService} para mover su conteo antes de confirmarla.
+ */
+public class PqrsModificadaEvent {
+
+    private final Long idPqrs;
+
+    public PqrsModificadaEvent(Long idPqrs) {
+        this.idPqrs = idPqrs;
+    }
+
+    public Long getIdPqrs() {
+        return idPqrs;
+    }
+}
@@ -0,0 +1,195 @@
+package com.claude.springboot.app.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Component;
+
+import com.claude.springboot.app.dto.AreaResponseDTO;
+import com.claude.springboot.app.dto.PqrsResponseDTO;
+import com.claude.springboot.app.dto.SeguimientoResponseDTO;
+import com.claude.springboot.app.dto.TemasPqrsResponseDTO;
+import com.claude.springboot.app.dto.UsuarioResponseDTO;
+import com.claude.springboot.app.entities.Pqrs;
+import com.claude.springboot.app.entities.SeguimientoPqrs;
+import com.claude.springboot.app.entities.SeguimientoPqrs.TipoSeguimiento;
+import com.claude.springboot.app.entities.TemasPqrs;
+import com.claude.springboot.app.repositories.PqrsRepository;
+import com.claude.springboot.app.repositories.SeguimientoPqrsRepository;
+import com.claude.springboot.app.security.entities.Usuario;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Construye los {@link PqrsResponseDTO} de una página (o lista) de solicitudes
+ * con un número fijo de consultas: una para tema/área/usuario asignado y otra
+ * para todos los seguimientos con su usuario y persona. El ensamblado se hace
+ * en memoria, sin consultas por fila.
+ *
+ * Debe invocarse dentro de una transacción (los servicios de lectura ya son
+ * {@code @Transactional(readOnly = true)}).
+ */
+@Component
+@RequiredArgsConstructor
+public class PqrsResponseAssembler {
+
+    /**
+     * SQL Server admite como máximo 2100 parámetros por sentencia; las listas
+     * de ids se parten en bloques de este tamaño.
+     */
+    static final int TAMANO_LOTE_IDS = 1000;
+
+    private final PqrsRepository pqrsRepository;
+    private final SeguimientoPqrsRepository seguimientoRepository;
+
+    public Page<PqrsResponseDTO> ensamblar(Page<Pqrs> pagina) {
+        return new PageImpl<>(ensamblar(pagina.getContent()), pagina.getPageable(), pagina.getTotalElements());
+    }
+
+    public PqrsResponseDTO ensamblar(Pqrs pqrs) {
+        return ensamblar(Collections.singletonList(pqrs)).get(0);
+    }
+
+    public List<PqrsResponseDTO> ensamblar(List<Pqrs> solicitudes) {
+        if (solicitudes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> ids = new ArrayList<>(solicitudes.stream()
+                .map(Pqrs::getIdPqrs)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+
+        // Inicializa tema, área y usuario asignado de todas las filas a la vez
+        Map<Long, Pqrs> conRelaciones = new HashMap<>();
+        Map<Long, List<SeguimientoPqrs>> seguimientosPorPqrs = new HashMap<>();
+        for (List<Long> lote : particionar(ids)) {
+            for (Pqrs pqrs : pqrsRepository.findConRelacionesByIdPqrsIn(lote)) {
+                conRelaciones.put(pqrs.getIdPqrs(), pqrs);
+            }
+            for (SeguimientoPqrs seguimiento : seguimientoRepository.findByPqrsIdsConUsuario(lote)) {
+                seguimientosPorPqrs
+                        .computeIfAbsent(seguimiento.getPqrs().getIdPqrs(), k -> new ArrayList<>())
+                        .add(seguimiento);
+            }
+        }
+
+        List<PqrsResponseDTO> resultado = new ArrayList<>(solicitudes.size());
+        for (Pqrs pqrs : solicitudes) {
+            Pqrs cargada = conRelaciones.getOrDefault(pqrs.getIdPqrs(), pqrs);
+            resultado.add(convertir(cargada,
+                    seguimientosPorPqrs.getOrDefault(pqrs.getIdPqrs(), Collections.emptyList())));
+        }
+        return resultado;
+    }
+
+    private List<List<Long>> particionar(List<Long> ids) {
+        List<List<Long>> lotes = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += TAMANO_LOTE_IDS) {
+            lotes.add(ids.subList(i, Math.min(i + TAMANO_LOTE_IDS, ids.size())));
+        }
+        return lotes;
+    }
+
+    private PqrsResponseDTO convertir(Pqrs pqrs, List<SeguimientoPqrs> seguimientos) {
+        PqrsResponseDTO dto = new PqrsResponseDTO();
+        dto.setIdPqrs(pqrs.getIdPqrs());
+        dto.setNumeroRadicado(pqrs.getNumeroRadicado());
+        dto.setNombreSolicitante(pqrs.getNombreSolicitante());
+        dto.setEmailSolicitante(pqrs.getEmailSolicitante());
+        dto.setTelefonoSolicitante(pqrs.getTelefonoSolicitante());
+        dto.setTipoDocumentoSolicitante(pqrs.getTipoDocumentoSolicitante());
+        dto.setNumeroDocumentoSolicitante(pqrs.getNumeroDocumentoSolicitante());
+        dto.setTitulo(pqrs.getTitulo());
+        dto.setDescripcion(pqrs.getDescripcion());
+        dto.setPrioridad(pqrs.getPrioridad());
+        dto.setEstadoPqrs(pqrs.getEstadoPqrs());
+        dto.setFechaCreacion(pqrs.getFechaCreacion());
+        dto.setFechaUltimaActualizacion(pqrs.getFechaUltimaActualizacion());
+
+        if (pqrs.getTema() != null) {
+            dto.setTema(convertirTema(pqrs.getTema()));
+        }
+
+        if (pqrs.getUsuarioAsignado() != null) {
+            Usuario usuario = pqrs.getUsuarioAsignado();
+            dto.setUsuarioAsignado(new UsuarioResponseDTO(
+                usuario.getIdUsuario(),
+                usuario.getUsername(),
+                usuario.getPersona() != null ? usuario.getPersona().getNombreCompleto() : usuario.getUsername(),
+                usuario.getPersona() != null ? usuario.getPersona().getEmail() : null
+            ));
+        }
+
+        dto.setSeguimientos(seguimientos.stream()
+            .map(this::convertirSeguimiento)
+            .filter(Objects::nonNull)
+            .sorted(Comparator.comparing(SeguimientoResponseDTO::getFechaCreacion,
+                    Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder())).reversed())
+            .collect(Collectors.toList()));
+
+        return dto;
+    }
+
+    private SeguimientoResponseDTO convertirSeguimiento(SeguimientoPqrs seguimiento) {
+        UsuarioResponseDTO usuarioDTO = null;
+        Usuario usuario = seguimiento.getUsuario();
+        if (usuario != null) {
+            // Usuario y persona ya vienen cargados por findByPqrsIdsConUsuario
+            String nombreMostrado;
+            String emailMostrado;
+            if (usuario.getPersona() != null) {
+                nombreMostrado = usuario.getPersona().getNombreCompleto();
+                emailMostrado = usuario.getPersona().getEmail();
+            } else {
+                nombreMostrado = usuario.getUsername();
+                emailMostrado = usuario.getUsername() + "@mintrabajo.gov.co";
+            }
+            usuarioDTO = new UsuarioResponseDTO(
+                usuario.getIdUsuario(),
+                usuario.getUsername(),
+                nombreMostrado,
+                emailMostrado
+            );
+        }
+
+        TipoSeguimiento tipo = seguimiento.getTipoSeguimiento();
+        if (tipo == null) {
+            tipo = TipoSeguimiento.FUNCIONARIO;
+        }
+
+        return new SeguimientoResponseDTO(
+            seguimiento.getIdSeguimiento(),
+            usuarioDTO,
+            seguimiento.getComentario(),
+            seguimiento.getArchivoAdjunto(),
+            seguimiento.isEsRespuestaFinal(),
+            seguimiento.getFechaCreacion(),
+            tipo.toString()
+        );
+    }
+
+    private TemasPqrsResponseDTO convertirTema(TemasPqrs tema) {
+        TemasPqrsResponseDTO dto = new TemasPqrsResponseDTO();
+        dto.setIdTema(tema.getIdTema());
+        dto.setNombre(tema.getNombre());
+        dto.setDescripcion(tema.getDescripcion());
+
+        if (tema.getArea() != null) {
+            dto.setArea(new AreaResponseDTO(
+                    tema.getArea().getIdArea(),
+                    tema.getArea().getNombre()));
+        }
+
+        return dto;
+    }
+}
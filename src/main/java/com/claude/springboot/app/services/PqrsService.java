@@ -11,7 +11,9 @@ import com.claude.springboot.app.dto.AsignarPqrsDTO;
 import com.claude.springboot.app.dto.CrearPqrsDTO;
 import com.claude.springboot.app.dto.CrearPqrsUsuarioRegistradoDTO;
 import com.claude.springboot.app.dto.CrearSeguimientoDTO;
+import com.claude.springboot.app.dto.CursorPageDTO;
 import com.claude.springboot.app.dto.PqrsResponseDTO;
+import com.claude.springboot.app.dto.PqrsResumenDTO;
 import com.claude.springboot.app.dto.RespuestaSolicitanteDTO;
 
 public interface PqrsService {
@@ -31,6 +33,16 @@ public interface PqrsService {
     Page<PqrsResponseDTO> listarPqrsUsuario(Pageable pageable);
     List<PqrsResponseDTO> listarPqrsSinAsignar();
     Page<PqrsResponseDTO> listarPqrsSinAsignar(Pageable pageable);
+
+    // Vista resumida (view=summary) para las grillas
+    Page<PqrsResumenDTO> listarResumen(Pageable pageable);
+    Page<PqrsResumenDTO> listarResumenUsuario(Pageable pageable);
+    Page<PqrsResumenDTO> listarResumenSinAsignar(Pageable pageable);
+
+    // Paginación por cursor (keyset sobre idPqrs DESC)
+    CursorPageDTO<PqrsResumenDTO> listarResumenCursor(String cursor, int size, boolean incluirTotal);
+    CursorPageDTO<PqrsResumenDTO> listarResumenUsuarioCursor(String cursor, int size, boolean incluirTotal);
+    CursorPageDTO<PqrsResumenDTO> listarResumenSinAsignarCursor(String cursor, int size, boolean incluirTotal);
     Long obtenerSiguienteSecuencial();
     PqrsResponseDTO consultarPqrsPublico(String numeroRadicado, String token);
     PqrsResponseDTO agregarRespuestaSolicitante(String numeroRadicado, String token, RespuestaSolicitanteDTO dto);
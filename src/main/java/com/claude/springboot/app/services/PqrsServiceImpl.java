@@ -1,10 +1,7 @@
 package com.claude.springboot.app.services;
 
-import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 
-import java.time.temporal.ChronoUnit;
-import java.time.temporal.TemporalAdjusters;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -13,9 +10,13 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -28,7 +29,9 @@ import com.claude.springboot.app.dto.AsignarPqrsDTO;
 import com.claude.springboot.app.dto.CrearPqrsDTO;
 
 import com.claude.springboot.app.dto.CrearSeguimientoDTO;
+import com.claude.springboot.app.dto.CursorPageDTO;
 import com.claude.springboot.app.dto.PqrsResponseDTO;
+import com.claude.springboot.app.dto.PqrsResumenDTO;
 import com.claude.springboot.app.dto.RespuestaSolicitanteDTO;
 import com.claude.springboot.app.dto.SeguimientoResponseDTO;
 import com.claude.springboot.app.dto.TemasPqrsResponseDTO;
@@ -38,7 +41,7 @@ import com.claude.springboot.app.entities.Pqrs;
 import com.claude.springboot.app.entities.SeguimientoPqrs;
 import com.claude.springboot.app.entities.SeguimientoPqrs.TipoSeguimiento;
 import com.claude.springboot.app.entities.TemasPqrs;
-import com.claude.springboot.app.utils.Base64FileUtils;
+import com.claude.springboot.app.utils.KeysetCursor;
 import com.claude.springboot.app.exceptions.PqrsActivoException;
 import com.claude.springboot.app.repositories.HistorialAsignacionRepository;
 import com.claude.springboot.app.repositories.PqrsRepository;
@@ -70,6 +73,9 @@ public class PqrsServiceImpl implements PqrsService {
     @PersistenceContext
     private EntityManager entityManager;
     private final EmailService emailService;
+    private final PqrsResponseAssembler pqrsResponseAssembler;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EstadisticasPqrsService estadisticasPqrsService;
 
     @Override
     @Transactional
@@ -100,6 +106,7 @@ public class PqrsServiceImpl implements PqrsService {
         }
 
         pqrs = pqrsRepository.save(pqrs);
+        eventPublisher.publishEvent(new PqrsModificadaEvent(pqrs.getIdPqrs()));
 
         // Manejar archivo adjunto si existe (como seguimiento inicial)
         log.info("Verificando archivo adjunto: archivo={}, isEmpty={}", 
@@ -108,27 +115,19 @@ public class PqrsServiceImpl implements PqrsService {
     
         MultipartFile archivoParaProcesar = archivo;
         
-        // Si no hay MultipartFile pero hay string base64, convertirlo
-        if ((archivo == null || archivo.isEmpty()) && 
-            dto.getArchivoAdjunto() != null && !dto.getArchivoAdjunto().trim().isEmpty()) {
-            
-            System.out.println("[DEBUG] Procesando archivo base64 desde JSON");
-            archivoParaProcesar = Base64FileUtils.base64ToMultipartFile(
-                dto.getArchivoAdjunto(), 
-                "archivo_adjunto"
-            );
-            
-            if (archivoParaProcesar != null) {
-                System.out.println("[DEBUG] Archivo convertido - Nombre: " + archivoParaProcesar.getOriginalFilename() + 
-                                 ", Content-Type: " + archivoParaProcesar.getContentType() + 
-                                 ", Tamaño: " + archivoParaProcesar.getSize());
-            }
+        // Si no hay MultipartFile pero llegó un adjunto base64 en el JSON, ya viene
+        // decodificado en un archivo temporal (ver AdjuntoBase64Deserializer)
+        if ((archivo == null || archivo.isEmpty()) && dto.getArchivoAdjunto() != null) {
+            archivoParaProcesar = dto.getArchivoAdjunto();
+            log.debug("Archivo base64 desde JSON - Nombre: {}, Content-Type: {}, Tamaño: {}",
+                    archivoParaProcesar.getOriginalFilename(), archivoParaProcesar.getContentType(),
+                    archivoParaProcesar.getSize());
         }
         
         // Procesar archivo si existe (real o convertido desde base64)
         if (archivoParaProcesar != null && !archivoParaProcesar.isEmpty()) {
-            System.out.println("[DEBUG] Archivo a procesar: " + archivoParaProcesar.getOriginalFilename() + 
-                             ", tamaño: " + archivoParaProcesar.getSize());
+            log.debug("Archivo a procesar: {}, tamaño: {}",
+                    archivoParaProcesar.getOriginalFilename(), archivoParaProcesar.getSize());
             
             try {
                 String filePath = fileStorageService.storeFile(archivoParaProcesar);
@@ -142,14 +141,13 @@ public class PqrsServiceImpl implements PqrsService {
                 seguimiento.setFechaCreacion(LocalDateTime.now());
                 
                 seguimientoRepository.save(seguimiento);
-                System.out.println("[DEBUG] Seguimiento con archivo guardado exitosamente: " + filePath);
+                log.debug("Seguimiento con archivo guardado exitosamente: {}", filePath);
                 
             } catch (Exception e) {
-                System.err.println("[ERROR] Error al procesar archivo: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Error al procesar archivo: {}", e.getMessage(), e);
             }
         } else {
-            System.out.println("[DEBUG] No se recibió archivo adjunto válido");
+            log.debug("No se recibió archivo adjunto válido");
         }
 
         // Enviar email al solicitante con el link de consulta
@@ -202,6 +200,7 @@ public class PqrsServiceImpl implements PqrsService {
             pqrs.setTokenConsulta(UUID.randomUUID().toString());
 
             pqrs = pqrsRepository.save(pqrs);
+            eventPublisher.publishEvent(new PqrsModificadaEvent(pqrs.getIdPqrs()));
 
             // Manejar archivo adjunto si existe
             if (archivo != null && !archivo.isEmpty()) {
@@ -269,6 +268,7 @@ public class PqrsServiceImpl implements PqrsService {
         // Actualizar PQRS
         pqrs.setUsuarioAsignado(usuarioNuevo);
         pqrs = pqrsRepository.save(pqrs);
+        eventPublisher.publishEvent(new PqrsModificadaEvent(pqrs.getIdPqrs()));
 
         return convertToResponseDTO(pqrs);
     }
@@ -308,6 +308,7 @@ public class PqrsServiceImpl implements PqrsService {
                 pqrs.setEstadoPqrs("RESUELTO");
             }
             pqrs = pqrsRepository.save(pqrs);
+            eventPublisher.publishEvent(new PqrsModificadaEvent(pqrs.getIdPqrs()));
 
             // Enviar notificación por correo
             String tipoActualizacion = esRespuestaFinal ? "Respuesta Final" : "Nuevo Seguimiento";
@@ -328,6 +329,7 @@ public class PqrsServiceImpl implements PqrsService {
 
         pqrs.setEstadoPqrs(nuevoEstado);
         pqrs = pqrsRepository.save(pqrs);
+        eventPublisher.publishEvent(new PqrsModificadaEvent(pqrs.getIdPqrs()));
 
         return convertToResponseDTO(pqrs);
     }
@@ -344,9 +346,7 @@ public class PqrsServiceImpl implements PqrsService {
     @Transactional(readOnly = true)
     public List<PqrsResponseDTO> listarTodos() {
         try {
-            return pqrsRepository.findAllByOrderByIdPqrsDesc().stream()
-                    .map(this::convertToResponseDTO)
-                    .collect(Collectors.toList());
+            return pqrsResponseAssembler.ensamblar(pqrsRepository.findAllByOrderByIdPqrsDesc());
         } catch (Exception e) {
             log.error("Error al listar todas las Solicitud: ", e);
             throw new RuntimeException("Error al obtener la lista de Solicitud: " + e.getMessage());
@@ -359,58 +359,17 @@ public class PqrsServiceImpl implements PqrsService {
         Usuario usuario = usuarioRepository.findById(idUsuario)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        return pqrsRepository.findByUsuarioAsignado(usuario).stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return pqrsResponseAssembler.ensamblar(pqrsRepository.findByUsuarioAsignado(usuario));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<PqrsResponseDTO> listarPorEstado(String estado) {
-        return pqrsRepository.findByEstadoPqrs(estado).stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return pqrsResponseAssembler.ensamblar(pqrsRepository.findByEstadoPqrs(estado));
     }
 
     private PqrsResponseDTO convertToResponseDTO(Pqrs pqrs) {
-        PqrsResponseDTO dto = new PqrsResponseDTO();
-        dto.setIdPqrs(pqrs.getIdPqrs());
-        dto.setNumeroRadicado(pqrs.getNumeroRadicado());
-        dto.setNombreSolicitante(pqrs.getNombreSolicitante());
-        dto.setEmailSolicitante(pqrs.getEmailSolicitante());
-        dto.setTelefonoSolicitante(pqrs.getTelefonoSolicitante());
-        dto.setTipoDocumentoSolicitante(pqrs.getTipoDocumentoSolicitante());
-        dto.setNumeroDocumentoSolicitante(pqrs.getNumeroDocumentoSolicitante());
-        dto.setTitulo(pqrs.getTitulo());
-        dto.setDescripcion(pqrs.getDescripcion());
-        dto.setPrioridad(pqrs.getPrioridad());
-        dto.setEstadoPqrs(pqrs.getEstadoPqrs());
-        dto.setFechaCreacion(pqrs.getFechaCreacion());
-        dto.setFechaUltimaActualizacion(pqrs.getFechaUltimaActualizacion());
-
-        if (pqrs.getTema() != null) {
-            dto.setTema(convertToTemaDTO(pqrs.getTema()));
-        }
-
-        if (pqrs.getUsuarioAsignado() != null) {
-            Usuario usuario = pqrs.getUsuarioAsignado();
-            dto.setUsuarioAsignado(new UsuarioResponseDTO(
-                pqrs.getUsuarioAsignado().getIdUsuario(),
-                pqrs.getUsuarioAsignado().getUsername(),
-                usuario.getPersona() != null ? usuario.getPersona().getNombreCompleto() : usuario.getUsername(),
-                usuario.getPersona() != null ? usuario.getPersona().getEmail() : null
-            ));
-        }
-    
-        List<SeguimientoResponseDTO> seguimientos = pqrs.getSeguimientos().stream()
-            .map(this::convertSeguimientoToDTO)
-            .filter(Objects::nonNull)
-            .sorted(Comparator.comparing(SeguimientoResponseDTO::getFechaCreacion).reversed())
-            .collect(Collectors.toList());
-    
-        dto.setSeguimientos(seguimientos);
-
-        return dto;
+        return pqrsResponseAssembler.ensamblar(pqrs);
     }
 
     private UsuarioResponseDTO convertToUsuarioDTO(Usuario usuario) {
@@ -440,67 +399,6 @@ public class PqrsServiceImpl implements PqrsService {
             email);
 }
 
-private SeguimientoResponseDTO convertSeguimientoToDTO(SeguimientoPqrs seguimiento) {
-    if (seguimiento == null) {
-        return null;
-    }
-   
-    UsuarioResponseDTO usuarioDTO = null;
-    if (seguimiento.getUsuario() != null) {
-        Optional<Usuario> usuarioOptional = usuarioRepository.findByUsernameWithRolAndPersona(seguimiento.getUsuario().getUsername());
-        
-        String nombreMostrado;
-        String emailMostrado;
-        
-        if (usuarioOptional.isPresent() && usuarioOptional.get().getPersona() != null) {
-            nombreMostrado = usuarioOptional.get().getPersona().getNombreCompleto();
-            emailMostrado = usuarioOptional.get().getPersona().getEmail();
-        } else {
-            nombreMostrado = seguimiento.getUsuario().getUsername();
-            emailMostrado = seguimiento.getUsuario().getUsername() + "@mintrabajo.gov.co";
-        }
-
-        usuarioDTO = new UsuarioResponseDTO(
-            seguimiento.getUsuario().getIdUsuario(),
-            seguimiento.getUsuario().getUsername(),
-            nombreMostrado,
-            emailMostrado
-        );
-    }
-
-    // Manejar el caso donde tipoSeguimiento es null
-    TipoSeguimiento tipo = seguimiento.getTipoSeguimiento();
-    if (tipo == null) {
-        tipo = TipoSeguimiento.FUNCIONARIO; // Valor por defecto
-    }
-
-    return new SeguimientoResponseDTO(
-        seguimiento.getIdSeguimiento(),
-        usuarioDTO,
-        seguimiento.getComentario(),
-        seguimiento.getArchivoAdjunto(),
-        seguimiento.isEsRespuestaFinal(),
-        seguimiento.getFechaCreacion(),
-        tipo.toString() // Ahora es seguro llamar toString()
-    );
-}
-
-    private TemasPqrsResponseDTO convertToTemaDTO(TemasPqrs tema) {
-        TemasPqrsResponseDTO dto = new TemasPqrsResponseDTO();
-        dto.setIdTema(tema.getIdTema());
-        dto.setNombre(tema.getNombre());
-        dto.setDescripcion(tema.getDescripcion());
-
-        if (tema.getArea() != null) {
-            AreaResponseDTO areaDTO = new AreaResponseDTO(
-                    tema.getArea().getIdArea(),
-                    tema.getArea().getNombre());
-            dto.setArea(areaDTO);
-        }
-
-        return dto;
-    }
-
     @Override
     @Transactional(readOnly = true)
     public PqrsResponseDTO consultarPorRadicado(String numeroRadicado) {
@@ -513,32 +411,91 @@ private SeguimientoResponseDTO convertSeguimientoToDTO(SeguimientoPqrs seguimien
     @Transactional(readOnly = true)
     public List<PqrsResponseDTO> listarPqrsUsuario() {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return pqrsRepository.findByUsuarioCreadorOrderByIdPqrsDesc(username).stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return pqrsResponseAssembler.ensamblar(pqrsRepository.findByUsuarioCreadorOrderByIdPqrsDesc(username));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<PqrsResponseDTO> listarPqrsUsuario(Pageable pageable) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return pqrsRepository.findByUsuarioCreadorOrderByIdPqrsDesc(username, pageable)
-                .map(this::convertToResponseDTO);
+        return pqrsResponseAssembler.ensamblar(pqrsRepository.findByUsuarioCreadorOrderByIdPqrsDesc(username, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<PqrsResponseDTO> listarPqrsSinAsignar() {
-        return pqrsRepository.findByUsuarioAsignadoIsNullOrderByIdPqrsDesc().stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return pqrsResponseAssembler.ensamblar(pqrsRepository.findByUsuarioAsignadoIsNullOrderByIdPqrsDesc());
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<PqrsResponseDTO> listarPqrsSinAsignar(Pageable pageable) {
         Page<Pqrs> paginatedPqrs = pqrsRepository.findByUsuarioAsignadoIsNull(pageable);
-        return paginatedPqrs.map(this::convertToResponseDTO);
+        return pqrsResponseAssembler.ensamblar(paginatedPqrs);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PqrsResumenDTO> listarResumen(Pageable pageable) {
+        return pqrsRepository.findResumen(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PqrsResumenDTO> listarResumenUsuario(Pageable pageable) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return pqrsRepository.findResumenByUsuarioCreador(username, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PqrsResumenDTO> listarResumenSinAsignar(Pageable pageable) {
+        return pqrsRepository.findResumenSinAsignar(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PqrsResumenDTO> listarResumenCursor(String cursor, int size, boolean incluirTotal) {
+        return paginarPorCursor(cursor, size,
+                pqrsRepository::findResumenAntesDe,
+                incluirTotal ? pqrsRepository::count : null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PqrsResumenDTO> listarResumenUsuarioCursor(String cursor, int size, boolean incluirTotal) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return paginarPorCursor(cursor, size,
+                (antesDe, limite) -> pqrsRepository.findResumenByUsuarioCreadorAntesDe(username, antesDe, limite),
+                incluirTotal ? () -> pqrsRepository.countByUsuarioCreador(username) : null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PqrsResumenDTO> listarResumenSinAsignarCursor(String cursor, int size, boolean incluirTotal) {
+        return paginarPorCursor(cursor, size,
+                pqrsRepository::findResumenSinAsignarAntesDe,
+                incluirTotal ? pqrsRepository::countByUsuarioAsignadoIsNull : null);
+    }
+
+    /**
+     * Pide una fila de más para saber si hay página siguiente sin hacer COUNT;
+     * el total solo se consulta si se entregó {@code contar}.
+     */
+    private CursorPageDTO<PqrsResumenDTO> paginarPorCursor(String cursor, int size,
+            BiFunction<Long, Pageable, List<PqrsResumenDTO>> consulta, LongSupplier contar) {
+        Long ultimoId = KeysetCursor.decodificar(cursor);
+        long antesDe = ultimoId != null ? ultimoId : Long.MAX_VALUE;
+
+        List<PqrsResumenDTO> filas = consulta.apply(antesDe, PageRequest.of(0, size + 1));
+        boolean hasNext = filas.size() > size;
+        if (hasNext) {
+            filas = filas.subList(0, size);
+        }
+        String nextCursor = hasNext ? KeysetCursor.codificar(filas.get(filas.size() - 1).getIdPqrs()) : null;
+        Long total = contar != null ? contar.getAsLong() : null;
+
+        return new CursorPageDTO<>(filas, filas.size(), hasNext, nextCursor, total);
     }
 
     public Long obtenerSiguienteSecuencial() {
@@ -577,6 +534,11 @@ private SeguimientoResponseDTO convertSeguimientoToDTO(SeguimientoPqrs seguimien
 
         seguimientoRepository.save(seguimiento);
 
+        // Actualizar la fecha de última actualización del PQRS
+        pqrs.setFechaUltimaActualizacion(LocalDateTime.now());
+        pqrsRepository.save(pqrs);
+        eventPublisher.publishEvent(new PqrsModificadaEvent(pqrs.getIdPqrs()));
+
         // Notificar al funcionario asignado
         if (pqrs.getUsuarioAsignado() != null) {
             emailService.notificarNuevaRespuestaSolicitante(pqrs);
@@ -609,6 +571,7 @@ private SeguimientoResponseDTO convertSeguimientoToDTO(SeguimientoPqrs seguimien
         // Actualizar la fecha de última actualización del PQRS
         pqrs.setFechaUltimaActualizacion(LocalDateTime.now());
         pqrsRepository.save(pqrs);
+        eventPublisher.publishEvent(new PqrsModificadaEvent(pqrs.getIdPqrs()));
 
         return convertToResponseDTO(pqrs);
     }
@@ -621,69 +584,22 @@ private SeguimientoResponseDTO convertSeguimientoToDTO(SeguimientoPqrs seguimien
 
         pqrs.setPrioridad(nuevoEstado);
         pqrs = pqrsRepository.save(pqrs);
+        eventPublisher.publishEvent(new PqrsModificadaEvent(pqrs.getIdPqrs()));
 
         return convertToResponseDTO(pqrs);
     }
 
     @Override
     public Map<String, Object> getDashboardStats() {
-        Map<String, Object> stats = new HashMap<>();
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime startOfDay = now.truncatedTo(ChronoUnit.DAYS);
-        LocalDateTime endOfDay = startOfDay.plusDays(1).minusNanos(1);  
-
-        LocalDateTime startOfWeek = now.minusDays(7);
-        LocalDateTime startOfMonth = now.withDayOfMonth(1);
-        LocalDateTime endOfMonth = startOfMonth.plusMonths(1).minusNanos(1);
-
-        // // Semana actual:
-        LocalDateTime startOfCurrentWeek = now.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime endOfCurrentWeek = now;
-
-        // Ajuste de fechas para semana anterior
-        LocalDateTime startOfPreviousWeek = startOfCurrentWeek.minusWeeks(1);
-        LocalDateTime endOfPreviousWeek = startOfCurrentWeek.minusNanos(1);
-        
-        log.info("Fechas semana actual: {} - {}", startOfCurrentWeek, endOfCurrentWeek);
-        log.info("Fechas semana actual: {} - {}", startOfCurrentWeek, now);
-        log.info("Fechas semana anterior: {} - {}", startOfPreviousWeek, endOfPreviousWeek);
-
-        System.out.println("Fechas semana actual: " + startOfCurrentWeek + " - " + endOfCurrentWeek);
-        System.out.println("Fechas semana anterior: " + startOfPreviousWeek + " - " + endOfPreviousWeek);
-         // Total estados y prioridad
-        stats.put("porEstado", convertToMap(pqrsRepository.countByEstado()));
-        stats.put("porPrioridad", convertToMap(pqrsRepository.countByPrioridad()));
-    
-        // Estados por período
-        stats.put("estadosDia", convertToMap(pqrsRepository.countByEstadoAndDateBetween(startOfDay, endOfDay)));
-        stats.put("estadosHoy", convertToMap(pqrsRepository.countByEstadoAndDateBetween(startOfCurrentWeek, endOfCurrentWeek)));
-        stats.put("estadosSemana", convertToMap(pqrsRepository.countByEstadoAndDateBetween(startOfPreviousWeek, endOfPreviousWeek)));
-        stats.put("estadosMes", convertToMap(pqrsRepository.countByEstadoAndDateBetween(startOfMonth, endOfMonth)));
-    
-        // Prioridades por período
-        //stats.put("prioridadesHoy", convertToMap(pqrsRepository.countByPrioridadAndDateAfter(startOfDay)));
-        //stats.put("prioridadesSemana", convertToMap(pqrsRepository.countByPrioridadAndDateAfter(startOfWeek)));
-        //stats.put("prioridadesMes", convertToMap(pqrsRepository.countByPrioridadAndDateAfter(startOfMonth)));
-        stats.put("prioridadesHoy", convertToMap(pqrsRepository.countByPrioridadAndDateBetween(startOfDay, endOfDay)));
-        stats.put("prioridadesSemana", convertToMap(pqrsRepository.countByPrioridadAndDateBetween(startOfCurrentWeek, endOfCurrentWeek)));
-        stats.put("prioridadesMes", convertToMap(pqrsRepository.countByPrioridadAndDateBetween(startOfMonth, endOfMonth)));
-    
-        return stats;
-    }
-    
-    private Map<String, Long> convertToMap(List<Object[]> results) {
-        Map<String, Long> map = new HashMap<>();
-        for (Object[] result : results) {
-            map.put((String)result[0], (Long)result[1]);
-        }
-        return map;
+        // Sumas sobre estadistica_pqrs_dia en lugar de agrupar toda la tabla pqrs
+        return estadisticasPqrsService.obtenerDashboard();
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<PqrsResponseDTO> listarTodos(Pageable pageable) {
         Page<Pqrs> paginatedPqrs = pqrsRepository.findAll(pageable);
-        return paginatedPqrs.map(this::convertToResponseDTO);
+        return pqrsResponseAssembler.ensamblar(paginatedPqrs);
     }
 
 }
@@ -0,0 +1,401 @@
+package com.claude.springboot.app.services;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Genera derivados livianos de los adjuntos para revisar una PQRS sin
+ * descargar el original:
+ * <ul>
+ *   <li>miniatura JPEG de imágenes y de la primera página de los PDF;</li>
+ *   <li>vista reducida y recomprimida de imágenes grandes;</li>
+ *   <li>texto de los PDF, para búsqueda.</li>
+ * </ul>
+ * Se ejecuta en el pool {@code adjuntosExecutor} después del commit que
+ * guardó el adjunto. Si la tarea se descartó (pool lleno, reinicio) o el
+ * adjunto es anterior, pedir la miniatura o el texto encola la tarea en el
+ * mismo pool; nunca se generan en el hilo de la petición. Cada adjunto tiene
+ * a lo sumo una tarea en curso, y un derivado que no se pudo generar (archivo
+ * dañado) no se vuelve a intentar durante un tiempo.
+ */
+@Slf4j
+@Component
+public class ProcesadorAdjuntos {
+
+    private static final String TIPO_PDF = MediaType.APPLICATION_PDF_VALUE;
+
+    private final FileStorageService fileStorageService;
+    private final TaskExecutor executor;
+    private final Set<String> enCurso = ConcurrentHashMap.newKeySet();
+    private final Cache<Path, Boolean> sinDerivado = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    @Value("${adjuntos.miniatura.lado:320}")
+    private int ladoMiniatura;
+
+    @Value("${adjuntos.vista.lado:1600}")
+    private int ladoVista;
+
+    @Value("${adjuntos.vista.umbral:1MB}")
+    private DataSize umbralVista;
+
+    @Value("${adjuntos.pdf.max-paginas-texto:200}")
+    private int maxPaginasTexto;
+
+    public ProcesadorAdjuntos(FileStorageService fileStorageService,
+                              @Qualifier("adjuntosExecutor") TaskExecutor executor) {
+        this.fileStorageService = fileStorageService;
+        this.executor = executor;
+    }
+
+    /**
+     * Estado de un derivado pedido: el archivo si ya existe, o si se está
+     * generando, si no se pudo encolar o si no aplica al tipo del adjunto.
+     */
+    public static final class Derivado {
+
+        public enum Estado { LISTO, PENDIENTE, OCUPADO, NO_DISPONIBLE }
+
+        private final Estado estado;
+        private final Path archivo;
+
+        private Derivado(Estado estado, Path archivo) {
+            this.estado = estado;
+            this.archivo = archivo;
+        }
+
+        public Estado getEstado() {
+            return estado;
+        }
+
+        public Optional<Path> getArchivo() {
+            return Optional.ofNullable(archivo);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alAlmacenarAdjunto(AdjuntoAlmacenadoEvent evento) {
+        if (!encolar(evento.getRutaRelativa(), evento.getTipoMime())) {
+            log.debug("Pool de adjuntos ocupado, {} se procesará al pedirlo", evento.getRutaRelativa());
+        }
+    }
+
+    /**
+     * Encola {@link #procesar} salvo que el adjunto ya tenga una tarea en
+     * curso. Devuelve false si el pool la rechazó.
+     */
+    private boolean encolar(String rutaRelativa, String tipoMime) {
+        if (!enCurso.add(rutaRelativa)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    procesar(rutaRelativa, tipoMime);
+                    recordarFaltantes(rutaRelativa, tipoMime);
+                } finally {
+                    enCurso.remove(rutaRelativa);
+                }
+            });
+            return true;
+        } catch (TaskRejectedException e) {
+            enCurso.remove(rutaRelativa);
+            return false;
+        }
+    }
+
+    /** Genera todos los derivados que apliquen y aún no existan. */
+    public void procesar(String rutaRelativa, String tipoMime) {
+        try {
+            if (esImagen(tipoMime)) {
+                generarMiniatura(rutaRelativa, tipoMime);
+                generarVista(rutaRelativa);
+            } else if (TIPO_PDF.equals(tipoMime)) {
+                generarMiniatura(rutaRelativa, tipoMime);
+                extraerTexto(rutaRelativa);
+            }
+        } catch (Exception e) {
+            log.warn("No se pudieron generar los derivados de {}: {}", rutaRelativa, e.getMessage());
+        }
+    }
+
+    /** Miniatura del adjunto; si falta y el tipo la admite, encola su generación. */
+    public Derivado solicitarMiniatura(String rutaRelativa) {
+        return solicitar(rutaRelativa, FileStorageService.SUFIJO_MINIATURA);
+    }
+
+    /** Texto de un PDF; si falta, encola su extracción. */
+    public Derivado solicitarTexto(String rutaRelativa) {
+        return solicitar(rutaRelativa, FileStorageService.SUFIJO_TEXTO);
+    }
+
+    private Derivado solicitar(String rutaRelativa, String sufijo) {
+        Path destino = fileStorageService.resolverDerivado(rutaRelativa, sufijo);
+        if (Files.exists(destino)) {
+            return new Derivado(Derivado.Estado.LISTO, destino);
+        }
+        String tipoMime = fileStorageService.obtenerTipoMime(rutaRelativa);
+        if (!sufijosDerivados(tipoMime).contains(sufijo)
+                || sinDerivado.getIfPresent(destino) != null
+                || !Files.exists(fileStorageService.resolverArchivo(rutaRelativa))) {
+            return new Derivado(Derivado.Estado.NO_DISPONIBLE, null);
+        }
+        boolean encolada = encolar(rutaRelativa, tipoMime);
+        // Con el pool libre la tarea pudo haber terminado ya
+        if (Files.exists(destino)) {
+            return new Derivado(Derivado.Estado.LISTO, destino);
+        }
+        if (sinDerivado.getIfPresent(destino) != null) {
+            return new Derivado(Derivado.Estado.NO_DISPONIBLE, null);
+        }
+        return new Derivado(encolada ? Derivado.Estado.PENDIENTE : Derivado.Estado.OCUPADO, null);
+    }
+
+    // Derivados que se pueden pedir para el tipo (la vista es opcional: sin ella se sirve el original)
+    private List<String> sufijosDerivados(String tipoMime) {
+        if (esImagen(tipoMime)) {
+            return List.of(FileStorageService.SUFIJO_MINIATURA);
+        }
+        if (TIPO_PDF.equals(tipoMime)) {
+            return List.of(FileStorageService.SUFIJO_MINIATURA, FileStorageService.SUFIJO_TEXTO);
+        }
+        return List.of();
+    }
+
+    private void recordarFaltantes(String rutaRelativa, String tipoMime) {
+        for (String sufijo : sufijosDerivados(tipoMime)) {
+            Path destino = fileStorageService.resolverDerivado(rutaRelativa, sufijo);
+            if (!Files.exists(destino)) {
+                sinDerivado.put(destino, Boolean.TRUE);
+            }
+        }
+    }
+
+    /** Vista reducida de una imagen grande; vacío si se debe usar el original. */
+    public Optional<Path> obtenerVista(String rutaRelativa) {
+        Path vista = fileStorageService.resolverDerivado(rutaRelativa, FileStorageService.SUFIJO_VISTA);
+        return Files.exists(vista) ? Optional.of(vista) : Optional.empty();
+    }
+
+    /**
+     * Texto de un PDF; vacío si no es PDF o no tiene texto extraíble. Si falta
+     * lo extrae en el hilo que llama: solo para tareas en segundo plano como
+     * el índice de búsqueda, las peticiones usan {@link #solicitarTexto}.
+     */
+    public Optional<Path> obtenerTexto(String rutaRelativa) {
+        Path texto = fileStorageService.resolverDerivado(rutaRelativa, FileStorageService.SUFIJO_TEXTO);
+        if (Files.exists(texto)) {
+            return Optional.of(texto);
+        }
+        if (!TIPO_PDF.equals(fileStorageService.obtenerTipoMime(rutaRelativa))) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.ofNullable(extraerTexto(rutaRelativa));
+        } catch (IOException e) {
+            log.warn("No se pudo extraer el texto de {}: {}", rutaRelativa, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Path generarMiniatura(String rutaRelativa, String tipoMime) throws IOException {
+        Path destino = fileStorageService.resolverDerivado(rutaRelativa, FileStorageService.SUFIJO_MINIATURA);
+        if (Files.exists(destino)) {
+            return destino;
+        }
+        BufferedImage imagen;
+        if (esImagen(tipoMime)) {
+            imagen = leerImagenReducida(fileStorageService.resolverArchivo(rutaRelativa), ladoMiniatura);
+        } else if (TIPO_PDF.equals(tipoMime)) {
+            imagen = renderizarPrimeraPagina(fileStorageService.resolverArchivo(rutaRelativa), ladoMiniatura);
+        } else {
+            return null;
+        }
+        if (imagen == null) {
+            return null;
+        }
+        escribirJpeg(escalar(imagen, ladoMiniatura), 0.8f, destino);
+        return destino;
+    }
+
+    private void generarVista(String rutaRelativa) throws IOException {
+        Path destino = fileStorageService.resolverDerivado(rutaRelativa, FileStorageService.SUFIJO_VISTA);
+        Path original = fileStorageService.resolverArchivo(rutaRelativa);
+        if (Files.exists(destino) || Files.size(original) < umbralVista.toBytes()) {
+            return;
+        }
+        BufferedImage imagen = leerImagenReducida(original, ladoVista);
+        if (imagen == null) {
+            return;
+        }
+        escribirJpeg(escalar(imagen, ladoVista), 0.85f, destino);
+        // Solo vale la pena si realmente pesa menos que el original
+        if (Files.size(destino) >= Files.size(original)) {
+            Files.deleteIfExists(destino);
+        }
+    }
+
+    private Path extraerTexto(String rutaRelativa) throws IOException {
+        Path destino = fileStorageService.resolverDerivado(rutaRelativa, FileStorageService.SUFIJO_TEXTO);
+        if (Files.exists(destino)) {
+            return destino;
+        }
+        Path temporal = Files.createTempFile(destino.getParent(), destino.getFileName().toString(), ".tmp");
+        try {
+            // Con caché de flujos en archivo temporal el PDF no se carga completo en memoria
+            try (PDDocument documento = Loader.loadPDF(fileStorageService.resolverArchivo(rutaRelativa).toFile(),
+                        IOUtils.createTempFileOnlyStreamCache());
+                 Writer salida = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+                PDFTextStripper stripper = new PDFTextStripper();
+                stripper.setEndPage(maxPaginasTexto);
+                stripper.writeText(documento, salida);
+            }
+            mover(temporal, destino);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+        return destino;
+    }
+
+    /**
+     * Lee la imagen submuestreada al decodificar, de modo que una foto de
+     * varios megapíxeles no se carga completa en memoria.
+     */
+    private BufferedImage leerImagenReducida(Path archivo, int lado) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(archivo.toFile())) {
+            if (entrada == null) {
+                return null;
+            }
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(entrada);
+            if (!lectores.hasNext()) {
+                return null;
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(entrada, true, true);
+                int mayor = Math.max(lector.getWidth(0), lector.getHeight(0));
+                int paso = Math.max(1, mayor / (lado * 2));
+                ImageReadParam parametros = lector.getDefaultReadParam();
+                parametros.setSourceSubsampling(paso, paso, 0, 0);
+                return lector.read(0, parametros);
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    private BufferedImage renderizarPrimeraPagina(Path archivo, int lado) throws IOException {
+        try (PDDocument documento = Loader.loadPDF(archivo.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+            if (documento.getNumberOfPages() == 0) {
+                return null;
+            }
+            PDRectangle caja = documento.getPage(0).getCropBox();
+            float mayor = Math.max(caja.getWidth(), caja.getHeight());
+            // Puntos PDF: 72 por pulgada. Se renderiza al doble del lado para escalar con calidad
+            float dpi = 72f * (lado * 2) / mayor;
+            return new PDFRenderer(documento).renderImageWithDPI(0, dpi, ImageType.RGB);
+        }
+    }
+
+    /** Reduce (nunca amplía) a {@code lado} píxeles en el lado mayor, sobre fondo blanco. */
+    private BufferedImage escalar(BufferedImage imagen, int lado) {
+        int mayor = Math.max(imagen.getWidth(), imagen.getHeight());
+        double factor = Math.min(1.0, (double) lado / mayor);
+        int ancho = Math.max(1, (int) Math.round(imagen.getWidth() * factor));
+        int alto = Math.max(1, (int) Math.round(imagen.getHeight() * factor));
+
+        BufferedImage resultado = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resultado.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, ancho, alto);
+            g.drawImage(imagen, 0, 0, ancho, alto, null);
+        } finally {
+            g.dispose();
+        }
+        return resultado;
+    }
+
+    private void escribirJpeg(BufferedImage imagen, float calidad, Path destino) throws IOException {
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName("jpeg").next();
+        Path temporal = Files.createTempFile(destino.getParent(), destino.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream salida = Files.newOutputStream(temporal);
+                 ImageOutputStream imagenSalida = ImageIO.createImageOutputStream(salida)) {
+                escritor.setOutput(imagenSalida);
+                ImageWriteParam parametros = escritor.getDefaultWriteParam();
+                parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                parametros.setCompressionQuality(calidad);
+                escritor.write(null, new IIOImage(imagen, null, null), parametros);
+            } finally {
+                escritor.dispose();
+            }
+            mover(temporal, destino);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    // Otro hilo pudo generar el mismo derivado: el último reemplaza al primero
+    private void mover(Path temporal, Path destino) throws IOException {
+        try {
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private boolean esImagen(String tipoMime) {
+        return tipoMime != null && tipoMime.startsWith("image/") && !tipoMime.contains("svg");
+    }
+}
@@ -1,45 +1,170 @@
 package com.claude.springboot.app.services;
 
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.claude.springboot.app.repositories.PqrsRepository;
-
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Genera números de radicado AMIRL-YYYY-MM-NNNN.
+ *
+ * Los secuenciales se toman de bloques en memoria por prefijo; solo cuando
+ * el bloque se agota se reserva otro en la base de datos. Varios nodos pueden
+ * generar en paralelo sin colisiones porque cada uno trabaja sobre bloques
+ * distintos. Los números de un bloque no usados antes de reiniciar la
+ * aplicación se pierden (quedan huecos en la numeración, nunca duplicados).
+ *
+ * Quien pide un radicado suele estar dentro de una transacción con una
+ * conexión del pool tomada, y la reserva (REQUIRES_NEW) necesita otra. Para
+ * no pedir esa segunda conexión en la petición, al empezar un bloque se
+ * reserva el siguiente en segundo plano ({@code radicadoExecutor}, sin
+ * transacción abierta). Solo si no hay ningún bloque disponible (arranque,
+ * cambio de mes o una ráfaga mayor que dos bloques) reserva el propio hilo
+ * de la petición, y nunca con el monitor del prefijo tomado.
+ */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class RadicadoGeneratorService {
-    
-    private final PqrsRepository pqrsRepository;
 
-    @Transactional
+    private final RadicadoSecuenciaAllocator secuenciaAllocator;
+    private final TaskExecutor radicadoExecutor;
+
+    @Value("${radicado.bloque.tamano:50}")
+    private int tamanoBloque;
+
+    private final Map<String, SecuencialesPrefijo> secuenciales = new ConcurrentHashMap<>();
+
+    public RadicadoGeneratorService(RadicadoSecuenciaAllocator secuenciaAllocator,
+                                    @Qualifier("radicadoExecutor") TaskExecutor radicadoExecutor) {
+        this.secuenciaAllocator = secuenciaAllocator;
+        this.radicadoExecutor = radicadoExecutor;
+    }
+
     public String generarNumeroRadicado() {
         LocalDateTime now = LocalDateTime.now();
         String año = String.valueOf(now.getYear());
         String mes = String.format("%02d", now.getMonthValue());
-        
+
         // Obtener el prefijo para el mes actual
         String prefijo = String.format("AMIRL-%s-%s", año, mes);
-        
-        // Obtener el último secuencial usando un query específico
-      
-        Integer ultimoSecuencial = pqrsRepository.findUltimoSecuencial(prefijo);
-        
-        // Si no hay números previos, empezar desde 1
-        int siguienteSecuencial = (ultimoSecuencial != null ? ultimoSecuencial : 0) + 1;
-        
-        // Formatear el número completo
-        String numeroRadicado = String.format("%s-%04d", prefijo, siguienteSecuencial);
-        
-        // Verificar que no exista
-        while(pqrsRepository.existsByNumeroRadicado(numeroRadicado)) {
-            siguienteSecuencial++;
-            numeroRadicado = String.format("%s-%04d", prefijo, siguienteSecuencial);
-        }
-        
-        return numeroRadicado;
+
+        return String.format("%s-%04d", prefijo, siguienteSecuencial(prefijo));
+    }
+
+    private long siguienteSecuencial(String prefijo) {
+        SecuencialesPrefijo disponibles = secuenciales.get(prefijo);
+        if (disponibles == null) {
+            // Cambio de mes: los bloques de prefijos anteriores ya no se usan
+            secuenciales.keySet().removeIf(p -> !p.equals(prefijo));
+            disponibles = secuenciales.computeIfAbsent(prefijo, p -> new SecuencialesPrefijo());
+        }
+
+        while (true) {
+            long secuencial;
+            boolean reponer;
+            synchronized (disponibles) {
+                secuencial = disponibles.tomar();
+                reponer = disponibles.iniciarReposicion();
+            }
+            if (reponer) {
+                reponerEnSegundoPlano(prefijo, disponibles);
+            }
+            if (secuencial > 0) {
+                return secuencial;
+            }
+
+            // No queda ningún bloque: se reserva aquí, fuera del monitor para
+            // no frenar a los demás hilos mientras se espera la conexión
+            long inicio = reservarBloque(prefijo);
+            synchronized (disponibles) {
+                disponibles.agregar(inicio, inicio + tamanoBloque - 1);
+            }
+        }
+    }
+
+    private void reponerEnSegundoPlano(String prefijo, SecuencialesPrefijo disponibles) {
+        try {
+            radicadoExecutor.execute(() -> {
+                try {
+                    long inicio = reservarBloque(prefijo);
+                    synchronized (disponibles) {
+                        disponibles.agregar(inicio, inicio + tamanoBloque - 1);
+                    }
+                } catch (RuntimeException e) {
+                    // La petición que agote el bloque actual reservará por su cuenta
+                    log.warn("No se pudo reservar por adelantado el bloque de radicados {}: {}",
+                            prefijo, e.getMessage());
+                } finally {
+                    synchronized (disponibles) {
+                        disponibles.terminarReposicion();
+                    }
+                }
+            });
+        } catch (TaskRejectedException e) {
+            synchronized (disponibles) {
+                disponibles.terminarReposicion();
+            }
+        }
+    }
+
+    private long reservarBloque(String prefijo) {
+        try {
+            return secuenciaAllocator.reservarBloque(prefijo, tamanoBloque);
+        } catch (DataIntegrityViolationException e) {
+            // Otro nodo creó la fila del prefijo al mismo tiempo; ahora ya existe
+            log.info("Secuencia {} creada concurrentemente, reintentando reserva", prefijo);
+            return secuenciaAllocator.reservarBloque(prefijo, tamanoBloque);
+        }
+    }
+
+    /**
+     * Bloques [siguiente, fin] reservados y aún no entregados de un prefijo,
+     * en el orden en que se reservaron. Se usa siempre con su monitor tomado.
+     */
+    private static final class SecuencialesPrefijo {
+        private final Deque<long[]> bloques = new ArrayDeque<>();
+        private boolean reponiendo;
+
+        /** @return el siguiente secuencial, o 0 si no queda ningún bloque */
+        long tomar() {
+            while (!bloques.isEmpty()) {
+                long[] bloque = bloques.peekFirst();
+                if (bloque[0] <= bloque[1]) {
+                    return bloque[0]++;
+                }
+                bloques.pollFirst();
+            }
+            return 0;
+        }
+
+        void agregar(long inicio, long fin) {
+            bloques.addLast(new long[] { inicio, fin });
+        }
+
+        /**
+         * Marca que hay que reservar el siguiente bloque si, aparte del que
+         * está en uso, no queda ninguno y no hay ya una reserva en curso.
+         */
+        boolean iniciarReposicion() {
+            if (reponiendo || bloques.size() > 1) {
+                return false;
+            }
+            reponiendo = true;
+            return true;
+        }
+
+        void terminarReposicion() {
+            reponiendo = false;
+        }
     }
 }
@@ -0,0 +1,56 @@
+package com.claude.springboot.app.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.claude.springboot.app.entities.RadicadoSecuencia;
+import com.claude.springboot.app.repositories.PqrsRepository;
+import com.claude.springboot.app.repositories.RadicadoSecuenciaRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reserva bloques de secuenciales sobre la tabla radicado_secuencia.
+ *
+ * Cada reserva corre en su propia transacción (REQUIRES_NEW) para que el
+ * bloqueo de la fila dure solo lo que tarda el UPDATE y no toda la creación
+ * de la solicitud que la pidió.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RadicadoSecuenciaAllocator {
+
+    private final RadicadoSecuenciaRepository secuenciaRepository;
+    private final PqrsRepository pqrsRepository;
+
+    /**
+     * Reserva {@code tamano} secuenciales consecutivos para el prefijo.
+     *
+     * @return el primer secuencial del bloque reservado
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reservarBloque(String prefijo, int tamano) {
+        RadicadoSecuencia secuencia = secuenciaRepository.findByPrefijoParaActualizar(prefijo)
+                .orElse(null);
+
+        if (secuencia == null) {
+            // Primera reserva del mes: se parte del último radicado existente
+            // (incluye los generados antes de existir la tabla de contadores)
+            Integer ultimoExistente = pqrsRepository.findUltimoSecuencial(prefijo);
+            long base = ultimoExistente != null ? ultimoExistente : 0L;
+            secuencia = new RadicadoSecuencia(prefijo, base + tamano, null);
+            secuenciaRepository.saveAndFlush(secuencia);
+            log.info("Secuencia de radicados {} inicializada desde {}", prefijo, base);
+            return base + 1;
+        }
+
+        long inicio = secuencia.getUltimoValor() + 1;
+        secuencia.setUltimoValor(secuencia.getUltimoValor() + tamano);
+        secuenciaRepository.save(secuencia);
+        log.debug("Bloque de radicados {} reservado: {}-{}", prefijo, inicio, inicio + tamano - 1);
+        return inicio;
+    }
+}
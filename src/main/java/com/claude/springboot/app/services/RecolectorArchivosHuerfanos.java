@@ -0,0 +1,90 @@
+package com.claude.springboot.app.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.claude.springboot.app.entities.ArchivoAdjunto;
+import com.claude.springboot.app.repositories.ArchivoAdjuntoRepository;
+import com.claude.springboot.app.repositories.ArchivoBlobRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Libera espacio del almacén de adjuntos deduplicado en dos pasos:
+ * <ol>
+ *   <li>borra las filas de archivo_adjunto que ningún seguimiento referencia
+ *       y descuenta su blob;</li>
+ *   <li>elimina los blobs que quedaron sin referencias.</li>
+ * </ol>
+ * Solo toca lo que tiene más antigüedad que {@code file.gc.gracia}, para no
+ * competir con subidas cuya transacción aún no termina.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecolectorArchivosHuerfanos {
+
+    private static final int TAMANO_LOTE = 200;
+
+    private final ArchivoAdjuntoRepository archivoAdjuntoRepository;
+    private final ArchivoBlobRepository archivoBlobRepository;
+    private final FileStorageService fileStorageService;
+
+    @Value("${file.gc.gracia:24h}")
+    private Duration gracia;
+
+    @Scheduled(fixedDelayString = "${file.gc.intervalo:6h}", initialDelayString = "${file.gc.retraso-inicial:10m}")
+    public void recolectar() {
+        try {
+            LocalDateTime limite = LocalDateTime.now().minus(gracia);
+            int referencias = liberarReferenciasHuerfanas(limite);
+            int blobs = eliminarBlobsSinReferencias(limite);
+            if (referencias > 0 || blobs > 0) {
+                log.info("Recolector de adjuntos: {} referencias huérfanas y {} blobs eliminados",
+                        referencias, blobs);
+            }
+        } catch (Exception e) {
+            log.error("Error recolectando adjuntos huérfanos: {}", e.getMessage(), e);
+        }
+    }
+
+    int liberarReferenciasHuerfanas(LocalDateTime limite) {
+        int total = 0;
+        List<ArchivoAdjunto> lote;
+        do {
+            lote = archivoAdjuntoRepository.findHuerfanos(limite, TAMANO_LOTE);
+            for (ArchivoAdjunto adjunto : lote) {
+                fileStorageService.eliminarReferencia(adjunto);
+                total++;
+            }
+        } while (lote.size() == TAMANO_LOTE);
+        return total;
+    }
+
+    int eliminarBlobsSinReferencias(LocalDateTime limite) {
+        int total = 0;
+        List<String> lote;
+        do {
+            lote = archivoBlobRepository.findHashesSinReferencias(limite, PageRequest.of(0, TAMANO_LOTE));
+            int eliminadosEnLote = 0;
+            for (String hash : lote) {
+                if (fileStorageService.eliminarBlobSinReferencias(hash)) {
+                    eliminadosEnLote++;
+                }
+            }
+            total += eliminadosEnLote;
+            // Si nada del lote se pudo eliminar (se volvieron a referenciar) no se insiste
+            if (eliminadosEnLote == 0) {
+                break;
+            }
+        } while (lote.size() == TAMANO_LOTE);
+        return total;
+    }
+}
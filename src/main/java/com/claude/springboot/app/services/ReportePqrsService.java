@@ -0,0 +1,124 @@
+package com.claude.springboot.app.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.claude.springboot.app.config.CacheConfig;
+import com.claude.springboot.app.repositories.PqrsRepository;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reporte de PQRS por período de creación. Recorre el rango una sola vez
+ * ({@link PqrsRepository#streamReporte}) y acumula todos los desgloses en
+ * {@link AcumuladorReporte}.
+ *
+ * Los reportes de períodos ya cerrados (que terminan antes de hoy) se guardan
+ * en la caché {@link CacheConfig#REPORTES}: nadie crea PQRS en el pasado, y
+ * si cambia una de esas PQRS se descartan solo los períodos que la incluyen.
+ */
+@Slf4j
+@Service
+public class ReportePqrsService {
+
+    private final PqrsRepository pqrsRepository;
+    private final Cache cache;
+
+    // Cambia con cada invalidación, para no guardar un reporte calculado antes de ella
+    private final AtomicLong version = new AtomicLong();
+
+    public ReportePqrsService(PqrsRepository pqrsRepository, CacheManager cacheManager) {
+        this.pqrsRepository = pqrsRepository;
+        this.cache = cacheManager.getCache(CacheConfig.REPORTES);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Transactional(readOnly = true)
+    public Map<String, Object> generar(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        if (fechaInicio == null || fechaFin == null) {
+            throw new IllegalArgumentException("Debe indicar la fecha de inicio y la fecha de fin");
+        }
+        if (fechaFin.isBefore(fechaInicio)) {
+            throw new IllegalArgumentException("La fecha de fin no puede ser anterior a la fecha de inicio");
+        }
+
+        Periodo periodo = new Periodo(fechaInicio, fechaFin);
+        boolean cerrado = fechaFin.isBefore(LocalDate.now().atStartOfDay());
+        if (cerrado) {
+            Map<String, Object> guardado = cache.get(periodo, Map.class);
+            if (guardado != null) {
+                return guardado;
+            }
+        }
+
+        long versionInicial = version.get();
+        Map<String, Object> reporte = calcular(fechaInicio, fechaFin);
+        if (cerrado && version.get() == versionInicial) {
+            cache.put(periodo, reporte);
+        }
+        return reporte;
+    }
+
+    private Map<String, Object> calcular(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        long inicio = System.currentTimeMillis();
+        AcumuladorReporte acumulador = new AcumuladorReporte(fechaInicio, fechaFin);
+        try (Stream<Object[]> filas = pqrsRepository.streamReporte(fechaInicio, fechaFin)) {
+            filas.forEach(fila -> acumulador.agregar((String) fila[0], (String) fila[1], (String) fila[2],
+                    (String) fila[3], (LocalDateTime) fila[4], (LocalDateTime) fila[5]));
+        }
+        Map<String, Object> reporte = acumulador.resultado();
+        log.debug("Reporte {} - {} calculado en {} ms ({} PQRS)", fechaInicio, fechaFin,
+                System.currentTimeMillis() - inicio, reporte.get("totalPqrs"));
+        return reporte;
+    }
+
+    /**
+     * Descarta los reportes guardados cuyo período incluye la PQRS
+     * modificada (estado, prioridad o última actualización pudieron cambiar).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarPqrs(PqrsModificadaEvent evento) {
+        version.incrementAndGet();
+        // invalidate() se aplica de inmediato, clear() esperaría a otra transacción
+        if (!(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine)) {
+            cache.invalidate();
+            return;
+        }
+        if (caffeine.estimatedSize() == 0) {
+            return;
+        }
+        pqrsRepository.findFechaCreacionByIdPqrs(evento.getIdPqrs()).ifPresentOrElse(
+                fecha -> caffeine.asMap().keySet().removeIf(clave ->
+                        clave instanceof Periodo periodo && periodo.incluye(fecha)),
+                cache::invalidate);
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    static final class Periodo {
+
+        private final LocalDateTime fechaInicio;
+        private final LocalDateTime fechaFin;
+
+        Periodo(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+            this.fechaInicio = fechaInicio;
+            this.fechaFin = fechaFin;
+        }
+
+        boolean incluye(LocalDateTime fecha) {
+            return !fecha.isBefore(fechaInicio) && !fecha.isAfter(fechaFin);
+        }
+    }
+}
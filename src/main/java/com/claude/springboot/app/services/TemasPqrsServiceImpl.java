@@ -3,9 +3,12 @@ package com.claude.springboot.app.services;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.claude.springboot.app.config.CacheConfig;
 import com.claude.springboot.app.dto.ActualizarResponsableDTO;
 import com.claude.springboot.app.dto.AreaResponseDTO;
 import com.claude.springboot.app.dto.TemasPqrsDTO;
@@ -35,6 +38,7 @@ public class TemasPqrsServiceImpl implements TemasPqrsService {
     private final UsuarioRepository usuarioRepository;
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.TEMAS_PQRS, allEntries = true)
     @Transactional
     public TemasPqrsResponseDTO crear(TemasPqrsDTO dto) {
         // Validar área
@@ -58,6 +62,7 @@ public class TemasPqrsServiceImpl implements TemasPqrsService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.TEMAS_PQRS, allEntries = true)
     @Transactional
     public TemasPqrsResponseDTO actualizar(Long id, TemasPqrsDTO dto) {
         TemasPqrs tema = temasPqrsRepository.findById(id)
@@ -85,6 +90,7 @@ public class TemasPqrsServiceImpl implements TemasPqrsService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.TEMAS_PQRS, allEntries = true)
     @Transactional
     public void eliminar(Long id) {
         TemasPqrs tema = temasPqrsRepository.findById(id)
@@ -101,6 +107,7 @@ public class TemasPqrsServiceImpl implements TemasPqrsService {
     }
 
     @Override
+    @Cacheable(CacheConfig.TEMAS_PQRS)
     @Transactional(readOnly = true)
     public List<TemasPqrsResponseDTO> listarTodos() {
         return temasPqrsRepository.findAll().stream()
@@ -109,6 +116,7 @@ public class TemasPqrsServiceImpl implements TemasPqrsService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.TEMAS_PQRS, allEntries = true)
     @Transactional
     public TemasPqrsResponseDTO vincularResponsable(Long idTema, VincularResponsableDTO dto) {
         TemasPqrs tema = temasPqrsRepository.findById(idTema)
@@ -131,6 +139,7 @@ public class TemasPqrsServiceImpl implements TemasPqrsService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.TEMAS_PQRS, allEntries = true)
     @Transactional
     public TemasPqrsResponseDTO desvincularResponsable(Long idTema, Long idUsuario) {
         TemasPqrs tema = temasPqrsRepository.findById(idTema)
@@ -179,6 +188,7 @@ public class TemasPqrsServiceImpl implements TemasPqrsService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.TEMAS_PQRS, allEntries = true)
     @Transactional
     public TemasPqrsResponseDTO actualizarResponsable(Long idTema, ActualizarResponsableDTO dto) {
         TemasPqrs tema = temasPqrsRepository.findById(idTema)
@@ -1,10 +1,13 @@
 package com.claude.springboot.app.services;
 
+import com.claude.springboot.app.config.CacheConfig;
 import com.claude.springboot.app.dto.TipoDocumentoDTO;
 import com.claude.springboot.app.entities.TipoDocumento;
 import com.claude.springboot.app.repositories.TipoDocumentoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +30,7 @@ public class TipoDocumentoServiceImpl implements TipoDocumentoService {
     private final TipoDocumentoRepository tipoDocumentoRepository;
 
     @Override
+    @Cacheable(CacheConfig.TIPOS_DOCUMENTO)
     @Transactional(readOnly = true)
     public List<TipoDocumentoDTO> obtenerTodosLosTiposDocumento() {
         log.debug("Obteniendo todos los tipos de documento");
@@ -37,6 +41,7 @@ public class TipoDocumentoServiceImpl implements TipoDocumentoService {
     }
 
     @Override
+    @Cacheable(CacheConfig.TIPOS_DOCUMENTO)
     @Transactional(readOnly = true)
     public List<TipoDocumentoDTO> obtenerTiposDocumentoActivos() {
         log.debug("Obteniendo tipos de documento activos");
@@ -47,6 +52,7 @@ public class TipoDocumentoServiceImpl implements TipoDocumentoService {
     }
 
     @Override
+    @Cacheable(CacheConfig.TIPOS_DOCUMENTO)
     @Transactional(readOnly = true)
     public Optional<TipoDocumentoDTO> obtenerTipoDocumentoPorId(Long id) {
         log.debug("Obteniendo tipo de documento por ID: {}", id);
@@ -55,6 +61,7 @@ public class TipoDocumentoServiceImpl implements TipoDocumentoService {
     }
 
     @Override
+    @Cacheable(CacheConfig.TIPOS_DOCUMENTO)
     @Transactional(readOnly = true)
     public Optional<TipoDocumentoDTO> obtenerTipoDocumentoPorCodigo(String codigo) {
         log.debug("Obteniendo tipo de documento por código: {}", codigo);
@@ -63,6 +70,7 @@ public class TipoDocumentoServiceImpl implements TipoDocumentoService {
     }
 
     @Override
+    @Cacheable(CacheConfig.TIPOS_DOCUMENTO)
     @Transactional(readOnly = true)
     public Optional<TipoDocumentoDTO> obtenerTipoDocumentoPorNombre(String nombre) {
         log.debug("Obteniendo tipo de documento por nombre: {}", nombre);
@@ -101,6 +109,7 @@ public class TipoDocumentoServiceImpl implements TipoDocumentoService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.TIPOS_DOCUMENTO, allEntries = true)
     public TipoDocumentoDTO crearTipoDocumento(TipoDocumentoDTO tipoDocumentoDTO) {
         log.info("Creando nuevo tipo de documento: {}", tipoDocumentoDTO.getCodigo());
         
@@ -122,6 +131,7 @@ public class TipoDocumentoServiceImpl implements TipoDocumentoService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.TIPOS_DOCUMENTO, allEntries = true)
     public Optional<TipoDocumentoDTO> actualizarTipoDocumento(Long id, TipoDocumentoDTO tipoDocumentoDTO) {
         log.info("Actualizando tipo de documento con ID: {}", id);
         
@@ -152,6 +162,7 @@ public class TipoDocumentoServiceImpl implements TipoDocumentoService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.TIPOS_DOCUMENTO, allEntries = true)
     public boolean activarTipoDocumento(Long id) {
         log.info("Activando tipo de documento con ID: {}", id);
         
@@ -166,6 +177,7 @@ public class TipoDocumentoServiceImpl implements TipoDocumentoService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.TIPOS_DOCUMENTO, allEntries = true)
     public boolean desactivarTipoDocumento(Long id) {
         log.info("Desactivando tipo de documento con ID: {}", id);
         
@@ -180,6 +192,7 @@ public class TipoDocumentoServiceImpl implements TipoDocumentoService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.TIPOS_DOCUMENTO, allEntries = true)
     public boolean eliminarTipoDocumento(Long id) {
         log.info("Eliminando tipo de documento con ID: {}", id);
         
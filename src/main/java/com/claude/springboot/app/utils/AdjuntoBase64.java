@@ -0,0 +1,14 @@
+package com.claude.springboot.app.utils;
+
+import java.nio.file.Path;
+
+/**
+ * Adjunto recibido en base64 dentro de un JSON y ya decodificado a un archivo
+ * temporal por {@link AdjuntoBase64Deserializer}.
+ */
+public class AdjuntoBase64 extends ArchivoTemporal {
+
+    public AdjuntoBase64(Path archivo, String originalFilename, String contentType, long tamano) {
+        super(archivo, originalFilename, contentType, tamano);
+    }
+}
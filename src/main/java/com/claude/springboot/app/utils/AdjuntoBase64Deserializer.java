@@ -0,0 +1,236 @@
+package com.claude.springboot.app.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Decodifica un adjunto en base64 (con o sin prefijo {@code data:mime;base64,})
+ * directamente a un archivo temporal. Jackson entrega el texto del token a un
+ * {@link Writer} y aquí se decodifica en bloques de {@value #CARACTERES_POR_BLOQUE}
+ * caracteres, así que no se crea el {@code String}, ni un {@code byte[]} con el
+ * archivo completo. El tipo se detecta con los primeros bytes decodificados.
+ *
+ * Un valor vacío o que no es base64 válido se ignora (queda en {@code null}),
+ * igual que antes con {@code Base64FileUtils.base64ToMultipartFile}.
+ *
+ * Si después falla otro campo del JSON el DTO nunca llega al controlador, así
+ * que dentro de una petición el temporal se borra además al terminarla (si ya
+ * se almacenó, fue movido y no hay nada que borrar).
+ */
+@Slf4j
+public class AdjuntoBase64Deserializer extends JsonDeserializer<AdjuntoBase64> {
+
+    // Múltiplo de 4 para que cada bloque se decodifique de forma independiente
+    static final int CARACTERES_POR_BLOQUE = 8192;
+    private static final int MAX_CABECERA_DATA_URL = 256;
+    private static final String PREFIJO_DATA_URL = "data:";
+    private static final String SUFIJO_DATA_URL = ";base64";
+
+    @Override
+    public AdjuntoBase64 deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.hasToken(JsonToken.VALUE_STRING)) {
+            return (AdjuntoBase64) ctxt.handleUnexpectedToken(AdjuntoBase64.class, p);
+        }
+
+        Path temporal = Files.createTempFile("adjunto-", ".tmp");
+        boolean conservar = false;
+        try {
+            Decodificador decodificador;
+            try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(temporal))) {
+                decodificador = new Decodificador(salida);
+                p.getText(decodificador);
+                decodificador.finalizar();
+            }
+            if (decodificador.invalido || decodificador.tamano == 0) {
+                log.warn("Se ignora el adjunto base64 recibido: contenido vacío o inválido");
+                return null;
+            }
+
+            String tipo = decodificador.tipoDeclarado != null
+                    ? decodificador.tipoDeclarado
+                    : Base64FileUtils.detectFileTypeByMagicBytes(decodificador.primerosBytes());
+            conservar = true;
+            borrarAlTerminarLaPeticion(temporal);
+            return new AdjuntoBase64(temporal, Base64FileUtils.getFilenameFromContentType(tipo),
+                    tipo, decodificador.tamano);
+        } finally {
+            if (!conservar) {
+                Files.deleteIfExists(temporal);
+            }
+        }
+    }
+
+    private static void borrarAlTerminarLaPeticion(Path temporal) {
+        RequestAttributes peticion = RequestContextHolder.getRequestAttributes();
+        if (peticion == null) {
+            return;
+        }
+        peticion.registerDestructionCallback(AdjuntoBase64Deserializer.class.getName() + "." + temporal.getFileName(),
+                () -> {
+                    try {
+                        Files.deleteIfExists(temporal);
+                    } catch (IOException e) {
+                        log.warn("No se pudo borrar el adjunto temporal {}: {}", temporal, e.getMessage());
+                    }
+                }, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    /**
+     * Recibe los caracteres del token, separa la cabecera data URL si la hay
+     * y escribe los bytes decodificados en la salida.
+     */
+    private static class Decodificador extends Writer {
+
+        private final OutputStream salida;
+        private final StringBuilder cabecera = new StringBuilder();
+        private boolean cabeceraResuelta;
+        private boolean esDataUrl;
+        private String tipoDeclarado;
+        private boolean invalido;
+
+        private final byte[] pendientes = new byte[CARACTERES_POR_BLOQUE];
+        private int cantidadPendientes;
+        private final byte[] decodificados = new byte[CARACTERES_POR_BLOQUE / 4 * 3];
+
+        private final byte[] inicio = new byte[Base64FileUtils.BYTES_DETECCION];
+        private int cantidadInicio;
+        private long tamano;
+
+        Decodificador(OutputStream salida) {
+            this.salida = salida;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            for (int i = off; i < off + len && !invalido; i++) {
+                aceptar(cbuf[i]);
+            }
+        }
+
+        private void aceptar(char c) throws IOException {
+            if (cabeceraResuelta) {
+                agregarBase64(c);
+                return;
+            }
+            if (cabecera.length() == 0 && Character.isWhitespace(c)) {
+                return;
+            }
+            if (esDataUrl && c == ',') {
+                resolverDataUrl();
+                return;
+            }
+            cabecera.append(c);
+            if (!esDataUrl && cabecera.length() == PREFIJO_DATA_URL.length()) {
+                if (PREFIJO_DATA_URL.contentEquals(cabecera)) {
+                    esDataUrl = true;
+                } else {
+                    liberarCabecera();
+                }
+            } else if (cabecera.length() > MAX_CABECERA_DATA_URL) {
+                invalido = true;
+            }
+        }
+
+        private void resolverDataUrl() {
+            String encabezado = cabecera.toString();
+            if (!encabezado.endsWith(SUFIJO_DATA_URL)) {
+                invalido = true;
+                return;
+            }
+            int finTipo = encabezado.indexOf(';');
+            tipoDeclarado = encabezado.substring(PREFIJO_DATA_URL.length(), finTipo).trim();
+            if (tipoDeclarado.isEmpty()) {
+                invalido = true;
+                return;
+            }
+            cabeceraResuelta = true;
+            cabecera.setLength(0);
+        }
+
+        // No era un data URL: lo leído hasta ahora ya es parte del base64
+        private void liberarCabecera() throws IOException {
+            cabeceraResuelta = true;
+            for (int i = 0; i < cabecera.length() && !invalido; i++) {
+                agregarBase64(cabecera.charAt(i));
+            }
+            cabecera.setLength(0);
+        }
+
+        private void agregarBase64(char c) throws IOException {
+            if (Character.isWhitespace(c)) {
+                return;
+            }
+            if (c > 0x7F) {
+                invalido = true;
+                return;
+            }
+            pendientes[cantidadPendientes++] = (byte) c;
+            if (cantidadPendientes == pendientes.length) {
+                decodificarPendientes(pendientes);
+            }
+        }
+
+        private void decodificarPendientes(byte[] bloque) throws IOException {
+            int cantidad;
+            try {
+                cantidad = Base64.getDecoder().decode(bloque, decodificados);
+            } catch (IllegalArgumentException e) {
+                invalido = true;
+                return;
+            }
+            cantidadPendientes = 0;
+            if (cantidadInicio < inicio.length) {
+                int copiar = Math.min(cantidad, inicio.length - cantidadInicio);
+                System.arraycopy(decodificados, 0, inicio, cantidadInicio, copiar);
+                cantidadInicio += copiar;
+            }
+            salida.write(decodificados, 0, cantidad);
+            tamano += cantidad;
+        }
+
+        void finalizar() throws IOException {
+            if (invalido) {
+                return;
+            }
+            if (!cabeceraResuelta) {
+                if (esDataUrl) {
+                    // Nunca llegó la coma que separa la cabecera de los datos
+                    invalido = true;
+                    return;
+                }
+                liberarCabecera();
+            }
+            if (cantidadPendientes > 0 && !invalido) {
+                decodificarPendientes(Arrays.copyOf(pendientes, cantidadPendientes));
+            }
+        }
+
+        byte[] primerosBytes() {
+            return Arrays.copyOf(inicio, cantidadInicio);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
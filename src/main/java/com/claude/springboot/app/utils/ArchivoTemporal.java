@@ -0,0 +1,92 @@
+package com.claude.springboot.app.utils;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Archivo ya escrito en disco (adjunto base64 decodificado, carga por
+ * bloques ensamblada) presentado como {@link MultipartFile}. El contenido
+ * nunca se carga completo en memoria: {@link #transferTo(Path)} mueve el
+ * temporal al destino.
+ *
+ * Quien lo recibe debe llamar a {@link #descartar()} si no lo almacena.
+ */
+public class ArchivoTemporal implements MultipartFile {
+
+    private final Path archivo;
+    private final String originalFilename;
+    private final String contentType;
+    private final long tamano;
+
+    public ArchivoTemporal(Path archivo, String originalFilename, String contentType, long tamano) {
+        this.archivo = archivo;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+        this.tamano = tamano;
+    }
+
+    @Override
+    public String getName() {
+        return "archivo";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return tamano == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return tamano;
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(archivo);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(archivo);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        transferTo(dest.toPath());
+    }
+
+    @Override
+    public void transferTo(Path dest) throws IOException {
+        Files.move(archivo, dest, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Elimina el temporal si no se llegó a mover. */
+    public void descartar() {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException e) {
+            archivo.toFile().deleteOnExit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return originalFilename + " (" + contentType + ", " + tamano + " bytes)";
+    }
+}
@@ -1,99 +1,18 @@
 package com.claude.springboot.app.utils;
 
-import org.springframework.web.multipart.MultipartFile;
-import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.Base64;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
+/**
+ * Utilidades para identificar adjuntos recibidos en base64. La decodificación
+ * se hace por partes en {@link AdjuntoBase64Deserializer}.
+ */
 public class Base64FileUtils {
-    
-    private static final Pattern DATA_URL_PATTERN = Pattern.compile("data:([^;]+);base64,(.+)");
-    
-    /**
-     * Convierte una cadena base64 a MultipartFile
-     * @param base64String Cadena base64 (puede incluir data URL prefix)
-     * @param defaultFilename Nombre por defecto si no se puede determinar
-     * @return MultipartFile o null si la cadena es inválida
-     */
-    public static MultipartFile base64ToMultipartFile(String base64String, String defaultFilename) {
-        if (base64String == null || base64String.trim().isEmpty()) {
-            return null;
-        }
-        
-        try {
-            String contentType = "application/octet-stream";
-            String filename = defaultFilename;
-            String base64Data = base64String.trim();
-            
-            // Verificar si es un data URL (data:mime/type;base64,data)
-            Matcher matcher = DATA_URL_PATTERN.matcher(base64Data);
-            if (matcher.matches()) {
-                contentType = matcher.group(1);
-                base64Data = matcher.group(2);
-                
-                // Determinar extensión basada en content type
-                filename = getFilenameFromContentType(contentType);
-            } else {
-                // Si no es data URL, intentar detectar por magic bytes
-                try {
-                    byte[] decodedBytes = Base64.getDecoder().decode(base64Data);
-                    String detectedType = detectFileTypeByMagicBytes(decodedBytes);
-                    filename = getFilenameFromContentType(detectedType);
-                    contentType = detectedType;
-                } catch (Exception e) {
-                    filename = "archivo_adjunto.txt"; // Por defecto si falla
-                }
-            }
-            
-            // Decodificar base64
-            byte[] decodedBytes = Base64.getDecoder().decode(base64Data);
-            
-            // Crear implementación personalizada de MultipartFile
-            return new Base64MultipartFile(
-                "archivo",
-                filename,
-                contentType,
-                decodedBytes
-            );
-            
-        } catch (Exception e) {
-            // Si hay error en la decodificación, retornar null
-            return null;
-        }
-    }
-    
-    /**
-     * Verifica si una cadena es un base64 válido
-     */
-    public static boolean isValidBase64(String base64String) {
-        if (base64String == null || base64String.trim().isEmpty()) {
-            return false;
-        }
-        
-        try {
-            String base64Data = base64String.trim();
-            
-            // Si es data URL, extraer solo la parte base64
-            Matcher matcher = DATA_URL_PATTERN.matcher(base64Data);
-            if (matcher.matches()) {
-                base64Data = matcher.group(2);
-            }
-            
-            Base64.getDecoder().decode(base64Data);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
-    }
-    
+
+    /** Bytes iniciales que bastan para {@link #detectFileTypeByMagicBytes(byte[])}. */
+    public static final int BYTES_DETECCION = 1000;
+
     /**
      * Detecta el tipo de archivo basándose en los magic bytes (primeros bytes del archivo)
      */
-    private static String detectFileTypeByMagicBytes(byte[] bytes) {
+    public static String detectFileTypeByMagicBytes(byte[] bytes) {
         if (bytes == null || bytes.length < 4) {
             return "text/plain";
         }
@@ -129,7 +48,7 @@ public class Base64FileUtils {
             bytes[0] == 0x50 && bytes[1] == 0x4B && bytes[2] == 0x03 && bytes[3] == 0x04) {
             
             // Verificar si es un documento de Office moderno
-            String content = new String(bytes, 0, Math.min(bytes.length, 1000));
+            String content = new String(bytes, 0, Math.min(bytes.length, BYTES_DETECCION));
             if (content.contains("word/")) {
                 return "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
             } else if (content.contains("xl/")) {
@@ -190,7 +109,7 @@ public class Base64FileUtils {
     /**
      * Determina el nombre de archivo con extensión basado en el content type
      */
-    private static String getFilenameFromContentType(String contentType) {
+    public static String getFilenameFromContentType(String contentType) {
         if (contentType == null || contentType.isEmpty()) {
             return "archivo_adjunto.bin";
         }
@@ -297,61 +216,4 @@ public class Base64FileUtils {
         // Por defecto
         return "archivo_adjunto.bin";
     }
-    
-    /**
-     * Implementación personalizada de MultipartFile para archivos base64
-     */
-    private static class Base64MultipartFile implements MultipartFile {
-        private final String name;
-        private final String originalFilename;
-        private final String contentType;
-        private final byte[] content;
-        
-        public Base64MultipartFile(String name, String originalFilename, String contentType, byte[] content) {
-            this.name = name;
-            this.originalFilename = originalFilename;
-            this.contentType = contentType;
-            this.content = content;
-        }
-        
-        @Override
-        public String getName() {
-            return name;
-        }
-        
-        @Override
-        public String getOriginalFilename() {
-            return originalFilename;
-        }
-        
-        @Override
-        public String getContentType() {
-            return contentType;
-        }
-        
-        @Override
-        public boolean isEmpty() {
-            return content == null || content.length == 0;
-        }
-        
-        @Override
-        public long getSize() {
-            return content != null ? content.length : 0;
-        }
-        
-        @Override
-        public byte[] getBytes() throws IOException {
-            return content;
-        }
-        
-        @Override
-        public InputStream getInputStream() throws IOException {
-            return new ByteArrayInputStream(content);
-        }
-        
-        @Override
-        public void transferTo(File dest) throws IOException, IllegalStateException {
-            throw new UnsupportedOperationException("transferTo not supported for Base64MultipartFile");
-        }
-    }
 }
@@ -0,0 +1,109 @@
+package com.claude.springboot.app.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Cola acotada sin bloqueos para muchos productores (los hilos de las
+ * peticiones) y un consumidor en segundo plano. Cada celda lleva un número de
+ * secuencia que dice si está libre para escribir o lista para leer, así que
+ * {@link #ofrecer} y {@link #drenar} solo usan CAS: nunca esperan un lock ni
+ * se bloquean. Si el buffer está lleno, {@link #ofrecer} devuelve
+ * {@code false} de inmediato y el elemento se descarta.
+ */
+public class BufferCircular<E> {
+
+    private final int mascara;
+    private final AtomicReferenceArray<E> elementos;
+    private final AtomicLongArray secuencias;
+    private final AtomicLong escritura = new AtomicLong();
+    private final AtomicLong lectura = new AtomicLong();
+
+    /**
+     * @param capacidad se redondea a la siguiente potencia de dos
+     */
+    public BufferCircular(int capacidad) {
+        if (capacidad < 2) {
+            throw new IllegalArgumentException("La capacidad del buffer debe ser al menos 2");
+        }
+        int tamano = Integer.highestOneBit(capacidad - 1) << 1;
+        this.mascara = tamano - 1;
+        this.elementos = new AtomicReferenceArray<>(tamano);
+        this.secuencias = new AtomicLongArray(tamano);
+        for (int i = 0; i < tamano; i++) {
+            secuencias.set(i, i);
+        }
+    }
+
+    public boolean ofrecer(E elemento) {
+        long posicion = escritura.get();
+        while (true) {
+            int celda = (int) (posicion & mascara);
+            long diferencia = secuencias.get(celda) - posicion;
+            if (diferencia == 0) {
+                if (escritura.compareAndSet(posicion, posicion + 1)) {
+                    elementos.lazySet(celda, elemento);
+                    // Publica la celda: el consumidor la ve lista con posicion + 1
+                    secuencias.set(celda, posicion + 1);
+                    return true;
+                }
+                posicion = escritura.get();
+            } else if (diferencia < 0) {
+                // La celda aún no se ha leído: lleno
+                return false;
+            } else {
+                posicion = escritura.get();
+            }
+        }
+    }
+
+    public E sacar() {
+        long posicion = lectura.get();
+        while (true) {
+            int celda = (int) (posicion & mascara);
+            long diferencia = secuencias.get(celda) - (posicion + 1);
+            if (diferencia == 0) {
+                if (lectura.compareAndSet(posicion, posicion + 1)) {
+                    E elemento = elementos.get(celda);
+                    elementos.lazySet(celda, null);
+                    // Libera la celda para la siguiente vuelta
+                    secuencias.set(celda, posicion + mascara + 1);
+                    return elemento;
+                }
+                posicion = lectura.get();
+            } else if (diferencia < 0) {
+                // Vacío, o un productor reservó la celda y aún no la publica
+                return null;
+            } else {
+                posicion = lectura.get();
+            }
+        }
+    }
+
+    /**
+     * Saca hasta {@code maximo} elementos y se los entrega a {@code destino}.
+     *
+     * @return cuántos sacó
+     */
+    public int drenar(Consumer<? super E> destino, int maximo) {
+        int sacados = 0;
+        E elemento;
+        while (sacados < maximo && (elemento = sacar()) != null) {
+            destino.accept(elemento);
+            sacados++;
+        }
+        return sacados;
+    }
+
+    /** Aproximado mientras haya productores escribiendo. */
+    public int tamano() {
+        long tamano = escritura.get() - lectura.get();
+        return (int) Math.max(0, Math.min(tamano, getCapacidad()));
+    }
+
+    public int getCapacidad() {
+        return mascara + 1;
+    }
+}
@@ -0,0 +1,42 @@
+package com.claude.springboot.app.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica el cursor de la paginación por keyset. El cliente lo recibe como
+ * un token opaco; internamente es el último idPqrs entregado.
+ */
+public final class KeysetCursor {
+
+    private static final String PREFIJO = "idPqrs:";
+
+    private KeysetCursor() {
+    }
+
+    public static String codificar(Long ultimoId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIJO + ultimoId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return el último idPqrs entregado, o null si el cursor viene vacío
+     *         (primera página)
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    public static Long decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!valor.startsWith(PREFIJO)) {
+                throw new IllegalArgumentException("Cursor de paginación inválido");
+            }
+            return Long.parseLong(valor.substring(PREFIJO.length()));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException también es IllegalArgumentException
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.claude.springboot.app.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import com.claude.springboot.app.dto.TipoDocumentoDTO;
+import com.claude.springboot.app.entities.TipoDocumento;
+import com.claude.springboot.app.repositories.TipoDocumentoRepository;
+import com.claude.springboot.app.services.TipoDocumentoService;
+import com.claude.springboot.app.services.TipoDocumentoServiceImpl;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Verifica que los catálogos se sirven desde caché, que las claves no
+ * colisionan entre métodos y que las escrituras invalidan la caché.
+ */
+class CacheConfigTest {
+
+    private AnnotationConfigApplicationContext context;
+    private TipoDocumentoRepository repository;
+    private TipoDocumentoService service;
+
+    @Configuration
+    @Import(CacheConfig.class)
+    static class Contexto {
+
+        @Bean
+        TipoDocumentoRepository tipoDocumentoRepository() {
+            return mock(TipoDocumentoRepository.class);
+        }
+
+        @Bean
+        TipoDocumentoService tipoDocumentoService(TipoDocumentoRepository repository) {
+            return new TipoDocumentoServiceImpl(repository);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(Contexto.class);
+        repository = context.getBean(TipoDocumentoRepository.class);
+        service = context.getBean(TipoDocumentoService.class);
+
+        TipoDocumento cc = new TipoDocumento("CC", "Cédula de ciudadanía");
+        cc.setId(1L);
+        when(repository.findAllByOrderByNombreAsc()).thenReturn(List.of(cc));
+        when(repository.findByEstadoTrueOrderByNombreAsc()).thenReturn(List.of());
+        when(repository.findById(1L)).thenReturn(Optional.of(cc));
+        when(repository.save(any(TipoDocumento.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void lecturasRepetidasNoConsultanElRepositorio() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(service.obtenerTodosLosTiposDocumento()).hasSize(1);
+        }
+
+        verify(repository, times(1)).findAllByOrderByNombreAsc();
+        assertThat(estadisticas().hitCount()).isEqualTo(4);
+        assertThat(estadisticas().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void metodosSinParametrosNoCompartenClave() {
+        assertThat(service.obtenerTodosLosTiposDocumento()).hasSize(1);
+        assertThat(service.obtenerTiposDocumentoActivos()).isEmpty();
+
+        verify(repository, times(1)).findAllByOrderByNombreAsc();
+        verify(repository, times(1)).findByEstadoTrueOrderByNombreAsc();
+    }
+
+    @Test
+    void desactivarInvalidaLaCache() {
+        service.obtenerTodosLosTiposDocumento();
+        service.desactivarTipoDocumento(1L);
+        service.obtenerTodosLosTiposDocumento();
+
+        verify(repository, times(2)).findAllByOrderByNombreAsc();
+    }
+
+    @Test
+    void crearInvalidaLaCache() {
+        service.obtenerTodosLosTiposDocumento();
+        service.crearTipoDocumento(new TipoDocumentoDTO(null, "PA", "Pasaporte", null, true, null, null));
+        service.obtenerTodosLosTiposDocumento();
+
+        verify(repository, times(2)).findAllByOrderByNombreAsc();
+    }
+
+    private CacheStats estadisticas() {
+        CacheManager cacheManager = context.getBean(CacheManager.class);
+        TransactionAwareCacheDecorator decorador =
+                (TransactionAwareCacheDecorator) cacheManager.getCache(CacheConfig.TIPOS_DOCUMENTO);
+        return ((CaffeineCache) decorador.getTargetCache()).getNativeCache().stats();
+    }
+}
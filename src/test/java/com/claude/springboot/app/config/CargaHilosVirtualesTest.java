@@ -0,0 +1,128 @@
+package com.claude.springboot.app.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import com.claude.springboot.app.security.service.LdapConexiones;
+import com.claude.springboot.app.security.service.LdapService;
+
+/**
+ * Prueba de carga: logins LDAP y envíos SMTP contra servidores que tardan
+ * en responder, atendidos como en Tomcat por defecto (200 hilos de
+ * plataforma) y con un hilo virtual por petición (solo en Java 21+).
+ *
+ * No corre en el build normal:
+ * <pre>
+ * mvn test -Dtest=CargaHilosVirtualesTest -Dcarga=true [-Dcarga.operaciones=1000] [-Dcarga.retardo=200]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "carga", matches = "true")
+class CargaHilosVirtualesTest {
+
+    private static final int HILOS_TOMCAT = 200;
+
+    private final int operaciones = Integer.getInteger("carga.operaciones", 1000);
+    private final long retardo = Long.getLong("carga.retardo", 200);
+    private final AtomicInteger logins = new AtomicInteger();
+
+    private ServidoresLentos.Ldap ldap;
+    private ServidoresLentos.Smtp smtp;
+    private LdapService ldapService;
+    private JavaMailSenderImpl mailSender;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ldap = new ServidoresLentos.Ldap(retardo);
+        smtp = new ServidoresLentos.Smtp(retardo);
+
+        LdapConexiones conexiones = new LdapConexiones("ldap://127.0.0.1:" + ldap.getPuerto(), "30000", "follow",
+                "", "", 4, Duration.ofMinutes(5), Duration.ofSeconds(30));
+        ldapService = new LdapService(conexiones, "direct", "pqrs.local", "", "(sAMAccountName={0})", 30000,
+                Duration.ofMinutes(1), Duration.ofSeconds(10));
+
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtp.getPuerto());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ldap.close();
+        smtp.close();
+    }
+
+    @Test
+    void comparaHilosDePlataformaYVirtuales() throws Exception {
+        List<String> resultados = new ArrayList<>();
+        resultados.add(String.format("%-22s %-6s %10s %12s", "modo", "op", "tiempo ms", "op/s"));
+
+        medir("plataforma (" + HILOS_TOMCAT + ")", () -> Executors.newFixedThreadPool(HILOS_TOMCAT), resultados);
+        if (Runtime.version().feature() >= 21) {
+            medir("virtual", () -> new VirtualThreadTaskExecutor("carga-"), resultados);
+        } else {
+            resultados.add("virtual: requiere Java 21 (se ejecutó con " + Runtime.version().feature() + ")");
+        }
+
+        System.out.printf("%n%d operaciones, servidores con %d ms de retardo%n", operaciones, retardo);
+        resultados.forEach(System.out::println);
+    }
+
+    private void medir(String modo, Supplier<Executor> ejecutor, List<String> resultados) throws Exception {
+        resultados.add(fila(modo, "ldap", ejecutar(ejecutor.get(),
+                // Un usuario distinto por login para que no lo responda la caché
+                () -> ldapService.authenticate("usuario" + logins.incrementAndGet(), "clave"))));
+        resultados.add(fila(modo, "smtp", ejecutar(ejecutor.get(), () -> {
+            SimpleMailMessage correo = new SimpleMailMessage();
+            correo.setFrom("pqrs@pqrs.local");
+            correo.setTo("ciudadano@pqrs.local");
+            correo.setSubject("Radicado");
+            correo.setText("Su PQRS fue radicada");
+            mailSender.send(correo);
+            return true;
+        })));
+    }
+
+    private Duration ejecutar(Executor ejecutor, Callable<Boolean> operacion) throws Exception {
+        long inicio = System.nanoTime();
+        try {
+            List<FutureTask<Boolean>> pendientes = new ArrayList<>(operaciones);
+            for (int i = 0; i < operaciones; i++) {
+                FutureTask<Boolean> tarea = new FutureTask<>(operacion);
+                pendientes.add(tarea);
+                ejecutor.execute(tarea);
+            }
+            for (FutureTask<Boolean> pendiente : pendientes) {
+                assertThat(pendiente.get(2, TimeUnit.MINUTES)).isTrue();
+            }
+        } finally {
+            if (ejecutor instanceof ExecutorService pool) {
+                pool.shutdownNow();
+            }
+        }
+        return Duration.ofNanos(System.nanoTime() - inicio);
+    }
+
+    private String fila(String modo, String operacion, Duration duracion) {
+        double porSegundo = operaciones * 1000.0 / Math.max(1, duracion.toMillis());
+        return String.format("%-22s %-6s %10d %12.1f", modo, operacion, duracion.toMillis(), porSegundo);
+    }
+}
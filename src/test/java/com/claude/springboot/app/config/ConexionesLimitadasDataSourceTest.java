@@ -0,0 +1,101 @@
+package com.claude.springboot.app.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifica que el guardia entrega como máximo tantas conexiones como
+ * permisos y que los devuelve al cerrarlas.
+ */
+class ConexionesLimitadasDataSourceTest {
+
+    private DataSource pool;
+    private ConexionesLimitadasDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(inv -> mock(Connection.class));
+        dataSource = new ConexionesLimitadasDataSource(pool, 2, Duration.ofMillis(100));
+    }
+
+    @Test
+    void fallaProntoSiNoHayConexionLibre() throws Exception {
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        long inicio = System.nanoTime();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofSeconds(2));
+        verify(pool, times(2)).getConnection();
+    }
+
+    @Test
+    void cerrarDevuelveElPermisoUnaSolaVez() throws Exception {
+        Connection conexion = dataSource.getConnection();
+        assertThat(dataSource.getDisponibles()).isEqualTo(1);
+
+        conexion.close();
+        conexion.close();
+
+        assertThat(dataSource.getDisponibles()).isEqualTo(2);
+    }
+
+    @Test
+    void elQueEsperaRecibeLaConexionQueSeCierra() throws Exception {
+        dataSource = new ConexionesLimitadasDataSource(pool, 1, Duration.ofSeconds(5));
+        Connection primera = dataSource.getConnection();
+
+        CompletableFuture<Connection> segunda = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (dataSource.getEnEspera() == 0) {
+            Thread.sleep(5);
+        }
+        primera.close();
+
+        assertThat(segunda.get(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    void unErrorDelPoolNoConsumePermisos() throws Exception {
+        when(pool.getConnection()).thenThrow(new SQLException("sin red"));
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("sin red");
+        assertThat(dataSource.getDisponibles()).isEqualTo(2);
+    }
+
+    @Test
+    void delegaElRestoDeOperaciones() throws Exception {
+        Connection real = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(real);
+
+        Connection conexion = dataSource.getConnection();
+        conexion.setAutoCommit(false);
+        conexion.close();
+
+        verify(real).setAutoCommit(false);
+        verify(real).close();
+        assertThat(conexion).isEqualTo(conexion).isNotEqualTo(real);
+    }
+}
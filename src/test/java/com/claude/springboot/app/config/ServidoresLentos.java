@@ -0,0 +1,169 @@
+package com.claude.springboot.app.config;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidores LDAP y SMTP mínimos que tardan {@code retardo} ms en responder,
+ * para medir cuántos logins o correos por segundo salen cuando el AD o el
+ * servidor de correo están lentos. Solo entienden lo que usan LdapService
+ * (bind simple y unbind) y JavaMail (un envío por conexión).
+ */
+abstract class ServidoresLentos implements Closeable {
+
+    private final ServerSocket servidor;
+    private final ExecutorService conexiones = Executors.newCachedThreadPool(r -> {
+        Thread hilo = new Thread(r, "servidor-lento");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    protected final long retardo;
+
+    ServidoresLentos(long retardo) throws IOException {
+        this.retardo = retardo;
+        this.servidor = new ServerSocket(0, 1000, InetAddress.getLoopbackAddress());
+        conexiones.execute(this::aceptar);
+    }
+
+    int getPuerto() {
+        return servidor.getLocalPort();
+    }
+
+    private void aceptar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket socket = servidor.accept();
+                conexiones.execute(() -> {
+                    try (socket) {
+                        atender(socket);
+                    } catch (IOException | InterruptedException e) {
+                        // El cliente cerró la conexión
+                    }
+                });
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    protected abstract void atender(Socket socket) throws IOException, InterruptedException;
+
+    @Override
+    public void close() throws IOException {
+        servidor.close();
+        conexiones.shutdownNow();
+    }
+
+    /** Acepta cualquier bind simple tras el retardo. */
+    static final class Ldap extends ServidoresLentos {
+
+        private static final int BIND_REQUEST = 0x60;
+        private static final int UNBIND_REQUEST = 0x42;
+
+        Ldap(long retardo) throws IOException {
+            super(retardo);
+        }
+
+        @Override
+        protected void atender(Socket socket) throws IOException, InterruptedException {
+            DataInputStream entrada = new DataInputStream(socket.getInputStream());
+            OutputStream salida = socket.getOutputStream();
+            while (true) {
+                int etiqueta = entrada.read();
+                if (etiqueta != 0x30) {
+                    return;
+                }
+                byte[] mensaje = new byte[leerLongitud(entrada)];
+                entrada.readFully(mensaje);
+
+                // messageID: INTEGER (0x02, longitud, valor) seguido de la operación
+                int largoId = mensaje[1];
+                int operacion = mensaje[2 + largoId] & 0xFF;
+                if (operacion == UNBIND_REQUEST) {
+                    return;
+                }
+                if (operacion != BIND_REQUEST) {
+                    throw new EOFException("Operación LDAP no soportada: " + operacion);
+                }
+                Thread.sleep(retardo);
+
+                ByteArrayOutputStream respuesta = new ByteArrayOutputStream();
+                respuesta.write(0x30);
+                respuesta.write(2 + largoId + 9);
+                respuesta.write(mensaje, 0, 2 + largoId);
+                // BindResponse: resultCode success, matchedDN y diagnosticMessage vacíos
+                respuesta.write(new byte[] { 0x61, 0x07, 0x0a, 0x01, 0x00, 0x04, 0x00, 0x04, 0x00 });
+                salida.write(respuesta.toByteArray());
+                salida.flush();
+            }
+        }
+
+        private static int leerLongitud(DataInputStream entrada) throws IOException {
+            int primero = entrada.readUnsignedByte();
+            if (primero < 0x80) {
+                return primero;
+            }
+            int longitud = 0;
+            for (int i = 0; i < (primero & 0x7F); i++) {
+                longitud = (longitud << 8) | entrada.readUnsignedByte();
+            }
+            return longitud;
+        }
+    }
+
+    /** Acepta cualquier correo; saluda y confirma el DATA tras el retardo. */
+    static final class Smtp extends ServidoresLentos {
+
+        Smtp(long retardo) throws IOException {
+            super(retardo);
+        }
+
+        @Override
+        protected void atender(Socket socket) throws IOException, InterruptedException {
+            BufferedReader entrada = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            PrintWriter salida = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+            Thread.sleep(retardo / 2);
+            responder(salida, "220 lento ESMTP");
+
+            String linea;
+            while ((linea = entrada.readLine()) != null) {
+                String comando = linea.length() >= 4 ? linea.substring(0, 4).toUpperCase() : linea.toUpperCase();
+                switch (comando) {
+                    case "EHLO", "HELO" -> responder(salida, "250 lento");
+                    case "DATA" -> {
+                        responder(salida, "354 fin con <CRLF>.<CRLF>");
+                        while ((linea = entrada.readLine()) != null && !".".equals(linea)) {
+                            // Se descarta el mensaje
+                        }
+                        Thread.sleep(retardo / 2);
+                        responder(salida, "250 aceptado");
+                    }
+                    case "QUIT" -> {
+                        responder(salida, "221 adiós");
+                        return;
+                    }
+                    default -> responder(salida, "250 OK");
+                }
+            }
+        }
+
+        private static void responder(PrintWriter salida, String linea) {
+            salida.print(linea + "\r\n");
+            salida.flush();
+        }
+    }
+}
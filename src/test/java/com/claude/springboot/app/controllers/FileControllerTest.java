@@ -0,0 +1,208 @@
+package com.claude.springboot.app.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.claude.springboot.app.entities.ArchivoAdjunto;
+import com.claude.springboot.app.repositories.ArchivoAdjuntoRepository;
+import com.claude.springboot.app.repositories.ArchivoBlobRepository;
+import com.claude.springboot.app.services.FileStorageService;
+import com.claude.springboot.app.services.ProcesadorAdjuntos;
+
+/**
+ * Verifica respuestas condicionales, rangos y tipo de contenido de la
+ * descarga de adjuntos.
+ */
+class FileControllerTest {
+
+    private static final String URL = "/api/files/2024/05/10/documento.pdf";
+    private static final String CONTENIDO = "0123456789abcdefghij";
+
+    @TempDir
+    Path uploads;
+
+    private MockMvc mockMvc;
+    private FileStorageService storage;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path dia = Files.createDirectories(uploads.resolve("2024/05/10"));
+        Files.write(dia.resolve("documento.pdf"), CONTENIDO.getBytes(StandardCharsets.US_ASCII));
+        Files.write(dia.resolve("pagina.html"), "<script>alert(1)</script>".getBytes(StandardCharsets.US_ASCII));
+
+        ArchivoAdjuntoRepository repository = mock(ArchivoAdjuntoRepository.class);
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        when(repository.findById("2024/05/10/documento.pdf")).thenReturn(Optional.of(
+                new ArchivoAdjunto("2024/05/10/documento.pdf", "acta.pdf", "application/pdf", 20L, null, null)));
+        when(repository.findById("2024/05/10/pagina.html")).thenReturn(Optional.of(
+                new ArchivoAdjunto("2024/05/10/pagina.html", "pagina.html", "text/html", 25L, null, null)));
+
+        storage = new FileStorageService(uploads.toString(), true, repository,
+                mock(ArchivoBlobRepository.class), evento -> { });
+        ProcesadorAdjuntos procesador = new ProcesadorAdjuntos(storage, Runnable::run);
+        ReflectionTestUtils.setField(procesador, "ladoMiniatura", 320);
+        mockMvc = MockMvcBuilders.standaloneSetup(new FileController(storage, procesador)).build();
+    }
+
+    @Test
+    void descargaCompletaConTipoYValidadores() throws Exception {
+        mockMvc.perform(get(URL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/pdf"))
+                .andExpect(content().string(CONTENIDO))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 20));
+    }
+
+    @Test
+    void soloMuestraEnLineaTiposSegurosYSiempreEnviaCabecerasDeAislamiento() throws Exception {
+        mockMvc.perform(get(URL).param("inline", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/pdf"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, startsWith("inline")))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().string("Content-Security-Policy", "sandbox"));
+
+        mockMvc.perform(get("/api/files/2024/05/10/pagina.html").param("inline", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/octet-stream"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, startsWith("attachment")))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().string("Content-Security-Policy", "sandbox"));
+    }
+
+    @Test
+    void laDescargaConservaElTipoGuardado() throws Exception {
+        mockMvc.perform(get("/api/files/2024/05/10/pagina.html"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/html"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, startsWith("attachment")))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().string("Content-Security-Policy", "sandbox"));
+    }
+
+    @Test
+    void respondeNoModificadoConElMismoEtag() throws Exception {
+        MvcResult primera = mockMvc.perform(get(URL)).andReturn();
+        String etag = primera.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void sirveRangosParciales() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=5-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/20"))
+                .andExpect(content().string("56789"));
+
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("hij"));
+    }
+
+    @Test
+    void ignoraElRangoSiIfRangeNoCoincide() throws Exception {
+        mockMvc.perform(get(URL)
+                        .header(HttpHeaders.RANGE, "bytes=5-9")
+                        .header(HttpHeaders.IF_RANGE, "\"otra-version\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENIDO));
+    }
+
+    @Test
+    void rechazaRangosFueraDelArchivo() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=50-60"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */20"));
+    }
+
+    @Test
+    void deduceElTipoDeArchivosSinMetadatos() throws Exception {
+        Files.writeString(uploads.resolve("2024/05/10/foto.png"), "png");
+
+        mockMvc.perform(get("/api/files/2024/05/10/foto.png"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/png"));
+    }
+
+    @Test
+    void respondeNoEncontrado() throws Exception {
+        mockMvc.perform(get("/api/files/2024/05/10/no-existe.pdf"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void sirveLaMiniaturaDeUnaImagen() throws Exception {
+        BufferedImage foto = new BufferedImage(1200, 800, BufferedImage.TYPE_INT_RGB);
+        ImageIO.write(foto, "png", uploads.resolve("2024/05/10/foto.png").toFile());
+
+        MvcResult resultado = mockMvc.perform(get("/api/files/2024/05/10/foto.png/thumb"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/jpeg"))
+                .andReturn();
+
+        BufferedImage miniatura = ImageIO.read(new ByteArrayInputStream(resultado.getResponse().getContentAsByteArray()));
+        assertThat(miniatura.getWidth()).isEqualTo(320);
+        assertThat(miniatura.getHeight()).isEqualTo(213);
+    }
+
+    @Test
+    void sinMiniaturaParaArchivosQueNoLaAdmiten() throws Exception {
+        // documento.pdf no es un PDF válido
+        mockMvc.perform(get(URL + "/thumb")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/files/2024/05/10/otro.pdf/thumb")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void laMiniaturaFaltanteSeGeneraEnElPoolYRespondeAceptado() throws Exception {
+        ImageIO.write(new BufferedImage(1200, 800, BufferedImage.TYPE_INT_RGB), "png",
+                uploads.resolve("2024/05/10/foto.png").toFile());
+        List<Runnable> tareas = new ArrayList<>();
+        ProcesadorAdjuntos enPool = new ProcesadorAdjuntos(storage, tareas::add);
+        ReflectionTestUtils.setField(enPool, "ladoMiniatura", 320);
+        MockMvc conPool = MockMvcBuilders.standaloneSetup(new FileController(storage, enPool)).build();
+
+        conPool.perform(get("/api/files/2024/05/10/foto.png/thumb"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        conPool.perform(get("/api/files/2024/05/10/foto.png/thumb")).andExpect(status().isAccepted());
+        assertThat(tareas).hasSize(1);
+
+        tareas.get(0).run();
+        conPool.perform(get("/api/files/2024/05/10/foto.png/thumb"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/jpeg"));
+    }
+}
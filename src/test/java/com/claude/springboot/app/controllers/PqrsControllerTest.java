@@ -0,0 +1,81 @@
+package com.claude.springboot.app.controllers;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.claude.springboot.app.dto.CursorPageDTO;
+import com.claude.springboot.app.security.service.UsuarioService;
+import com.claude.springboot.app.services.BusquedaPqrsService;
+import com.claude.springboot.app.services.CargaArchivoService;
+import com.claude.springboot.app.services.ExportacionPqrsService;
+import com.claude.springboot.app.services.FileStorageService;
+import com.claude.springboot.app.services.HistorialAsignacionService;
+import com.claude.springboot.app.services.PqrsService;
+import com.claude.springboot.app.services.ReportePqrsService;
+import com.claude.springboot.app.utils.KeysetCursor;
+
+/**
+ * Verifica que el listado por cursor responde 400 ante un cursor inválido y
+ * 500 ante un error inesperado.
+ */
+class PqrsControllerTest {
+
+    private static final String URL = "/api/pqrs/sin-asignar/cursor";
+
+    private MockMvc mockMvc;
+    private PqrsService pqrsService;
+
+    @BeforeEach
+    void setUp() {
+        pqrsService = mock(PqrsService.class);
+        // Como el servicio real: el cursor se decodifica antes de consultar
+        when(pqrsService.listarResumenSinAsignarCursor(anyString(), anyInt(), anyBoolean())).thenAnswer(inv -> {
+            KeysetCursor.decodificar(inv.getArgument(0));
+            return new CursorPageDTO<>(Collections.emptyList(), 0, false, null, null);
+        });
+
+        PqrsController controller = new PqrsController(pqrsService, mock(FileStorageService.class),
+                mock(HistorialAsignacionService.class), mock(UsuarioService.class),
+                mock(CargaArchivoService.class), mock(BusquedaPqrsService.class),
+                mock(ReportePqrsService.class), mock(ExportacionPqrsService.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void aceptaUnCursorValido() throws Exception {
+        mockMvc.perform(get(URL).param("cursor", KeysetCursor.codificar(42L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    void rechazaUnCursorMalFormadoConBadRequest() throws Exception {
+        mockMvc.perform(get(URL).param("cursor", "no*es*base64"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Cursor de paginación inválido"));
+    }
+
+    @Test
+    void unErrorInesperadoRespondeServerError() throws Exception {
+        when(pqrsService.listarResumenSinAsignarCursor(anyString(), anyInt(), anyBoolean()))
+                .thenThrow(new IllegalStateException("sin conexión"));
+
+        mockMvc.perform(get(URL).param("cursor", KeysetCursor.codificar(42L)))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error").value("Error al listar PQRS sin asignar"))
+                .andExpect(jsonPath("$.mensaje").value("sin conexión"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.claude.springboot.app.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.claude.springboot.app.security.entities.Persona;
+
+/**
+ * Verifica que el resumen arma el nombre del asignado con las mismas reglas
+ * que Persona.getNombreCompleto().
+ */
+class PqrsResumenDTOTest {
+
+    @Test
+    void prefiereLosCamposNuevosDelNombre() {
+        PqrsResumenDTO dto = resumen(1L, "Ana", "María", "Pérez", "Gómez", "Legacy", "Legacy");
+
+        assertThat(dto.getNombreUsuarioAsignado()).isEqualTo("Ana María Pérez Gómez");
+    }
+
+    @Test
+    void coincideConLaEntidadCuandoSoloHayCamposLegacy() {
+        Persona persona = new Persona();
+        persona.setNombres("Ana");
+        persona.setApellidos("Pérez");
+
+        PqrsResumenDTO dto = resumen(1L, null, null, null, null, "Ana", "Pérez");
+
+        assertThat(dto.getNombreUsuarioAsignado()).isEqualTo(persona.getNombreCompleto());
+    }
+
+    @Test
+    void sinPersonaNoHayNombre() {
+        assertThat(resumen(null, null, null, null, null, null, null).getNombreUsuarioAsignado()).isNull();
+    }
+
+    private static PqrsResumenDTO resumen(Long idPersona, String primerNombre, String otrosNombres,
+                                          String primerApellido, String segundoApellido,
+                                          String nombres, String apellidos) {
+        return new PqrsResumenDTO(1L, "RAD-1", "Solicitante", "Título", "ALTA", "PENDIENTE", null, null,
+                null, null, 2L, "ana", idPersona, primerNombre, otrosNombres, primerApellido,
+                segundoApellido, nombres, apellidos);
+    }
+}
@@ -0,0 +1,98 @@
+package com.claude.springboot.app.security.evaluator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.claude.springboot.app.security.evaluator.ClasificadorRutas.Acceso;
+import com.claude.springboot.app.security.repositories.RutaRepository;
+
+/**
+ * Verifica la clasificación de rutas con el árbol compilado: rutas fijas,
+ * rutas de la BD con comodines y la recarga al cambiar las rutas.
+ */
+class ClasificadorRutasTest {
+
+    private RutaRepository rutaRepository;
+    private ClasificadorRutas clasificador;
+    private List<String> publicasBd;
+
+    @BeforeEach
+    void setUp() {
+        rutaRepository = mock(RutaRepository.class);
+        publicasBd = new ArrayList<>(List.of("/api/catalogos/**", "/api/encuestas/{id}/responder", "/api/estado"));
+        when(rutaRepository.findRutasPublicasActivas()).thenAnswer(invocacion -> publicasBd);
+        clasificador = new ClasificadorRutas(rutaRepository);
+    }
+
+    @Test
+    void clasificaRutasFijas() {
+        assertThat(clasificador.clasificar("/api/auth/login")).isEqualTo(Acceso.ANONIMA);
+        assertThat(clasificador.clasificar("/api/pqrs/publico")).isEqualTo(Acceso.PUBLICA);
+        assertThat(clasificador.clasificar("/api/pqrs/publico/123/adjuntos")).isEqualTo(Acceso.PUBLICA);
+        assertThat(clasificador.clasificar("/actuator/health")).isEqualTo(Acceso.PUBLICA);
+        assertThat(clasificador.clasificar("/actuator/metrics/jvm")).isEqualTo(Acceso.PROTEGIDA);
+        assertThat(clasificador.clasificar("/api/pqrs")).isEqualTo(Acceso.PROTEGIDA);
+        assertThat(clasificador.clasificar("/api/pqrs/publicos")).isEqualTo(Acceso.PROTEGIDA);
+        // Las cargas por bloques ocupan disco: solo con usuario autenticado
+        assertThat(clasificador.clasificar("/api/uploads")).isEqualTo(Acceso.PROTEGIDA);
+        assertThat(clasificador.clasificar("/api/uploads/abc/bloques/0")).isEqualTo(Acceso.PROTEGIDA);
+        assertThat(clasificador.clasificar("/")).isEqualTo(Acceso.PROTEGIDA);
+        assertThat(clasificador.clasificar(null)).isEqualTo(Acceso.PROTEGIDA);
+    }
+
+    @Test
+    void clasificaRutasDeLaBaseDeDatosConComodines() {
+        assertThat(clasificador.esPublica("/api/catalogos")).isTrue();
+        assertThat(clasificador.esPublica("/api/catalogos/departamentos/5")).isTrue();
+        assertThat(clasificador.esPublica("/api/encuestas/7/responder")).isTrue();
+        assertThat(clasificador.esPublica("/api/encuestas/7")).isFalse();
+        assertThat(clasificador.esPublica("/api/estado/")).isTrue();
+        assertThat(clasificador.esPublica("/api/estado/detalle")).isFalse();
+        assertThat(clasificador.esAnonima("/api/catalogos")).isFalse();
+    }
+
+    @Test
+    void descartaPatronesQueNoPuedeRepresentar() {
+        publicasBd.add("/api/reportes/*.pdf");
+        publicasBd.add("/api/**/publico");
+        clasificador.recargar();
+
+        assertThat(clasificador.esPublica("/api/reportes/anual.pdf")).isFalse();
+        assertThat(clasificador.esPublica("/api/reportes/x")).isFalse();
+        assertThat(clasificador.esPublica("/api/usuarios/publico")).isFalse();
+    }
+
+    @Test
+    void recargaAlActualizarRutasSinVolverALaBdEnCadaConsulta() {
+        assertThat(clasificador.esPublica("/api/noticias")).isFalse();
+        assertThat(clasificador.esPublica("/api/estado")).isTrue();
+        verify(rutaRepository, times(1)).findRutasPublicasActivas();
+
+        publicasBd.add("/api/noticias");
+        publicasBd.remove("/api/estado");
+        clasificador.alActualizarPermisos(new PermisosActualizadosEvent("ruta actualizada /api/noticias"));
+
+        assertThat(clasificador.esPublica("/api/noticias")).isTrue();
+        assertThat(clasificador.esPublica("/api/estado")).isFalse();
+        verify(rutaRepository, times(2)).findRutasPublicasActivas();
+    }
+
+    @Test
+    void tomaLaRutaDentroDeLaAplicacion() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/pqrs/api/auth/login");
+        request.setContextPath("/pqrs");
+
+        assertThat(ClasificadorRutas.rutaDe(request)).isEqualTo("/api/auth/login");
+        assertThat(clasificador.esAnonima(ClasificadorRutas.rutaDe(request))).isTrue();
+    }
+}
@@ -0,0 +1,57 @@
+package com.claude.springboot.app.security.evaluator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.claude.springboot.app.security.repositories.PermisoRolRepository;
+
+/**
+ * Verifica la máscara de permisos por authority y ruta, la suma de filas
+ * repetidas y que las rutas se comparan sin distinguir mayúsculas, igual que
+ * la intercalación de la BD.
+ */
+class MatrizPermisosTest {
+
+    private PermisoRolRepository permisoRolRepository;
+    private MatrizPermisos matriz;
+
+    @BeforeEach
+    void setUp() {
+        permisoRolRepository = mock(PermisoRolRepository.class);
+        matriz = new MatrizPermisos(permisoRolRepository);
+    }
+
+    @Test
+    void aplicaLaMascaraPorAuthorityYRuta() {
+        when(permisoRolRepository.findMatrizPermisosActivos()).thenReturn(List.<Object[]>of(
+                fila("ADMIN", "/api/pqrs", true, true, false, false)));
+
+        assertThat(matriz.tienePermiso("ROLE_ADMIN", "/api/pqrs", MatrizPermisos.LEER)).isTrue();
+        assertThat(matriz.tienePermiso("ROLE_ADMIN", "/api/pqrs", MatrizPermisos.LEER | MatrizPermisos.ESCRIBIR)).isTrue();
+        assertThat(matriz.tienePermiso("ROLE_ADMIN", "/api/pqrs", MatrizPermisos.ELIMINAR)).isFalse();
+        assertThat(matriz.tienePermiso("ROLE_USUARIO", "/api/pqrs", MatrizPermisos.LEER)).isFalse();
+        assertThat(matriz.tienePermiso("ROLE_ADMIN", "/api/usuarios", MatrizPermisos.LEER)).isFalse();
+        assertThat(matriz.tienePermiso("ROLE_ADMIN", null, MatrizPermisos.LEER)).isFalse();
+    }
+
+    @Test
+    void lasRutasNoDistinguenMayusculas() {
+        when(permisoRolRepository.findMatrizPermisosActivos()).thenReturn(List.<Object[]>of(
+                fila("ADMIN", "/api/PQRS", true, false, false, false),
+                fila("ADMIN", "/api/pqrs", false, false, true, false)));
+
+        assertThat(matriz.tienePermiso("ROLE_ADMIN", "/api/pqrs", MatrizPermisos.LEER | MatrizPermisos.ACTUALIZAR)).isTrue();
+        assertThat(matriz.tienePermiso("ROLE_ADMIN", "/API/Pqrs", MatrizPermisos.LEER)).isTrue();
+    }
+
+    private static Object[] fila(String rol, String ruta, boolean leer, boolean escribir,
+                                 boolean actualizar, boolean eliminar) {
+        return new Object[] { rol, ruta, leer, escribir, actualizar, eliminar };
+    }
+}
@@ -0,0 +1,160 @@
+package com.claude.springboot.app.security.evaluator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.claude.springboot.app.security.annotations.PermitirEliminar;
+import com.claude.springboot.app.security.annotations.PermitirEscritura;
+import com.claude.springboot.app.security.annotations.PermitirLectura;
+import com.claude.springboot.app.security.annotations.PermitirUsuarioActual;
+import com.claude.springboot.app.security.annotations.PublicEndpoint;
+import com.claude.springboot.app.security.enums.TipoPermiso;
+import com.claude.springboot.app.security.exception.SecurityExceptionHandler;
+import com.claude.springboot.app.security.interceptor.PermisosInterceptor;
+
+/**
+ * Verifica que la ruta y el permiso de cada método se precalculan con la
+ * misma regla que usaba la expresión SpEL y que el interceptor los aplica.
+ */
+class RegistroPermisosTest {
+
+    private RegistroPermisos registro;
+    private PermisoEvaluator permisoEvaluator;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        registro = new RegistroPermisos();
+        permisoEvaluator = mock(PermisoEvaluator.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new TemasPqrsController())
+                .addInterceptors(new PermisosInterceptor(registro, permisoEvaluator))
+                .setControllerAdvice(new SecurityExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void calculaRutaYPermisoPorMetodo() throws Exception {
+        RegistroPermisos.Requisito listar = registro.buscar(TemasPqrsController.class, metodo("listar"));
+        RegistroPermisos.Requisito eliminar = registro.buscar(TemasPqrsController.class, metodo("eliminar"));
+
+        assertThat(listar.getRuta()).isEqualTo("/api/temaspqrss");
+        assertThat(listar.getTipoPermiso()).isEqualTo(TipoPermiso.LECTURA);
+        assertThat(eliminar.getTipoPermiso()).isEqualTo(TipoPermiso.ELIMINAR);
+        assertThat(registro.buscar(TemasPqrsController.class, metodo("ayuda"))).isNull();
+    }
+
+    @Test
+    void laAnotacionDeClaseAplicaSalvoQueElMetodoTengaOtraRegla() throws Exception {
+        assertThat(registro.buscar(ReportesController.class, ReportesController.class.getDeclaredMethod("generar"))
+                .getTipoPermiso()).isEqualTo(TipoPermiso.ESCRITURA);
+        assertThat(registro.buscar(ReportesController.class, ReportesController.class.getDeclaredMethod("consultar"))
+                .getTipoPermiso()).isEqualTo(TipoPermiso.LECTURA);
+        assertThat(registro.buscar(ReportesController.class, ReportesController.class.getDeclaredMethod("publico")))
+                .isNull();
+        assertThat(registro.buscar(ReportesController.class, ReportesController.class.getDeclaredMethod("propios")))
+                .isNull();
+    }
+
+    @Test
+    void rechazaMetodosConDosAnotacionesDePermiso() {
+        assertThatThrownBy(() -> registro.buscar(AmbiguoController.class, AmbiguoController.class.getDeclaredMethod("x")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void elInterceptorNiegaOPermiteSegunElEvaluador() throws Exception {
+        when(permisoEvaluator.tienePermiso("/api/temaspqrss", TipoPermiso.LECTURA)).thenReturn(true);
+        when(permisoEvaluator.tienePermiso("/api/temaspqrss", TipoPermiso.ELIMINAR)).thenReturn(false);
+
+        mockMvc.perform(get("/api/temas")).andExpect(status().isOk());
+        mockMvc.perform(post("/api/temas/eliminar"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.error").value("Acceso denegado"));
+    }
+
+    @Test
+    void losMetodosSinAnotacionNoConsultanPermisos() throws Exception {
+        mockMvc.perform(get("/api/temas/ayuda")).andExpect(status().isOk());
+        verify(permisoEvaluator, never()).tienePermiso(any(), any());
+    }
+
+    private Method metodo(String nombre) throws NoSuchMethodException {
+        return TemasPqrsController.class.getDeclaredMethod(nombre);
+    }
+
+    @RestController
+    @RequestMapping("/api/temas")
+    static class TemasPqrsController {
+
+        @GetMapping
+        @PermitirLectura
+        public String listar() {
+            return "ok";
+        }
+
+        @PostMapping("/eliminar")
+        @PermitirEliminar
+        public String eliminar() {
+            return "ok";
+        }
+
+        @GetMapping("/ayuda")
+        public String ayuda() {
+            return "ok";
+        }
+    }
+
+    @RestController
+    @PermitirEscritura
+    static class ReportesController {
+
+        @PostMapping("/generar")
+        public void generar() {
+        }
+
+        @GetMapping("/consultar")
+        @PermitirLectura
+        public void consultar() {
+        }
+
+        @GetMapping("/publico")
+        @PublicEndpoint
+        public void publico() {
+        }
+
+        @GetMapping("/propios")
+        @PermitirUsuarioActual
+        public void propios() {
+        }
+    }
+
+    @RestController
+    static class AmbiguoController {
+
+        @GetMapping("/x")
+        @PermitirLectura
+        @PermitirEscritura
+        public void x() {
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.claude.springboot.app.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.stubbing.Answer;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.claude.springboot.app.config.AsyncConfig;
+import com.claude.springboot.app.security.config.JwtConfig;
+import com.claude.springboot.app.security.entities.Persona;
+import com.claude.springboot.app.security.entities.Rol;
+import com.claude.springboot.app.security.entities.Usuario;
+import com.claude.springboot.app.security.filter.JwtAuthenticationFilter;
+import com.claude.springboot.app.security.repositories.UsuarioRepository;
+
+/**
+ * Prueba de carga del login completo (filtro, proveedor, BCrypt, token de
+ * sesión y respuesta) con una BD simulada que tarda {@code carga.latencia-bd}
+ * ms por consulta. Mientras corren los logins se atienden peticiones
+ * livianas (validar un JWT) en el mismo pool y se mide su latencia.
+ *
+ * No corre en el build normal:
+ * <pre>
+ * mvn test -Dtest=CargaLoginTest -Dcarga=true [-Dcarga.logins=300] [-Dcarga.latencia-bd=2]
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "carga", matches = "true")
+class CargaLoginTest {
+
+    private static final int HILOS_TOMCAT = 200;
+
+    private final int logins = Integer.getInteger("carga.logins", 300);
+    private final long latenciaBd = Long.getLong("carga.latencia-bd", 2);
+
+    private final AtomicLong consultas = new AtomicLong();
+    private JwtAuthenticationFilter filtro;
+    private JwtService jwtService;
+    private String token;
+    private ThreadPoolTaskExecutor bcrypt;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        Rol rol = new Rol();
+        rol.setNombre("ADMIN");
+        Persona persona = new Persona();
+        persona.setNombres("Ana");
+        persona.setApellidos("Pérez");
+        Usuario usuario = new Usuario();
+        usuario.setIdUsuario(1L);
+        usuario.setUsername("ana");
+        usuario.setPassword(encoder.encode("secreta"));
+        usuario.setEstado(true);
+        usuario.setRol(rol);
+        usuario.setPersona(persona);
+
+        UsuarioRepository repository = mock(UsuarioRepository.class, baseDeDatos(usuario));
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setExpiration(86_400_000);
+        jwtConfig.setHeader("Authorization");
+        jwtConfig.setPrefix("Bearer ");
+        SesionTokenCache sesiones = new SesionTokenCache(Duration.ofSeconds(30), 10_000);
+        jwtService = new JwtService(jwtConfig, repository, sesiones);
+
+        // Cola del tamaño de la ráfaga: se mide rendimiento, no el rechazo por saturación
+        bcrypt = new AsyncConfig(new StandardEnvironment()).bcryptExecutor(0, logins);
+        bcrypt.initialize();
+        CustomAuthenticationProvider provider = new CustomAuthenticationProvider(
+                new VerificadorContrasenas(encoder, bcrypt, Duration.ofMinutes(1)), mock(LdapService.class), repository);
+        filtro = new JwtAuthenticationFilter(jwtConfig, jwtService, new UserInfoService(repository));
+        filtro.setAuthenticationManager(new ProviderManager(provider));
+        filtro.setFilterProcessesUrl("/api/auth/login");
+
+        token = login().getHeader("Authorization").substring("Bearer ".length());
+        consultas.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bcrypt.shutdown();
+    }
+
+    @Test
+    void midePipelineDeLogin() throws Exception {
+        ExecutorService tomcat = Executors.newFixedThreadPool(HILOS_TOMCAT);
+        try {
+            long inicio = System.nanoTime();
+            List<Future<MockHttpServletResponse>> pendientes = new ArrayList<>(logins);
+            List<Future<Long>> livianas = new ArrayList<>(logins);
+            for (int i = 0; i < logins; i++) {
+                pendientes.add(tomcat.submit(this::login));
+                long enviada = System.nanoTime();
+                livianas.add(tomcat.submit(() -> {
+                    assertThat(jwtService.parseClaims(token)).isNotNull();
+                    return System.nanoTime() - enviada;
+                }));
+            }
+            for (Future<MockHttpServletResponse> pendiente : pendientes) {
+                assertThat(pendiente.get(10, TimeUnit.MINUTES).getStatus()).isEqualTo(200);
+            }
+            Duration duracion = Duration.ofNanos(System.nanoTime() - inicio);
+
+            long[] latencias = new long[livianas.size()];
+            for (int i = 0; i < latencias.length; i++) {
+                latencias[i] = livianas.get(i).get();
+            }
+            Arrays.sort(latencias);
+
+            System.out.printf("%n%d logins, %d ms por consulta a BD, %d núcleos%n", logins, latenciaBd,
+                    Runtime.getRuntime().availableProcessors());
+            System.out.printf("logins/s: %.1f%n", logins * 1000.0 / Math.max(1, duracion.toMillis()));
+            System.out.printf("consultas a BD por login: %.1f%n", (double) consultas.get() / logins);
+            System.out.printf("petición liviana p50/p99 ms: %.1f / %.1f%n",
+                    latencias[latencias.length / 2] / 1e6, latencias[latencias.length * 99 / 100] / 1e6);
+        } finally {
+            tomcat.shutdownNow();
+        }
+    }
+
+    private MockHttpServletResponse login() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setServletPath("/api/auth/login");
+        request.setContentType("application/json");
+        request.setContent("{\"username\":\"ana\",\"password\":\"secreta\"}".getBytes());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    /** Cada llamada al repositorio tarda {@code latenciaBd} ms y devuelve al usuario. */
+    private Answer<Object> baseDeDatos(Usuario usuario) {
+        return invocacion -> {
+            if (invocacion.getMethod().getDeclaringClass() == Object.class) {
+                return invocacion.callRealMethod();
+            }
+            consultas.incrementAndGet();
+            Thread.sleep(latenciaBd);
+            Class<?> tipo = invocacion.getMethod().getReturnType();
+            if (tipo == Optional.class) {
+                return Optional.of(usuario);
+            }
+            if (tipo == List.class) {
+                return List.of(usuario);
+            }
+            if (tipo == int.class) {
+                return 1;
+            }
+            if (tipo == boolean.class) {
+                return true;
+            }
+            return invocacion.getArguments().length > 0 ? invocacion.getArgument(0) : null;
+        };
+    }
+}
@@ -0,0 +1,166 @@
+package com.claude.springboot.app.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.claude.springboot.app.security.entities.Rol;
+import com.claude.springboot.app.security.entities.Usuario;
+import com.claude.springboot.app.security.repositories.UsuarioRepository;
+
+/**
+ * Verifica que el login resuelve al usuario con una sola consulta, compara
+ * la contraseña en el pool de BCrypt y, tras un login LDAP, deja el username
+ * normalizado.
+ */
+class CustomAuthenticationProviderTest {
+
+    private final PasswordEncoder encoder = new BCryptPasswordEncoder(4);
+    private UsuarioRepository repository;
+    private LdapService ldapService;
+    private ThreadPoolTaskExecutor bcrypt;
+    private CustomAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UsuarioRepository.class);
+        ldapService = mock(LdapService.class);
+        bcrypt = new ThreadPoolTaskExecutor();
+        bcrypt.setCorePoolSize(1);
+        bcrypt.setMaxPoolSize(1);
+        bcrypt.setQueueCapacity(1);
+        bcrypt.initialize();
+        provider = new CustomAuthenticationProvider(
+                new VerificadorContrasenas(encoder, bcrypt, Duration.ofSeconds(5)), ldapService, repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bcrypt.shutdown();
+    }
+
+    @Test
+    void autenticaConContrasenaLocalEnUnaSolaConsulta() {
+        Usuario ana = usuario(1L, "ana", encoder.encode("secreta"));
+        when(repository.findParaLogin("ana@mintrabajo.loc")).thenReturn(List.of(ana));
+
+        Authentication resultado = provider.authenticate(login(" ANA ", "secreta"));
+
+        assertThat(resultado.getPrincipal()).isInstanceOf(UsuarioAutenticado.class);
+        assertThat(((UsuarioAutenticado) resultado.getPrincipal()).getUsuario()).isSameAs(ana);
+        assertThat(resultado.getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+        verify(repository).findParaLogin("ana@mintrabajo.loc");
+        verify(repository, never()).findByUsername(anyString());
+        verify(ldapService, never()).authenticate(anyString(), anyString());
+    }
+
+    @Test
+    void siLaContrasenaLocalNoCoincideIntentaLdap() {
+        Usuario ana = usuario(1L, "ana@mintrabajo.loc", encoder.encode("local"));
+        when(repository.findParaLogin("ana@mintrabajo.loc")).thenReturn(List.of(ana));
+        when(ldapService.authenticate("ana@mintrabajo.loc", "dominio")).thenReturn(true);
+
+        assertThat(provider.authenticate(login("ana", "dominio")).getName()).isEqualTo("ana@mintrabajo.loc");
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void trasLdapPrefiereElRegistroConUsernameNormalizado() {
+        Usuario corto = usuario(1L, "ana", null);
+        Usuario normalizado = usuario(2L, "ana@mintrabajo.loc", null);
+        when(repository.findParaLogin("ana@mintrabajo.loc")).thenReturn(List.of(normalizado, corto));
+        when(ldapService.authenticate("ana@mintrabajo.loc", "dominio")).thenReturn(true);
+
+        Authentication resultado = provider.authenticate(login("ana", "dominio"));
+
+        assertThat(((UsuarioAutenticado) resultado.getPrincipal()).getUsuario()).isSameAs(normalizado);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void trasLdapNormalizaElUsernameDelRegistro() {
+        Usuario corto = usuario(1L, "ana", null);
+        when(repository.findParaLogin("ana@mintrabajo.loc")).thenReturn(List.of(corto));
+        when(ldapService.authenticate("ana@mintrabajo.loc", "dominio")).thenReturn(true);
+
+        Authentication resultado = provider.authenticate(login("ana", "dominio"));
+
+        assertThat(resultado.getName()).isEqualTo("ana@mintrabajo.loc");
+        verify(repository).save(corto);
+    }
+
+    @Test
+    void rechazaUsuariosNoRegistradosYCredencialesInvalidas() {
+        when(repository.findParaLogin("pedro@mintrabajo.loc")).thenReturn(List.of());
+        Usuario ana = usuario(1L, "ana", encoder.encode("secreta"));
+        when(repository.findParaLogin("ana@mintrabajo.loc")).thenReturn(List.of(ana));
+
+        assertThatThrownBy(() -> provider.authenticate(login("pedro", "secreta")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> provider.authenticate(login("ana", "otra")))
+                .isInstanceOf(BadCredentialsException.class);
+        verify(ldapService, never()).authenticate("pedro@mintrabajo.loc", "secreta");
+    }
+
+    @Test
+    void conElPoolDeBcryptSaturadoFallaEnSeguida() throws Exception {
+        CountDownLatch ocupado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        bcrypt.execute(() -> {
+            ocupado.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ocupado.await();
+        bcrypt.execute(() -> { });
+
+        Usuario ana = usuario(1L, "ana", encoder.encode("secreta"));
+        when(repository.findParaLogin("ana@mintrabajo.loc")).thenReturn(List.of(ana));
+        try {
+            assertThatThrownBy(() -> provider.authenticate(login("ana", "secreta")))
+                    .isInstanceOf(AuthenticationServiceException.class);
+            verify(ldapService, never()).authenticate(anyString(), anyString());
+        } finally {
+            liberar.countDown();
+        }
+    }
+
+    private UsernamePasswordAuthenticationToken login(String username, String password) {
+        return new UsernamePasswordAuthenticationToken(username, password);
+    }
+
+    private Usuario usuario(Long id, String username, String password) {
+        Rol rol = new Rol();
+        rol.setNombre("ADMIN");
+        Usuario usuario = new Usuario();
+        usuario.setIdUsuario(id);
+        usuario.setUsername(username);
+        usuario.setPassword(password);
+        usuario.setEstado(true);
+        usuario.setRol(rol);
+        return usuario;
+    }
+}
@@ -0,0 +1,160 @@
+package com.claude.springboot.app.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.claude.springboot.app.security.entities.EmailOutbox;
+import com.claude.springboot.app.security.entities.EmailOutbox.EstadoEnvio;
+import com.claude.springboot.app.security.repositories.EmailOutboxRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Despacho de la cola de correos contra un servidor SMTP en proceso (GreenMail).
+ */
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP.dynamicPort());
+
+    private EmailOutboxRepository repository;
+    private final List<EmailOutbox> pendientes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(EmailOutboxRepository.class);
+        when(repository.findByEstadoAndProximoIntentoLessThanEqualOrderByIdEmailAsc(
+                eq(EstadoEnvio.PENDIENTE), any(LocalDateTime.class), any(Pageable.class)))
+                .thenAnswer(inv -> new ArrayList<>(pendientes));
+        when(repository.reservar(anyLong(), any(LocalDateTime.class), eq(EstadoEnvio.PENDIENTE), eq(EstadoEnvio.ENVIANDO)))
+                .thenReturn(1);
+    }
+
+    @Test
+    void enviaLosPendientesPorSmtpYLosMarcaEnviados() throws Exception {
+        pendientes.add(email(1L, "solicitante1@example.com", "Radicado 1", "<p>Hola</p>", true));
+        pendientes.add(email(2L, "solicitante2@example.com", "Radicado 2", "Texto plano", false));
+        pendientes.add(email(3L, "funcionario@example.com", "Seguimiento", "<b>Nuevo</b>", true));
+
+        EmailOutboxDispatcher dispatcher = crearDispatcher(smtp.getSmtp().getPort());
+        dispatcher.procesarPendientes();
+
+        MimeMessage[] recibidos = smtp.getReceivedMessages();
+        assertThat(recibidos).hasSize(3);
+        assertThat(recibidos).extracting(MimeMessage::getSubject)
+                .containsExactlyInAnyOrder("Radicado 1", "Radicado 2", "Seguimiento");
+        assertThat(GreenMailUtil.getBody(recibidos[0])).isNotBlank();
+
+        List<EmailOutbox> guardados = capturarGuardados();
+        assertThat(guardados).hasSize(3).allSatisfy(e -> {
+            assertThat(e.getEstado()).isEqualTo(EstadoEnvio.ENVIADO);
+            assertThat(e.getFechaEnvio()).isNotNull();
+            assertThat(e.getIntentos()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void siElServidorNoRespondeProgramaReintentoConBackoff() throws Exception {
+        pendientes.add(email(10L, "a@example.com", "Uno", "x", false));
+        pendientes.add(email(11L, "b@example.com", "Dos", "y", false));
+
+        EmailOutboxDispatcher dispatcher = crearDispatcher(puertoLibre());
+        LocalDateTime antes = LocalDateTime.now();
+        dispatcher.procesarPendientes();
+
+        List<EmailOutbox> guardados = capturarGuardados();
+        assertThat(guardados).hasSize(2).allSatisfy(e -> {
+            assertThat(e.getEstado()).isEqualTo(EstadoEnvio.PENDIENTE);
+            assertThat(e.getIntentos()).isEqualTo(1);
+            assertThat(e.getUltimoError()).isNotBlank();
+            assertThat(e.getProximoIntento()).isAfterOrEqualTo(antes.plusSeconds(30));
+        });
+    }
+
+    @Test
+    void agotadosLosIntentosQuedaFallido() throws Exception {
+        EmailOutbox email = email(20L, "c@example.com", "Tres", "z", false);
+        email.setIntentos(5);
+        pendientes.add(email);
+
+        crearDispatcher(puertoLibre()).procesarPendientes();
+
+        assertThat(capturarGuardados()).singleElement()
+                .satisfies(e -> assertThat(e.getEstado()).isEqualTo(EstadoEnvio.FALLIDO));
+    }
+
+    @Test
+    void elBackoffCreceExponencialmenteHastaElMaximo() {
+        EmailOutboxDispatcher dispatcher = crearDispatcher(25);
+
+        assertThat(dispatcher.calcularEspera(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(dispatcher.calcularEspera(2)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(dispatcher.calcularEspera(4)).isEqualTo(Duration.ofSeconds(240));
+        assertThat(dispatcher.calcularEspera(30)).isEqualTo(Duration.ofHours(1));
+    }
+
+    private EmailOutboxDispatcher crearDispatcher(int puerto) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(puerto);
+        mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+
+        EmailOutboxDispatcher dispatcher = new EmailOutboxDispatcher(repository, mailSender, new SyncTaskExecutor());
+        ReflectionTestUtils.setField(dispatcher, "fromEmail", "pqrs@example.com");
+        ReflectionTestUtils.setField(dispatcher, "tamanoLote", 20);
+        ReflectionTestUtils.setField(dispatcher, "lotesPorCiclo", 5);
+        ReflectionTestUtils.setField(dispatcher, "maxIntentos", 6);
+        ReflectionTestUtils.setField(dispatcher, "backoffInicial", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(dispatcher, "backoffMaximo", Duration.ofHours(1));
+        ReflectionTestUtils.setField(dispatcher, "duracionReserva", Duration.ofMinutes(5));
+        return dispatcher;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<EmailOutbox> capturarGuardados() {
+        ArgumentCaptor<List<EmailOutbox>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private EmailOutbox email(Long id, String destinatario, String asunto, String cuerpo, boolean html) {
+        EmailOutbox email = new EmailOutbox();
+        email.setIdEmail(id);
+        email.setDestinatario(destinatario);
+        email.setAsunto(asunto);
+        email.setCuerpo(cuerpo);
+        email.setEsHtml(html);
+        email.setEstado(EstadoEnvio.PENDIENTE);
+        email.setProximoIntento(LocalDateTime.now().minusSeconds(1));
+        return email;
+    }
+
+    private static int puertoLibre() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.claude.springboot.app.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.claude.springboot.app.security.interceptor.AuditoriaInterceptor;
+
+import jakarta.servlet.DispatcherType;
+
+/**
+ * Verifica que los eventos se escriben por lotes con JDBC (por tiempo o al
+ * juntar un lote), que se descartan sin bloquear si el buffer se llena o la
+ * BD falla, y que el interceptor arma el evento de cada petición.
+ */
+class EscritorAuditoriaTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private List<List<EscritorAuditoria.Evento>> lotes;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        lotes = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocacion -> {
+                    lotes.add(new ArrayList<>((Collection<EscritorAuditoria.Evento>) invocacion.getArgument(1)));
+                    return new int[0][];
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void escribePorLotesEnElCicloProgramado() {
+        EscritorAuditoria escritor = new EscritorAuditoria(jdbcTemplate, new SyncTaskExecutor(), 64, 10);
+        for (int i = 0; i < 25; i++) {
+            escritor.registrar(evento("/api/pqrs/" + i));
+        }
+        // Al juntar 10 se escribió un lote sin esperar el ciclo
+        assertThat(lotes).isNotEmpty();
+
+        escritor.escribirPendientes();
+
+        assertThat(lotes).allSatisfy(lote -> assertThat(lote).hasSizeLessThanOrEqualTo(10));
+        assertThat(lotes.stream().mapToInt(List::size).sum()).isEqualTo(25);
+        assertThat(escritor.getEscritos()).isEqualTo(25);
+        assertThat(escritor.getPendientes()).isZero();
+    }
+
+    @Test
+    void conElBufferLlenoDescartaSinBloquear() {
+        // Executor que rechaza todo: solo escribe el ciclo programado
+        EscritorAuditoria escritor = new EscritorAuditoria(jdbcTemplate, tarea -> {
+            throw new TaskRejectedException("ocupado");
+        }, 8, 100);
+        for (int i = 0; i < 20; i++) {
+            escritor.registrar(evento("/api/pqrs"));
+        }
+
+        assertThat(escritor.getPendientes()).isEqualTo(8);
+        assertThat(escritor.getDescartados()).isEqualTo(12);
+        escritor.escribirPendientes();
+        assertThat(escritor.getEscritos()).isEqualTo(8);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void siLaBdFallaDescartaElLoteYSigue() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("sin conexión"));
+        EscritorAuditoria escritor = new EscritorAuditoria(jdbcTemplate, new SyncTaskExecutor(), 64, 100);
+        escritor.registrar(evento("/api/pqrs"));
+        escritor.registrar(evento("/api/pqrs"));
+
+        escritor.escribirPendientes();
+
+        assertThat(escritor.getDescartados()).isEqualTo(2);
+        assertThat(escritor.getPendientes()).isZero();
+    }
+
+    @Test
+    void elInterceptorRegistraUsuarioHandlerEstadoYPqrs() throws Exception {
+        EscritorAuditoria escritor = new EscritorAuditoria(jdbcTemplate, new SyncTaskExecutor(), 64, 100);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new PqrsPruebaController())
+                .addInterceptors(new AuditoriaInterceptor(escritor))
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("ana", null, List.of()));
+
+        mockMvc.perform(get("/api/pqrs/15")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/pqrs/abc")).andExpect(status().isBadRequest());
+        SecurityContextHolder.clearContext();
+        mockMvc.perform(get("/api/otros/7")).andExpect(status().isOk());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+
+        escritor.escribirPendientes();
+
+        List<EscritorAuditoria.Evento> eventos = lotes.get(0);
+        assertThat(eventos).hasSize(3);
+        EscritorAuditoria.Evento pqrs = eventos.get(0);
+        assertThat(pqrs.getUsername()).isEqualTo("ana");
+        assertThat(pqrs.getMetodo()).isEqualTo("GET");
+        assertThat(pqrs.getRuta()).isEqualTo("/api/pqrs/15");
+        assertThat(pqrs.getHandler()).isEqualTo("PqrsPruebaController#obtener");
+        assertThat(pqrs.getEstadoHttp()).isEqualTo(200);
+        assertThat(pqrs.getIdPqrs()).isEqualTo(15L);
+        assertThat(eventos.get(1).getEstadoHttp()).isEqualTo(400);
+        assertThat(eventos.get(1).getIdPqrs()).isNull();
+        // "id" solo identifica una PQRS bajo /api/pqrs
+        assertThat(eventos.get(2).getIdPqrs()).isNull();
+        assertThat(eventos.get(2).getUsername()).isNull();
+    }
+
+    @Test
+    void noRegistraElDespachoDeErrorDelContenedor() throws Exception {
+        EscritorAuditoria escritor = new EscritorAuditoria(jdbcTemplate, new SyncTaskExecutor(), 64, 100);
+        AuditoriaInterceptor interceptor = new AuditoriaInterceptor(escritor);
+        MockHttpServletRequest original = new MockHttpServletRequest("GET", "/api/pqrs/15");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(original, response, null);
+        response.setStatus(500);
+        interceptor.afterCompletion(original, response, null, new IllegalStateException("falla"));
+
+        // El contenedor reenvía a /error con los atributos de la petición original
+        MockHttpServletRequest error = new MockHttpServletRequest("GET", "/error");
+        error.setDispatcherType(DispatcherType.ERROR);
+        error.setAttribute(AuditoriaInterceptor.class.getName() + ".inicio", System.nanoTime());
+        interceptor.preHandle(error, response, null);
+        interceptor.afterCompletion(error, response, null, null);
+
+        escritor.escribirPendientes();
+        assertThat(lotes).hasSize(1);
+        assertThat(lotes.get(0)).extracting(EscritorAuditoria.Evento::getRuta).containsExactly("/api/pqrs/15");
+    }
+
+    private EscritorAuditoria.Evento evento(String ruta) {
+        return new EscritorAuditoria.Evento(LocalDateTime.now(), "ana", "GET", ruta, "PqrsController#obtener", 200, 5, null);
+    }
+
+    @RestController
+    static class PqrsPruebaController {
+
+        @GetMapping("/api/pqrs/{id}")
+        public ResponseEntity<String> obtener(@PathVariable Long id) {
+            return ResponseEntity.ok("ok");
+        }
+
+        @GetMapping("/api/otros/{id}")
+        public ResponseEntity<String> otro(@PathVariable Long id) {
+            return ResponseEntity.ok("ok");
+        }
+    }
+}
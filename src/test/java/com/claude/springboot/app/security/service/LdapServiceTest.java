@@ -0,0 +1,227 @@
+package com.claude.springboot.app.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.InMemoryListenerConfig;
+import com.unboundid.ldap.listener.interceptor.InMemoryInterceptedSimpleBindRequest;
+import com.unboundid.ldap.listener.interceptor.InMemoryOperationInterceptor;
+import com.unboundid.ldap.sdk.Filter;
+import com.unboundid.ldap.sdk.LDAPException;
+import com.unboundid.ldap.sdk.ResultCode;
+import com.unboundid.ldap.sdk.SearchResultEntry;
+import com.unboundid.ldap.sdk.SearchScope;
+import com.unboundid.ldap.sdk.SimpleBindRequest;
+
+/**
+ * Autenticación contra un directorio UnboundID en memoria que, como el AD,
+ * acepta bind por userPrincipalName.
+ */
+class LdapServiceTest {
+
+    private static final String BASE = "DC=pqrs,DC=local";
+    private static final String SERVICIO = "CN=Servicio," + BASE;
+    private static final String ANA = "CN=Ana Perez,OU=Usuarios," + BASE;
+
+    private InMemoryDirectoryServer servidor;
+    private final List<String> binds = new CopyOnWriteArrayList<>();
+    private volatile boolean fueraDeServicio;
+    private volatile CountDownLatch retenerBinds;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InMemoryDirectoryServerConfig config = new InMemoryDirectoryServerConfig(BASE);
+        config.setSchema(null);
+        config.setListenerConfigs(InMemoryListenerConfig.createLDAPConfig("ldap", 0));
+        config.addInMemoryOperationInterceptor(new Directorio());
+        servidor = new InMemoryDirectoryServer(config);
+        servidor.add("dn: " + BASE, "objectClass: domain", "dc: pqrs");
+        servidor.add("dn: OU=Usuarios," + BASE, "objectClass: organizationalUnit", "ou: Usuarios");
+        servidor.add("dn: " + SERVICIO, "objectClass: user", "cn: Servicio", "userPassword: clave-servicio");
+        servidor.add("dn: " + ANA, "objectClass: user", "cn: Ana Perez", "sAMAccountName: ana",
+                "userPrincipalName: ana@pqrs.local", "userPassword: secreta");
+        servidor.startListening();
+    }
+
+    @AfterEach
+    void tearDown() {
+        servidor.shutDown(true);
+    }
+
+    @Test
+    void modoDirectoHaceBindConElUpn() {
+        LdapService service = service("direct", url());
+
+        assertThat(service.authenticate("ana", "secreta")).isTrue();
+        assertThat(service.authenticate("ANA@pqrs.local", "secreta")).isTrue();
+        assertThat(service.authenticate("ana", "otra")).isFalse();
+        assertThat(service.authenticate("pedro", "secreta")).isFalse();
+    }
+
+    @Test
+    void cuentaDeServicioBuscaElDnYReutilizaElContexto() {
+        LdapConexiones conexiones = conexiones(url());
+        LdapService service = service("service-account", conexiones);
+
+        assertThat(service.authenticate("ana", "secreta")).isTrue();
+        assertThat(service.authenticate("ana@pqrs.local", "secreta")).isTrue();
+        assertThat(service.authenticate("ana", "otra")).isFalse();
+        assertThat(service.authenticate("pedro", "secreta")).isFalse();
+        assertThat(service.authenticate("*)(sAMAccountName=*", "secreta")).isFalse();
+
+        assertThat(binds).containsOnly(SERVICIO, ANA);
+        assertThat(binds.stream().filter(SERVICIO::equals)).hasSize(1);
+        assertThat(conexiones.getLibres()).isEqualTo(1);
+    }
+
+    @Test
+    void contrasenaVaciaNoLlegaAlDirectorio() {
+        LdapService service = service("direct", url());
+
+        assertThat(service.authenticate("ana", "")).isFalse();
+        assertThat(service.authenticate("ana", null)).isFalse();
+        assertThat(binds).isEmpty();
+    }
+
+    @Test
+    void guardaLosResultadosDefinitivos() {
+        LdapService service = service("direct", url());
+
+        assertThat(service.authenticate("ana", "secreta")).isTrue();
+        assertThat(service.authenticate("ana", "secreta")).isTrue();
+        assertThat(service.authenticate("ana", "otra")).isFalse();
+        assertThat(service.authenticate("ana", "otra")).isFalse();
+
+        assertThat(binds).hasSize(2);
+    }
+
+    @Test
+    void noGuardaLosErroresDeConexion() {
+        LdapService service = service("direct", url());
+
+        fueraDeServicio = true;
+        assertThat(service.authenticate("ana", "secreta")).isFalse();
+        fueraDeServicio = false;
+        assertThat(service.authenticate("ana", "secreta")).isTrue();
+    }
+
+    @Test
+    void unaRafagaDelMismoLoginHaceUnSoloBind() throws Exception {
+        LdapService service = service("direct", url());
+        retenerBinds = new CountDownLatch(1);
+
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> logins = IntStream.range(0, 8)
+                    .mapToObj(i -> hilos.submit(() -> service.authenticate("ana", "secreta")))
+                    .toList();
+            while (binds.isEmpty()) {
+                Thread.sleep(5);
+            }
+            retenerBinds.countDown();
+
+            for (Future<Boolean> login : logins) {
+                assertThat(login.get(5, TimeUnit.SECONDS)).isTrue();
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+        assertThat(binds).hasSize(1);
+    }
+
+    @Test
+    void pasaAlSiguienteServidorSiUnoNoResponde() throws Exception {
+        LdapConexiones conexiones = conexiones("ldap://127.0.0.1:" + puertoCerrado() + " " + url());
+        LdapService service = service("service-account", conexiones);
+
+        assertThat(service.authenticate("ana", "secreta")).isTrue();
+        assertThat(conexiones.getServidoresDisponibles()).isEqualTo(1);
+    }
+
+    @Test
+    void validarDescartaLosContextosCaidos() {
+        LdapConexiones conexiones = conexiones(url());
+        LdapService service = service("service-account", conexiones);
+        assertThat(service.authenticate("ana", "secreta")).isTrue();
+        assertThat(conexiones.getLibres()).isEqualTo(1);
+
+        conexiones.validar();
+        assertThat(conexiones.getLibres()).isEqualTo(1);
+
+        servidor.shutDown(true);
+        conexiones.validar();
+        assertThat(conexiones.getLibres()).isZero();
+        assertThat(conexiones.getServidoresDisponibles()).isZero();
+    }
+
+    private String url() {
+        return "ldap://127.0.0.1:" + servidor.getListenPort();
+    }
+
+    private LdapConexiones conexiones(String urls) {
+        return new LdapConexiones(urls, "2000", "follow", SERVICIO, "clave-servicio", 2,
+                Duration.ofMinutes(5), Duration.ofSeconds(30));
+    }
+
+    private LdapService service(String modo, String urls) {
+        return service(modo, conexiones(urls));
+    }
+
+    private LdapService service(String modo, LdapConexiones conexiones) {
+        return new LdapService(conexiones, modo, "pqrs.local", BASE,
+                "(&(objectClass=user)(|(sAMAccountName={0})(userPrincipalName={1})))", 2000,
+                Duration.ofMinutes(1), Duration.ofSeconds(10));
+    }
+
+    private static int puertoCerrado() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /** Registra los binds y, como el AD, traduce el userPrincipalName a DN. */
+    private final class Directorio extends InMemoryOperationInterceptor {
+
+        @Override
+        public void processSimpleBindRequest(InMemoryInterceptedSimpleBindRequest request) throws LDAPException {
+            if (fueraDeServicio) {
+                throw new LDAPException(ResultCode.UNAVAILABLE, "Directorio fuera de servicio");
+            }
+            SimpleBindRequest bind = request.getRequest();
+            String dn = bind.getBindDN();
+            if (dn.contains("@")) {
+                SearchResultEntry usuario = servidor.searchForEntry(BASE, SearchScope.SUB,
+                        Filter.createEqualityFilter("userPrincipalName", dn));
+                dn = usuario != null ? usuario.getDN() : "CN=Desconocido," + BASE;
+                request.setRequest(new SimpleBindRequest(dn, bind.getPassword().getValue()));
+            }
+            binds.add(dn);
+
+            CountDownLatch retener = retenerBinds;
+            if (retener != null) {
+                try {
+                    retener.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
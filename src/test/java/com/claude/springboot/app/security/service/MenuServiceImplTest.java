@@ -0,0 +1,125 @@
+package com.claude.springboot.app.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.claude.springboot.app.security.controllers.MenuController;
+import com.claude.springboot.app.security.dto.MenuResponseDTO;
+import com.claude.springboot.app.security.dto.ModuloMenuDTO;
+import com.claude.springboot.app.security.evaluator.PermisosActualizadosEvent;
+import com.claude.springboot.app.security.repositories.PermisoRolRepository;
+import com.claude.springboot.app.security.repositories.UsuarioRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Verifica que los menús se arman por rol en una sola consulta, se sirven ya
+ * serializados con un ETag estable y se reconstruyen al cambiar los permisos.
+ */
+class MenuServiceImplTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PermisoRolRepository permisoRolRepository;
+    private MenuServiceImpl menuService;
+    private List<Object[]> filas;
+
+    @BeforeEach
+    void setUp() {
+        permisoRolRepository = mock(PermisoRolRepository.class);
+        filas = new ArrayList<>();
+        filas.add(fila("ADMIN", 1L, "Seguridad", 10L, "/usuarios", true, true, false, false));
+        filas.add(fila("ADMIN", 1L, "Seguridad", 11L, "/roles", true, false, false, false));
+        filas.add(fila("ADMIN", 2L, "PQRS", 20L, "/pqrs", true, false, false, false));
+        // Permiso repetido para la misma ruta: no debe duplicarla
+        filas.add(fila("ADMIN", 2L, "PQRS", 20L, "/pqrs", false, false, true, true));
+        filas.add(fila("CIUDADANO", 2L, "PQRS", 20L, "/pqrs", true, true, false, false));
+        when(permisoRolRepository.findMenusPorRol()).thenAnswer(invocacion -> filas);
+        menuService = new MenuServiceImpl(mock(UsuarioRepository.class), permisoRolRepository, objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void agrupaPorRolConservandoElOrdenYSumandoPermisosRepetidos() throws Exception {
+        MenuResponseDTO admin = leer(menuService.obtenerMenu("ROLE_ADMIN"));
+
+        assertThat(admin.getModulos()).extracting(ModuloMenuDTO::getNombre).containsExactly("Seguridad", "PQRS");
+        assertThat(admin.getModulos().get(0).getRutas()).extracting("ruta").containsExactly("/usuarios", "/roles");
+        assertThat(admin.getModulos().get(1).getRutas()).singleElement()
+                .satisfies(ruta -> {
+                    assertThat(ruta.isPuedeLeer()).isTrue();
+                    assertThat(ruta.isPuedeEscribir()).isFalse();
+                    assertThat(ruta.isPuedeActualizar()).isTrue();
+                    assertThat(ruta.isPuedeEliminar()).isTrue();
+                });
+        assertThat(leer(menuService.obtenerMenu("ROLE_CIUDADANO")).getModulos()).hasSize(1);
+        verify(permisoRolRepository, times(1)).findMenusPorRol();
+    }
+
+    @Test
+    void rolDesconocidoRecibeMenuVacio() throws Exception {
+        assertThat(leer(menuService.obtenerMenu("ROLE_OTRO")).getModulos()).isEmpty();
+        assertThat(leer(menuService.obtenerMenu(null)).getModulos()).isEmpty();
+    }
+
+    @Test
+    void elEtagSoloCambiaSiCambiaElMenu() {
+        String etagAdmin = menuService.obtenerMenu("ROLE_ADMIN").getEtag();
+        String etagCiudadano = menuService.obtenerMenu("ROLE_CIUDADANO").getEtag();
+
+        menuService.recargar();
+        assertThat(menuService.obtenerMenu("ROLE_ADMIN").getEtag()).isEqualTo(etagAdmin).startsWith("\"");
+
+        filas.add(fila("ADMIN", 2L, "PQRS", 21L, "/reportes", true, false, false, false));
+        menuService.alActualizarPermisos(new PermisosActualizadosEvent("ruta creada"));
+
+        assertThat(menuService.obtenerMenu("ROLE_ADMIN").getEtag()).isNotEqualTo(etagAdmin);
+        assertThat(menuService.obtenerMenu("ROLE_CIUDADANO").getEtag()).isEqualTo(etagCiudadano);
+    }
+
+    @Test
+    void elEndpointRespondeNoModificadoConElEtagVigente() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new MenuController(menuService)).build();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "ana", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        MenuService.MenuSerializado menu = menuService.obtenerMenu("ROLE_ADMIN");
+
+        mockMvc.perform(get("/api/menu/opciones"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", menu.getEtag()))
+                .andExpect(result -> assertThat(result.getResponse().getContentAsByteArray())
+                        .isEqualTo(menu.getJson()));
+
+        mockMvc.perform(get("/api/menu/opciones").header("If-None-Match", menu.getEtag()))
+                .andExpect(status().isNotModified());
+    }
+
+    private MenuResponseDTO leer(MenuService.MenuSerializado menu) throws Exception {
+        return objectMapper.readValue(menu.getJson(), MenuResponseDTO.class);
+    }
+
+    private Object[] fila(String rol, Long idModulo, String modulo, Long idRuta, String ruta,
+                          boolean leer, boolean escribir, boolean actualizar, boolean eliminar) {
+        return new Object[] { rol, idModulo, modulo, null, idRuta, ruta, null, leer, escribir, actualizar, eliminar };
+    }
+}
@@ -0,0 +1,149 @@
+package com.claude.springboot.app.security.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.claude.springboot.app.security.service.SesionTokenCache.Sesion;
+
+/**
+ * Verifica el vencimiento por TTL, que una carga desde BD no pisa un cambio
+ * del mismo usuario aplicado mientras se leía (aunque su entrada se haya
+ * expulsado), que los cambios de otros usuarios no la descartan, que al
+ * llenarse no se vacía toda la caché y que los cambios dentro de una
+ * transacción se aplican recién al confirmarla.
+ */
+class SesionTokenCacheTest {
+
+    private SesionTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SesionTokenCache(Duration.ofSeconds(30), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void lasEntradasVencenAlSuperarElTtl() throws Exception {
+        cache = new SesionTokenCache(Duration.ofMillis(20), 100);
+        cache.guardar("ana", sesion("t1", "ROLE_ADMIN"));
+        assertThat(cache.obtener("ana")).isNotNull();
+
+        Thread.sleep(40);
+
+        assertThat(cache.obtener("ana")).isNull();
+    }
+
+    @Test
+    void unaCargaLeidaAntesDeRevocarNoPisaLaRevocacion() {
+        // La petición lee de BD la sesión todavía vigente...
+        long version = cache.version("ana");
+        Sesion leida = sesion("t1", "ROLE_USER");
+
+        // ...mientras el logout se confirma y revoca
+        cache.revocar("ana");
+        cache.guardarSiVigente("ana", leida, version);
+
+        assertThat(cache.obtener("ana").getToken()).isNull();
+    }
+
+    @Test
+    void unaCargaSinCambiosDePorMedioQuedaEnCache() {
+        long version = cache.version("ana");
+        cache.guardarSiVigente("ana", sesion("t1", "ROLE_USER"), version);
+
+        assertThat(cache.obtener("ana").getToken()).isEqualTo("t1");
+    }
+
+    @Test
+    void losCambiosDeOtroUsuarioNoDescartanLaCarga() {
+        cache.guardar("ana", sesion("t0", "ROLE_USER"));
+        cache.olvidar("ana");
+        long version = cache.version("ana");
+
+        cache.revocar("luis");
+        cache.olvidar("pedro");
+        cache.guardarSiVigente("ana", sesion("t1", "ROLE_USER"), version);
+
+        assertThat(cache.obtener("ana").getToken()).isEqualTo("t1");
+    }
+
+    @Test
+    void alLlenarseExpulsaEntradasSinVaciarLaCacheNiAceptarCargasViejas() {
+        cache = new SesionTokenCache(Duration.ofSeconds(30), 50);
+        Map<String, Long> leidas = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            String username = "usuario" + i;
+            leidas.put(username, cache.version(username));
+            cache.revocar(username);
+        }
+
+        // Las cargas leídas antes de revocar se descartan, también las de
+        // usuarios cuya revocación ya se expulsó de la caché
+        leidas.forEach((username, version) ->
+                cache.guardarSiVigente(username, sesion("t1", "ROLE_USER"), version));
+
+        int enCache = 0;
+        for (String username : leidas.keySet()) {
+            Sesion sesion = cache.obtener(username);
+            if (sesion != null) {
+                assertThat(sesion.getToken()).isNull();
+                enCache++;
+            }
+        }
+        assertThat(enCache).isEqualTo(50);
+    }
+
+    @Test
+    void elCambioDeRolSeAplicaAlConfirmarLaTransaccion() {
+        cache.guardar("ana", sesion("t1", "ROLE_USER"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.olvidar("ana");
+        // Antes del commit otro hilo todavía puede leer el rol anterior de BD
+        long versionAntesDelCommit = cache.version("ana");
+        assertThat(cache.obtener("ana").getAuthority()).isEqualTo("ROLE_USER");
+
+        for (TransactionSynchronization sincronizacion : TransactionSynchronizationManager.getSynchronizations()) {
+            sincronizacion.afterCommit();
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        assertThat(cache.obtener("ana")).isNull();
+
+        // La lectura hecha antes del commit se descarta; la siguiente trae el rol nuevo
+        cache.guardarSiVigente("ana", sesion("t1", "ROLE_USER"), versionAntesDelCommit);
+        assertThat(cache.obtener("ana")).isNull();
+        cache.guardarSiVigente("ana", sesion("t1", "ROLE_ADMIN"), cache.version("ana"));
+        assertThat(cache.obtener("ana").getAuthority()).isEqualTo("ROLE_ADMIN");
+    }
+
+    @Test
+    void unaTransaccionRevertidaNoCambiaLaCache() {
+        cache.guardar("ana", sesion("t1", "ROLE_USER"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.revocar("ana");
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(cache.obtener("ana").getToken()).isEqualTo("t1");
+    }
+
+    private static Sesion sesion(String token, String authority) {
+        return new Sesion(token, authority, true, LocalDateTime.now().plusHours(1));
+    }
+}
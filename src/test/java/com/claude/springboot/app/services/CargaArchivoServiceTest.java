@@ -0,0 +1,196 @@
+package com.claude.springboot.app.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.claude.springboot.app.dto.CargaArchivoDTO;
+import com.claude.springboot.app.dto.IniciarCargaDTO;
+import com.claude.springboot.app.entities.CargaArchivo;
+import com.claude.springboot.app.repositories.CargaArchivoRepository;
+
+/**
+ * Verifica el protocolo de carga por bloques sobre el archivo de staging y
+ * que cada carga solo la usa el usuario autenticado que la inició.
+ */
+class CargaArchivoServiceTest {
+
+    @TempDir
+    Path uploads;
+
+    private final Map<String, CargaArchivo> tabla = new HashMap<>();
+    private CargaArchivoService service;
+
+    @BeforeEach
+    void setUp() {
+        CargaArchivoRepository repository = mock(CargaArchivoRepository.class);
+        when(repository.save(any(CargaArchivo.class))).thenAnswer(inv -> {
+            CargaArchivo carga = inv.getArgument(0);
+            tabla.put(carga.getIdCarga(), carga);
+            return carga;
+        });
+        when(repository.findById(anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(tabla.get(inv.<String>getArgument(0))));
+
+        service = new CargaArchivoService(repository, uploads.toString());
+        ReflectionTestUtils.setField(service, "tamanoBloque", DataSize.ofBytes(4));
+        ReflectionTestUtils.setField(service, "tamanoMaximo", DataSize.ofKilobytes(1));
+        autenticar("ana");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void soloElUsuarioQueLaInicioUsaLaCarga() throws Exception {
+        String id = iniciar("acta.txt", 4).getIdCarga();
+        enviar(id, 0, "0123");
+
+        autenticar("otro");
+        assertThatThrownBy(() -> service.obtenerArchivoCompleto(id)).hasMessageContaining("no encontrada");
+
+        SecurityContextHolder.clearContext();
+        assertThatThrownBy(() -> service.consultar(id)).hasMessageContaining("no encontrada");
+        assertThatThrownBy(() -> iniciar("acta.txt", 4)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void armaElArchivoConLosBloquesEnOrden() throws Exception {
+        String id = iniciar("acta.txt", 10).getIdCarga();
+
+        enviar(id, 0, "0123");
+        enviar(id, 1, "4567");
+        CargaArchivoDTO avance = enviar(id, 2, "89");
+
+        assertThat(avance.getOffset()).isEqualTo(10);
+        assertThat(service.completar(id).isCompleta()).isTrue();
+
+        MultipartFile archivo = service.obtenerArchivoCompleto(id);
+        assertThat(archivo.getOriginalFilename()).isEqualTo("acta.txt");
+        assertThat(archivo.getSize()).isEqualTo(10);
+        assertThat(new String(archivo.getBytes(), StandardCharsets.UTF_8)).isEqualTo("0123456789");
+    }
+
+    @Test
+    void reenviarUnBloqueRecibidoNoLoDuplica() throws Exception {
+        String id = iniciar("acta.txt", 8).getIdCarga();
+
+        enviar(id, 0, "0123");
+        CargaArchivoDTO avance = enviar(id, 0, "0123");
+
+        assertThat(avance.getOffset()).isEqualTo(4);
+        assertThat(service.consultar(id).getOffset()).isEqualTo(4);
+    }
+
+    @Test
+    void rechazaUnBloqueQueDejaHueco() throws Exception {
+        String id = iniciar("acta.txt", 12).getIdCarga();
+        enviar(id, 0, "0123");
+
+        assertThatThrownBy(() -> enviar(id, 2, "89ab"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(service.consultar(id).getOffset()).isEqualTo(4);
+    }
+
+    @Test
+    void unBloqueIncompletoSeDescartaParaReintentarlo() throws Exception {
+        String id = iniciar("acta.txt", 8).getIdCarga();
+        enviar(id, 0, "0123");
+
+        // Se anuncian 4 bytes pero la conexión se corta tras 2
+        assertThatThrownBy(() -> service.recibirBloque(id, 1, 4, flujo("45")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(service.consultar(id).getOffset()).isEqualTo(4);
+
+        enviar(id, 1, "4567");
+        assertThat(service.consultar(id).getOffset()).isEqualTo(8);
+    }
+
+    @Test
+    void noSePuedeCompletarNiUsarUnaCargaIncompleta() throws Exception {
+        String id = iniciar("acta.txt", 8).getIdCarga();
+        enviar(id, 0, "0123");
+
+        assertThatThrownBy(() -> service.completar(id)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> service.obtenerArchivoCompleto(id)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rechazaArchivosMayoresAlMaximo() {
+        assertThatThrownBy(() -> iniciar("grande.bin", 2048))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(tabla).isEmpty();
+    }
+
+    @Test
+    void siLaCargaSeEliminaMientrasLlegaElBloqueSeDescarta() throws Exception {
+        String id = iniciar("acta.txt", 8).getIdCarga();
+        // La carga vence mientras se copia el cuerpo
+        ByteArrayInputStream cuerpo = new ByteArrayInputStream("0123".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                tabla.remove(id);
+                return super.read(b, off, len);
+            }
+        };
+
+        assertThatThrownBy(() -> service.recibirBloque(id, 0, 4, cuerpo))
+                .hasMessageContaining("no encontrada");
+        assertThat(Files.exists(uploads.resolve("cargas").resolve(id))).isFalse();
+    }
+
+    @Test
+    void finalizarBorraElArchivoDeStaging() throws Exception {
+        String id = iniciar("acta.txt", 4).getIdCarga();
+        enviar(id, 0, "0123");
+
+        service.finalizar(id);
+
+        assertThat(Files.exists(uploads.resolve("cargas").resolve(id))).isFalse();
+    }
+
+    private static void autenticar(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private CargaArchivoDTO iniciar(String nombre, long tamano) throws Exception {
+        IniciarCargaDTO dto = new IniciarCargaDTO();
+        dto.setNombreArchivo(nombre);
+        dto.setTipoMime("text/plain");
+        dto.setTamanoTotal(tamano);
+        return service.iniciar(dto);
+    }
+
+    private CargaArchivoDTO enviar(String id, int numero, String contenido) throws Exception {
+        return service.recibirBloque(id, numero, contenido.length(), flujo(contenido));
+    }
+
+    private ByteArrayInputStream flujo(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+}
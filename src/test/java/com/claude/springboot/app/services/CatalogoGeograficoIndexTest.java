@@ -0,0 +1,157 @@
+package com.claude.springboot.app.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.claude.springboot.app.dto.DepartamentoDTO;
+import com.claude.springboot.app.dto.MunicipioDTO;
+import com.claude.springboot.app.entities.Departamento;
+import com.claude.springboot.app.entities.Municipio;
+import com.claude.springboot.app.repositories.DepartamentoRepository;
+import com.claude.springboot.app.repositories.MunicipioRepository;
+
+/**
+ * Verifica que el índice responde las consultas del catálogo con la misma
+ * semántica de las consultas que reemplaza y sin volver a la base de datos.
+ */
+class CatalogoGeograficoIndexTest {
+
+    private MunicipioRepository municipioRepository;
+    private DepartamentoRepository departamentoRepository;
+    private CatalogoGeograficoIndex indice;
+
+    private final List<Departamento> departamentos = new ArrayList<>();
+    private final List<Municipio> municipios = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        municipioRepository = mock(MunicipioRepository.class);
+        departamentoRepository = mock(DepartamentoRepository.class);
+        when(municipioRepository.findAll()).thenReturn(municipios);
+        when(departamentoRepository.findAll()).thenReturn(departamentos);
+        indice = new CatalogoGeograficoIndex(municipioRepository, departamentoRepository);
+
+        departamento("05", "Antioquia", "Medellín", "Andina", true);
+        departamento("11", "Bogotá, D.C.", "Bogotá", "Andina", true);
+        departamento("91", "Amazonas", "Leticia", "Amazonía", false);
+
+        municipio("05001", "Medellín", "05", "Especial", 2_600_000, true);
+        municipio("05088", "Bello", "05", "1", 550_000, true);
+        municipio("05360", "Itagüí", "05", "1", 290_000, true);
+        municipio("05045", "Apartadó", "05", "2", null, true);
+        municipio("05999", "Municipio retirado", "05", "6", 1_000, false);
+        municipio("11001", "Bogotá, D.C.", "11", "Especial", 7_900_000, true);
+        municipio("91001", "Leticia", "91", "6", 48_000, true);
+    }
+
+    @Test
+    void buscaPorNombreSinDistinguirTildesNiMayusculas() {
+        assertThat(nombres(indice.buscarMunicipiosPorNombre("medellin"))).containsExactly("Medellín");
+        assertThat(nombres(indice.buscarMunicipiosPorNombre("ITAGUI"))).containsExactly("Itagüí");
+        assertThat(nombres(indice.buscarMunicipiosPorNombre("ll"))).containsExactly("Bello", "Medellín");
+        assertThat(nombres(indice.buscarMunicipiosPorNombre("retirado"))).isEmpty();
+        assertThat(nombres(indice.buscarMunicipiosPorNombre("xyz"))).isEmpty();
+        // Trigramas presentes pero en otro orden no deben coincidir
+        assertThat(nombres(indice.buscarMunicipiosPorNombre("ellmed"))).isEmpty();
+    }
+
+    @Test
+    void filtraPorDepartamentoActivoEnBusquedasCombinadas() {
+        assertThat(nombres(indice.buscarMunicipiosPorNombreYDepartamento("e", "antioquia")))
+                .containsExactly("Bello", "Medellín");
+        assertThat(nombres(indice.buscarMunicipiosPorNombreYDepartamento("leticia", "")))
+                .isEmpty();
+        assertThat(nombres(indice.municipiosConDepartamento()))
+                .containsExactly("Apartadó", "Bello", "Itagüí", "Medellín", "Bogotá, D.C.");
+        assertThat(nombres(indice.municipiosPorRegion("Andina"))).hasSize(5);
+        assertThat(nombres(indice.municipiosPorRegion("Amazonía"))).isEmpty();
+    }
+
+    @Test
+    void ordenaPorPoblacionYCortaPorMinimo() {
+        assertThat(nombres(indice.municipiosMasPoblados(2))).containsExactly("Bogotá, D.C.", "Medellín");
+        assertThat(nombres(indice.municipiosPorPoblacionMinima(550_000)))
+                .containsExactly("Bogotá, D.C.", "Medellín", "Bello");
+        assertThat(indice.municipiosMasPoblados(100)).hasSize(5);
+    }
+
+    @Test
+    void respondeConsultasPorCodigoYDepartamento() {
+        assertThat(indice.municipioPorCodigo("05001")).get()
+                .extracting(MunicipioDTO::getNombreDepartamento).isEqualTo("Antioquia");
+        assertThat(indice.municipioPorCodigo("05999")).isEmpty();
+        assertThat(indice.validarCodigoDaneMunicipio("05088", "05")).isTrue();
+        assertThat(indice.validarCodigoDaneMunicipio("05088", "11")).isFalse();
+        assertThat(nombres(indice.municipiosPorDepartamento("05")))
+                .containsExactly("Apartadó", "Bello", "Itagüí", "Medellín");
+        assertThat(indice.categorias()).containsExactly("1", "2", "6", "Especial");
+    }
+
+    @Test
+    void armaDepartamentosConSusMunicipiosActivos() {
+        List<DepartamentoDTO> activos = indice.departamentos();
+        assertThat(activos).extracting(DepartamentoDTO::getNombre).containsExactly("Antioquia", "Bogotá, D.C.");
+        DepartamentoDTO antioquia = activos.get(0);
+        assertThat(antioquia.getTotalMunicipios()).isEqualTo(4);
+        assertThat(antioquia.getPoblacionTotalEstimada()).isEqualTo(3_440_000L);
+        assertThat(indice.departamentoPorCodigo("91")).isEmpty();
+        assertThat(indice.regiones()).containsExactly("Andina");
+        assertThat(indice.buscarDepartamentosPorNombre("bogota")).hasSize(1);
+    }
+
+    @Test
+    void construyeUnaSolaVezYSeReconstruyeAPedido() {
+        for (int i = 0; i < 10; i++) {
+            indice.municipios();
+            indice.departamentos();
+        }
+        verify(municipioRepository, times(1)).findAll();
+        verify(departamentoRepository, times(1)).findAll();
+
+        municipio("05002", "Abejorral", "05", "6", 19_000, true);
+        indice.reconstruirAlConfirmar();
+
+        assertThat(nombres(indice.municipiosPorDepartamento("05"))).first().isEqualTo("Abejorral");
+        verify(municipioRepository, times(2)).findAll();
+        verifyNoMoreInteractions(municipioRepository);
+    }
+
+    private static List<String> nombres(List<MunicipioDTO> municipios) {
+        return municipios.stream().map(MunicipioDTO::getNombre).toList();
+    }
+
+    private void departamento(String codigo, String nombre, String capital, String region, boolean activo) {
+        Departamento departamento = new Departamento();
+        departamento.setCodigoDane(codigo);
+        departamento.setNombre(nombre);
+        departamento.setCapital(capital);
+        departamento.setRegion(region);
+        departamento.setActivo(activo);
+        departamento.setFechaCreacion(LocalDateTime.of(2024, 1, 1, 0, 0));
+        departamentos.add(departamento);
+    }
+
+    private void municipio(String codigo, String nombre, String departamento, String categoria,
+            Integer poblacion, boolean activo) {
+        Municipio municipio = new Municipio();
+        municipio.setCodigoDane(codigo);
+        municipio.setNombre(nombre);
+        municipio.setCodigoDepartamento(departamento);
+        municipio.setCategoria(categoria);
+        municipio.setPoblacionEstimada(poblacion);
+        municipio.setActivo(activo);
+        municipio.setFechaCreacion(LocalDateTime.of(2024, 1, 1, 0, 0));
+        municipios.add(municipio);
+    }
+}
@@ -0,0 +1,180 @@
+package com.claude.springboot.app.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import com.claude.springboot.app.entities.Pqrs;
+import com.claude.springboot.app.entities.TemasPqrs;
+import com.claude.springboot.app.repositories.EstadisticaPqrsDiaRepository;
+import com.claude.springboot.app.repositories.PqrsRepository;
+
+/**
+ * Verifica los conteos incrementales (desde la clave guardada en la PQRS, que
+ * el repositorio simulado conserva como lo haría la BD) y el armado del
+ * tablero desde las filas pre-agregadas.
+ */
+class EstadisticasPqrsServiceTest {
+
+    private EstadisticaPqrsDiaRepository estadisticaRepository;
+    private PqrsRepository pqrsRepository;
+    private EstadisticasPqrsService service;
+    private Object[] claveGuardada;
+
+    @BeforeEach
+    void setUp() {
+        estadisticaRepository = mock(EstadisticaPqrsDiaRepository.class);
+        pqrsRepository = mock(PqrsRepository.class);
+        service = new EstadisticasPqrsService(estadisticaRepository, pqrsRepository);
+        claveGuardada = new Object[4];
+        when(pqrsRepository.bloquearClaveEstadistica(1L)).thenAnswer(invocacion -> List.<Object[]>of(claveGuardada.clone()));
+        when(pqrsRepository.guardarClaveEstadistica(eq(1L), any(), anyString(), anyString(), anyLong()))
+                .thenAnswer(invocacion -> {
+                    claveGuardada = new Object[] { Date.valueOf((LocalDate) invocacion.getArgument(1)),
+                            vacioANulo(invocacion.getArgument(2)), vacioANulo(invocacion.getArgument(3)),
+                            (long) invocacion.getArgument(4) == 0 ? null : invocacion.getArgument(4) };
+                    return 1;
+                });
+    }
+
+    @Test
+    void unaPqrsNuevaSumaUnoEnLaFilaDeHoy() {
+        Pqrs pqrs = pqrs("PENDIENTE", "ALTA", LocalDateTime.now());
+
+        service.registrar(pqrs);
+
+        verify(estadisticaRepository).sumar(LocalDate.now(), "PENDIENTE", "ALTA", 7L, 1L);
+        verify(estadisticaRepository, never()).sumar(any(), anyString(), anyString(), anyLong(), eq(-1L));
+        verify(pqrsRepository).guardarClaveEstadistica(1L, LocalDate.now(), "PENDIENTE", "ALTA", 7L);
+    }
+
+    @Test
+    void cambiarElEstadoMueveElConteoDeFila() {
+        LocalDateTime ayer = LocalDateTime.now().minusDays(1);
+        Pqrs pqrs = pqrs("PENDIENTE", "MEDIA", ayer);
+        claveGuardada = new Object[] { Date.valueOf(ayer.toLocalDate()), "PENDIENTE", "MEDIA", 7L };
+
+        pqrs.setEstadoPqrs("RESUELTO");
+        pqrs.setFechaUltimaActualizacion(LocalDateTime.now());
+        service.registrar(pqrs);
+
+        verify(estadisticaRepository).sumar(ayer.toLocalDate(), "PENDIENTE", "MEDIA", 7L, -1L);
+        verify(estadisticaRepository).sumar(LocalDate.now(), "RESUELTO", "MEDIA", 7L, 1L);
+    }
+
+    @Test
+    void variosEventosEnLaMismaTransaccionCuentanUnaVez() {
+        Pqrs pqrs = pqrs("PENDIENTE", "BAJA", LocalDateTime.now());
+
+        service.registrar(pqrs);
+        service.registrar(pqrs);
+
+        verify(estadisticaRepository).sumar(LocalDate.now(), "PENDIENTE", "BAJA", 7L, 1L);
+    }
+
+    @Test
+    void descuentaDeLaFilaQueDejoOtraTransaccion() {
+        LocalDateTime ayer = LocalDateTime.now().minusDays(1);
+        // Se cargó PENDIENTE, pero otra transacción la pasó a EN_PROCESO antes de este cambio
+        Pqrs pqrs = pqrs("PENDIENTE", "MEDIA", ayer);
+        claveGuardada = new Object[] { Date.valueOf(LocalDate.now()), "EN_PROCESO", "MEDIA", 7L };
+        when(pqrsRepository.findById(1L)).thenReturn(Optional.of(pqrs));
+
+        pqrs.setPrioridad("ALTA");
+        pqrs.setFechaUltimaActualizacion(LocalDateTime.now());
+        service.alModificarPqrs(new PqrsModificadaEvent(1L));
+
+        InOrder orden = inOrder(pqrsRepository, estadisticaRepository);
+        orden.verify(pqrsRepository).flush();
+        orden.verify(pqrsRepository).bloquearClaveEstadistica(1L);
+        orden.verify(estadisticaRepository).sumar(LocalDate.now(), "EN_PROCESO", "MEDIA", 7L, -1L);
+        verify(estadisticaRepository, never()).sumar(ayer.toLocalDate(), "PENDIENTE", "MEDIA", 7L, -1L);
+        verify(estadisticaRepository).sumar(LocalDate.now(), "PENDIENTE", "ALTA", 7L, 1L);
+    }
+
+    @Test
+    void usaLaFechaDeUltimaActualizacionDeLaPqrs() {
+        // Un guardado sin cambios no pasa por @PreUpdate: la fecha sigue siendo la de ayer
+        LocalDateTime ayer = LocalDateTime.now().minusDays(1);
+        Pqrs pqrs = pqrs("PENDIENTE", "ALTA", ayer);
+        claveGuardada = new Object[] { Date.valueOf(ayer.toLocalDate()), "PENDIENTE", "ALTA", 7L };
+
+        service.registrar(pqrs);
+
+        verify(estadisticaRepository, never()).sumar(any(), anyString(), anyString(), anyLong(), anyLong());
+        verify(pqrsRepository, never()).guardarClaveEstadistica(anyLong(), any(), anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    void losCamposVaciosUsanCentinelas() {
+        Pqrs pqrs = pqrs(null, null, LocalDateTime.now());
+        pqrs.setTema(null);
+
+        service.registrar(pqrs);
+
+        verify(estadisticaRepository).sumar(LocalDate.now(), "", "", 0L, 1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void armaLosPeriodosDelTableroYOmiteLosCeros() {
+        LocalDate hoy = LocalDate.now();
+        LocalDate inicioSemana = hoy.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate semanaAnterior = inicioSemana.minusDays(3);
+
+        when(estadisticaRepository.sumarPorEstadoYPrioridad()).thenReturn(List.of(
+                new Object[] { "PENDIENTE", "ALTA", 3L },
+                new Object[] { "RESUELTO", "ALTA", 2L },
+                new Object[] { "CERRADO", "BAJA", 0L }));
+        when(estadisticaRepository.sumarPorDiaDesde(any())).thenReturn(List.of(
+                new Object[] { hoy, "PENDIENTE", "ALTA", 2L },
+                new Object[] { semanaAnterior, "RESUELTO", "ALTA", 2L }));
+
+        Map<String, Object> stats = service.obtenerDashboard();
+
+        assertThat((Map<String, Long>) stats.get("porEstado"))
+                .containsOnly(Map.entry("PENDIENTE", 3L), Map.entry("RESUELTO", 2L));
+        assertThat((Map<String, Long>) stats.get("porPrioridad")).containsOnly(Map.entry("ALTA", 5L));
+        assertThat((Map<String, Long>) stats.get("estadosDia")).containsOnly(Map.entry("PENDIENTE", 2L));
+        assertThat((Map<String, Long>) stats.get("estadosHoy")).containsOnly(Map.entry("PENDIENTE", 2L));
+        assertThat((Map<String, Long>) stats.get("estadosSemana")).containsOnly(Map.entry("RESUELTO", 2L));
+        assertThat((Map<String, Long>) stats.get("prioridadesHoy")).containsOnly(Map.entry("ALTA", 2L));
+        assertThat(stats).containsKeys("estadosMes", "prioridadesSemana", "prioridadesMes");
+    }
+
+    private static Object vacioANulo(String valor) {
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private Pqrs pqrs(String estado, String prioridad, LocalDateTime ultimaActualizacion) {
+        TemasPqrs tema = new TemasPqrs();
+        tema.setIdTema(7L);
+        Pqrs pqrs = new Pqrs();
+        pqrs.setIdPqrs(1L);
+        pqrs.setEstadoPqrs(estado);
+        pqrs.setPrioridad(prioridad);
+        pqrs.setTema(tema);
+        pqrs.setFechaUltimaActualizacion(ultimaActualizacion);
+        return pqrs;
+    }
+}
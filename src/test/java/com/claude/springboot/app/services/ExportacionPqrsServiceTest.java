@@ -0,0 +1,159 @@
+package com.claude.springboot.app.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.claude.springboot.app.repositories.PqrsRepository;
+
+/**
+ * Verifica el formato de la exportación CSV/Excel y el límite de
+ * exportaciones simultáneas.
+ */
+class ExportacionPqrsServiceTest {
+
+    private static final LocalDateTime CREACION = LocalDateTime.of(2024, 5, 2, 14, 30, 0);
+
+    private PqrsRepository repository;
+    private ExportacionPqrsService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PqrsRepository.class);
+        service = new ExportacionPqrsService(repository, 1);
+    }
+
+    @Test
+    void escribeCsvConEncabezadoYComillas() throws Exception {
+        when(repository.streamExportacion(any(), any(), any(), any())).thenReturn(Stream.of(
+                fila("2024-000001", "Queja; \"urgente\"", "Ana"),
+                fila("2024-000002", "=HYPERLINK(\"x\")", null)));
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        long filas = exportar(ExportacionPqrsService.Formato.CSV, null, null, null, null, salida);
+
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(filas).isEqualTo(2);
+        assertThat(lineas).hasSize(3);
+        assertThat(lineas[0]).startsWith("\uFEFFRadicado;Fecha creación;");
+        assertThat(lineas[1]).startsWith("2024-000001;2024-05-02 14:30:00;;PENDIENTE;ALTA;Empleo;Inspección;"
+                + "\"Queja; \"\"urgente\"\"\";Ana;");
+        assertThat(lineas[2]).contains(";\"'=HYPERLINK(\"\"x\"\")\";;");
+    }
+
+    @Test
+    void pasaLosFiltrosALaConsulta() throws Exception {
+        when(repository.streamExportacion(any(), any(), any(), any())).thenReturn(Stream.empty());
+
+        exportar(ExportacionPqrsService.Formato.CSV, CREACION, null, "PENDIENTE", 3L,
+                OutputStream.nullOutputStream());
+
+        verify(repository).streamExportacion(eq(CREACION), isNull(), eq("PENDIENTE"), eq(3L));
+    }
+
+    @Test
+    void escribeXlsxYAbreOtraHojaAlLlegarAlLimite() throws Exception {
+        ReflectionTestUtils.setField(service, "filasPorHoja", 3);
+        when(repository.streamExportacion(any(), any(), any(), any())).thenReturn(
+                IntStream.rangeClosed(1, 5).mapToObj(i -> fila("2024-00000" + i, "Petición " + i, "Ana")));
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        exportar(ExportacionPqrsService.Formato.XLSX, null, null, null, null, salida);
+
+        try (XSSFWorkbook libro = new XSSFWorkbook(new ByteArrayInputStream(salida.toByteArray()))) {
+            assertThat(libro.getNumberOfSheets()).isEqualTo(2);
+            Sheet primera = libro.getSheetAt(0);
+            assertThat(primera.getRow(0).getCell(0).getStringCellValue()).isEqualTo("Radicado");
+            assertThat(primera.getLastRowNum()).isEqualTo(3);
+            assertThat(primera.getRow(1).getCell(1).getLocalDateTimeCellValue()).isEqualTo(CREACION);
+            assertThat(primera.getRow(1).getCell(7).getStringCellValue()).isEqualTo("Petición 1");
+            assertThat(libro.getSheetAt(1).getLastRowNum()).isEqualTo(2);
+            assertThat(libro.getSheetAt(1).getRow(2).getCell(0).getStringCellValue()).isEqualTo("2024-000005");
+        }
+    }
+
+    @Test
+    void rechazaFormatosDesconocidos() {
+        assertThatThrownBy(() -> ExportacionPqrsService.Formato.desde("pdf"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(ExportacionPqrsService.Formato.desde("XLSX")).isEqualTo(ExportacionPqrsService.Formato.XLSX);
+    }
+
+    @Test
+    void limitaLasExportacionesSimultaneas() throws Exception {
+        CountDownLatch leyendo = new CountDownLatch(1);
+        CountDownLatch continuar = new CountDownLatch(1);
+        when(repository.streamExportacion(any(), any(), any(), any())).thenReturn(
+                Stream.<Object[]>of(fila("2024-000001", "Uno", "Ana")).peek(f -> {
+                    leyendo.countDown();
+                    try {
+                        continuar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+
+        ExecutorService hilo = Executors.newSingleThreadExecutor();
+        try {
+            Future<Long> primera = hilo.submit(() -> exportar(ExportacionPqrsService.Formato.CSV,
+                    null, null, null, null, OutputStream.nullOutputStream()));
+            leyendo.await();
+
+            assertThatThrownBy(service::tomarTurno).isInstanceOf(IllegalStateException.class);
+
+            continuar.countDown();
+            assertThat(primera.get()).isEqualTo(1L);
+            // Al terminar la primera se devuelve su turno
+            service.tomarTurno().close();
+        } finally {
+            hilo.shutdownNow();
+        }
+    }
+
+    @Test
+    void elTurnoSeDevuelveUnaSolaVez() {
+        ExportacionPqrsService.Turno turno = service.tomarTurno();
+        turno.close();
+        turno.close();
+
+        ExportacionPqrsService.Turno otro = service.tomarTurno();
+        assertThatThrownBy(service::tomarTurno).isInstanceOf(IllegalStateException.class);
+        otro.close();
+    }
+
+    private long exportar(ExportacionPqrsService.Formato formato, LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                          String estado, Long idTema, OutputStream salida) throws IOException {
+        try (ExportacionPqrsService.Turno turno = service.tomarTurno()) {
+            return service.exportar(turno, formato, fechaInicio, fechaFin, estado, idTema, salida);
+        }
+    }
+
+    private Object[] fila(String radicado, String titulo, String solicitante) {
+        return new Object[] { radicado, CREACION, null, "PENDIENTE", "ALTA", "Empleo", "Inspección",
+                titulo, solicitante, "CC", "123", "ana@correo.com", null, null, "ana" };
+    }
+}
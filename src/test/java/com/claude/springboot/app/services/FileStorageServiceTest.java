@@ -0,0 +1,128 @@
+package com.claude.springboot.app.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import com.claude.springboot.app.entities.ArchivoAdjunto;
+import com.claude.springboot.app.repositories.ArchivoAdjuntoRepository;
+import com.claude.springboot.app.repositories.ArchivoBlobRepository;
+
+/**
+ * Verifica el almacén de adjuntos deduplicado por contenido.
+ */
+class FileStorageServiceTest {
+
+    @TempDir
+    Path uploads;
+
+    private ArchivoAdjuntoRepository adjuntoRepository;
+    private ArchivoBlobRepository blobRepository;
+    private FileStorageService storage;
+
+    private final Map<String, ArchivoAdjunto> tabla = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        adjuntoRepository = mock(ArchivoAdjuntoRepository.class);
+        blobRepository = mock(ArchivoBlobRepository.class);
+        when(adjuntoRepository.save(any(ArchivoAdjunto.class))).thenAnswer(inv -> {
+            ArchivoAdjunto adjunto = inv.getArgument(0);
+            tabla.put(adjunto.getRuta(), adjunto);
+            return adjunto;
+        });
+        when(adjuntoRepository.findById(anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(tabla.get(inv.<String>getArgument(0))));
+        storage = new FileStorageService(uploads.toString(), true, adjuntoRepository, blobRepository,
+                evento -> { });
+    }
+
+    @Test
+    void elMismoContenidoSeGuardaUnaSolaVez() throws Exception {
+        String primera = storage.storeFile(pdf("acta.pdf", "contenido repetido"));
+        String segunda = storage.storeFile(pdf("acta-copia.pdf", "contenido repetido"));
+
+        assertThat(primera).isNotEqualTo(segunda);
+        assertThat(archivosEn(uploads)).hasSize(1);
+        assertThat(storage.resolverArchivo(primera)).isEqualTo(storage.resolverArchivo(segunda));
+        assertThat(Files.readString(storage.resolverArchivo(segunda))).isEqualTo("contenido repetido");
+
+        String hash = tabla.get(FileStorageService.claveDeRuta(primera)).getHash();
+        assertThat(hash).hasSize(64);
+        assertThat(storage.resolverArchivo(primera)).isEqualTo(storage.rutaBlob(hash));
+        verify(blobRepository, times(2)).registrarReferencia(eq(hash), eq(18L));
+    }
+
+    @Test
+    void contenidosDistintosGeneranBlobsDistintos() throws Exception {
+        storage.storeFile(pdf("a.pdf", "uno"));
+        storage.storeFile(pdf("b.pdf", "dos"));
+
+        assertThat(archivosEn(uploads)).hasSize(2);
+        verify(blobRepository, times(2)).registrarReferencia(anyString(), anyLong());
+    }
+
+    @Test
+    void sinDeduplicarConservaLaRutaPorFecha() throws Exception {
+        storage = new FileStorageService(uploads.toString(), false, adjuntoRepository, blobRepository,
+                evento -> { });
+
+        String ruta = storage.storeFile(pdf("acta.pdf", "contenido"));
+
+        assertThat(storage.resolverArchivo(ruta)).isEqualTo(uploads.resolve(ruta));
+        assertThat(Files.readString(uploads.resolve(ruta))).isEqualTo("contenido");
+        assertThat(tabla.get(FileStorageService.claveDeRuta(ruta)).getHash()).isNull();
+    }
+
+    @Test
+    void eliminarBlobSinReferenciasBorraElArchivo() throws Exception {
+        String ruta = storage.storeFile(pdf("acta.pdf", "contenido"));
+        String hash = tabla.get(FileStorageService.claveDeRuta(ruta)).getHash();
+        when(blobRepository.eliminarSiSinReferencias(hash)).thenReturn(1);
+
+        assertThat(storage.eliminarBlobSinReferencias(hash)).isTrue();
+        assertThat(archivosEn(uploads)).isEmpty();
+    }
+
+    @Test
+    void noBorraElArchivoSiElBlobVolvioASerReferenciado() throws Exception {
+        String ruta = storage.storeFile(pdf("acta.pdf", "contenido"));
+        String hash = tabla.get(FileStorageService.claveDeRuta(ruta)).getHash();
+        when(blobRepository.eliminarSiSinReferencias(hash)).thenReturn(0);
+
+        assertThat(storage.eliminarBlobSinReferencias(hash)).isFalse();
+        assertThat(archivosEn(uploads)).hasSize(1);
+    }
+
+    private MockMultipartFile pdf(String nombre, String contenido) {
+        return new MockMultipartFile("archivo", nombre, "application/pdf",
+                contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Path> archivosEn(Path directorio) throws Exception {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            return archivos.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.claude.springboot.app.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.claude.springboot.app.entities.Pqrs;
+import com.claude.springboot.app.entities.TemasPqrs;
+
+/**
+ * Verifica el índice de búsqueda de PQRS sobre un directorio temporal.
+ */
+class IndicePqrsTest {
+
+    @TempDir
+    Path directorio;
+
+    private IndicePqrs indice;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        indice = new IndicePqrs(directorio.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        indice.cerrar();
+    }
+
+    @Test
+    void ignoraTildesYPlurales() throws Exception {
+        indexar(1L, "Petición de información", "Solicito los certificados laborales", "PENDIENTE", "ALTA", "Empleo");
+
+        assertThat(buscar("peticion").getIds()).containsExactly(1L);
+        assertThat(buscar("INFORMACION").getIds()).containsExactly(1L);
+        assertThat(buscar("certificado laboral").getIds()).containsExactly(1L);
+    }
+
+    @Test
+    void buscaEnComentariosYAdjuntos() throws Exception {
+        Pqrs pqrs = pqrs(1L, "Queja", "Sin respuesta", "PENDIENTE", "MEDIA", "Empleo");
+        indice.indexar(pqrs, List.of("Se remitió a la dirección territorial"), List.of("Acta de conciliación firmada"));
+
+        assertThat(buscar("territorial").getIds()).containsExactly(1L);
+        assertThat(buscar("conciliacion").getIds()).containsExactly(1L);
+    }
+
+    @Test
+    void elTituloPesaMasQueLaDescripcion() throws Exception {
+        indexar(1L, "Reclamo general", "El empleador no pagó la pensión", "PENDIENTE", "MEDIA", "Empleo");
+        indexar(2L, "Pensión no pagada", "El empleador incumple", "PENDIENTE", "MEDIA", "Empleo");
+
+        assertThat(buscar("pension").getIds()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void reindexarReemplazaElDocumento() throws Exception {
+        indexar(1L, "Petición", "Texto", "PENDIENTE", "MEDIA", "Empleo");
+        indexar(1L, "Petición", "Texto", "RESUELTO", "MEDIA", "Empleo");
+
+        IndicePqrs.ResultadoBusqueda resultado = buscar("peticion");
+        assertThat(resultado.getTotal()).isEqualTo(1);
+        assertThat(resultado.getFacetas().get(IndicePqrs.FACETA_ESTADO)).containsExactly(Map.entry("RESUELTO", 1L));
+    }
+
+    @Test
+    void cuentaYFiltraPorFacetas() throws Exception {
+        indexar(1L, "Petición salario", "", "PENDIENTE", "ALTA", "Empleo");
+        indexar(2L, "Queja salario", "", "PENDIENTE", "BAJA", "Empleo");
+        indexar(3L, "Reclamo salario", "", "RESUELTO", "ALTA", "Pensiones");
+
+        IndicePqrs.ResultadoBusqueda todos = buscar("salario");
+        assertThat(todos.getTotal()).isEqualTo(3);
+        assertThat(todos.getFacetas().get(IndicePqrs.FACETA_ESTADO))
+                .containsEntry("PENDIENTE", 2L).containsEntry("RESUELTO", 1L);
+        assertThat(todos.getFacetas().get(IndicePqrs.FACETA_TEMA))
+                .containsEntry("Empleo", 2L).containsEntry("Pensiones", 1L);
+
+        IndicePqrs.ResultadoBusqueda altas = indice.buscar("salario",
+                Map.of(IndicePqrs.FACETA_PRIORIDAD, "ALTA"), null, 10);
+        assertThat(altas.getIds()).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(altas.getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void paginaPorCursorSinRepetirNiSaltar() throws Exception {
+        for (long id = 1; id <= 7; id++) {
+            indexar(id, "Solicitud " + id, "trámite", "PENDIENTE", "MEDIA", "Empleo");
+        }
+
+        List<Long> vistos = new ArrayList<>();
+        String cursor = null;
+        do {
+            IndicePqrs.ResultadoBusqueda pagina = indice.buscar("tramite", Map.of(), cursor, 3);
+            vistos.addAll(pagina.getIds());
+            cursor = pagina.getNextCursor();
+            assertThat(pagina.isHasNext()).isEqualTo(cursor != null);
+        } while (cursor != null);
+
+        // Misma relevancia: de la más reciente a la más antigua
+        assertThat(vistos).containsExactly(7L, 6L, 5L, 4L, 3L, 2L, 1L);
+    }
+
+    @Test
+    void sinTextoDevuelveTodasDeLaMasReciente() throws Exception {
+        indexar(1L, "Uno", "", "PENDIENTE", "MEDIA", "Empleo");
+        indexar(2L, "Dos", "", "PENDIENTE", "MEDIA", "Empleo");
+
+        assertThat(indice.buscar("  ", Map.of(), null, 10).getIds()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void laReconstruccionDescartaLoQueNoSeVolvioAIndexar() throws Exception {
+        indexar(1L, "Petición", "", "PENDIENTE", "MEDIA", "Empleo");
+        indexar(2L, "Petición", "", "PENDIENTE", "MEDIA", "Empleo");
+
+        long generacion = indice.iniciarReconstruccion();
+        indexar(2L, "Petición", "", "PENDIENTE", "MEDIA", "Empleo");
+        indice.terminarReconstruccion(generacion);
+
+        assertThat(buscar("peticion").getIds()).containsExactly(2L);
+    }
+
+    @Test
+    void rechazaCursoresInvalidos() {
+        assertThatThrownBy(() -> indice.buscar("x", Map.of(), "no-es-un-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private IndicePqrs.ResultadoBusqueda buscar(String texto) throws Exception {
+        return indice.buscar(texto, Map.of(), null, 10);
+    }
+
+    private void indexar(Long id, String titulo, String descripcion, String estado, String prioridad,
+            String tema) throws Exception {
+        indice.indexar(pqrs(id, titulo, descripcion, estado, prioridad, tema), List.of(), List.of());
+    }
+
+    private Pqrs pqrs(Long id, String titulo, String descripcion, String estado, String prioridad, String tema) {
+        TemasPqrs temaPqrs = new TemasPqrs();
+        temaPqrs.setNombre(tema);
+        Pqrs pqrs = new Pqrs();
+        pqrs.setIdPqrs(id);
+        pqrs.setTitulo(titulo);
+        pqrs.setDescripcion(descripcion);
+        pqrs.setEstadoPqrs(estado);
+        pqrs.setPrioridad(prioridad);
+        pqrs.setTema(temaPqrs);
+        return pqrs;
+    }
+}
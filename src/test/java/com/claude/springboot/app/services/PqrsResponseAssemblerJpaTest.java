@@ -0,0 +1,150 @@
+package com.claude.springboot.app.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.claude.springboot.app.dto.PqrsResponseDTO;
+import com.claude.springboot.app.entities.Pqrs;
+import com.claude.springboot.app.entities.SeguimientoPqrs;
+import com.claude.springboot.app.entities.TemasPqrs;
+import com.claude.springboot.app.repositories.PqrsRepository;
+import com.claude.springboot.app.security.entities.Area;
+import com.claude.springboot.app.security.entities.Direccion;
+import com.claude.springboot.app.security.entities.Empresa;
+import com.claude.springboot.app.security.entities.Persona;
+import com.claude.springboot.app.security.entities.Rol;
+import com.claude.springboot.app.security.entities.Territorial;
+import com.claude.springboot.app.security.entities.Usuario;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Cuenta las sentencias SQL reales (estadísticas de Hibernate sobre H2) que
+ * ejecuta el armado de un listado: deben ser las mismas con 1 o con 100
+ * solicitudes, incluidas las relaciones perezosas que recorre el DTO. Cada
+ * solicitud tiene su propio tema, área y asignado para que un JOIN FETCH
+ * faltante se note como una consulta por fila.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@Import(PqrsResponseAssembler.class)
+class PqrsResponseAssemblerJpaTest {
+
+    private static final int SEGUIMIENTOS_POR_PQRS = 3;
+
+    /** Una consulta para las solicitudes con sus relaciones y otra para los seguimientos. */
+    private static final long SENTENCIAS_ESPERADAS = 2;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PqrsRepository pqrsRepository;
+
+    @Autowired
+    private PqrsResponseAssembler assembler;
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 10, 100 })
+    void lasSentenciasNoCrecenConElTamanoDeLaPagina(int tamano) {
+        crearSolicitudes(tamano);
+        entityManager.flush();
+        entityManager.clear();
+        List<Pqrs> pagina = pqrsRepository.findAll();
+
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        List<PqrsResponseDTO> resultado = assembler.ensamblar(pagina);
+
+        assertThat(resultado).hasSize(tamano);
+        assertThat(resultado).allSatisfy(dto -> {
+            String sufijo = dto.getNumeroRadicado().substring("RAD-".length());
+            assertThat(dto.getTema().getArea().getNombre()).isEqualTo("Área " + sufijo);
+            assertThat(dto.getUsuarioAsignado().getNombreCompleto()).isEqualTo("Ana Pérez " + sufijo);
+            assertThat(dto.getSeguimientos()).hasSize(SEGUIMIENTOS_POR_PQRS)
+                    .allSatisfy(s -> assertThat(s.getUsuario().getNombreCompleto()).isEqualTo("Luis Gómez"));
+        });
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(SENTENCIAS_ESPERADAS);
+    }
+
+    private void crearSolicitudes(int cantidad) {
+        Empresa empresa = new Empresa();
+        empresa.setNombre("Empresa");
+        empresa.setNit("900");
+        entityManager.persist(empresa);
+
+        Territorial territorial = new Territorial();
+        territorial.setEmpresa(empresa);
+        territorial.setNombre("Territorial");
+        entityManager.persist(territorial);
+
+        Direccion direccion = new Direccion();
+        direccion.setTerritorial(territorial);
+        direccion.setNombre("Dirección");
+        entityManager.persist(direccion);
+
+        Rol rol = new Rol();
+        rol.setNombre("FUNCIONARIO");
+        entityManager.persist(rol);
+
+        Usuario autor = crearUsuario("luis", "Luis", "Gómez", rol);
+
+        for (int i = 0; i < cantidad; i++) {
+            Area area = new Area();
+            area.setDireccion(direccion);
+            area.setNombre("Área " + i);
+            entityManager.persist(area);
+
+            TemasPqrs tema = new TemasPqrs();
+            tema.setArea(area);
+            tema.setNombre("Tema " + i);
+            entityManager.persist(tema);
+
+            Pqrs pqrs = new Pqrs();
+            pqrs.setNumeroRadicado("RAD-" + i);
+            pqrs.setTitulo("Solicitud " + i);
+            pqrs.setTema(tema);
+            pqrs.setUsuarioAsignado(crearUsuario("ana" + i, "Ana", "Pérez " + i, rol));
+            entityManager.persist(pqrs);
+
+            for (int j = 0; j < SEGUIMIENTOS_POR_PQRS; j++) {
+                SeguimientoPqrs seguimiento = new SeguimientoPqrs();
+                seguimiento.setPqrs(pqrs);
+                seguimiento.setUsuario(autor);
+                seguimiento.setComentario("Comentario " + j);
+                entityManager.persist(seguimiento);
+            }
+        }
+    }
+
+    private Usuario crearUsuario(String username, String nombres, String apellidos, Rol rol) {
+        Persona persona = new Persona();
+        persona.setNombres(nombres);
+        persona.setApellidos(apellidos);
+        entityManager.persist(persona);
+
+        Usuario usuario = new Usuario();
+        usuario.setUsername(username);
+        usuario.setPersona(persona);
+        usuario.setRol(rol);
+        entityManager.persist(usuario);
+        return usuario;
+    }
+}
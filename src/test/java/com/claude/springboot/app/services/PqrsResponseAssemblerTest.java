@@ -0,0 +1,137 @@
+package com.claude.springboot.app.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.claude.springboot.app.dto.PqrsResponseDTO;
+import com.claude.springboot.app.entities.Pqrs;
+import com.claude.springboot.app.entities.SeguimientoPqrs;
+import com.claude.springboot.app.entities.TemasPqrs;
+import com.claude.springboot.app.repositories.PqrsRepository;
+import com.claude.springboot.app.repositories.SeguimientoPqrsRepository;
+import com.claude.springboot.app.security.entities.Usuario;
+
+/**
+ * Verifica que el armado de un listado ejecuta un número constante de
+ * consultas sin importar el tamaño de la página.
+ */
+class PqrsResponseAssemblerTest {
+
+    private static final int SEGUIMIENTOS_POR_PQRS = 3;
+
+    private PqrsRepository pqrsRepository;
+    private SeguimientoPqrsRepository seguimientoRepository;
+    private PqrsResponseAssembler assembler;
+
+    private final List<Pqrs> tabla = new ArrayList<>();
+    private final List<SeguimientoPqrs> tablaSeguimientos = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        pqrsRepository = mock(PqrsRepository.class);
+        seguimientoRepository = mock(SeguimientoPqrsRepository.class);
+        assembler = new PqrsResponseAssembler(pqrsRepository, seguimientoRepository);
+
+        when(pqrsRepository.findConRelacionesByIdPqrsIn(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return tabla.stream().filter(p -> ids.contains(p.getIdPqrs())).collect(Collectors.toList());
+        });
+        when(seguimientoRepository.findByPqrsIdsConUsuario(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return tablaSeguimientos.stream()
+                    .filter(s -> ids.contains(s.getPqrs().getIdPqrs()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 10, 100, 500 })
+    void elNumeroDeConsultasNoCreceConElTamanoDePagina(int tamano) {
+        List<Pqrs> pagina = crearSolicitudes(tamano);
+
+        List<PqrsResponseDTO> resultado = assembler.ensamblar(pagina);
+
+        assertThat(resultado).hasSize(tamano);
+        assertThat(resultado).allSatisfy(dto -> {
+            assertThat(dto.getSeguimientos()).hasSize(SEGUIMIENTOS_POR_PQRS);
+            assertThat(dto.getTema()).isNotNull();
+        });
+        verify(pqrsRepository, times(1)).findConRelacionesByIdPqrsIn(anyCollection());
+        verify(seguimientoRepository, times(1)).findByPqrsIdsConUsuario(anyCollection());
+        verifyNoMoreInteractions(pqrsRepository, seguimientoRepository);
+    }
+
+    @Test
+    void conservaElOrdenDeLaPaginaYOrdenaSeguimientosDescendente() {
+        List<Pqrs> pagina = crearSolicitudes(5);
+        List<Pqrs> invertida = new ArrayList<>(pagina);
+        Collections.reverse(invertida);
+
+        List<PqrsResponseDTO> resultado = assembler.ensamblar(invertida);
+
+        assertThat(resultado).extracting(PqrsResponseDTO::getIdPqrs)
+                .containsExactly(5L, 4L, 3L, 2L, 1L);
+        assertThat(resultado.get(0).getSeguimientos())
+                .extracting(s -> s.getFechaCreacion())
+                .isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertThat(resultado.get(0).getSeguimientos().get(0).getUsuario().getEmail())
+                .isEqualTo("funcionario@mintrabajo.gov.co");
+    }
+
+    @Test
+    void listasGrandesSePartenEnLotesParaSqlServer() {
+        int tamano = PqrsResponseAssembler.TAMANO_LOTE_IDS * 2 + 1;
+        List<Pqrs> pagina = crearSolicitudes(tamano);
+
+        assertThat(assembler.ensamblar(pagina)).hasSize(tamano);
+        verify(pqrsRepository, times(3)).findConRelacionesByIdPqrsIn(anyCollection());
+        verify(seguimientoRepository, times(3)).findByPqrsIdsConUsuario(anyCollection());
+    }
+
+    private List<Pqrs> crearSolicitudes(int cantidad) {
+        TemasPqrs tema = new TemasPqrs();
+        tema.setIdTema(1L);
+        tema.setNombre("Tema");
+
+        Usuario funcionario = new Usuario();
+        funcionario.setIdUsuario(7L);
+        funcionario.setUsername("funcionario");
+
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+        List<Pqrs> pagina = new ArrayList<>();
+        for (long id = 1; id <= cantidad; id++) {
+            Pqrs pqrs = new Pqrs();
+            pqrs.setIdPqrs(id);
+            pqrs.setTema(tema);
+            pqrs.setNumeroRadicado("AMIRL-2024-01-" + id);
+            for (int i = 0; i < SEGUIMIENTOS_POR_PQRS; i++) {
+                SeguimientoPqrs seguimiento = new SeguimientoPqrs();
+                seguimiento.setIdSeguimiento(id * 10 + i);
+                seguimiento.setPqrs(pqrs);
+                seguimiento.setUsuario(funcionario);
+                seguimiento.setFechaCreacion(base.plusHours(i));
+                tablaSeguimientos.add(seguimiento);
+            }
+            tabla.add(pqrs);
+            pagina.add(pqrs);
+        }
+        return pagina;
+    }
+}
@@ -0,0 +1,182 @@
+package com.claude.springboot.app.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import com.claude.springboot.app.repositories.ArchivoAdjuntoRepository;
+import com.claude.springboot.app.repositories.ArchivoBlobRepository;
+
+/**
+ * Verifica la generación de miniaturas, vistas reducidas y texto de
+ * adjuntos.
+ */
+class ProcesadorAdjuntosTest {
+
+    @TempDir
+    Path uploads;
+
+    private FileStorageService storage;
+    private ProcesadorAdjuntos procesador;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.createDirectories(uploads.resolve("2024/05/10"));
+        ArchivoAdjuntoRepository repository = mock(ArchivoAdjuntoRepository.class);
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        storage = new FileStorageService(uploads.toString(), true, repository,
+                mock(ArchivoBlobRepository.class), evento -> { });
+
+        procesador = procesador(Runnable::run);
+    }
+
+    private ProcesadorAdjuntos procesador(TaskExecutor executor) {
+        ProcesadorAdjuntos nuevo = new ProcesadorAdjuntos(storage, executor);
+        ReflectionTestUtils.setField(nuevo, "ladoMiniatura", 320);
+        ReflectionTestUtils.setField(nuevo, "ladoVista", 1600);
+        ReflectionTestUtils.setField(nuevo, "umbralVista", DataSize.ofKilobytes(100));
+        ReflectionTestUtils.setField(nuevo, "maxPaginasTexto", 200);
+        return nuevo;
+    }
+
+    @Test
+    void alAlmacenarUnaImagenGrandeGeneraMiniaturaYVista() throws Exception {
+        Path foto = uploads.resolve("2024/05/10/foto.png");
+        ImageIO.write(imagenConRuido(4000, 3000), "png", foto.toFile());
+
+        procesador.alAlmacenarAdjunto(new AdjuntoAlmacenadoEvent("2024/05/10/foto.png", "image/png"));
+
+        BufferedImage miniatura = ImageIO.read(uploads.resolve("2024/05/10/foto.png.thumb.jpg").toFile());
+        assertThat(miniatura.getWidth()).isEqualTo(320);
+        assertThat(miniatura.getHeight()).isEqualTo(240);
+
+        Path vista = procesador.obtenerVista("2024/05/10/foto.png").orElseThrow();
+        assertThat(ImageIO.read(vista.toFile()).getWidth()).isEqualTo(1600);
+        assertThat(Files.size(vista)).isLessThan(Files.size(foto));
+    }
+
+    @Test
+    void imagenesLivianasNoGeneranVista() throws Exception {
+        ImageIO.write(new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB), "png",
+                uploads.resolve("2024/05/10/icono.png").toFile());
+
+        procesador.procesar("2024/05/10/icono.png", "image/png");
+
+        assertThat(procesador.obtenerVista("2024/05/10/icono.png")).isEmpty();
+        // Nunca se amplía
+        BufferedImage miniatura = ImageIO.read(procesador.solicitarMiniatura("2024/05/10/icono.png")
+                .getArchivo().orElseThrow().toFile());
+        assertThat(miniatura.getWidth()).isEqualTo(200);
+    }
+
+    @Test
+    void extraeTextoYMiniaturaDeUnPdf() throws Exception {
+        crearPdf(uploads.resolve("2024/05/10/acta.pdf"), "Derecho de peticion radicado");
+
+        procesador.procesar("2024/05/10/acta.pdf", "application/pdf");
+
+        assertThat(Files.readString(uploads.resolve("2024/05/10/acta.pdf.txt")))
+                .contains("Derecho de peticion radicado");
+        BufferedImage miniatura = ImageIO.read(uploads.resolve("2024/05/10/acta.pdf.thumb.jpg").toFile());
+        assertThat(Math.max(miniatura.getWidth(), miniatura.getHeight())).isEqualTo(320);
+    }
+
+    @Test
+    void generaElTextoAlPedirloSiNoSeProceso() throws Exception {
+        crearPdf(uploads.resolve("2024/05/10/anterior.pdf"), "Adjunto anterior");
+
+        Path texto = procesador.obtenerTexto("2024/05/10/anterior.pdf").orElseThrow();
+
+        assertThat(Files.readString(texto)).contains("Adjunto anterior");
+    }
+
+    @Test
+    void alPedirUnDerivadoFaltanteLoEncolaUnaSolaVez() throws Exception {
+        crearPdf(uploads.resolve("2024/05/10/pendiente.pdf"), "Pendiente");
+        List<Runnable> tareas = new ArrayList<>();
+        ProcesadorAdjuntos conPool = procesador(tareas::add);
+
+        assertThat(conPool.solicitarMiniatura("2024/05/10/pendiente.pdf").getEstado())
+                .isEqualTo(ProcesadorAdjuntos.Derivado.Estado.PENDIENTE);
+        assertThat(conPool.solicitarTexto("2024/05/10/pendiente.pdf").getEstado())
+                .isEqualTo(ProcesadorAdjuntos.Derivado.Estado.PENDIENTE);
+        conPool.alAlmacenarAdjunto(new AdjuntoAlmacenadoEvent("2024/05/10/pendiente.pdf", "application/pdf"));
+
+        // Nada se generó en el hilo que pidió, y hay una sola tarea para el adjunto
+        assertThat(uploads.resolve("2024/05/10/pendiente.pdf.thumb.jpg")).doesNotExist();
+        assertThat(tareas).hasSize(1);
+
+        tareas.get(0).run();
+        assertThat(conPool.solicitarTexto("2024/05/10/pendiente.pdf").getEstado())
+                .isEqualTo(ProcesadorAdjuntos.Derivado.Estado.LISTO);
+        assertThat(conPool.solicitarMiniatura("2024/05/10/pendiente.pdf").getArchivo()).isPresent();
+    }
+
+    @Test
+    void conElPoolLlenoOTipoSinDerivadoNoGenera() throws Exception {
+        crearPdf(uploads.resolve("2024/05/10/rechazado.pdf"), "Rechazado");
+        Files.writeString(uploads.resolve("2024/05/10/notas.csv"), "a;b");
+        ProcesadorAdjuntos lleno = procesador(tarea -> {
+            throw new TaskRejectedException("lleno");
+        });
+
+        assertThat(lleno.solicitarMiniatura("2024/05/10/rechazado.pdf").getEstado())
+                .isEqualTo(ProcesadorAdjuntos.Derivado.Estado.OCUPADO);
+        assertThat(uploads.resolve("2024/05/10/rechazado.pdf.thumb.jpg")).doesNotExist();
+        assertThat(lleno.solicitarTexto("2024/05/10/notas.csv").getEstado())
+                .isEqualTo(ProcesadorAdjuntos.Derivado.Estado.NO_DISPONIBLE);
+    }
+
+    private BufferedImage imagenConRuido(int ancho, int alto) {
+        BufferedImage imagen = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(7);
+        Graphics2D g = imagen.createGraphics();
+        for (int i = 0; i < 3000; i++) {
+            g.setColor(new Color(random.nextInt(0xFFFFFF)));
+            g.fillRect(random.nextInt(ancho), random.nextInt(alto), 80, 80);
+        }
+        g.dispose();
+        return imagen;
+    }
+
+    private void crearPdf(Path destino, String texto) throws Exception {
+        try (PDDocument documento = new PDDocument()) {
+            PDPage pagina = new PDPage();
+            documento.addPage(pagina);
+            try (PDPageContentStream contenido = new PDPageContentStream(documento, pagina)) {
+                contenido.beginText();
+                contenido.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                contenido.newLineAtOffset(72, 700);
+                contenido.showText(texto);
+                contenido.endText();
+            }
+            documento.save(destino.toFile());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.claude.springboot.app.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Genera radicados desde varios hilos (y varias instancias, como si fueran
+ * nodos distintos) contra un contador compartido que simula la fila
+ * bloqueada de radicado_secuencia.
+ */
+class RadicadoGeneratorServiceTest {
+
+    private static final int TAMANO_BLOQUE = 50;
+
+    /** Contador "en base de datos": la reserva es atómica como el UPDATE con bloqueo. */
+    private final Map<String, Long> tablaSecuencias = new HashMap<>();
+
+    private RadicadoSecuenciaAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        allocator = mock(RadicadoSecuenciaAllocator.class);
+        when(allocator.reservarBloque(anyString(), anyInt())).thenAnswer(inv -> {
+            String prefijo = inv.getArgument(0);
+            int tamano = inv.getArgument(1);
+            // Latencia de la ida a la base para provocar contención real
+            Thread.sleep(2);
+            synchronized (tablaSecuencias) {
+                long ultimo = tablaSecuencias.getOrDefault(prefijo, 0L);
+                tablaSecuencias.put(prefijo, ultimo + tamano);
+                return ultimo + 1;
+            }
+        });
+    }
+
+    @Test
+    void radicadosUnicosBajoContencionEntreHilosYNodos() throws Exception {
+        int nodos = 3;
+        int hilosPorNodo = 8;
+        int radicadosPorHilo = 200;
+
+        List<RadicadoGeneratorService> generadores = new ArrayList<>();
+        ExecutorService reservas = Executors.newFixedThreadPool(nodos);
+        for (int i = 0; i < nodos; i++) {
+            generadores.add(crearGenerador(reservas::execute));
+        }
+
+        Set<String> emitidos = ConcurrentHashMap.newKeySet();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(nodos * hilosPorNodo + nodos);
+        List<Future<Integer>> resultados = new ArrayList<>();
+        try {
+            for (RadicadoGeneratorService generador : generadores) {
+                for (int h = 0; h < hilosPorNodo; h++) {
+                    resultados.add(pool.submit(() -> {
+                        salida.await();
+                        int duplicados = 0;
+                        for (int i = 0; i < radicadosPorHilo; i++) {
+                            if (!emitidos.add(generador.generarNumeroRadicado())) {
+                                duplicados++;
+                            }
+                        }
+                        return duplicados;
+                    }));
+                }
+            }
+            salida.countDown();
+
+            int duplicados = 0;
+            for (Future<Integer> resultado : resultados) {
+                duplicados += resultado.get(60, TimeUnit.SECONDS);
+            }
+
+            int total = nodos * hilosPorNodo * radicadosPorHilo;
+            assertThat(duplicados).isZero();
+            assertThat(emitidos).hasSize(total);
+            assertThat(emitidos).allMatch(r -> r.matches("AMIRL-\\d{4}-\\d{2}-\\d{4,}"));
+
+            // Cada nodo va a la base una vez por bloque; al arrancar sin bloques
+            // pueden reservar a la vez todos sus hilos, y queda uno de reserva
+            int reservasMaximas = total / TAMANO_BLOQUE + nodos * (hilosPorNodo + 2);
+            verify(allocator, atMost(reservasMaximas)).reservarBloque(anyString(), anyInt());
+        } finally {
+            pool.shutdownNow();
+            reservas.shutdownNow();
+        }
+    }
+
+    @Test
+    void laPeticionSoloReservaSiNoHayBloqueDeReservaYSinTomarElMonitor() throws Exception {
+        Deque<Runnable> pendientes = new ArrayDeque<>();
+        RadicadoGeneratorService generador = crearGenerador(pendientes::add);
+
+        // Sin bloques: la primera petición reserva y deja pedido el siguiente
+        String primero = generador.generarNumeroRadicado();
+        assertThat(primero).endsWith("-0001");
+        verify(allocator, times(1)).reservarBloque(anyString(), anyInt());
+        assertThat(pendientes).hasSize(1);
+        pendientes.poll().run();
+
+        // Con la reposición en segundo plano las peticiones ya no van a la base
+        for (int i = 1; i < TAMANO_BLOQUE * 3; i++) {
+            generador.generarNumeroRadicado();
+            Runnable reposicion = pendientes.poll();
+            if (reposicion != null) {
+                reposicion.run();
+            }
+        }
+        verify(allocator, times(4)).reservarBloque(anyString(), anyInt());
+
+        // Una reserva lenta en la petición no frena a los hilos que aún tienen números
+        CountDownLatch reservando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        RadicadoSecuenciaAllocator lento = mock(RadicadoSecuenciaAllocator.class);
+        when(lento.reservarBloque(anyString(), anyInt())).thenAnswer(inv -> {
+            reservando.countDown();
+            liberar.await(10, TimeUnit.SECONDS);
+            return 1L;
+        }).thenReturn(TAMANO_BLOQUE + 1L);
+        RadicadoGeneratorService conBloqueo = new RadicadoGeneratorService(lento, pendientes::add);
+        ReflectionTestUtils.setField(conBloqueo, "tamanoBloque", TAMANO_BLOQUE);
+        pendientes.clear();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> bloqueado = pool.submit(conBloqueo::generarNumeroRadicado);
+            assertThat(reservando.await(10, TimeUnit.SECONDS)).isTrue();
+            pendientes.poll().run();
+            assertThat(conBloqueo.generarNumeroRadicado()).endsWith("-0051");
+            liberar.countDown();
+            assertThat(bloqueado.get(10, TimeUnit.SECONDS)).endsWith("-0052");
+        } finally {
+            liberar.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void reintentaSiOtroNodoCreaLaSecuenciaALaVez() {
+        RadicadoSecuenciaAllocator conflicto = mock(RadicadoSecuenciaAllocator.class);
+        when(conflicto.reservarBloque(anyString(), anyInt()))
+                .thenThrow(new DataIntegrityViolationException("PK_radicado_secuencia"))
+                .thenReturn(51L);
+        RadicadoGeneratorService generador = new RadicadoGeneratorService(conflicto, tarea -> { });
+        ReflectionTestUtils.setField(generador, "tamanoBloque", TAMANO_BLOQUE);
+
+        assertThat(generador.generarNumeroRadicado()).endsWith("-0051");
+        verify(conflicto, times(2)).reservarBloque(anyString(), anyInt());
+    }
+
+    private RadicadoGeneratorService crearGenerador(TaskExecutor reposicion) {
+        RadicadoGeneratorService generador = new RadicadoGeneratorService(allocator, reposicion);
+        ReflectionTestUtils.setField(generador, "tamanoBloque", TAMANO_BLOQUE);
+        return generador;
+    }
+}
@@ -0,0 +1,127 @@
+package com.claude.springboot.app.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.claude.springboot.app.config.CacheConfig;
+import com.claude.springboot.app.repositories.PqrsRepository;
+
+/**
+ * Verifica los desgloses del reporte en una sola pasada y la caché de
+ * períodos cerrados.
+ */
+class ReportePqrsServiceTest {
+
+    private static final LocalDateTime ENERO = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime FIN_MARZO = LocalDateTime.of(2024, 3, 31, 23, 59, 59);
+
+    private PqrsRepository repository;
+    private ReportePqrsService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PqrsRepository.class);
+        when(repository.streamReporte(any(), any())).thenAnswer(inv -> filas());
+        service = new ReportePqrsService(repository, new CacheConfig(new MockEnvironment()).cacheManager());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void calculaTodosLosDesglosesEnUnRecorrido() {
+        Map<String, Object> reporte = service.generar(ENERO, FIN_MARZO);
+
+        verify(repository, times(1)).streamReporte(ENERO, FIN_MARZO);
+        assertThat(reporte.get("totalPqrs")).isEqualTo(4L);
+        assertThat((List<Map<String, Object>>) reporte.get("porEstado")).containsExactly(
+                Map.of("estado", "PENDIENTE", "cantidad", 3L),
+                Map.of("estado", "RESUELTO", "cantidad", 1L));
+        assertThat((List<Map<String, Object>>) reporte.get("porArea")).containsExactly(
+                Map.of("area", "Empleo", "cantidad", 3L),
+                Map.of("area", "Pensiones", "cantidad", 1L));
+        assertThat((List<Map<String, Object>>) reporte.get("porAreaResponsable")).containsExactly(
+                Map.of("area", "Inspección", "cantidad", 4L));
+        assertThat((List<Map<String, Object>>) reporte.get("tendenciaMensual")).containsExactly(
+                Map.of("mes", "2024-01", "cantidad", 2L),
+                Map.of("mes", "2024-03", "cantidad", 2L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void calculaPercentilesDelTiempoDeRespuesta() {
+        Map<String, Object> tiempo = (Map<String, Object>) service.generar(ENERO, FIN_MARZO).get("tiempoRespuesta");
+
+        // Respuestas en 1, 3 y 10 días; la PQRS sin actualización no cuenta
+        assertThat(tiempo.get("cantidad")).isEqualTo(3L);
+        assertThat(tiempo.get("promedio")).isEqualTo(4.67);
+        assertThat(tiempo.get("p50")).isEqualTo(3);
+        assertThat(tiempo.get("p90")).isEqualTo(10);
+        assertThat(tiempo.get("maximo")).isEqualTo(10);
+    }
+
+    @Test
+    void guardaLosPeriodosCerrados() {
+        service.generar(ENERO, FIN_MARZO);
+        service.generar(ENERO, FIN_MARZO);
+
+        verify(repository, times(1)).streamReporte(ENERO, FIN_MARZO);
+    }
+
+    @Test
+    void noGuardaElPeriodoEnCurso() {
+        LocalDateTime hoy = LocalDate.now().atStartOfDay();
+        service.generar(ENERO, hoy.plusHours(12));
+        service.generar(ENERO, hoy.plusHours(12));
+
+        verify(repository, times(2)).streamReporte(ENERO, hoy.plusHours(12));
+    }
+
+    @Test
+    void modificarUnaPqrsSoloDescartaLosPeriodosQueLaIncluyen() {
+        LocalDateTime inicioAbril = LocalDateTime.of(2024, 4, 1, 0, 0);
+        LocalDateTime finAbril = LocalDateTime.of(2024, 4, 30, 23, 59, 59);
+        service.generar(ENERO, FIN_MARZO);
+        service.generar(inicioAbril, finAbril);
+        when(repository.findFechaCreacionByIdPqrs(5L)).thenReturn(Optional.of(LocalDateTime.of(2024, 2, 10, 8, 0)));
+
+        service.alModificarPqrs(new PqrsModificadaEvent(5L));
+        service.generar(ENERO, FIN_MARZO);
+        service.generar(inicioAbril, finAbril);
+
+        verify(repository, times(2)).streamReporte(ENERO, FIN_MARZO);
+        verify(repository, times(1)).streamReporte(inicioAbril, finAbril);
+    }
+
+    @Test
+    void rechazaRangosInvertidos() {
+        assertThatThrownBy(() -> service.generar(FIN_MARZO, ENERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Stream<Object[]> filas() {
+        return Stream.of(
+                new Object[] { "PENDIENTE", "ALTA", "Empleo", "Inspección",
+                        LocalDateTime.of(2024, 1, 5, 9, 0), LocalDateTime.of(2024, 1, 6, 8, 0) },
+                new Object[] { "PENDIENTE", "MEDIA", "Empleo", "Inspección",
+                        LocalDateTime.of(2024, 1, 20, 23, 0), LocalDateTime.of(2024, 1, 23, 1, 0) },
+                new Object[] { "RESUELTO", "ALTA", "Pensiones", "Inspección",
+                        LocalDateTime.of(2024, 3, 1, 10, 0), LocalDateTime.of(2024, 3, 11, 10, 0) },
+                new Object[] { "PENDIENTE", "BAJA", "Empleo", "Inspección",
+                        LocalDateTime.of(2024, 3, 15, 10, 0), null });
+    }
+}
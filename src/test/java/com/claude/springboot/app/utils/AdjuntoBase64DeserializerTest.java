@@ -0,0 +1,140 @@
+package com.claude.springboot.app.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.claude.springboot.app.dto.CrearPqrsDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+/**
+ * Verifica la decodificación por bloques del adjunto base64 de
+ * {@link CrearPqrsDTO} a un archivo temporal.
+ */
+class AdjuntoBase64DeserializerTest {
+
+    private static final byte[] CABECERA_PNG = { (byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A };
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private AdjuntoBase64 adjunto;
+
+    @AfterEach
+    void tearDown() {
+        if (adjunto != null) {
+            adjunto.descartar();
+        }
+    }
+
+    @Test
+    void detectaElTipoPorLosPrimerosBytes() throws Exception {
+        byte[] contenido = contenidoConCabecera(CABECERA_PNG, 50_000);
+
+        adjunto = leer(Base64.getEncoder().encodeToString(contenido));
+
+        assertThat(adjunto.getContentType()).isEqualTo("image/png");
+        assertThat(adjunto.getOriginalFilename()).isEqualTo("archivo_adjunto.png");
+        assertThat(adjunto.getSize()).isEqualTo(contenido.length);
+        assertThat(adjunto.getBytes()).isEqualTo(contenido);
+    }
+
+    @Test
+    void respetaElTipoDeclaradoEnUnDataUrl() throws Exception {
+        byte[] contenido = "%PDF-1.4 contenido".getBytes(StandardCharsets.US_ASCII);
+
+        adjunto = leer("data:application/pdf;base64," + Base64.getEncoder().encodeToString(contenido));
+
+        assertThat(adjunto.getContentType()).isEqualTo("application/pdf");
+        assertThat(adjunto.getOriginalFilename()).isEqualTo("archivo_adjunto.pdf");
+        assertThat(adjunto.getBytes()).isEqualTo(contenido);
+    }
+
+    @Test
+    void decodificaContenidoQueOcupaVariosBloques() throws Exception {
+        // Tamaño que no cae en un borde de bloque ni de grupo de 4 caracteres
+        int tamano = AdjuntoBase64Deserializer.CARACTERES_POR_BLOQUE * 40 + 7;
+        byte[] contenido = contenidoConCabecera(new byte[0], tamano);
+
+        adjunto = leer(Base64.getMimeEncoder().encodeToString(contenido));
+
+        assertThat(adjunto.getSize()).isEqualTo(tamano);
+        assertThat(adjunto.getBytes()).isEqualTo(contenido);
+    }
+
+    @Test
+    void ignoraValoresQueNoSonBase64() throws Exception {
+        assertThat(leer("documento.pdf")).isNull();
+        assertThat(leer("")).isNull();
+        assertThat(leer("data:application/pdf,texto")).isNull();
+    }
+
+    @Test
+    void transferToMueveElTemporalAlDestino(@TempDir Path destino) throws Exception {
+        byte[] contenido = contenidoConCabecera(CABECERA_PNG, 1_000);
+        adjunto = leer(Base64.getEncoder().encodeToString(contenido));
+        Path archivo = destino.resolve("final.png");
+
+        adjunto.transferTo(archivo);
+
+        assertThat(Files.readAllBytes(archivo)).isEqualTo(contenido);
+    }
+
+    @Test
+    void siFallaOtroCampoElTemporalSeBorraAlTerminarLaPeticion() throws Exception {
+        ServletRequestAttributes peticion = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(peticion);
+        Set<Path> antes = temporales();
+        try {
+            String base64 = Base64.getEncoder().encodeToString(contenidoConCabecera(CABECERA_PNG, 1_000));
+            String json = "{\"archivoAdjunto\":\"" + base64 + "\",\"idTema\":\"no-es-numero\"}";
+
+            assertThatThrownBy(() -> mapper.readValue(json, CrearPqrsDTO.class))
+                    .isInstanceOf(InvalidFormatException.class);
+            Set<Path> creados = temporales();
+            creados.removeAll(antes);
+            assertThat(creados).hasSize(1);
+
+            peticion.requestCompleted();
+
+            assertThat(creados).allSatisfy(temporal -> assertThat(temporal).doesNotExist());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private Set<Path> temporales() throws Exception {
+        try (Stream<Path> archivos = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return archivos.filter(p -> p.getFileName().toString().startsWith("adjunto-"))
+                    .collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+
+    private AdjuntoBase64 leer(String valor) throws Exception {
+        String json = mapper.writeValueAsString(Map.of("titulo", "t", "archivoAdjunto", valor));
+        return mapper.readValue(json, CrearPqrsDTO.class).getArchivoAdjunto();
+    }
+
+    private byte[] contenidoConCabecera(byte[] cabecera, int tamano) {
+        byte[] contenido = new byte[tamano];
+        new Random(42).nextBytes(contenido);
+        System.arraycopy(cabecera, 0, contenido, 0, cabecera.length);
+        return contenido;
+    }
+}
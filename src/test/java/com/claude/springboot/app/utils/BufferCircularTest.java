@@ -0,0 +1,96 @@
+package com.claude.springboot.app.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifica el orden, el rechazo cuando está lleno y que con varios
+ * productores concurrentes no se pierden ni se duplican elementos.
+ */
+class BufferCircularTest {
+
+    @Test
+    void redondeaLaCapacidadYRechazaCuandoEstaLleno() {
+        BufferCircular<Integer> buffer = new BufferCircular<>(3);
+
+        assertThat(buffer.getCapacidad()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.ofrecer(i)).isTrue();
+        }
+        assertThat(buffer.ofrecer(99)).isFalse();
+        assertThat(buffer.tamano()).isEqualTo(4);
+        assertThatThrownBy(() -> new BufferCircular<>(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void entregaEnOrdenYReutilizaLasCeldas() {
+        BufferCircular<Integer> buffer = new BufferCircular<>(4);
+        List<Integer> sacados = new ArrayList<>();
+
+        for (int vuelta = 0; vuelta < 3; vuelta++) {
+            for (int i = 0; i < 3; i++) {
+                buffer.ofrecer(vuelta * 10 + i);
+            }
+            assertThat(buffer.drenar(sacados::add, 2)).isEqualTo(2);
+            assertThat(buffer.drenar(sacados::add, 10)).isEqualTo(1);
+        }
+
+        assertThat(sacados).containsExactly(0, 1, 2, 10, 11, 12, 20, 21, 22);
+        assertThat(buffer.sacar()).isNull();
+        assertThat(buffer.tamano()).isZero();
+    }
+
+    @Test
+    void variosProductoresConUnConsumidorNoPierdenNiDuplican() throws Exception {
+        int productores = 4;
+        int porProductor = 20_000;
+        BufferCircular<Integer> buffer = new BufferCircular<>(256);
+        ExecutorService pool = Executors.newFixedThreadPool(productores);
+        CountDownLatch listos = new CountDownLatch(productores);
+        AtomicInteger terminados = new AtomicInteger();
+        try {
+            for (int p = 0; p < productores; p++) {
+                int base = p * porProductor;
+                pool.execute(() -> {
+                    listos.countDown();
+                    for (int i = 0; i < porProductor; i++) {
+                        while (!buffer.ofrecer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    terminados.incrementAndGet();
+                });
+            }
+            listos.await();
+
+            Set<Integer> vistos = new HashSet<>();
+            List<Integer> duplicados = new ArrayList<>();
+            while (terminados.get() < productores || buffer.tamano() > 0) {
+                buffer.drenar(valor -> {
+                    if (!vistos.add(valor)) {
+                        duplicados.add(valor);
+                    }
+                }, 64);
+            }
+            buffer.drenar(vistos::add, Integer.MAX_VALUE);
+
+            assertThat(duplicados).isEmpty();
+            assertThat(vistos).hasSize(productores * porProductor);
+        } finally {
+            pool.shutdownNow();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
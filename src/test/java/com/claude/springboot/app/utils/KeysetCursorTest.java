@@ -0,0 +1,51 @@
+package com.claude.springboot.app.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Verifica que el cursor de keyset se decodifica igual que se codificó y que
+ * un cursor mal formado o de otro listado se rechaza con
+ * IllegalArgumentException (que los controladores responden con 400).
+ */
+class KeysetCursorTest {
+
+    @Test
+    void decodificaLoQueCodifica() {
+        assertThat(KeysetCursor.decodificar(KeysetCursor.codificar(42L))).isEqualTo(42L);
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = { "  " })
+    void sinCursorEsLaPrimeraPagina(String cursor) {
+        assertThat(KeysetCursor.decodificar(cursor)).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "no*es*base64", "idPqrs:42" })
+    void rechazaCursoresMalFormados(String cursor) {
+        assertThatThrownBy(() -> KeysetCursor.decodificar(cursor))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor de paginación inválido");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "idPqrs:", "idPqrs:abc", "otro:42", "busqueda:1065353216:42" })
+    void rechazaCursoresDeOtroFormato(String valor) {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> KeysetCursor.decodificar(cursor))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor de paginación inválido");
+    }
+}